@@ -0,0 +1,136 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
+import nz.ac.canterbury.seng302.homehelper.service.JobService;
+import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of searching the posted jobs with {@link JobService#getFilteredJobs}. The filtering and paging are done by
+ * the database, so the jobs are stored in an in-memory H2 database with the app's schema rather than in a list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class JobSearchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int jobCount;
+
+    private ConfigurableApplicationContext context;
+    private JobService jobService;
+    private int lastPage;
+
+    private final JobFilter noFilter = new JobFilter(null, null, null, null, null, null);
+    private final JobFilter cityAndKeywordFilter = new JobFilter("job 12", null, "christchurch", null, null, null);
+    private final JobFilter dateFilter = new JobFilter(null, null, null, null, "01/01/2000", "01/01/2001");
+
+    /**
+     * Only the database, JPA and the repositories are started, not the rest of the app
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Job.class)
+    @EnableJpaRepositories(basePackageClasses = JobRepository.class)
+    static class DatabaseConfig {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DatabaseConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--logging.level.root=WARN");
+        seedJobs(context.getBean(JdbcTemplate.class), jobCount);
+        jobService = new JobService(context.getBean(JobRepository.class), context.getBean(RoomRepository.class),
+                new ValidationService(), new JobLocationIndex(), context.getBean(ImageStore.class));
+        lastPage = jobService.getFilteredJobs(noFilter, 1).getTotalPages();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Inserts the jobs with one statement per table, which is much faster than saving millions of entities.
+     * There is one renovation record for every ten jobs and one job in ten is not posted.
+     * @param jdbcTemplate template for the benchmark database
+     * @param count number of jobs to insert
+     */
+    private static void seedJobs(JdbcTemplate jdbcTemplate, int count) {
+        int recordCount = Math.max(count / 10, 1);
+        jdbcTemplate.update("""
+                INSERT INTO renovation_record (name, description, user_email, city, suburb, is_public, latitude, longitude)
+                SELECT 'Record ' || n, 'Renovation record ' || n, 'owner' || MOD(n, 1000) || '@example.com',
+                    CASE MOD(n, 5) WHEN 0 THEN 'Christchurch' WHEN 1 THEN 'Auckland' WHEN 2 THEN 'Wellington'
+                        WHEN 3 THEN 'Dunedin' ELSE 'Nelson' END,
+                    CASE MOD(n, 5) WHEN 0 THEN 'Riccarton' WHEN 1 THEN 'Ilam' WHEN 2 THEN 'Fendalton'
+                        WHEN 3 THEN 'Sumner' ELSE 'Addington' END,
+                    FALSE, 0, 0
+                FROM SYSTEM_RANGE(0, ? - 1) AS ids(n)
+                """, recordCount);
+        jdbcTemplate.update("""
+                INSERT INTO job (name, description, status, type, is_posted, renovation_record_id, last_updated,
+                    start_local_date, start_date, due_local_date, due_date)
+                SELECT name, description, status, type, is_posted, renovation_record_id, last_updated,
+                    start_local_date, FORMATDATETIME(start_local_date, 'dd/MM/yyyy'),
+                    due_local_date, FORMATDATETIME(due_local_date, 'dd/MM/yyyy')
+                FROM (SELECT 'Job ' || n AS name, 'Description of job ' || n AS description,
+                        'Not Started' AS status,
+                        CASE MOD(n, 3) WHEN 0 THEN 'Plumbing' WHEN 1 THEN 'Electrical' ELSE 'Carpentry' END AS type,
+                        MOD(n, 10) <> 0 AS is_posted, MOD(n, ?) + 1 AS renovation_record_id,
+                        CURRENT_TIMESTAMP AS last_updated,
+                        DATEADD(DAY, MOD(n, 3650), DATE '2000-01-01') AS start_local_date,
+                        DATEADD(DAY, MOD(n, 3650) + 30, DATE '2000-01-01') AS due_local_date
+                    FROM SYSTEM_RANGE(0, ? - 1) AS ids(n))
+                """, recordCount, count);
+    }
+
+    @Benchmark
+    public Page<Job> firstPageNoFilter() {
+        return jobService.getFilteredJobs(noFilter, 1);
+    }
+
+    @Benchmark
+    public Page<Job> lastPageNoFilter() {
+        return jobService.getFilteredJobs(noFilter, lastPage);
+    }
+
+    @Benchmark
+    public Page<Job> cityAndKeywordFilter() {
+        return jobService.getFilteredJobs(cityAndKeywordFilter, 1);
+    }
+
+    @Benchmark
+    public Page<Job> dateRangeFilter() {
+        return jobService.getFilteredJobs(dateFilter, 1);
+    }
+}
@@ -0,0 +1,134 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.NearbyJob;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
+import nz.ac.canterbury.seng302.homehelper.service.JobRecommendationService;
+import nz.ac.canterbury.seng302.homehelper.service.JobService;
+import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the job service methods that work through every posted job in memory. The repository is replaced by
+ * one that returns a prepared list, so only the service's own work is measured. Recommending jobs from the
+ * recommendation pools and finding nearby jobs from the job location index are measured alongside for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JobServiceBenchmark {
+
+    static final String[] CITIES = {"Christchurch", "Auckland", "Wellington", "Dunedin", "Nelson"};
+    static final String[] SUBURBS = {"Riccarton", "Ilam", "Fendalton", "Sumner", "Addington"};
+    private static final double CHRISTCHURCH_LATITUDE = -43.53;
+    private static final double CHRISTCHURCH_LONGITUDE = 172.63;
+
+    @Param({"1000", "100000", "1000000"})
+    public int jobCount;
+
+    private JobService jobService;
+    private JobRecommendationService jobRecommendationService;
+    private JobLocationIndex jobLocationIndex;
+    private List<Job> jobs;
+    private List<JobLocation> jobLocations;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jobs = createPostedJobs(jobCount);
+        JobRepository jobRepository = (JobRepository) Proxy.newProxyInstance(JobRepository.class.getClassLoader(),
+                new Class<?>[] {JobRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findPostedJobs")) {
+                        return jobs;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        jobLocations = jobs.stream().map(JobLocation::of).toList();
+        jobLocationIndex = new JobLocationIndex();
+        jobLocationIndex.startRebuild();
+        jobLocationIndex.finishRebuild(jobLocations);
+        jobService = new JobService(jobRepository, null, new ValidationService(), jobLocationIndex,
+                new ImageStore(Path.of("build/jmh-images"), work -> { }));
+        user = new User("Jane", "Doe", "jane.doe@example.com", "P4$$word", null, null);
+        user.setCity("christchurch");
+        jobRecommendationService = new JobRecommendationService(jobService);
+        jobRecommendationService.startRebuild();
+        jobRecommendationService.finishRebuild(jobs.stream().map(RecommendationCandidate::of).toList());
+    }
+
+    /**
+     * Creates posted jobs spread over one renovation record for every ten jobs, with records in a handful of
+     * cities and suburbs scattered across New Zealand and start dates over the next year
+     * @param count number of jobs to create
+     * @return the posted jobs
+     */
+    static List<Job> createPostedJobs(int count) {
+        List<RenovationRecord> records = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < Math.max(count / 10, 1); i++) {
+            RenovationRecord record = new RenovationRecord("Record " + i, "Renovation record " + i, List.of(),
+                    "owner" + (i % 1000) + "@example.com");
+            record.setId((long) i);
+            record.setCity(CITIES[i % CITIES.length]);
+            record.setSuburb(SUBURBS[i % SUBURBS.length]);
+            record.setLatitude(-47 + random.nextFloat() * 12.5f);
+            record.setLongitude(166.5f + random.nextFloat() * 12);
+            records.add(record);
+        }
+        LocalDate today = LocalDate.now();
+        List<Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String startDate = today.plusDays(i % 365).format(Job.DATE_FORMATTER);
+            String dueDate = today.plusDays(i % 365 + 30).format(Job.DATE_FORMATTER);
+            Job job = new Job("Job " + i, "Description of job " + i, dueDate, startDate);
+            job.setId((long) i);
+            job.setRenovationRecord(records.get(i % records.size()));
+            job.setIsPosted(true);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    @Benchmark
+    public List<Job> recommendedPostedJobs() {
+        return jobService.getRecommendedPostedJobs(user);
+    }
+
+    @Benchmark
+    public List<Long> recommendedJobIdsFromPools() {
+        return jobRecommendationService.getRecommendedJobIds(user.getEmail(), user.getCity(), user.getLatitude(),
+                user.getLongitude(), List.of());
+    }
+
+    @Benchmark
+    public List<NearbyJob> nearbyJobsFromIndex() {
+        return jobLocationIndex.findWithinRadius(CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, 10, 50);
+    }
+
+    @Benchmark
+    public List<NearbyJob> nearbyJobsByScan() {
+        return JobLocationIndex.findWithinRadius(jobLocations, CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, 10, 50);
+    }
+
+    @Benchmark
+    public List<String> calendarStartDates() {
+        return jobService.convertJobStartDatesForCalendar(jobs);
+    }
+}
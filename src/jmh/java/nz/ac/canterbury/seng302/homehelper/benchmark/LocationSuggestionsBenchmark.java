@@ -0,0 +1,56 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import nz.ac.canterbury.seng302.homehelper.service.LocationQueryService;
+import nz.ac.canterbury.seng302.homehelper.service.TokenBucket;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading the address components out of a LocationIQ autocomplete response. LocationIQ returns at most
+ * {@link LocationQueryService#SUGGESTION_LIMIT} suggestions, the larger response shows how parsing scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationSuggestionsBenchmark {
+
+    private static final String SUGGESTION = """
+            {"place_id": "%d", "lat": "-43.5248", "lon": "172.5806",
+             "display_name": "%d Kirkwood Avenue, Upper Riccarton, Christchurch, 8041, New Zealand",
+             "address": {"house_number": "%d", "road": "Kirkwood Avenue", "suburb": "Upper Riccarton",
+                         "city": "Christchurch", "postcode": "8041", "country": "New Zealand"}}""";
+    private static final String DISPLAY_NAME_ONLY = """
+            {"place_id": "%d", "lat": "-43.5321", "lon": "172.6362", "display_name": "Christchurch Central %d",
+             "address": {"name": "Christchurch Central"}}""";
+
+    @Param({"5", "1000"})
+    public int suggestionCount;
+
+    private final LocationQueryService locationQueryService =
+            new LocationQueryService("http://localhost", "key", new TokenBucket(2, Duration.ofMillis(500)));
+    private String response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < suggestionCount; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(i % 5 == 4 ? DISPLAY_NAME_ONLY.formatted(i, i) : SUGGESTION.formatted(i, i, i));
+        }
+        response = builder.append(']').toString();
+    }
+
+    @Benchmark
+    public List<List<String>> parseSuggestions() throws JsonProcessingException {
+        return locationQueryService.parseSuggestions(response);
+    }
+}
@@ -0,0 +1,67 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapCluster;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
+import nz.ac.canterbury.seng302.homehelper.service.MarkerClusters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of showing the map of posted jobs. Clustering every job is only done when the jobs change, after which each
+ * view of the map only finds the clusters in view. Finding every marker in view without clustering is measured
+ * alongside for comparison, for the whole of New Zealand zoomed out and for a city zoomed in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MapClusterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int jobCount;
+
+    private JobLocationIndex jobLocationIndex;
+    private List<MapMarker> markers;
+    private MarkerClusters clusters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jobLocationIndex = new JobLocationIndex();
+        jobLocationIndex.startRebuild();
+        jobLocationIndex.finishRebuild(JobServiceBenchmark.createPostedJobs(jobCount).stream()
+                .map(JobLocation::of).toList());
+        markers = jobLocationIndex.getAllMarkers();
+        clusters = MarkerClusters.of(markers);
+    }
+
+    @Benchmark
+    public MarkerClusters clusterEveryJob() {
+        return MarkerClusters.of(markers);
+    }
+
+    @Benchmark
+    public List<MapCluster> clustersInCountry() {
+        return clusters.getClusters(-48, 166, -34, 179, 5);
+    }
+
+    @Benchmark
+    public List<MapMarker> markersInCountry() {
+        return jobLocationIndex.findInBoundingBox(-48, 166, -34, 179);
+    }
+
+    @Benchmark
+    public List<MapCluster> clustersInCity() {
+        return clusters.getClusters(-43.6, 172.5, -43.45, 172.75, 12);
+    }
+
+    @Benchmark
+    public List<MapMarker> markersInCity() {
+        return jobLocationIndex.findInBoundingBox(-43.6, 172.5, -43.45, 172.75);
+    }
+}
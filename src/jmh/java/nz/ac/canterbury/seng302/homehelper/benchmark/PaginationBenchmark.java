@@ -0,0 +1,52 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
+import nz.ac.canterbury.seng302.homehelper.service.PaginationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Cost of working out a page of items and the page numbers for the pagination controls. The keyset page is
+ * loaded from a list standing in for the repository, so only the pagination logic is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PaginationBenchmark {
+
+    private static final int PAGE_SIZE = 9;
+
+    @Param({"1000", "100000", "1000000"})
+    public int itemCount;
+
+    private List<Long> items;
+    private int middlePage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = LongStream.rangeClosed(1, itemCount).boxed().toList();
+        middlePage = PaginationUtil.getLastPageNumber(itemCount, PAGE_SIZE) / 2;
+    }
+
+    @Benchmark
+    public List<Integer> pageNumbers() {
+        return PaginationUtil.getPageNumbers(items.size(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public KeysetPage<Long> nextKeysetPage() {
+        long afterId = (long) (middlePage - 1) * PAGE_SIZE;
+        return PaginationUtil.getKeysetPage(middlePage, PAGE_SIZE, afterId, null, middlePage - 1, items::size,
+                (after, before, pageable) -> {
+                    int from = after == null ? (int) pageable.getOffset() : after.intValue();
+                    return items.subList(from, Math.min(from + pageable.getPageSize(), items.size()));
+                },
+                item -> item);
+    }
+}
@@ -0,0 +1,67 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.Rating;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rating and accepted quote statistics shown on a user's profile and quote cards. The fromLists
+ * benchmarks work the statistics out from every rating and quote, as they were before the counts were stored on
+ * the user, so the two can be compared in one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserStatisticsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int count;
+
+    private User user;
+    private List<Quote> quotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = new User("Jane", "Doe", "jane.doe@example.com", "P4$$word", null, null);
+        User sender = new User("John", "Doe", "john.doe@example.com", "P4$$word", null, null);
+        List<Rating> ratings = new ArrayList<>(count);
+        quotes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ratings.add(new Rating(i % 5 + 1, user, sender));
+            Quote quote = new Quote("100", "2", user.getEmail(), "", "Quote " + i);
+            quote.setStatus(i % 4 == 0 ? "Accepted" : "Pending");
+            quotes.add(quote);
+        }
+        user.setReceivedRatings(ratings);
+        user.setQuotes(quotes);
+    }
+
+    @Benchmark
+    public double averageRating() {
+        return user.getAverageRating();
+    }
+
+    @Benchmark
+    public double averageRatingFromLists() {
+        return User.averageRating(user.getReceivedRatings().size(),
+                user.getReceivedRatings().stream().mapToLong(Rating::getRating).sum());
+    }
+
+    @Benchmark
+    public int numberOfAcceptedQuotes() {
+        return user.getNumberOfAcceptedQuotes();
+    }
+
+    @Benchmark
+    public long numberOfAcceptedQuotesFromLists() {
+        return quotes.stream().filter(quote -> "Accepted".equals(quote.getStatus())).count();
+    }
+}
@@ -0,0 +1,98 @@
+package nz.ac.canterbury.seng302.homehelper.benchmark;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Expense;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.service.ExpenseService;
+import nz.ac.canterbury.seng302.homehelper.service.FieldValidationException;
+import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of validating one submission of the registration, location and expense forms. The compilingPatterns
+ * benchmarks repeat the same checks the way ValidationService used to, compiling each pattern and creating a
+ * date format on every call, so the two can be compared in one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final String EMAIL_REGEX = "^(?!.*\\.\\.)[\\p{L}\\p{N}\\p{M}་!#$%&'*+/=?^_`{|}~.-]+@[\\p{L}\\p{N}\\p{M}་-]+(?:\\.[\\p{L}\\p{N}\\p{M}་-]+)*\\.[a-zA-Z]{2,}$";
+    private static final String ADDRESS_REGEX = "^[\\p{L}\\p{N}\\s.'-]*$";
+    private static final String SUBURB_REGEX = "^[\\p{L}\\p{N}\\s'-]*$";
+    private static final String CITY_REGEX = "^[\\p{L}\\s'-]*$";
+    private static final String POSTCODE_REGEX = "^[\\p{L}\\p{N}]* ?[\\p{L}\\p{N}]*$";
+    private static final String COUNTRY_REGEX = "^[\\p{L}-']* ?[\\p{L}-']*$";
+    private static final String COST_REGEX = "^([0-9]*[.])?[0-9]+$";
+    private static final String ZERO_REGEX = "^(0*[.])?0+$";
+
+    private final ValidationService validationService = new ValidationService();
+    private final ExpenseService expenseService = new ExpenseService(null, null);
+
+    private final List<String> location = List.of("20 Kirkwood Avenue", "Upper Riccarton", "Christchurch", "8041", "New Zealand");
+    private final User user = new User("Jane", "O'Neill-Smith", "jane.oneill@example.co.nz", "P4$$word", null, null);
+    private final Expense validExpense = new Expense("149.95", "Tiles for the bathroom", "Material", "01/02/2025");
+    private final Expense invalidExpense = new Expense("0.00", "", "Material", "31/02/2025");
+
+    @Benchmark
+    public void registrationForm(Blackhole blackhole) {
+        blackhole.consume(validationService.checkName(user.getFirstName()));
+        blackhole.consume(validationService.checkName(user.getLastName()));
+        blackhole.consume(validationService.checkEmailForm(user.getEmail()));
+        blackhole.consume(validationService.checkPassword("Tr1cky!Passw0rd", user));
+        blackhole.consume(validationService.checkLocation(location));
+    }
+
+    @Benchmark
+    public void registrationFormCompilingPatterns(Blackhole blackhole) {
+        blackhole.consume(validationService.checkName(user.getFirstName()));
+        blackhole.consume(validationService.checkName(user.getLastName()));
+        blackhole.consume(Pattern.compile(EMAIL_REGEX).matcher(user.getEmail()).matches());
+        blackhole.consume(validationService.checkPassword("Tr1cky!Passw0rd", user));
+        blackhole.consume(Pattern.compile(ADDRESS_REGEX).matcher(location.get(0)).matches());
+        blackhole.consume(Pattern.compile(SUBURB_REGEX).matcher(location.get(1)).matches());
+        blackhole.consume(Pattern.compile(CITY_REGEX).matcher(location.get(2)).matches());
+        blackhole.consume(Pattern.compile(POSTCODE_REGEX).matcher(location.get(3)).matches());
+        blackhole.consume(Pattern.compile(COUNTRY_REGEX).matcher(location.get(4)).matches());
+    }
+
+    @Benchmark
+    public void expenseForm(Blackhole blackhole) throws ParseException {
+        blackhole.consume(validationService.correctExpenseCostFormat(validExpense.getCost()));
+        blackhole.consume(validationService.correctDateFormat(validExpense.getDate()));
+        blackhole.consume(validationService.dateInTheFuture(validExpense.getDate()));
+    }
+
+    @Benchmark
+    public void expenseFormCompilingPatterns(Blackhole blackhole) throws ParseException {
+        String cost = validExpense.getCost();
+        blackhole.consume(Pattern.compile(COST_REGEX).matcher(cost).matches() && !Pattern.compile(ZERO_REGEX).matcher(cost).matches());
+        blackhole.consume(Pattern.matches("[0-9]{2}/[0-9]{2}/[0-9]{4}", validExpense.getDate()));
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+        dateFormat.setLenient(false);
+        Date date = dateFormat.parse(validExpense.getDate());
+        Date today = dateFormat.parse(dateFormat.format(new Date()));
+        blackhole.consume(date.after(today));
+    }
+
+    @Benchmark
+    public Object invalidExpenseFormErrors() {
+        try {
+            expenseService.validateExpense(invalidExpense);
+            return null;
+        } catch (FieldValidationException e) {
+            return expenseService.getErrorMessages(e.getFieldErrors());
+        }
+    }
+}
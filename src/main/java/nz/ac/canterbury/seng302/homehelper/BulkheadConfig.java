@@ -0,0 +1,89 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.service.BulkheadExecutor;
+import nz.ac.canterbury.seng302.homehelper.service.BulkheadScheduler;
+import nz.ac.canterbury.seng302.homehelper.service.EmailOutboxDispatcher;
+import nz.ac.canterbury.seng302.homehelper.service.HomePageWidgets;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import nz.ac.canterbury.seng302.homehelper.service.VirtualThreadBulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Thread pools for the app's background work. Each kind of work gets its own pool with a bounded queue, so that
+ * a slow external API can only use up its own threads and cannot delay emails, expiry of old data or scheduled jobs.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    public static final int OUTBOUND_HTTP_THREADS = 4;
+    public static final int OUTBOUND_HTTP_QUEUE_CAPACITY = 50;
+
+    /**
+     * Runs the app's {@link org.springframework.scheduling.annotation.Scheduled} jobs. These jobs should only find
+     * the work that is due and hand it to another pool, so the scheduler's threads are never held for long.
+     * @return the scheduler
+     */
+    @Bean
+    @Primary
+    public BulkheadScheduler taskScheduler() {
+        return new BulkheadScheduler("scheduling", 2);
+    }
+
+    /**
+     * Removes data that has expired, like unverified accounts and reset password tokens
+     * @return the scheduler
+     */
+    @Bean
+    public BulkheadScheduler expiryScheduler() {
+        return new BulkheadScheduler("expiry", 1);
+    }
+
+    /**
+     * Makes calls to external APIs. Calls are rejected once the queue is full so that the user gets an error
+     * straight away rather than waiting behind an API that is not responding.
+     * @return the executor
+     */
+    @Bean
+    public BulkheadExecutor outboundHttpExecutor() {
+        return new BulkheadExecutor("outbound-http", OUTBOUND_HTTP_THREADS, OUTBOUND_HTTP_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Sends batches of emails from the outbox. The outbox only hands out as many batches as there are threads,
+     * and the batches being sent are finished before the app stops.
+     * @return the executor
+     */
+    @Bean
+    public BulkheadExecutor emailExecutor() {
+        BulkheadExecutor executor = new BulkheadExecutor("email", EmailOutboxDispatcher.WORKER_COUNT, EmailOutboxDispatcher.WORKER_COUNT);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Generates the smaller variants of uploaded images
+     * @return the executor
+     */
+    @Bean
+    public BulkheadExecutor imageExecutor() {
+        return new BulkheadExecutor("image-variants", ImageStore.WORKER_COUNT, ImageStore.QUEUE_CAPACITY);
+    }
+
+    /**
+     * Loads the widgets of the home page at the same time. Loading a widget is mostly waiting on the database, so
+     * each load gets its own virtual thread. Each load also takes a connection from the pool while the request
+     * still holds its own, so the limit is kept to half the pool. Once the limit is reached, the widgets are loaded
+     * on the request's own thread and connection.
+     * @param connectionPoolSize most connections the database connection pool opens
+     * @return the executor
+     */
+    @Bean
+    public VirtualThreadBulkhead homeWidgetExecutor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        return new VirtualThreadBulkhead("home-widgets",
+                Math.max(1, Math.min(HomePageWidgets.MAX_CONCURRENT_LOADS, connectionPoolSize / 2)));
+    }
+}
@@ -0,0 +1,43 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.repository.ResetPasswordTokenRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fills in the expiry times of reset password tokens and unverified accounts that were saved before those columns
+ * existed, so that the expired data sweeper removes them. Their creation time is not known, so old tokens expire
+ * straight away and old unverified accounts are given the full verification time from startup.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ExpiryBackfill implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(ExpiryBackfill.class);
+
+    private final ResetPasswordTokenRepository resetPasswordTokenRepository;
+    private final UserRepository userRepository;
+
+    public ExpiryBackfill(ResetPasswordTokenRepository resetPasswordTokenRepository, UserRepository userRepository) {
+        this.resetPasswordTokenRepository = resetPasswordTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        LocalDateTime now = LocalDateTime.now();
+        int tokenCount = resetPasswordTokenRepository.backfillExpiresAt(now);
+        int userCount = userRepository.backfillVerificationExpiresAt(now.plus(UserService.VERIFICATION_TIME_TO_LIVE));
+        if (tokenCount > 0 || userCount > 0) {
+            logger.info("Backfilled expiry times for {} reset password tokens and {} unverified users",
+                    tokenCount, userCount);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the spatial index of posted jobs from the database on startup. Until it has finished, nearby job and
+ * map area searches go to the database.
+ */
+@Component
+public class JobLocationIndexLoader implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(JobLocationIndexLoader.class);
+
+    private final JobRepository jobRepository;
+    private final JobLocationIndex jobLocationIndex;
+
+    public JobLocationIndexLoader(JobRepository jobRepository, JobLocationIndex jobLocationIndex) {
+        this.jobRepository = jobRepository;
+        this.jobLocationIndex = jobLocationIndex;
+    }
+
+    @Override
+    public void run(String... args) {
+        jobLocationIndex.startRebuild();
+        List<JobLocation> locations = jobRepository.findPostedJobLocations();
+        jobLocationIndex.finishRebuild(locations);
+        logger.info("Loaded {} posted job locations", locations.size());
+    }
+}
@@ -0,0 +1,36 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.service.JobRecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the pools of posted jobs used for job recommendations from the database on startup. Until it has
+ * finished, recommendations are worked out from the database.
+ */
+@Component
+public class JobRecommendationLoader implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(JobRecommendationLoader.class);
+
+    private final JobRepository jobRepository;
+    private final JobRecommendationService jobRecommendationService;
+
+    public JobRecommendationLoader(JobRepository jobRepository, JobRecommendationService jobRecommendationService) {
+        this.jobRepository = jobRepository;
+        this.jobRecommendationService = jobRecommendationService;
+    }
+
+    @Override
+    public void run(String... args) {
+        jobRecommendationService.startRebuild();
+        List<RecommendationCandidate> candidates = jobRepository.findRecommendationCandidates();
+        jobRecommendationService.finishRebuild(candidates);
+        logger.info("Loaded {} posted jobs for recommendations", candidates.size());
+    }
+}
@@ -0,0 +1,88 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Expense;
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.repository.ExpenseRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills in the typed date columns of jobs and expenses that were saved before those columns existed.
+ * Rows are converted in batches ordered by ID, so rows with unparseable date strings are only visited once.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LocalDateBackfill implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(LocalDateBackfill.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JobRepository jobRepository;
+    private final ExpenseRepository expenseRepository;
+
+    public LocalDateBackfill(JobRepository jobRepository, ExpenseRepository expenseRepository) {
+        this.jobRepository = jobRepository;
+        this.expenseRepository = expenseRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        int jobCount = backfillJobs();
+        int expenseCount = backfillExpenses();
+        if (jobCount > 0 || expenseCount > 0) {
+            logger.info("Backfilled typed dates for {} jobs and {} expenses", jobCount, expenseCount);
+        }
+    }
+
+    /**
+     * Re-applies the date strings of jobs missing their typed start or due date
+     * @return the number of jobs checked
+     */
+    public int backfillJobs() {
+        Pageable batch = PageRequest.of(0, BATCH_SIZE);
+        long afterId = 0;
+        int count = 0;
+        List<Job> jobs = jobRepository.findJobsWithUnconvertedDates(afterId, batch);
+        while (!jobs.isEmpty()) {
+            for (Job job : jobs) {
+                job.setStartDate(job.getStartDate());
+                job.setDueDate(job.getDueDate());
+            }
+            jobRepository.saveAll(jobs);
+            count += jobs.size();
+            afterId = jobs.getLast().getId();
+            jobs = jobRepository.findJobsWithUnconvertedDates(afterId, batch);
+        }
+        return count;
+    }
+
+    /**
+     * Re-applies the date strings of expenses missing their typed date
+     * @return the number of expenses checked
+     */
+    public int backfillExpenses() {
+        Pageable batch = PageRequest.of(0, BATCH_SIZE);
+        long afterId = 0;
+        int count = 0;
+        List<Expense> expenses = expenseRepository.findExpensesWithUnconvertedDates(afterId, batch);
+        while (!expenses.isEmpty()) {
+            for (Expense expense : expenses) {
+                expense.setDate(expense.getDate());
+            }
+            expenseRepository.saveAll(expenses);
+            count += expenses.size();
+            afterId = expenses.getLast().getId();
+            expenses = expenseRepository.findExpensesWithUnconvertedDates(afterId, batch);
+        }
+        return count;
+    }
+}
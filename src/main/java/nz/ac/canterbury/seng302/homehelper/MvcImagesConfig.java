@@ -1,19 +1,101 @@
 package nz.ac.canterbury.seng302.homehelper;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Pattern;
 
 @Configuration
 public class MvcImagesConfig implements WebMvcConfigurer {
 
+    public static final String[] STATIC_RESOURCE_DIRECTORIES = {"css", "js", "images", "icons"};
+    public static final String[] STATIC_RESOURCE_PATTERNS = {"/css/**", "/js/**", "/images/**", "/icons/**"};
+    public static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+    private static final Pattern FINGERPRINTED_PATH = Pattern.compile(".*-[0-9a-f]{32}\\.[^/.]+");
+
+    private final ImageStore imageStore;
+
+    @Autowired
+    public MvcImagesConfig(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
     /**
-     * ChatGPT code, Sets up profile images as a way to access uploaded images from the user for user profiles.
+     * Serves the bundled CSS, scripts and images under URLs containing a hash of their contents, so a changed file
+     * gets a new URL and the old one can be cached forever. Uploaded images are served by
+     * {@link nz.ac.canterbury.seng302.homehelper.controller.UploadedImageController}.
      * @param registry Stores registrations of resource handles for serving static resources
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/profileImages/**")
-                .addResourceLocations("file:uploads/images/");
+        for (String directory : STATIC_RESOURCE_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setEtagGenerator(MvcImagesConfig::etagOf)
+                    .resourceChain(true)
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /**
+     * Sets the cache headers of static resources before they are served. Fingerprinted URLs never change so they
+     * are cached for a year, and plain URLs, such as the ones stylesheets use for their images, are revalidated.
+     * Pages given the user's profile image also get the URL of its avatar sized version for the header.
+     * @param registry Stores the interceptors run around each request
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                CacheControl cacheControl = FINGERPRINTED_PATH.matcher(request.getRequestURI()).matches()
+                        ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable()
+                        : CacheControl.noCache();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+                return true;
+            }
+        }).addPathPatterns(STATIC_RESOURCE_PATTERNS);
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                   ModelAndView modelAndView) {
+                if (modelAndView != null && modelAndView.getModel().get("profileImage") instanceof String profileImage) {
+                    modelAndView.addObject("profileThumbnail", imageStore.thumbnailUrlForPath(profileImage));
+                }
+            }
+        });
+    }
+
+    /**
+     * Rewrites links to static resources made with Thymeleaf's link syntax to their fingerprinted URLs
+     * @return the filter rewriting the links
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    private static String etagOf(Resource resource) {
+        try {
+            return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
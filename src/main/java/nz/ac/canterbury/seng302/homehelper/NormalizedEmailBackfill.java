@@ -0,0 +1,33 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the normalized email of users that were saved before that column existed,
+ * so that every user can be found by the indexed email lookups.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class NormalizedEmailBackfill implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(NormalizedEmailBackfill.class);
+
+    private final UserRepository userRepository;
+
+    public NormalizedEmailBackfill(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        int userCount = userRepository.backfillNormalizedEmails();
+        if (userCount > 0) {
+            logger.info("Backfilled normalized emails for {} users", userCount);
+        }
+    }
+}
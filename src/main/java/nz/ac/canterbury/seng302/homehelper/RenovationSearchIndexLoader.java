@@ -0,0 +1,46 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import jakarta.persistence.Tuple;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument;
+import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
+import nz.ac.canterbury.seng302.homehelper.service.RenovationSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the renovation record search index from the database on startup. Until it has finished,
+ * searches go straight to the database.
+ */
+@Component
+public class RenovationSearchIndexLoader implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(RenovationSearchIndexLoader.class);
+
+    private final RenovationRecordRepository renovationRecordRepository;
+    private final RenovationSearchIndex renovationSearchIndex;
+
+    public RenovationSearchIndexLoader(RenovationRecordRepository renovationRecordRepository,
+                                       RenovationSearchIndex renovationSearchIndex) {
+        this.renovationRecordRepository = renovationRecordRepository;
+        this.renovationSearchIndex = renovationSearchIndex;
+    }
+
+    @Override
+    public void run(String... args) {
+        renovationSearchIndex.startRebuild();
+        List<RenovationSearchDocument> documents = renovationRecordRepository.findSearchDocuments();
+        Map<Long, List<String>> tagsByRecord = new HashMap<>();
+        for (Tuple row : renovationRecordRepository.findRecordTagNames()) {
+            tagsByRecord.computeIfAbsent(row.get("recordId", Long.class), key -> new ArrayList<>())
+                    .add(row.get("tagName", String.class));
+        }
+        renovationSearchIndex.finishRebuild(documents, tagsByRecord);
+        logger.info("Indexed {} renovation records for search", documents.size());
+    }
+}
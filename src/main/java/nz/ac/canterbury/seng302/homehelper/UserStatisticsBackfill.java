@@ -0,0 +1,33 @@
+package nz.ac.canterbury.seng302.homehelper;
+
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recounts the accepted quotes and received ratings of every user on startup. The totals are kept up to date
+ * as quotes are accepted, rejected and retracted and as ratings are added, so this fills them in for data saved
+ * before the columns existed and corrects any drift from rows removed along with their renovation record.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserStatisticsBackfill implements CommandLineRunner {
+    Logger logger = LoggerFactory.getLogger(UserStatisticsBackfill.class);
+
+    private final UserRepository userRepository;
+
+    public UserStatisticsBackfill(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        int userCount = userRepository.recountAcceptedQuotes();
+        userRepository.recountRatings();
+        logger.info("Recounted accepted quotes and ratings for {} users", userCount);
+    }
+}
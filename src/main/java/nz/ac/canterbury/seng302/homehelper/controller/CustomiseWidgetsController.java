@@ -1,6 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.controller;
 
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.service.HomePageWidgets;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.slf4j.Logger;
@@ -26,7 +27,8 @@ public class CustomiseWidgetsController {
     private final RenovationRecordService renovationRecordService;
 
     public static final List<String> ALL_WIDGETS = List.of(
-            "Job Recommendations", "Job Calendar", "Recently Viewed Jobs", "Recently Viewed Renovations", "Hottest Tradies Leaderboard"
+            HomePageWidgets.JOB_RECOMMENDATIONS, HomePageWidgets.JOB_CALENDAR, HomePageWidgets.RECENT_JOBS,
+            HomePageWidgets.RECENT_RENOVATIONS, HomePageWidgets.HOTTEST_TRADIES
     );
 
     @Autowired
@@ -1,11 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.controller;
 
-import nz.ac.canterbury.seng302.homehelper.entity.Job;
-import nz.ac.canterbury.seng302.homehelper.entity.Quote;
-import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
-import nz.ac.canterbury.seng302.homehelper.service.JobService;
-import nz.ac.canterbury.seng302.homehelper.service.QuoteService;
+import nz.ac.canterbury.seng302.homehelper.service.HomePageWidgets;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.slf4j.Logger;
@@ -16,9 +12,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.security.Principal;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Controller for the home page
@@ -29,14 +22,12 @@ public class HomePageController {
 
     private final RenovationRecordService renovationRecordService;
     private final UserService userService;
-    private final JobService jobService;
-    private final QuoteService quoteService;
+    private final HomePageWidgets homePageWidgets;
 
-    public HomePageController(RenovationRecordService renovationRecordService, UserService userService, JobService jobService, QuoteService quoteService) {
+    public HomePageController(RenovationRecordService renovationRecordService, UserService userService, HomePageWidgets homePageWidgets) {
         this.renovationRecordService = renovationRecordService;
         this.userService = userService;
-        this.jobService = jobService;
-        this.quoteService = quoteService;
+        this.homePageWidgets = homePageWidgets;
     }
 
     /**
@@ -72,48 +63,15 @@ public class HomePageController {
             if (user != null && user.getVerificationCode() != null) {
                 return "redirect:/registration-code";
             }
-            List<RenovationRecord> recentRenovations = userService.getRecentRenovations(user);
-            List<Job> recommendedPostedJobs = jobService.getRecommendedPostedJobs(user);
             model.addAttribute("name", name);
             model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(principal.getName()));
-            model.addAttribute("recommendedJobs", jobService.getJobCardsPosted(userService,  recommendedPostedJobs));
-            model.addAttribute("recentJobs", jobService.getJobCardsAll(userService, user.getRecentJobs().stream().map(jobService::getJobById).collect(Collectors.toList())));
-
-            // calendar info
-            List<RenovationRecord> renovationRecords = renovationRecordService.getRenovationRecordsByOwner(principal.getName());
-            List<Job> jobs = new ArrayList<>();
-            for (RenovationRecord record : renovationRecords) {
-                jobs.addAll(record.getJobs());
-            }
-            List<Quote> quotes = quoteService.getQuotesByUserId(user.getId());
-            List<Job> quotedJobs = new ArrayList<>();
-            for (Quote quote : quotes) {
-                if (quote.getStatus() == "Accepted") {
-                    if (quote.getJob() != null) {
-                        quotedJobs.add(quote.getJob());
-                    }
-                }
-            }
+            model.addAllAttributes(homePageWidgets.loadWidgets(user));
 
             if (user.getProfilePicture() != null) {
                 model.addAttribute("profileUserImage", "/profileImages/" + user.getProfilePicture());
             }
-
-            List<String> homePageWidgetOrder = user.getHomePageWidgetOrder();
-            jobs.addAll(quotedJobs);
-            model.addAttribute("hottestTradies", userService.getHottestTradies());
-            model.addAttribute("recordIds", jobs.stream().map(j -> j.getRenovationRecord().getId()).toList());
-            model.addAttribute("jobIds", jobs.stream().map(Job::getId).toList());
-            model.addAttribute("jobNames", jobs.stream().map(Job::getName).toList());
-            model.addAttribute("jobStartDates", jobService.convertJobStartDatesForCalendar(jobs));
-            model.addAttribute("jobDueDates", jobService.convertJobDueDatesForCalendar(jobs));
-            model.addAttribute("jobStatuses", jobs.stream().map(Job::getStatus).toList());
-            model.addAttribute("jobWasModified", jobService.jobsWereModified(jobs));
-            model.addAttribute("isQuotedJob", jobs.stream().map(quotedJobs::contains).toList());
             model.addAttribute("publicUser", true);
-            model.addAttribute("homePageWidgetOrder", homePageWidgetOrder);
-
-            model.addAttribute("recentRenovations", renovationRecordService.getRenovationRecordCards(userService, recentRenovations));
+            model.addAttribute("homePageWidgetOrder", user.getHomePageWidgetOrder());
             model.addAttribute("user", user);
             if (user != null && user.getProfilePicture() != null) {
                 model.addAttribute("profileImage", "/profileImages/" + user.getProfilePicture());
@@ -1,5 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -21,6 +23,12 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 @ComponentScan("com.baeldung.security")
 public class SecurityConfiguration {
 
+    /**
+     * Session attribute holding the email of the logged-in user once they are known to be verified,
+     * so that later requests in the session do not need to look the user up to authorise them
+     */
+    public static final String VERIFIED_EMAIL_SESSION_ATTRIBUTE = "verifiedEmail";
+
     @Autowired
     private CustomAuthenticationProvider authProvider;
     @Autowired
@@ -65,9 +73,7 @@ public class SecurityConfiguration {
                     if (principal == null) {
                         return new AuthorizationDecision(false); // Treat as unauthenticated
                     }
-                    String email = principal.getName(); // Get email/username
-                    var user = userService.getUser(email); // Fetch user
-                    return new AuthorizationDecision(user != null && user.getVerificationCode() == null); // Allow only if code == null
+                    return new AuthorizationDecision(isVerified(context.getRequest(), principal.getName()));
                 })
                 .and()
                 .formLogin()
@@ -97,6 +103,26 @@ public class SecurityConfiguration {
         return http.build();
     }
 
+    /**
+     * Checks if the logged-in user has verified their account. A verified user stays verified, so the
+     * result is remembered in the session once true and the user is only looked up until then.
+     * @param request the request being authorised
+     * @param email the email of the logged-in user
+     * @return true if the user exists and has no outstanding verification code
+     */
+    private boolean isVerified(HttpServletRequest request, String email) {
+        HttpSession session = request.getSession(false);
+        if (session != null && email.equalsIgnoreCase((String) session.getAttribute(VERIFIED_EMAIL_SESSION_ATTRIBUTE))) {
+            return true;
+        }
+        var user = userService.getUser(email);
+        boolean verified = user != null && user.getVerificationCode() == null; // Allow only if code == null
+        if (verified) {
+            request.getSession().setAttribute(VERIFIED_EMAIL_SESSION_ATTRIBUTE, email);
+        }
+        return verified;
+    }
+
     @Bean
     public PasswordEncoder encoder() {
         return new BCryptPasswordEncoder();
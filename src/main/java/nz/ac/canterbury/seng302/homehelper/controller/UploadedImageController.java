@@ -0,0 +1,76 @@
+package nz.ac.canterbury.seng302.homehelper.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import nz.ac.canterbury.seng302.homehelper.MvcImagesConfig;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Controller for serving the images users have uploaded. Content-addressed images never change so browsers are told
+ * to keep them for a year without checking back, while older images must be revalidated with their ETag or
+ * last modified time, which costs a 304 response rather than the whole image. When an X-Accel-Redirect location is
+ * configured the file itself is sent by nginx, so the application only decides the headers.
+ */
+@Controller
+public class UploadedImageController {
+    private final ImageStore imageStore;
+    private final String accelRedirectLocation;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    public UploadedImageController(ImageStore imageStore,
+                                   @Value("${images.accel-redirect-location:}") String accelRedirectLocation) {
+        this.imageStore = imageStore;
+        this.accelRedirectLocation = accelRedirectLocation;
+    }
+
+    /**
+     * Gets an uploaded image or one of its variants
+     * @param request the request, the path after the image URL prefix names the image
+     * @return the image, an empty response for nginx to fill if X-Accel-Redirect is used, or 404 if there is no such image
+     * @throws IOException if the image's details could not be read
+     */
+    @GetMapping(ImageStore.IMAGE_URL_PREFIX + "**")
+    public ResponseEntity<Resource> getUploadedImage(HttpServletRequest request) throws IOException {
+        String relativePath = urlPathHelper.getPathWithinApplication(request).substring(ImageStore.IMAGE_URL_PREFIX.length());
+        Path file = imageStore.resolve(relativePath);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        boolean immutable = ImageStore.isImmutable(relativePath);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        long size = Files.size(file);
+        String filename = file.getFileName().toString();
+        String etag = immutable
+                ? "\"" + filename.substring(0, filename.lastIndexOf('.')) + "\""
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+        CacheControl cacheControl = immutable
+                ? CacheControl.maxAge(MvcImagesConfig.IMMUTABLE_MAX_AGE).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .contentType(MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM));
+
+        if (!accelRedirectLocation.isBlank()) {
+            return response.header("X-Accel-Redirect", accelRedirectLocation + relativePath).build();
+        }
+        return response.contentLength(size).body(new FileSystemResource(file));
+    }
+}
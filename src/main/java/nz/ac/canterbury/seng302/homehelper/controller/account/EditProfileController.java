@@ -152,7 +152,7 @@ public class EditProfileController {
             model.addAttribute("longitude", longitude.trim());
 
             logger.error(e.getMessage());
-            List<String> errorMessages = userService.getErrorMessages(e.getMessage());
+            List<String> errorMessages = userService.getErrorMessages(FieldErrors.of(e));
             model.addAttribute("firstNameErrorMessage", errorMessages.get(0));
             model.addAttribute("lastNameErrorMessage", errorMessages.get(1));
             model.addAttribute("emailErrorMessage", errorMessages.get(2));
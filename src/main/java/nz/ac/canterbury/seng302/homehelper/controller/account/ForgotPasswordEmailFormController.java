@@ -4,7 +4,6 @@ import nz.ac.canterbury.seng302.homehelper.entity.ResetPasswordToken;
 import nz.ac.canterbury.seng302.homehelper.service.EmailService;
 import nz.ac.canterbury.seng302.homehelper.service.ResetPasswordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.ui.Model;
 import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
 import org.slf4j.Logger;
@@ -16,7 +15,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.time.Instant;
 
 @Controller
 public class ForgotPasswordEmailFormController {
@@ -26,20 +24,17 @@ public class ForgotPasswordEmailFormController {
     UserService userService;
     ResetPasswordService resetPasswordService;
     EmailService emailService;
-    TaskScheduler taskScheduler;
 
     @Autowired
     public ForgotPasswordEmailFormController(
             ValidationService validationService,
             UserService userService,
             ResetPasswordService resetPasswordService,
-            EmailService emailService,
-            TaskScheduler taskScheduler) {
+            EmailService emailService) {
         this.validationService = validationService;
         this.userService = userService;
         this.resetPasswordService = resetPasswordService;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
     }
 
     /***
@@ -86,10 +81,7 @@ public class ForgotPasswordEmailFormController {
                 }
                 String url = baseURL + "/reset-password?token=" + token.getToken();
 
-                taskScheduler.schedule(
-                        () -> emailService.sendResetPasswordLinkEmail(email, url),
-                        Instant.now()
-                );
+                emailService.sendResetPasswordLinkEmail(email, url);
             }
         }
         model.addAttribute("confirmationMessage",
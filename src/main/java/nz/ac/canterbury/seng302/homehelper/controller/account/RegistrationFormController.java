@@ -7,7 +7,6 @@ import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -20,7 +19,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.time.Instant;
 import java.util.List;
 
 /**
@@ -32,19 +30,17 @@ public class RegistrationFormController {
 
     private final UserService userService;
     private final EmailService emailService;
-    private final TaskScheduler taskScheduler;
     private final LocationService locationService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final LocationQueryService locationQueryService;
 
     @Autowired
-    public RegistrationFormController(UserService userService, EmailService emailService, TaskScheduler taskScheduler,
+    public RegistrationFormController(UserService userService, EmailService emailService,
                                       LocationService locationService, PasswordEncoder passwordEncoder,
                                       AuthenticationManager authenticationManager, LocationQueryService locationQueryService) {
         this.userService = userService;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
         this.locationService = locationService;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
@@ -133,10 +129,7 @@ public class RegistrationFormController {
                 request.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, SecurityContextHolder.getContext());
             }
 
-            taskScheduler.schedule(
-                    () -> emailService.sendConfirmRegistrationEmail(email, verificationCode),
-                    Instant.now()
-            );
+            emailService.sendConfirmRegistrationEmail(email, verificationCode);
 
             return "redirect:./registration-code";
         } catch(IllegalArgumentException e){
@@ -155,7 +148,7 @@ public class RegistrationFormController {
             model.addAttribute("latitude", latitude.trim());
             model.addAttribute("longitude", longitude.trim());
 
-            List<String> errorMessages = userService.getErrorMessages(e.getMessage());
+            List<String> errorMessages = userService.getErrorMessages(FieldErrors.of(e));
             model.addAttribute("firstNameErrorMessage", errorMessages.get(0));
             model.addAttribute("lastNameErrorMessage", errorMessages.get(1));
             model.addAttribute("emailErrorMessage", errorMessages.get(2));
@@ -3,8 +3,8 @@ package nz.ac.canterbury.seng302.homehelper.controller.account;
 import nz.ac.canterbury.seng302.homehelper.entity.ResetPasswordToken;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.service.EmailService;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
 import nz.ac.canterbury.seng302.homehelper.service.ResetPasswordService;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.ui.Model;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +15,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.time.Instant;
 import java.util.List;
 
 /**
@@ -29,18 +28,15 @@ public class ResetPasswordFormController {
     private final UserService userService;
     private final ResetPasswordService resetPasswordService;
     private final EmailService emailService;
-    private final TaskScheduler taskScheduler;
 
     @Autowired
     public ResetPasswordFormController(
             UserService userService,
             ResetPasswordService resetPasswordService,
-            EmailService emailService,
-            TaskScheduler taskScheduler) {
+            EmailService emailService) {
         this.userService = userService;
         this.resetPasswordService = resetPasswordService;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
     }
 
     /**
@@ -90,15 +86,12 @@ public class ResetPasswordFormController {
             User user = userService.getUser(userEmail);
             resetPasswordService.validatePasswords(user, newPassword, retypePassword);
 
-            taskScheduler.schedule(
-                    () -> emailService.sendResetPasswordSuccessEmail(userEmail),
-                    Instant.now()
-            );
+            emailService.sendResetPasswordSuccessEmail(userEmail);
             userService.updateUserPassword(userEmail, newPassword);
             resetPasswordService.removeResetPasswordToken(resetPasswordToken);
             return "redirect:/login";
         } catch (IllegalArgumentException e) {
-            List<String> errorMessages = resetPasswordService.getErrorMessages(e.getMessage());
+            List<String> errorMessages = resetPasswordService.getErrorMessages(FieldErrors.of(e));
             model.addAttribute("newPasswordErrorMessage", errorMessages.get(0));
             model.addAttribute("retypePasswordErrorMessage", errorMessages.get(1));
             return "resetPasswordFormTemplate";
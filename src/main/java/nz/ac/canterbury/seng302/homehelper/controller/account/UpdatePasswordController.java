@@ -7,7 +7,6 @@ import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,7 +15,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.security.Principal;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,19 +26,16 @@ public class UpdatePasswordController {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
-    private final TaskScheduler taskScheduler;
 
     @Autowired
     public UpdatePasswordController(UserService userService,
                                     ValidationService validationService,
                                     PasswordEncoder passwordEncoder,
-                                    EmailService emailService,
-                                    TaskScheduler taskScheduler) {
+                                    EmailService emailService) {
         this.userService = userService;
         this.validationService = validationService;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
     }
 
     /**
@@ -105,10 +100,7 @@ public class UpdatePasswordController {
             return "updatePasswordTemplate";
         } else {
             userService.updateUserPassword(principal.getName(), newPassword);
-            taskScheduler.schedule(
-                    () -> emailService.sendConfirmUpdatedPasswordEmail(principal.getName(), currentUser),
-                    Instant.now()
-            );
+            emailService.sendConfirmUpdatedPasswordEmail(principal.getName(), currentUser);
 
             return "redirect:./profile?userId="+currentUser.getId();
         }
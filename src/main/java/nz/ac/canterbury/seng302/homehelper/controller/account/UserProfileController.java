@@ -12,15 +12,20 @@ import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,10 +40,13 @@ public class UserProfileController {
     private final RenovationRecordService renovationRecordService;
     private final JobService jobService;
     private final ImageService imageService;
+    private final MapClusterService mapClusterService;
+    private final ImageStore imageStore;
 
     @Autowired
     public UserProfileController(UserService userService, RenovationRecordService renovationRecordService, UserRepository userRepository,
-                                 QuoteRepository quoteRepository, JobRepository jobRepository, JobService jobService, ImageService imageService) {
+                                 QuoteRepository quoteRepository, JobRepository jobRepository, JobService jobService, ImageService imageService,
+                                 MapClusterService mapClusterService, ImageStore imageStore) {
         this.userService = userService;
         this.renovationRecordService = renovationRecordService;
         this.userRepository = userRepository;
@@ -46,6 +54,8 @@ public class UserProfileController {
         this.jobRepository = jobRepository;
         this.jobService = jobService;
         this.imageService = imageService;
+        this.mapClusterService = mapClusterService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -64,7 +74,6 @@ public class UserProfileController {
         String email = principal.getName();
         User viewingUser = userService.getUser(email);
         User profileUser = userService.getUserById(userId);
-        jobService.setNumberOfJobs(9);
 
         if (profileUser == viewingUser) {
             model.addAttribute("ownProfile", true);
@@ -76,28 +85,29 @@ public class UserProfileController {
             model.addAttribute("profileUserImage", "/profileImages/" + profileUser.getProfilePicture());
         }
         
-        List<Job> completedJobs = userService.getCompletedJobsUserHasWorkedOn(userId);
-        List<Job> portfolioJobs = userService.getPortfolioJobs(profileUser);
+        Page<Job> completedJobs = userService.getCompletedJobsPage(userId, completedPage, 9);
+        List<Integer> completedJobsPageNums = PaginationUtil.getPageNumbers((int) completedJobs.getTotalElements(), 9);
 
-        List<Job> completedJobsPage = PaginationUtil.getPage(completedJobs, completedPage, 9);
-        List<Integer> completedJobsPageNums = PaginationUtil.getPageNumbers(completedJobs.size(), 9);
-
-        List<Job> portfolioJobsPage = PaginationUtil.getPage(portfolioJobs, portfolioPage, 9);
-        List<Integer> portfolioJobsPageNums = PaginationUtil.getPageNumbers(portfolioJobs.size(), 9);
+        Page<Job> portfolioJobs = userService.getPortfolioJobsPage(profileUser.getId(), portfolioPage, 9);
+        List<Integer> portfolioJobsPageNums = PaginationUtil.getPageNumbers((int) portfolioJobs.getTotalElements(), 9);
 
         model.addAttribute("loggedIn", principal != null);
         model.addAttribute("userId", userId);
         model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(email));
         model.addAttribute("user", viewingUser);
-        model.addAttribute("portfolioJobs", portfolioJobs);
-        model.addAttribute("portfolioJobsPage", portfolioJobsPage);
-        model.addAttribute("completedJobs", completedJobsPage);
+        model.addAttribute("portfolioJobCount", portfolioJobs.getTotalElements());
+        model.addAttribute("portfolioJobIds", userService.getPortfolioJobIds(profileUser.getId(), completedJobs.getContent()));
+        model.addAttribute("portfolioJobsPage", portfolioJobs.getContent());
+        model.addAttribute("completedJobs", completedJobs.getContent());
         model.addAttribute("currentCompletedJobPage", completedPage);
         model.addAttribute("currentPortfolioJobPage", portfolioPage);
         model.addAttribute("portfolioJobsPageNums", portfolioJobsPageNums);
         model.addAttribute("completedJobsPageNums", completedJobsPageNums);
-        model.addAttribute("lastPage", jobService.getNumPages(completedJobs));
-        model.addAttribute("lastPortfolioJobsPage", PaginationUtil.getLastPageNumber(portfolioJobs.size(), 9));
+        model.addAttribute("lastPage", completedJobs.getTotalPages());
+        model.addAttribute("lastPortfolioJobsPage", portfolioJobs.getTotalPages());
+        List<Job> shownJobs = new ArrayList<>(portfolioJobs.getContent());
+        shownJobs.addAll(completedJobs.getContent());
+        model.addAttribute("imageUrls", imageStore.getImageUrls(JobService.getImageFilenames(shownJobs)));
         if (viewingUser.getProfilePicture() != null) {
             model.addAttribute("profileImage", "/profileImages/" + viewingUser.getProfilePicture());
         }
@@ -158,8 +168,8 @@ public class UserProfileController {
             HttpServletRequest request) {
         logger.info("POST /add-to-profile");
 
-        Job job = jobService.getJobById(jobId);
-        User user = userService.getUserById(userId);
+        Job job = jobService.getJobWithPortfolioUsers(jobId);
+        User user = userService.getUserWithPortfolioJobs(userId);
         if (user.getPortfolioJobs().contains(job)) {
             job.removePortfolioUser(user);
             user.removePortfolioJob(job);
@@ -169,6 +179,7 @@ public class UserProfileController {
         }
         jobService.addJob(job);
         userService.addUser(user);
+        mapClusterService.evictPortfolio(userId);
 
         return "redirect:" + request.getHeader("Referer");
     }
@@ -214,6 +225,49 @@ public class UserProfileController {
         }
     }
 
+    /**
+     * get mapping that responds with the clustered markers of a tradie's portfolio jobs in the part of the map in
+     * view. The response has an ETag that only changes when the tradie's portfolio jobs do, so a browser that has
+     * already loaded the same view gets a not modified response.
+     * @param userId tradie that has portfolio jobs to show on map.
+     * @param south latitude of the south edge of the map in view
+     * @param west longitude of the west edge of the map in view
+     * @param north latitude of the north edge of the map in view
+     * @param east longitude of the east edge of the map in view
+     * @param zoom zoom level of the map
+     * @param request the request, used to check the ETag it was sent with
+     * @return a response entity containing map cluster dtos, a bad request if the area is not valid, or not found if
+     * there is no such tradie.
+     */
+    @GetMapping("/profile/map/clusters")
+    public ResponseEntity<?> getTradiesPortfolioJobClusters(
+            @RequestParam(name = "userId") Long userId,
+            @RequestParam(name = "south") Double south,
+            @RequestParam(name = "west") Double west,
+            @RequestParam(name = "north") Double north,
+            @RequestParam(name = "east") Double east,
+            @RequestParam(name = "zoom") Integer zoom,
+            WebRequest request
+    ) {
+        logger.info("GET /profile/map/clusters?userId={}&zoom={}", userId, zoom);
+        try {
+            JobService.validateArea(south, west, north, east);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        MarkerClusters clusters = mapClusterService.getPortfolioClusters(userId);
+        if (clusters == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(clusters.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(clusters.getVersion()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(clusters.getVersion())
+                .cacheControl(CacheControl.noCache())
+                .body(clusters.getClusters(south, west, north, east, zoom));
+    }
+
     /**
      * Adds an image to a job
      * @param jobId The id of the job the image is being added to.
@@ -5,6 +5,7 @@ import nz.ac.canterbury.seng302.homehelper.entity.Expense;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.service.ExpenseService;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import org.slf4j.Logger;
@@ -107,7 +108,7 @@ public class ExpenseFormController {
             model.addAttribute("category", category);
             model.addAttribute("expenseDate", expenseDate);
 
-            List<String> errorMessages= expenseService.getErrorMessages(e.getMessage());
+            List<String> errorMessages= expenseService.getErrorMessages(FieldErrors.of(e));
             model.addAttribute("expenseCostErrorMessage", errorMessages.get(0));
             model.addAttribute("descriptionErrorMessage", errorMessages.get(1));
             model.addAttribute("expenseDateErrorMessage", errorMessages.get(2));
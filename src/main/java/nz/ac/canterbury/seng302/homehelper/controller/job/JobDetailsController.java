@@ -10,7 +10,7 @@ import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,7 +19,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
-import java.time.Instant;
 import java.util.*;
 
 @Controller
@@ -33,22 +32,22 @@ public class JobDetailsController {
     private final UserService userService;
     private final QuoteService quoteService;
     private final EmailService emailService;
-    private final TaskScheduler taskScheduler;
     private final RatingService ratingService;
+    private final ImageStore imageStore;
 
     @Autowired
     public JobDetailsController(JobService jobService, RenovationRecordService renovationRecordService, UserService userService,
-                                ExpenseService expenseService, QuoteService quoteService, EmailService emailService, TaskScheduler taskScheduler,
-                                ValidationService validationService, RatingService ratingService) {
+                                ExpenseService expenseService, QuoteService quoteService, EmailService emailService,
+                                ValidationService validationService, RatingService ratingService, ImageStore imageStore) {
         this.jobService = jobService;
         this.renovationRecordService = renovationRecordService;
         this.userService = userService;
         this.expenseService = expenseService;
         this.quoteService = quoteService;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
         this.validationService = validationService;
         this.ratingService = ratingService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -75,14 +74,11 @@ public class JobDetailsController {
         try {
             boolean publicUser = false;
             Job job = jobService.getJobById(jobId);
-            List<Expense> allExpenses = job.getExpenses();
-            double totalCost = allExpenses.stream().mapToDouble(e -> Double.parseDouble(e.getCost()))
-                            .sum();
             if (!job.getRenovationRecord().getUserEmail().equals(principal.getName())) {
                 publicUser = true;
             }
 
-            if (quoteService.checkIfAlreadyQuoted(user, jobService.getJobById(jobId))) {
+            if (quoteService.checkIfAlreadyQuoted(user, job)) {
                 model.addAttribute("quoted", true);
             } else {
                 model.addAttribute("quoted", false);
@@ -90,24 +86,28 @@ public class JobDetailsController {
             userService.addJobToUsersMostRecent(user, job);
             model.addAttribute("job", job);
             model.addAttribute("jobId", job.getId());
+            model.addAttribute("imageUrls", imageStore.getImageUrls(
+                    job.getRooms().stream().map(Room::getImageFilename).toList()));
             model.addAttribute("renovationRecord", job.getRenovationRecord());
             model.addAttribute("publicUser", publicUser);
             model.addAttribute("icons", JobService.ICON_LIST);
             model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(principal.getName()));
-            model.addAttribute("totalExpenses", allExpenses.size());
-            model.addAttribute("totalCost", totalCost);
 
             expensePage = expensePage == null ? 1 : expensePage;
-            model.addAttribute("expensesResults", PaginationUtil.getPageNumbers(expenseService.getExpensesByJobId(job.getId()).size(), 9));
+            Page<Expense> expenses = expenseService.getExpensesPageByJobId(job.getId(), expensePage, 9);
+            model.addAttribute("totalExpenses", expenses.getTotalElements());
+            model.addAttribute("totalCost", expenseService.getTotalCostByJobId(job.getId()));
+            model.addAttribute("expensesResults", PaginationUtil.getPageNumbers((int) expenses.getTotalElements(), 9));
             model.addAttribute("expensesPage", expensePage);
-            model.addAttribute("lastPageExpenses", PaginationUtil.getLastPageNumber(expenseService.getExpensesByJobId(job.getId()).size(), 9));
-            model.addAttribute("expenses", PaginationUtil.getPage(expenseService.getExpensesByJobId(job.getId()), expensePage, 9));
+            model.addAttribute("lastPageExpenses", expenses.getTotalPages());
+            model.addAttribute("expenses", expenses.getContent());
 
             quotesPage = quotesPage == null ? 1 : quotesPage;
-            model.addAttribute("quotesResults", PaginationUtil.getPageNumbers(quoteService.getQuotesByJobId(job.getId()).size(), 12));
+            Page<Quote> receivedQuotes = quoteService.getQuotesPageByJobId(job.getId(), quotesPage, 12);
+            model.addAttribute("quotesResults", PaginationUtil.getPageNumbers((int) receivedQuotes.getTotalElements(), 12));
             model.addAttribute("quotesPage", quotesPage);
-            model.addAttribute("lastPageQuotes", PaginationUtil.getLastPageNumber(quoteService.getQuotesByJobId(job.getId()).size(), 12));
-            model.addAttribute("receivedQuotes", PaginationUtil.getPage(quoteService.getQuotesByJobId(job.getId()), quotesPage, 12));
+            model.addAttribute("lastPageQuotes", receivedQuotes.getTotalPages());
+            model.addAttribute("receivedQuotes", receivedQuotes.getContent());
 
             model.addAttribute("loggedIn", principal != null);
             model.addAttribute("fromSearch", fromSearch);
@@ -154,7 +154,7 @@ public class JobDetailsController {
             RenovationRecord record = renovationRecordService.getRecordById(recordId);
             record = Objects.equals(record.getUserEmail(), principal.getName()) ? record : null;
 
-            if (record.getJobs().stream().filter(t -> Objects.equals(t.getId(), jobId)).findFirst().orElse(null) == null) {
+            if (jobService.getAndAuthenticateJob(jobId, record) == null) {
                 throw new NullPointerException("No job found with id " + jobId);
             }
 
@@ -281,10 +281,7 @@ public class JobDetailsController {
         quoteService.addQuote(quote);
         User user = quote.getUser();
         String email = user.getEmail();
-        taskScheduler.schedule(
-                () -> emailService.sendQuoteAcceptedEmail(email, job),
-                Instant.now()
-        );
+        emailService.sendQuoteAcceptedEmail(email, job);
         if (transfer) {
             expenseService.transferQuoteToExpense(quote, job);
         }
@@ -321,10 +318,7 @@ public class JobDetailsController {
             quoteService.addQuote(quote);
             User user = quote.getUser();
             String email = user.getEmail();
-            taskScheduler.schedule(
-                    () -> emailService.sendQuoteRejectedEmail(email, job),
-                    Instant.now()
-            );
+            emailService.sendQuoteRejectedEmail(email, job);
         }
         return "redirect:/my-renovations/job-details?jobId="
                 +jobId
@@ -5,22 +5,30 @@ import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
 import jakarta.servlet.http.HttpSession;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.service.LocationService;
+import nz.ac.canterbury.seng302.homehelper.service.MapClusterService;
+import nz.ac.canterbury.seng302.homehelper.service.MarkerClusters;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Controller that manages the job listing page and job listings queries eg. filters and pagination for jobs
@@ -29,10 +37,14 @@ import java.util.Objects;
 public class JobListingController {
     Logger logger = LoggerFactory.getLogger(JobListingController.class);
 
+    public static final String NO_LOCATION = "Add an address to your profile to find jobs near you";
+    private static final int MAX_NEARBY_JOBS = 100;
+
     private final JobService jobService;
     private final RenovationRecordService renovationRecordService;
     private final UserService userService;
     private final LocationService locationService;
+    private final MapClusterService mapClusterService;
 
     /**
      * Constructor for the Job listings controller. This sets up the services used for
@@ -41,16 +53,18 @@ public class JobListingController {
      * @param jobService              fetches jobs from the job repo
      * @param renovationRecordService is used to find the locations of jobs.
      * @param userService             used to find info about the users that own/post jobs
+     * @param mapClusterService       gives the clustered markers of posted jobs shown on maps
      */
     @Autowired
     public JobListingController(
             JobService jobService,
             RenovationRecordService renovationRecordService,
-            UserService userService, LocationService locationService) {
+            UserService userService, LocationService locationService, MapClusterService mapClusterService) {
         this.jobService = jobService;
         this.renovationRecordService = renovationRecordService;
         this.userService = userService;
         this.locationService = locationService;
+        this.mapClusterService = mapClusterService;
     }
 
     /**
@@ -69,6 +83,7 @@ public class JobListingController {
             @RequestParam(name = "type-filter", required = false) String typeFilter,
             @RequestParam(name = "city-filter", required = false) String cityFilter,
             @RequestParam(name = "suburb-filter", required = false) String suburbFilter,
+            @RequestParam(name = "radius-filter", required = false) Integer radiusFilter,
             Principal principal,
             HttpSession session,
             Model model) {
@@ -77,7 +92,11 @@ public class JobListingController {
             typeFilter = null;
         }
 
-        JobFilter filter = new JobFilter(keywordsFilter, typeFilter, cityFilter, suburbFilter, jobStartDate, jobDueDate);
+        User user = userService.getUser(principal.getName());
+        boolean userLocated = isLocated(user);
+        JobFilter filter = new JobFilter(keywordsFilter, typeFilter, cityFilter, suburbFilter, jobStartDate, jobDueDate,
+                userLocated ? (double) user.getLatitude() : null, userLocated ? (double) user.getLongitude() : null,
+                radiusFilter == null ? null : radiusFilter.doubleValue());
         Map<String, List<String>> citySuburbs = renovationRecordService.getCityAndSuburb();
         try {
             jobService.validateJobFilter(filter);
@@ -86,11 +105,9 @@ public class JobListingController {
             setErrorMessages(model, e.getMessage());
         }
 
-        User user = userService.getUser(principal.getName());
         jobService.setNumberOfJobs(9);
-        List<Job> filteredJobs = jobService.getFilteredJobs(filter);
+        Page<Job> filteredJobs = jobService.getFilteredJobs(filter, jobPage);
         List<Integer> pages = jobService.getPageListPosted(jobPage, filteredJobs);
-        List<Job> paginatedJobs = jobService.getPostedJobPages(jobPage, filteredJobs);
 
         model.addAttribute("user", user);
         if (user != null && user.getProfilePicture() != null) {
@@ -98,16 +115,18 @@ public class JobListingController {
         }
         model.addAttribute("loggedIn", true);
         model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(principal.getName()));
-        model.addAttribute("jobs", jobService.getJobCardsPosted(userService, paginatedJobs));
+        model.addAttribute("jobs", jobService.getJobCardsPosted(filteredJobs.getContent()));
         model.addAttribute("pages", pages);
         model.addAttribute("jobPage", jobPage);
-        model.addAttribute("lastPage", jobService.getNumPages(filteredJobs));
+        model.addAttribute("lastPage", filteredJobs.getTotalPages());
         model.addAttribute("keywordsFilter", keywordsFilter != null ? keywordsFilter : "");
         model.addAttribute("typeFilter",  typeFilter != null ? typeFilter : "");
         model.addAttribute("jobStartDate", jobStartDate != null ? jobStartDate : "");
         model.addAttribute("jobDueDate", jobDueDate != null ? jobDueDate : "");
         model.addAttribute("cityFilter", cityFilter != null ? cityFilter : "");
         model.addAttribute("suburbFilter", suburbFilter != null ? suburbFilter : "");
+        model.addAttribute("radiusFilter", radiusFilter != null ? radiusFilter : "");
+        model.addAttribute("userLocated", userLocated);
         model.addAttribute("citySuburb", citySuburbs);
 
         model.addAttribute("user", user);
@@ -133,19 +152,26 @@ public class JobListingController {
             @RequestParam(name = "jobDueDate", required = false) String jobDueDate,
             @RequestParam(name = "type-filter", required = false) String typeFilter,
             @RequestParam(name = "city-filter", required = false) String cityFilter,
-            @RequestParam(name = "suburb-filter", required = false) String suburbFilter) {
+            @RequestParam(name = "suburb-filter", required = false) String suburbFilter,
+            @RequestParam(name = "radius-filter", required = false) Integer radiusFilter,
+            Principal principal) {
         logger.info("POST /job-listings-page-number");
+        User user = principal == null ? null : userService.getUser(principal.getName());
+        boolean userLocated = isLocated(user);
         JobFilter filter = new JobFilter(
                 keywordsFilter,
                 typeFilter,
                 cityFilter,
                 suburbFilter,
                 jobStartDate,
-                jobDueDate
+                jobDueDate,
+                userLocated ? (double) user.getLatitude() : null,
+                userLocated ? (double) user.getLongitude() : null,
+                radiusFilter == null ? null : radiusFilter.doubleValue()
         );
 
         try {
-            List<Job> filteredJobs = jobService.getFilteredJobs(filter);
+            Page<Job> filteredJobs = jobService.getFilteredJobs(filter, currentPageNumber);
             List<Integer> pages = jobService.getPageListPosted(currentPageNumber, filteredJobs);
             if (jobService.pageNumberIsInJobPageList(pages, newPageNumber)) {
                 currentPageNumber = newPageNumber;
@@ -157,14 +183,16 @@ public class JobListingController {
                     "&jobDueDate=%s" +
                     "&type-filter=%s" +
                     "&city-filter=%s" +
-                    "&suburb-filter=%s",
+                    "&suburb-filter=%s" +
+                    "%s",
                     currentPageNumber,
                     keywordsFilter != null ? keywordsFilter : "",
                     jobStartDate,
                     jobDueDate,
                     typeFilter,
                     cityFilter,
-                    suburbFilter
+                    suburbFilter,
+                    radiusFilter != null ? "&radius-filter=" + radiusFilter : ""
             );
         } catch (Exception e) {
             logger.warn(e.getMessage());
@@ -172,6 +200,103 @@ public class JobListingController {
         }
     }
 
+    /**
+     * get mapping that responds with the posted jobs nearest to a point, nearest first. The logged-in user's
+     * location is used if no point is given.
+     * @param latitude latitude of the point
+     * @param longitude longitude of the point
+     * @param radius how far from the point jobs can be, in kilometres
+     * @param limit most jobs to respond with
+     * @param principal the logged-in users info
+     * @return a response entity containing nearby job dtos, or a bad request if there is no valid point or radius
+     */
+    @GetMapping("/job-listings/nearby")
+    public ResponseEntity<?> getNearbyJobs(
+            @RequestParam(name = "lat", required = false) Double latitude,
+            @RequestParam(name = "lng", required = false) Double longitude,
+            @RequestParam(name = "radius", defaultValue = "10") Double radius,
+            @RequestParam(name = "limit", defaultValue = "20") Integer limit,
+            Principal principal) {
+        logger.info("GET /job-listings/nearby?lat={}&lng={}&radius={}", latitude, longitude, radius);
+        if (latitude == null || longitude == null) {
+            User user = principal == null ? null : userService.getUser(principal.getName());
+            if (!isLocated(user)) {
+                return ResponseEntity.badRequest().body(NO_LOCATION);
+            }
+            latitude = (double) user.getLatitude();
+            longitude = (double) user.getLongitude();
+        }
+        try {
+            return ResponseEntity.of(Optional.of(jobService.getNearbyJobs(latitude, longitude, radius,
+                    Math.clamp(limit, 1, MAX_NEARBY_JOBS))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * get mapping that responds with the markers of the posted jobs in an area of the map
+     * @param south latitude of the south edge of the area
+     * @param west longitude of the west edge of the area
+     * @param north latitude of the north edge of the area
+     * @param east longitude of the east edge of the area
+     * @return a response entity containing map marker dtos, or a bad request if the area is not valid
+     */
+    @GetMapping("/job-listings/map")
+    public ResponseEntity<?> getJobMarkersInArea(
+            @RequestParam(name = "south") Double south,
+            @RequestParam(name = "west") Double west,
+            @RequestParam(name = "north") Double north,
+            @RequestParam(name = "east") Double east) {
+        logger.info("GET /job-listings/map?south={}&west={}&north={}&east={}", south, west, north, east);
+        try {
+            return ResponseEntity.of(Optional.of(jobService.getJobMarkersInArea(south, west, north, east)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * get mapping that responds with the clustered markers of the posted jobs in the part of the map in view.
+     * The response has an ETag that only changes when posted jobs change, so a browser that has already loaded the
+     * same view gets a not modified response.
+     * @param south latitude of the south edge of the map in view
+     * @param west longitude of the west edge of the map in view
+     * @param north latitude of the north edge of the map in view
+     * @param east longitude of the east edge of the map in view
+     * @param zoom zoom level of the map
+     * @param request the request, used to check the ETag it was sent with
+     * @return a response entity containing map cluster dtos, or a bad request if the area is not valid
+     */
+    @GetMapping("/job-listings/map/clusters")
+    public ResponseEntity<?> getJobClustersInArea(
+            @RequestParam(name = "south") Double south,
+            @RequestParam(name = "west") Double west,
+            @RequestParam(name = "north") Double north,
+            @RequestParam(name = "east") Double east,
+            @RequestParam(name = "zoom") Integer zoom,
+            WebRequest request) {
+        logger.info("GET /job-listings/map/clusters?zoom={}", zoom);
+        try {
+            JobService.validateArea(south, west, north, east);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        MarkerClusters clusters = mapClusterService.getPostedJobClusters();
+        if (request.checkNotModified(clusters.getVersion())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(clusters.getVersion()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(clusters.getVersion())
+                .cacheControl(CacheControl.noCache())
+                .body(clusters.getClusters(south, west, north, east, zoom));
+    }
+
+    // Coordinates that were never set are left at zero
+    private static boolean isLocated(User user) {
+        return user != null && (user.getLatitude() != 0 || user.getLongitude() != 0);
+    }
+
     /**
      * Sets error messages for the add/edit job form
      * @param model (map-like) representation of data to be used in thymeleaf display
@@ -4,6 +4,9 @@ import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.ImageUrls;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieStats;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import nz.ac.canterbury.seng302.homehelper.service.QuoteService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
@@ -33,16 +36,18 @@ public class CompareTradieController {
     private final RenovationRecordService renovationRecordService;
     private final UserService userService;
     private final QuoteService quoteService;
+    private final ImageStore imageStore;
 
     @Autowired
     public CompareTradieController(
             JobService jobService,
             RenovationRecordService renovationRecordService,
-            UserService userService, QuoteService quoteService) {
+            UserService userService, QuoteService quoteService, ImageStore imageStore) {
         this.jobService = jobService;
         this.renovationRecordService = renovationRecordService;
         this.userService = userService;
         this.quoteService = quoteService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -61,7 +66,7 @@ public class CompareTradieController {
 
         User user = userService.getUser(principal.getName());
         try {
-            Job job = jobService.getJobById(jobId);
+            Job job = jobService.getJobForComparison(jobId);
             List<RenovationRecord> headerRecords = renovationRecordService.getRenovationRecordsByOwner(principal.getName());
             if (!job.getRenovationRecord().getUserEmail().equals(user.getEmail())) {
                 return getErrorPage(principal, model);
@@ -100,6 +105,12 @@ public class CompareTradieController {
                 quoteIds.add(quote.getId());
             }
 
+            // Loads the statistics of every tradie being compared at once, so the cards shown later don't query them
+            List<Long> comparedTradieIds = new ArrayList<>(tradieIds);
+            comparedTradieIds.add(tradie1.getId());
+            comparedTradieIds.add(tradie2.getId());
+            Map<Long, TradieStats> tradieStats = quoteService.getTradieStats(jobId, comparedTradieIds);
+
             model.addAttribute("quote1Stats", quoteService.compareQuotes(quote1, quote2));
             model.addAttribute("quote2Stats", quoteService.compareQuotes(quote2, quote1));
             model.addAttribute("user", user);
@@ -108,11 +119,13 @@ public class CompareTradieController {
             model.addAttribute("job", job);
             model.addAttribute("tradie1", tradie1);
             model.addAttribute("quote1", quote1);
+            model.addAttribute("tradie1Stats", tradieStats.getOrDefault(tradie1.getId(), TradieStats.empty(tradie1.getId())));
             model.addAttribute("tradie2", tradie2);
             model.addAttribute("quote2", quote2);
-            model.addAttribute("userService", userService);
+            model.addAttribute("tradie2Stats", tradieStats.getOrDefault(tradie2.getId(), TradieStats.empty(tradie2.getId())));
             model.addAttribute("tradieIds", tradieIds);
             model.addAttribute("quoteIds", quoteIds);
+            model.addAttribute("imageUrls", getTradieImageUrls(List.of(tradie1, tradie2)));
             if (user.getProfilePicture() != null) {
                 model.addAttribute("profileImage", "/profileImages/" + user.getProfilePicture());
             }
@@ -191,11 +204,7 @@ public class CompareTradieController {
                                     @RequestParam Long oldQuoteId,
                                     @RequestParam String side, Model model) {
         List<String> mobileCards = List.of("top", "bottom");
-        List<User> tradies = new ArrayList<>();
-        for (Long tradieId : tradieIds) {
-            User user = userService.getUserById(tradieId);
-            tradies.add(user);
-        }
+        User tradie = userService.getUserById(tradieIds.getFirst());
 
         List<Quote> quotes = new ArrayList<>();
         for (Long quoteId : quoteIds) {
@@ -203,7 +212,6 @@ public class CompareTradieController {
             quotes.add(quote);
         }
 
-        User tradie = tradies.getFirst();
         Quote quote = null;
         for (Quote quote1 : quotes) {
             if (quote1.getUser().equals(tradie)) {
@@ -212,11 +220,15 @@ public class CompareTradieController {
         }
 
         if (quote != null) {
-            model.addAttribute("quoteStats", quoteService.compareQuotes(quote, quoteService.findQuoteById(oldQuoteId)));
-            model.addAttribute("quoteStats2", quoteService.compareQuotes(quoteService.findQuoteById(oldQuoteId), quote));
+            Quote oldQuote = quoteService.findQuoteById(oldQuoteId);
+            Long jobId = quote.getJob() == null ? null : quote.getJob().getId();
+            Map<Long, TradieStats> tradieStats = quoteService.getTradieStats(jobId, Collections.singletonList(tradie.getId()));
+            model.addAttribute("quoteStats", quoteService.compareQuotes(quote, oldQuote));
+            model.addAttribute("quoteStats2", quoteService.compareQuotes(oldQuote, quote));
             model.addAttribute("tradie", tradie);
             model.addAttribute("quote", quote);
-            model.addAttribute("userService", userService);
+            model.addAttribute("imageUrls", getTradieImageUrls(List.of(tradie)));
+            model.addAttribute("tradieStats", tradieStats.getOrDefault(tradie.getId(), TradieStats.empty(tradie.getId())));
             if (!mobileCards.contains(side.toLowerCase())) {
                 if (side.equals("left")) {
                     model.addAttribute("isLeft", true);
@@ -244,7 +256,7 @@ public class CompareTradieController {
 
     @GetMapping("my-renovations/job-details/compare-tradies/get-job-modals")
     public ResponseEntity<List<Long>> getFirstTwoJobs(@RequestParam Long tradieId) {
-        User tradie = userService.getUserById(tradieId);
+        User tradie = userService.getUserWithPortfolioJobs(tradieId);
         if (tradie == null) {
             return ResponseEntity.notFound().build();
         }
@@ -260,9 +272,26 @@ public class CompareTradieController {
         Job job = jobService.getJobById(jobId);
         logger.warn(job == null ? "null" : "not null");
         model.addAttribute("job", job);
+        model.addAttribute("imageUrls", imageStore.getImageUrls(
+                job == null ? List.of() : JobService.getImageFilenames(List.of(job))));
         return "fragments/imageScrollModal :: jobImageModalFragment";
     }
 
+    /**
+     * Gets the URLs of the images on tradie cards, which are the tradies' profile pictures and the images of the
+     * portfolio jobs shown on their cards
+     * @param tradies the tradies being shown
+     * @return the URLs of the images
+     */
+    private ImageUrls getTradieImageUrls(List<User> tradies) {
+        List<String> filenames = new ArrayList<>();
+        for (User tradie : tradies) {
+            filenames.add(tradie.getProfilePicture());
+            filenames.addAll(JobService.getImageFilenames(tradie.getPortfolioJobs().stream().limit(2).toList()));
+        }
+        return imageStore.getImageUrls(filenames);
+    }
+
     /**
      * Prompts user to accept last tradie if all others have been rejected
      * @param jobId The id of the job
@@ -274,7 +303,7 @@ public class CompareTradieController {
             Model model,
             Principal principal){
 
-        Job job = jobService.getJobById(jobId);
+        Job job = jobService.getJobForComparison(jobId);
         User user = userService.getUser(principal.getName());
         List<RenovationRecord> headerRecords = renovationRecordService.getRenovationRecordsByOwner(principal.getName());
         List<Quote> quotes = job.getQuotes();
@@ -2,14 +2,13 @@ package nz.ac.canterbury.seng302.homehelper.controller.quote;
 
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
-import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
 import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,8 +18,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.security.Principal;
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -36,7 +33,6 @@ public class MyQuotesController {
     private RenovationRecordService renovationRecordService;
     private JobService jobService;
     private UserService userService;
-    private final TaskScheduler taskScheduler;
     private final EmailService emailService;
 
 
@@ -44,12 +40,11 @@ public class MyQuotesController {
 
     @Autowired
     public MyQuotesController(QuoteService quoteService, RenovationRecordService renovationRecordService,
-                              JobService jobService, UserService userService, TaskScheduler taskScheduler, EmailService emailService, ExpenseService expenseService) {
+                              JobService jobService, UserService userService, EmailService emailService, ExpenseService expenseService) {
         this.quoteService = quoteService;
         this.renovationRecordService = renovationRecordService;
         this.jobService = jobService;
         this.userService = userService;
-        this.taskScheduler = taskScheduler;
         this.emailService = emailService;
         this.expenseService = expenseService;
     }
@@ -69,6 +64,12 @@ public class MyQuotesController {
             @RequestParam(name = "status", required = false) String status,
             @RequestParam(name = "sentPage", required = false) Integer sentPage,
             @RequestParam(name = "receivedPage", required = false) Integer receivedPage,
+            @RequestParam(name = "sentAfter", required = false) Long sentAfter,
+            @RequestParam(name = "sentBefore", required = false) Long sentBefore,
+            @RequestParam(name = "sentFromPage", required = false) Integer sentFromPage,
+            @RequestParam(name = "receivedAfter", required = false) Long receivedAfter,
+            @RequestParam(name = "receivedBefore", required = false) Long receivedBefore,
+            @RequestParam(name = "receivedFromPage", required = false) Integer receivedFromPage,
             Model model,
             Principal principal) {
         logger.info("GET /my-quotes");
@@ -79,13 +80,6 @@ public class MyQuotesController {
         }
 
         User user = userService.getUser(principal.getName());
-        List<Quote> sentQuotes = quoteService.getQuotesByUserId(user.getId());
-        List<RenovationRecord> records = renovationRecordService.getRenovationRecordsByOwner(principal.getName());
-        List<Job> jobs = new ArrayList<>();
-        for (RenovationRecord record : records) {
-            jobs.addAll(record.getJobs());
-        }
-        List<Quote> receivedQuotes = quoteService.getQuotesByJobs(jobs);
         model.addAttribute("loggedIn", true);
         model.addAttribute("user", user);
         model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(principal.getName()));
@@ -96,16 +90,24 @@ public class MyQuotesController {
 
         // pagination received quotes
         receivedPage = receivedPage == null ? 1 : receivedPage;
-        model.addAttribute("receivedResults", PaginationUtil.getPageNumbers(quoteService.getReceivedQuotes(user.getEmail(), status).size(), 12));
+        KeysetPage<Quote> receivedQuotes = quoteService.getReceivedQuotesPage(user.getEmail(), status, receivedPage, 12,
+                receivedAfter, receivedBefore, receivedFromPage);
+        model.addAttribute("receivedResults", receivedQuotes.pageNumbers());
         model.addAttribute("receivedPage", receivedPage);
-        model.addAttribute("lastPageReceived", PaginationUtil.getLastPageNumber(quoteService.getReceivedQuotes(user.getEmail(), status).size(), 12));
-        model.addAttribute("receivedQuotes", PaginationUtil.getPage(quoteService.getReceivedQuotes(user.getEmail(), status), receivedPage, 12));
+        model.addAttribute("lastPageReceived", receivedQuotes.lastPage());
+        model.addAttribute("receivedAfter", receivedQuotes.lastId());
+        model.addAttribute("receivedBefore", receivedQuotes.firstId());
+        model.addAttribute("receivedQuotes", receivedQuotes.items());
         // pagination sent quotes
         sentPage = sentPage == null ? 1 : sentPage;
-        model.addAttribute("sentResults", PaginationUtil.getPageNumbers(quoteService.getSentQuotes(user.getEmail(), status).size(), 15));
+        KeysetPage<Quote> sentQuotes = quoteService.getSentQuotesPage(user.getEmail(), status, sentPage, 15,
+                sentAfter, sentBefore, sentFromPage);
+        model.addAttribute("sentResults", sentQuotes.pageNumbers());
         model.addAttribute("sentPage", sentPage);
-        model.addAttribute("lastPageSent", PaginationUtil.getLastPageNumber(quoteService.getSentQuotes(user.getEmail(), status).size(), 15));
-        model.addAttribute("sentQuotes", PaginationUtil.getPage(quoteService.getSentQuotes(user.getEmail(), status), sentPage, 15));
+        model.addAttribute("lastPageSent", sentQuotes.lastPage());
+        model.addAttribute("sentAfter", sentQuotes.lastId());
+        model.addAttribute("sentBefore", sentQuotes.firstId());
+        model.addAttribute("sentQuotes", sentQuotes.items());
 
         return "myQuotesTemplate";
     }
@@ -139,10 +141,7 @@ public class MyQuotesController {
 
         User user = quote.getUser();
         String email = user.getEmail();
-        taskScheduler.schedule(
-                () -> emailService.sendQuoteAcceptedEmail(email, job),
-                Instant.now()
-        );
+        emailService.sendQuoteAcceptedEmail(email, job);
         if (transfer) {
             expenseService.transferQuoteToExpense(quote, job);
         }
@@ -220,20 +219,11 @@ public class MyQuotesController {
         Quote quote = quoteService.getQuote(email, status, quoteId);
         quoteService.retractQuote(quote);
         Job job = quote.getJob();
-        model.addAttribute("sentQuotes", quoteService.getSentQuotes(user.getEmail(), status));
-        model.addAttribute("receivedQuotes", quoteService.getReceivedQuotes(user.getEmail(), status));
-        model.addAttribute("status", status == null ? "Filter Status" : status);
         if (status != null && !status.isBlank()) {
-            taskScheduler.schedule(
-                    () -> emailService.sendQuoteRetractedEmail(job, user),
-                    Instant.now()
-            );
+            emailService.sendQuoteRetractedEmail(job, user);
             return "redirect:/my-quotes?status=" + URLEncoder.encode(status, StandardCharsets.UTF_8);
         }
-        taskScheduler.schedule(
-                () -> emailService.sendQuoteRetractedEmail(job, user),
-                Instant.now()
-        );
+        emailService.sendQuoteRetractedEmail(job, user);
         return "redirect:/my-quotes";
     }
 
@@ -10,7 +10,6 @@ import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,7 +17,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.security.Principal;
-import java.time.Instant;
 import java.util.List;
 
 /**
@@ -32,16 +30,14 @@ public class SubmitQuoteController {
     private final JobService jobService;
     private final UserService userService;
     private final EmailService emailService;
-    private final TaskScheduler taskScheduler;
 
     @Autowired
     public SubmitQuoteController(QuoteService quoteService, JobService jobService, UserService userService,
-                                 EmailService emailService, TaskScheduler taskScheduler) {
+                                 EmailService emailService) {
         this.quoteService = quoteService;
         this.jobService = jobService;
         this.userService = userService;
         this.emailService = emailService;
-        this.taskScheduler = taskScheduler;
     }
 
     /**
@@ -101,10 +97,7 @@ public class SubmitQuoteController {
             quoteService.validateQuote(quote);
             quote.setJob(job);
             quoteService.addQuote(quote);
-            taskScheduler.schedule(
-                    () -> emailService.sendQuoteReceivedEmail(job),
-                    Instant.now()
-            );
+            emailService.sendQuoteReceivedEmail(job);
 
             return "redirect:/my-renovations/job-details?jobId="+jobId+"&fromSearch=true";
         } catch (IllegalArgumentException e) {
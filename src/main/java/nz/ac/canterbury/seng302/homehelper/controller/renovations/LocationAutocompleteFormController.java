@@ -31,7 +31,7 @@ public class LocationAutocompleteFormController {
      * gather suggestions based on the location of the user.
      * @param q is the query string. this is used to make autocomplete suggestions
      * @param session HttpSession of the user
-     * @return a list of suggestions formatted as [[street, suburb, city, postcode, country, fullAddress], ...]
+     * @return a list of suggestions formatted as [[street, suburb, city, postcode, country, lat, lon, fullAddress], ...]
      */
     @GetMapping("/suggest")
     @ResponseBody
@@ -40,22 +40,15 @@ public class LocationAutocompleteFormController {
         if (locationQuery == null) {
             return List.of(); // or reinitialize based on default
         }
-        if (q != locationQuery.getQuery()) {
-            locationQuery.setQuery(q);
-            locationQueryService.enqueueQuery(locationQuery);
-        }
-        try {
-            List<List<String>> originalSuggestions = locationQuery.getSuggestions();
-            List<List<String>> extendedSuggestions = new ArrayList<>();
-            for (List<String> components : originalSuggestions) {
-                List<String> newComponents = new ArrayList<>(components);
-                String fullAddress = locationQueryService.formatLocationComponents(components);
-                newComponents.add(fullAddress);
-                extendedSuggestions.add(newComponents);
-            }
-            return extendedSuggestions;
-        } catch (NullPointerException e) {
-            return List.of();
+        locationQuery.setQuery(q);
+        List<List<String>> suggestions = locationQueryService.getSuggestions(q, locationQuery.getViewbox());
+        List<List<String>> extendedSuggestions = new ArrayList<>();
+        for (List<String> components : suggestions) {
+            List<String> newComponents = new ArrayList<>(components);
+            String fullAddress = locationQueryService.formatLocationComponents(components);
+            newComponents.add(fullAddress);
+            extendedSuggestions.add(newComponents);
         }
+        return extendedSuggestions;
     }
 }
@@ -8,6 +8,7 @@ import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,7 +16,6 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.security.Principal;
-import java.util.List;
 
 /**
  * Controller for My Renovations page
@@ -48,23 +48,17 @@ public class MyRenovationsController {
             Model model) {
         logger.info("GET /my-renovations");
 
-        List<RenovationRecord> allRenovationRecords = renovationRecordService.getRenovationRecordsByOwner(principal.getName());
         int renovationsPerPage = 18;
-        int lastPageNumber = PaginationUtil.getLastPageNumber(allRenovationRecords.size(), renovationsPerPage);
-        if (renovationsPage == null || renovationsPage < 1) {
-            renovationsPage = 1;
-        } else if (renovationsPage > lastPageNumber) {
-            renovationsPage = lastPageNumber;
-        }
+        Page<RenovationRecord> renovationRecords = renovationRecordService.getRenovationRecordsPageByOwner(
+                principal.getName(), renovationsPage == null ? 1 : renovationsPage, renovationsPerPage);
 
         model.addAttribute("renovationsResults",
-                PaginationUtil.getPageNumbers(allRenovationRecords.size(), renovationsPerPage));
-        model.addAttribute("renovationsPage", renovationsPage);
-        model.addAttribute("lastPageRenovations",lastPageNumber);
-        model.addAttribute("paginatedRenovationRecords",
-                PaginationUtil.getPage(allRenovationRecords, renovationsPage, renovationsPerPage));
+                PaginationUtil.getPageNumbers((int) renovationRecords.getTotalElements(), renovationsPerPage));
+        model.addAttribute("renovationsPage", renovationRecords.getNumber() + 1);
+        model.addAttribute("lastPageRenovations", renovationRecords.getTotalPages());
+        model.addAttribute("paginatedRenovationRecords", renovationRecords.getContent());
 
-        model.addAttribute("renovationRecords", allRenovationRecords);
+        model.addAttribute("renovationRecords", renovationRecordService.getRenovationRecordsByOwner(principal.getName()));
 
         String email = principal.getName();
         User user = userService.getUser(email);
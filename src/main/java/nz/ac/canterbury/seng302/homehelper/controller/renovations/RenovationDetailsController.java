@@ -32,17 +32,19 @@ public class RenovationDetailsController {
     private final TagService tagService;
     private final ExpenseService expenseService;
     private final ImageService imageService;
+    private final ImageStore imageStore;
 
     @Autowired
     public RenovationDetailsController(RenovationRecordService renovationRecordService, UserService userService,
                                        JobService jobService, TagService tagService, ExpenseService expenseService,
-                                       ImageService imageService) {
+                                       ImageService imageService, ImageStore imageStore) {
         this.renovationRecordService = renovationRecordService;
         this.jobService = jobService;
         this.userService = userService;
         this.tagService = tagService;
         this.expenseService = expenseService;
         this.imageService = imageService;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -68,7 +70,7 @@ public class RenovationDetailsController {
         User user = userService.getUser(principal.getName());
         try {
             boolean publicUser = false;
-            RenovationRecord record = renovationRecordService.getRecordById(recordId);
+            RenovationRecord record = renovationRecordService.getRecordWithJobsById(recordId);
             record = (Objects.equals(record.getUserEmail(), principal.getName()) || record.getIsPublic()) ? record : null;
             if (record != null && record.getIsPublic() && !record.getUserEmail().equals(principal.getName())) {
                 publicUser = true;
@@ -109,6 +111,8 @@ public class RenovationDetailsController {
             model.addAttribute("renoDescription", record.getDescription());
             model.addAttribute("isPublic", record.getIsPublic());
             model.addAttribute("rooms", record.getRooms());
+            model.addAttribute("imageUrls", imageStore.getImageUrls(
+                    record.getRooms().stream().map(Room::getImageFilename).toList()));
             model.addAttribute("tags", record.getTags());
             model.addAttribute("tagNames", "["+String.join("`", tagService.getAllTags().stream().map(Tag::getName).toList())+"]");
             model.addAttribute("userIsOwner", record.getUserEmail().equals(principal.getName()));
@@ -220,7 +224,7 @@ public class RenovationDetailsController {
 
         User user = userService.getUser(principal.getName());
         try {
-            RenovationRecord record = renovationRecordService.getRecordById(recordId);
+            RenovationRecord record = renovationRecordService.getRecordWithJobsById(recordId);
             List<Integer> pages = jobService.getPageList(currentJobPageNumber, record, filter);
 
             if (jobService.pageNumberIsInJobPageList(pages, newJobPageNumber)) {
@@ -330,9 +334,9 @@ public class RenovationDetailsController {
                     renovationRecordService.editRenovationRecordTags(record, oldTag);
                 } else {
                     Tag tag = new Tag(tagName);
-                    record.addTag(tag);
                     tag.addRenovationRecord(record);
                     tagService.addTag(tag);
+                    renovationRecordService.editRenovationRecordTags(record, tag);
                 }
             }
 
@@ -368,13 +372,12 @@ public class RenovationDetailsController {
             Tag tag = tagService.getTagByName(tagName.toLowerCase());
             if (tag != null) {
                 tag.getRenovationRecords().remove(record);
-                record.getTags().remove(tag);
+                renovationRecordService.removeRenovationRecordTag(record, tag);
                 if (tag.getRenovationRecords().isEmpty()) {
                     tagService.deleteTag(tag);
                 } else {
                     tagService.addTag(tag);
                 }
-                renovationRecordService.addRenovationRecord(record);
             }
         }
         return "redirect:" + request.getHeader("Referer");
@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpSession;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.Room;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
 import nz.ac.canterbury.seng302.homehelper.service.LocationQueryService;
 import nz.ac.canterbury.seng302.homehelper.service.LocationService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
@@ -141,7 +142,7 @@ public class RenovationFormController {
             model.addAttribute("descLen", description.codePointCount(0, description.length()) + "/512");
             model.addAttribute("prevPage", prevPage);
 
-            setErrorMessages(model, e.getMessage());
+            setErrorMessages(model, e);
 
             return "renovationFormTemplate";
         }
@@ -249,11 +250,14 @@ public class RenovationFormController {
                     principal.getName(), true);
 
             renovationRecordService.setRenovationRecordLocation(record, locationInfo);
-            renovationRecordService.editRenovationRecord(record, title, description, roomsList);
-
+            // Saved along with the rest of the record, so the change of location is seen by job recommendations
             try {
-                renovationRecordRepository.updateCoordinates(recordId, Float.parseFloat(latitude), Float.parseFloat(longitude));
+                float newLatitude = Float.parseFloat(latitude);
+                float newLongitude = Float.parseFloat(longitude);
+                record.setLatitude(newLatitude);
+                record.setLongitude(newLongitude);
             } catch (Exception ignored) {}
+            renovationRecordService.editRenovationRecord(record, title, description, roomsList);
 
             return "redirect:/my-renovations/details?recordId="+record.getId() + "&search=" + search;
         } catch (IllegalArgumentException e) {
@@ -276,7 +280,7 @@ public class RenovationFormController {
             model.addAttribute("descLen", description.codePointCount(0, description.length())+"/512");
             model.addAttribute("prevPage", prevPage);
 
-            setErrorMessages(model, e.getMessage());
+            setErrorMessages(model, e);
 
             return "renovationFormTemplate";
         } catch (NullPointerException e) {
@@ -304,14 +308,14 @@ public class RenovationFormController {
     /**
      * Sets error messages for the add/edit renovation form
      * @param model (map-like) representation of data to be used in thymeleaf display
-     * @param allErrorMessages String of all error messages wanting to be displayed
+     * @param e the exception thrown when validating the form
      */
-    private void setErrorMessages(Model model, String allErrorMessages) {
-        List<String> errorMessages = renovationRecordService.getErrorMessages(allErrorMessages);
+    private void setErrorMessages(Model model, IllegalArgumentException e) {
+        List<String> errorMessages = renovationRecordService.getErrorMessages(FieldErrors.of(e));
         model.addAttribute("renovationTitleErrorMessage", errorMessages.get(0));
         model.addAttribute("renovationDescriptionErrorMessage", errorMessages.get(1));
         model.addAttribute("renovationRoomErrorMessage", errorMessages.get(2));
 
-        locationService.setLocationErrorMessages(allErrorMessages, model);
+        locationService.setLocationErrorMessages(e.getMessage(), model);
     }
 }
@@ -1,12 +1,13 @@
 package nz.ac.canterbury.seng302.homehelper.controller.renovations;
 
-import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.Tag;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.TagService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.springframework.stereotype.Controller;
@@ -21,7 +22,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.security.Principal;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -65,25 +65,19 @@ public class SearchPageController {
 
 
 
-        List<RenovationRecord> results;
         List<String> tagList = (searchTags == null || searchTags.isEmpty()) ? new ArrayList<>() : Arrays.asList(searchTags.split(";"));
-
-        results = renovationRecordService.getMatchingRenovationRecords(searchString, principal.getName(), tagList)
-                .stream()
-                .sorted(Comparator.comparing(RenovationRecord::getCreatedTimestamp).reversed())
-                .toList();
-
-        List<Integer> pages = renovationRecordService.getPageList(resultsPage, results);
-        List<RenovationRecord> paginatedResults = renovationRecordService.getRenovationRecordPages(resultsPage, results);
+        Page<RenovationCardInfo> results = renovationRecordService.getMatchingRenovationRecordCards(searchString,
+                principal.getName(), tagList, resultsPage);
+        List<Integer> pages = renovationRecordService.getPageList(resultsPage, results.getTotalElements());
 
         model.addAttribute("searchString", searchString);
         model.addAttribute("searchTags", searchTags);
         model.addAttribute("tagNames", "["+String.join("`", tagService.getAllTags()
                 .stream().map(Tag::getName).toList())+"]");
-        model.addAttribute("results", renovationRecordService.getRenovationRecordCards(userService, paginatedResults));
+        model.addAttribute("results", results.getContent());
         model.addAttribute("pages", pages);
         model.addAttribute("searchPage", resultsPage);
-        model.addAttribute("lastPage", renovationRecordService.getNumPages(results));
+        model.addAttribute("lastPage", renovationRecordService.getNumPages(results.getTotalElements()));
         model.addAttribute("onSearchPage", true);
 
         model.addAttribute("loggedIn", principal != null);
@@ -138,12 +132,8 @@ public class SearchPageController {
         logger.info("POST /search-page-number?pageNumber={}", newPageNumber);
 
         List<String> tagList = (searchTags == null || searchTags.isEmpty()) ? new ArrayList<>() : Arrays.asList(searchTags.split(";"));
-        List<RenovationRecord> results = renovationRecordService.getMatchingRenovationRecords(searchString, principal.getName(), tagList)
-                .stream()
-                .sorted(Comparator.comparing(RenovationRecord::getCreatedTimestamp).reversed())
-                .toList();
-
-        List<Integer> pages = renovationRecordService.getPageList(resultsPage, results);
+        int resultCount = renovationRecordService.countMatchingRenovationRecords(searchString, principal.getName(), tagList);
+        List<Integer> pages = renovationRecordService.getPageList(resultsPage, resultCount);
 
         if (renovationRecordService.pageNumberIsInRecordPageList(pages, newPageNumber)) {
             resultsPage = newPageNumber;
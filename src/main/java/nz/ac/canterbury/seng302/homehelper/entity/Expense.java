@@ -2,10 +2,13 @@ package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
+
 /**
  * Entity class reflecting an expense for a job
  */
 @Entity
+@Table(indexes = @Index(name = "idx_expense_local_date", columnList = "local_date"))
 public class Expense {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,6 +24,10 @@ public class Expense {
     @Column
     private String date;
 
+    // Typed copy of the dd/MM/yyyy date string, kept in sync by the setter
+    @Column(name = "local_date")
+    private LocalDate localDate;
+
     @Column
     private String category;
 
@@ -34,7 +41,7 @@ public class Expense {
         this.cost = cost;
         this.description = description;
         this.category = category;
-        this.date = date;
+        setDate(date);
     }
 
     public Long getId() {
@@ -67,6 +74,11 @@ public class Expense {
 
     public void setDate(String date) {
         this.date = date;
+        this.localDate = Job.toLocalDate(date);
+    }
+
+    public LocalDate getLocalDate() {
+        return localDate;
     }
 
     public String getCategory() {
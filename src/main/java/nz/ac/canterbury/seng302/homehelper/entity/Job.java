@@ -2,10 +2,14 @@ package nz.ac.canterbury.seng302.homehelper.entity;
 
 
 import jakarta.persistence.*;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangePublisher;
 
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,7 +18,15 @@ import java.util.List;
  * Entity class reflecting a job of a renovation record
  */
 @Entity
+@EntityListeners(EntityChangePublisher.class)
+@Table(indexes = {
+        @Index(name = "idx_job_start_local_date", columnList = "start_local_date"),
+        @Index(name = "idx_job_due_local_date", columnList = "due_local_date")
+})
 public class Job {
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "job_id")
@@ -32,6 +44,13 @@ public class Job {
     @Column
     private String startDate;
 
+    // Typed copies of the dd/MM/yyyy date strings, kept in sync by the setters so they can be indexed and queried
+    @Column(name = "due_local_date")
+    private LocalDate dueLocalDate;
+
+    @Column(name = "start_local_date")
+    private LocalDate startLocalDate;
+
     @ManyToMany(mappedBy = "jobs", fetch = FetchType.EAGER)
     private List<Room> rooms = new ArrayList<>();
 
@@ -51,18 +70,18 @@ public class Job {
     @Column
     private boolean isPosted = false;
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "job_id")
     private List<Expense> expenses = new ArrayList<>();
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "job_id")
     private List<Quote> quotes = new ArrayList<>();
 
     @Column
     private LocalDateTime lastUpdated = LocalDateTime.now();
 
-    @ManyToMany(mappedBy = "portfolioJobs", fetch = FetchType.EAGER)
+    @ManyToMany(mappedBy = "portfolioJobs", fetch = FetchType.LAZY)
     private List<User> portfolioUsers = new ArrayList<>();
 
     @ElementCollection(fetch = FetchType.EAGER)
@@ -88,8 +107,8 @@ public class Job {
     public Job(String name, String description, String dueDate, String startDate) {
         this.name = name;
         this.description = description;
-        this.dueDate = dueDate;
-        this.startDate = startDate;
+        setDueDate(dueDate);
+        setStartDate(startDate);
     }
 
     public Long getId() {return id;}
@@ -114,9 +133,17 @@ public class Job {
 
     public void setDueDate(String dueDate) {
         this.dueDate = dueDate;
+        this.dueLocalDate = toLocalDate(dueDate);
     }
 
-    public void setStartDate(String startDate) {this.startDate = startDate;}
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+        this.startLocalDate = toLocalDate(startDate);
+    }
+
+    public LocalDate getDueLocalDate() {return dueLocalDate;}
+
+    public LocalDate getStartLocalDate() {return startLocalDate;}
 
     public void setRooms(List<Room> rooms) {this.rooms = rooms;}
 
@@ -182,6 +209,14 @@ public class Job {
         this.portfolioUsers.remove(user);
     }
 
+    /**
+     * Removes the job from the portfolio of every user who added it, as users own the portfolio join table
+     */
+    @PreRemove
+    private void removeFromPortfolios() {
+        portfolioUsers.forEach(user -> user.removePortfolioJob(this));
+    }
+
     public List<String> getImageFilenames() {return imageFilenames;}
 
     public void setImageFilenames(List<String> imageFilenames) {this.imageFilenames = imageFilenames;}
@@ -197,4 +232,20 @@ public class Job {
     public void setCompletedTimestamp(LocalDate completedTimestamp) {
         this.completedTimestamp = completedTimestamp;
     }
+
+    /**
+     * Parses a dd/MM/yyyy date string
+     * @param date date string to parse
+     * @return the parsed date, or null if the string is empty or not a valid date
+     */
+    public static LocalDate toLocalDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim(), DATE_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
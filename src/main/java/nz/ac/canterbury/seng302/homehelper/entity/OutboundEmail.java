@@ -0,0 +1,120 @@
+package nz.ac.canterbury.seng302.homehelper.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity for an email waiting in the outbox to be sent. Emails are saved here by the email service and
+ * sent in the background, so requests never wait on the mail server and an email that cannot be sent
+ * is retried later instead of being lost. Emails are removed from the outbox once they have been sent,
+ * and emails that were given up on are removed once they have been kept long enough to look into.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_outbound_email_due", columnList = "failed, next_attempt_at"))
+public class OutboundEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 2048)
+    private String body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(nullable = false)
+    private boolean failed = false;
+
+    @Column(length = 512)
+    private String lastError;
+
+    /**
+     * JPA required no-args constructor
+     */
+    protected OutboundEmail() {}
+
+    /**
+     * Constructor for an email that is ready to be sent straight away
+     * @param recipient email address the email is sent to
+     * @param subject subject line of the email
+     * @param body plain text body of the email
+     */
+    public OutboundEmail(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    /**
+     * Records a failed attempt at sending the email
+     * @param error description of why the email could not be sent
+     * @param nextAttemptAt when to try sending the email again, or null to give up on it. An email that is
+     *                      given up on keeps the time it was given up on as its next attempt time.
+     */
+    public void recordFailedAttempt(String error, LocalDateTime nextAttemptAt) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 512 ? error.substring(0, 512) : error;
+        if (nextAttemptAt == null) {
+            this.failed = true;
+            this.nextAttemptAt = LocalDateTime.now();
+        } else {
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
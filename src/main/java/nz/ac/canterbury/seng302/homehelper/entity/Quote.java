@@ -1,11 +1,13 @@
 package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangePublisher;
 
 /**
  * Entity class reflecting a quote for a job
  */
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 public class Quote {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,6 +43,10 @@ public class Quote {
     @Column
     private Boolean rated;
 
+    // Status as it was last loaded from or saved to the database, used to tell when the quote's status changes
+    @Transient
+    private String savedStatus;
+
     public Quote() {}
 
     public Quote(String price, String workTime, String email, String phoneNumber, String description) {
@@ -112,6 +118,20 @@ public class Quote {
         this.status = status;
     }
 
+    public String getSavedStatus() {
+        return savedStatus;
+    }
+
+    /**
+     * Records the current status as the one stored in the database
+     */
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    public void markStatusSaved() {
+        this.savedStatus = status;
+    }
+
     public Boolean getRated() {
         return rated;
     }
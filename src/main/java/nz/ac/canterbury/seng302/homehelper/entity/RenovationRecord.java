@@ -1,6 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangePublisher;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.List;
  * Entity class reflecting a renovation record
  */
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 public class RenovationRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -50,7 +52,7 @@ public class RenovationRecord {
     @JoinColumn(name = "renovation_record_id")
     private List<Room> rooms = new ArrayList<>();
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "renovation_record_id")
     private List<Job> jobs = new ArrayList<>();
 
@@ -68,7 +70,7 @@ public class RenovationRecord {
     @Column
     private LocalDateTime createdTimestamp;
 
-    @OneToMany(mappedBy = "renovationRecord", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "renovationRecord", fetch = FetchType.LAZY)
     private List<RecentRenovation> recentRenovations = new ArrayList<>();
 
     /**
@@ -151,6 +153,18 @@ public class RenovationRecord {
         return streetAddress;
     }
 
+    /**
+     * Writes a string to represent a renovation record's location
+     * @param streetAddress street address of the record
+     * @param suburb suburb of the record, may be null or empty
+     * @param city city of the record, or null if the location is not set
+     * @return the location string, or "Location not set by owner" if the location is not set
+     */
+    public static String formatLocation(String streetAddress, String suburb, String city) {
+        suburb = (suburb == null || suburb.isEmpty()) ? "" : suburb + ", ";
+        return city == null ? "Location not set by owner" : streetAddress + ", " + suburb + city;
+    }
+
     public void setSuburb(String suburb) {
         this.suburb = suburb;
     }
@@ -2,13 +2,20 @@ package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 /**
  * Entity that reflecting the code that is attached and sent to a users
- * email when the try to reset the password.
+ * email when the try to reset the password. Tokens expire ten minutes after
+ * they are created and are then removed by the {@link nz.ac.canterbury.seng302.homehelper.service.ExpiredDataSweeper}.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_reset_password_token_expires_at", columnList = "expires_at"))
 public class ResetPasswordToken {
 
+    public static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,6 +26,10 @@ public class ResetPasswordToken {
     @Column(nullable = false)
     private String token;
 
+    // Null on tokens saved before the column existed, until they are backfilled on startup
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
     /**
      * JPA required no-args constructor
      */
@@ -32,6 +43,7 @@ public class ResetPasswordToken {
     public ResetPasswordToken(String userEmail, String token) {
         this.userEmail = userEmail;
         this.token = token;
+        this.expiresAt = LocalDateTime.now().plus(TIME_TO_LIVE);
     }
 
     /**
@@ -57,4 +69,22 @@ public class ResetPasswordToken {
     public String getToken() {
         return token;
     }
+
+    /**
+     * Simple getter for when the token stops being accepted.
+     * @return the time the token expires.
+     */
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Checks if the token has expired, it may not have been removed yet. A token without an expiry time was saved
+     * before tokens had one, and is treated as expired.
+     * @param now the current time.
+     * @return true if the token is no longer accepted.
+     */
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt == null || !now.isBefore(expiresAt);
+    }
 }
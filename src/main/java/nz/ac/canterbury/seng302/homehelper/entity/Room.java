@@ -22,7 +22,7 @@ public class Room {
     @JoinColumn(name = "renovation_record_id")
     private RenovationRecord renovationRecord;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "room_job",
             joinColumns = @JoinColumn(name = "room_id"),
@@ -1,6 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangePublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.List;
  * Entity class reflecting a tag for a renovation record
  */
 @Entity
+@EntityListeners(EntityChangePublisher.class)
 public class Tag {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,7 +20,7 @@ public class Tag {
     @Column(nullable = false, length = 60)
     private String name;
 
-    @ManyToMany(mappedBy = "tags", fetch = FetchType.EAGER)
+    @ManyToMany(mappedBy = "tags", fetch = FetchType.LAZY)
     private List<RenovationRecord> renovationRecords = new ArrayList<>();
 
     public Tag() {}
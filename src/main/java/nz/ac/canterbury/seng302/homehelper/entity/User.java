@@ -1,24 +1,31 @@
 package nz.ac.canterbury.seng302.homehelper.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
  * Entity class reflecting a user
  */
 @Entity
-@Table(name = "tab_user")
+@Table(name = "tab_user", indexes = {
+        @Index(name = "idx_user_normalized_email", columnList = "normalized_email", unique = true),
+        @Index(name = "idx_user_accepted_quote_count", columnList = "accepted_quote_count"),
+        @Index(name = "idx_user_verification_expires_at", columnList = "verification_expires_at")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,6 +41,10 @@ public class User {
     @Column(nullable = false)
     private String email;
 
+    // Lower-cased copy of the email, kept in sync by the setter so that lookups ignoring case can use the index
+    @Column(name = "normalized_email")
+    private String normalizedEmail;
+
     @Column(nullable = false)
     private String password;
 
@@ -64,6 +75,10 @@ public class User {
     @Column
     private String verificationCode;
 
+    // When the account is deleted if it still has not been verified, null once the account is verified
+    @Column(name = "verification_expires_at")
+    private LocalDateTime verificationExpiresAt;
+
     @Column
     private String profilePictureFilename;
 
@@ -73,10 +88,15 @@ public class User {
     private List<Authority> userRoles = new ArrayList<>();
 
     @Column
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id")
     private List<Quote> quotes = new ArrayList<>();
 
+    // Only written by bulk updates when one of the user's quotes is accepted or stops being accepted
+    @ColumnDefault("0")
+    @Column(name = "accepted_quote_count", nullable = false, insertable = false, updatable = false)
+    private int acceptedQuoteCount;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_recent_jobs", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "job_id")
@@ -87,14 +107,24 @@ public class User {
     private List<RecentRenovation> recentRenovations = new LinkedList<>();
 
     @Column
-    @OneToMany(mappedBy = "receivingUser", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "receivingUser", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Rating> receivedRatings = new ArrayList<>();
 
+    // Totals of the received ratings so that averages don't need the ratings loaded. Set from the ratings
+    // when the user is first saved, and after that only changed by bulk updates when a rating is added
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private int ratingCount;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum;
+
     @Column
-    @OneToMany(mappedBy = "sendingUser", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "sendingUser", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<Rating> sentRatings = new ArrayList<>();
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "user_portfolio_jobs",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -120,7 +150,7 @@ public class User {
                 String profilePictureFilename, String verificationCode) {
         this.firstName = firstName;
         this.lastName = lastName;
-        this.email = email;
+        setEmail(email);
         this.password = password;
         this.profilePictureFilename = profilePictureFilename;
         this.verificationCode = verificationCode;
@@ -205,6 +235,20 @@ public class User {
      */
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    /**
+     * Normalizes an email so that it can be compared ignoring case
+     * @param email the email to normalize
+     * @return the lower-cased email, or null if no email was given
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -325,6 +369,23 @@ public class User {
      */
     public void setUserVerifyCodeNull() {
         this.verificationCode = null;
+        this.verificationExpiresAt = null;
+    }
+
+    /**
+     * Gets when the account will be deleted if it has not been verified
+     * @return the expiry time, or null if the account does not need verifying
+     */
+    public LocalDateTime getVerificationExpiresAt() {
+        return verificationExpiresAt;
+    }
+
+    /**
+     * Sets when the account will be deleted if it has not been verified
+     * @param verificationExpiresAt the expiry time
+     */
+    public void setVerificationExpiresAt(LocalDateTime verificationExpiresAt) {
+        this.verificationExpiresAt = verificationExpiresAt;
     }
 
     /**
@@ -382,6 +443,16 @@ public class User {
 
     public void setReceivedRatings(List<Rating> receivedRatings) {
         this.receivedRatings = receivedRatings;
+        this.ratingCount = receivedRatings.size();
+        this.ratingSum = receivedRatings.stream().mapToLong(Rating::getRating).sum();
+    }
+
+    /**
+     * Gets the number of ratings the user has received
+     * @return the number of received ratings
+     */
+    public int getRatingCount() {
+        return ratingCount;
     }
 
     public List<Rating> getSentRatings() {
@@ -397,14 +468,20 @@ public class User {
      * @return Average of all received ratings, or zero if there are no received ratings
      */
     public double getAverageRating() {
-        if (receivedRatings.isEmpty()) {
+        return averageRating(ratingCount, ratingSum);
+    }
+
+    /**
+     * Calculates an average rating rounded to two decimal places
+     * @param ratingCount number of ratings received
+     * @param ratingSum sum of the ratings received
+     * @return Average of the ratings, or zero if there are no ratings
+     */
+    public static double averageRating(int ratingCount, long ratingSum) {
+        if (ratingCount == 0) {
             return 0;
         } else {
-            int ratingsSum = 0;
-            for (Rating rating : receivedRatings) {
-                ratingsSum += rating.getRating();
-            }
-            float averageRating = (float) ratingsSum / receivedRatings.size();
+            float averageRating = (float) ratingSum / ratingCount;
             double scale = Math.pow(10, 2);
             return Math.round(averageRating * scale) / scale;
         }
@@ -473,9 +550,7 @@ public class User {
      * @return the number of quotes the user has sent and been accepted
      */
     public int getNumberOfAcceptedQuotes() {
-        return (int) quotes.stream()
-                .filter(q -> "Accepted".equals(q.getStatus()))
-                .count();
+        return acceptedQuoteCount;
     }
 
     /**
@@ -483,14 +558,11 @@ public class User {
      * @return a string formatted as ⭐ 4.6 (2,321)
      */
     public String formatRatings() {
-        if (receivedRatings == null || receivedRatings.isEmpty()) {
+        if (ratingCount == 0) {
             return "⭐ No ratings yet";
         }
-        double average = receivedRatings.stream()
-                .mapToInt(Rating::getRating)
-                .average()
-                .orElse(0.0);
-        int total = receivedRatings.size();
+        double average = (double) ratingSum / ratingCount;
+        int total = ratingCount;
         DecimalFormat avgFormat = new DecimalFormat("#.0");
         NumberFormat countFormat = NumberFormat.getIntegerInstance();
         return "⭐ " + avgFormat.format(average) + " (" + countFormat.format(total) + ")";
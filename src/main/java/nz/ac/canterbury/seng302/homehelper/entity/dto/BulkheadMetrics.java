@@ -0,0 +1,18 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+/**
+ * Snapshot of how busy one of the app's background thread pools is
+ * @param name name of the pool
+ * @param poolSize number of threads in the pool
+ * @param activeThreads number of threads running a task
+ * @param queueDepth number of tasks waiting for a thread, including scheduled tasks that are not due yet
+ * @param completedTasks number of tasks that have finished
+ * @param rejectedTasks number of tasks turned away because the queue was full
+ * @param averageWaitMillis average time a task waited for a thread, or how late a scheduled task started
+ * @param maxWaitMillis longest time a task waited for a thread
+ * @param averageRunMillis average time a task took to run
+ * @param maxRunMillis longest time a task took to run
+ */
+public record BulkheadMetrics(String name, int poolSize, int activeThreads, int queueDepth, long completedTasks,
+                              long rejectedTasks, double averageWaitMillis, double maxWaitMillis,
+                              double averageRunMillis, double maxRunMillis) {}
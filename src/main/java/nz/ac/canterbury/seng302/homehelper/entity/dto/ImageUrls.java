@@ -0,0 +1,40 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.util.Map;
+
+/**
+ * The URLs of the sized versions of the uploaded images shown on a page, worked out by the controller so that
+ * templates only look them up. Each map is keyed by the name the image is stored under.
+ * @param thumbnails URLs of the images sized for avatars
+ * @param cards URLs of the images sized for cards
+ * @param galleries URLs of the images sized for galleries
+ */
+public record ImageUrls(
+        Map<String, String> thumbnails,
+        Map<String, String> cards,
+        Map<String, String> galleries
+) {
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for avatars, or null if there is no such image on the page
+     */
+    public String thumbnail(String filename) {
+        return filename == null ? null : thumbnails.get(filename);
+    }
+
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for cards, or null if there is no such image on the page
+     */
+    public String card(String filename) {
+        return filename == null ? null : cards.get(filename);
+    }
+
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for galleries, or null if there is no such image on the page
+     */
+    public String gallery(String filename) {
+        return filename == null ? null : galleries.get(filename);
+    }
+}
@@ -0,0 +1,28 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The jobs shown on a user's home page calendar, which are the jobs of their renovation records and the jobs
+ * they have had a quote accepted for. Each list holds one entry per job, in the same order.
+ * @param recordIds IDs of the renovation records the jobs belong to
+ * @param jobIds IDs of the jobs
+ * @param jobNames names of the jobs
+ * @param startDates start dates of the jobs as ISO dates, or null if a job has none
+ * @param dueDates due dates of the jobs as ISO dates, or null if a job has none
+ * @param statuses statuses of the jobs
+ * @param lastUpdated when each job was last changed
+ * @param quotedJobs whether each job is one the user had a quote accepted for
+ */
+public record JobCalendar(
+        List<Long> recordIds,
+        List<Long> jobIds,
+        List<String> jobNames,
+        List<String> startDates,
+        List<String> dueDates,
+        List<String> statuses,
+        List<LocalDateTime> lastUpdated,
+        List<Boolean> quotedJobs
+) {
+}
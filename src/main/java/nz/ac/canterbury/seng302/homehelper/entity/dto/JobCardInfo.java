@@ -1,5 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.entity.dto;
 
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+
 /**
  * Used to pass a job listings info to the template. This is just a compiled info record.
  * This file just contains getters and setters for the job card record.
@@ -11,6 +13,7 @@ package nz.ac.canterbury.seng302.homehelper.entity.dto;
  * @param jobType of the job
  * @param budget the owner is expecting to spend on the job
  * @param jobId id of the job
+ * @param jobImage url of the image shown on the card
  */
 public record JobCardInfo(
         String title,
@@ -25,6 +28,52 @@ public record JobCardInfo(
         Long jobId,
         String jobImage
 ) {
+    public static final String NO_BUDGET = "Budget not set"; // this is because there is no budget yet
+    public static final String NO_ROOMS_IMAGE = "/images/JobDefault.png";
+    public static final String NO_ROOM_IMAGE = "/images/RenovationRoomDefault.png";
+
+    /**
+     * Builds a job card from the columns loaded by a card projection query
+     * @param jobId id of the job
+     * @param title name of the job
+     * @param startDate start date of the job
+     * @param endDate due date of the job
+     * @param jobType type of the job
+     * @param jobState status of the job
+     * @param jobIcon icon of the job
+     * @param streetAddress street address of the job's renovation record
+     * @param suburb suburb of the job's renovation record
+     * @param city city of the job's renovation record
+     * @param ownerFirstName first name of the record's owner
+     * @param ownerLastName last name of the record's owner
+     * @param firstRoomId id of the first of the job's rooms, or null if the job has no rooms
+     * @param firstRoomImage image filename of the first of the job's rooms
+     */
+    public JobCardInfo(Long jobId, String title, String startDate, String endDate, String jobType, String jobState,
+                       String jobIcon, String streetAddress, String suburb, String city, String ownerFirstName,
+                       String ownerLastName, Long firstRoomId, String firstRoomImage) {
+        this(title,
+                ownerFirstName == null ? "" : ownerFirstName + " " + ownerLastName,
+                startDate,
+                endDate,
+                RenovationRecord.formatLocation(streetAddress, suburb, city),
+                jobType,
+                NO_BUDGET,
+                jobState,
+                jobIcon,
+                jobId,
+                firstRoomId == null ? NO_ROOMS_IMAGE : (firstRoomImage == null ? NO_ROOM_IMAGE : "/profileImages/" + firstRoomImage));
+    }
+
+    /**
+     * @param jobImage url of the image shown on the card
+     * @return a copy of this card showing a different image
+     */
+    public JobCardInfo withJobImage(String jobImage) {
+        return new JobCardInfo(title, userFullName, startDate, endDate, location, jobType, budget, jobState, jobIcon,
+                jobId, jobImage);
+    }
+
     public String getTitle() {
         return title;
     }
@@ -1,11 +1,38 @@
 package nz.ac.canterbury.seng302.homehelper.entity.dto;
 
+/**
+ * Filters entered on the job listings page. The radius filter is only applied when a latitude, longitude and
+ * radius are all given, in which case jobs are listed nearest first.
+ * @param keywords words the job's name or description must contain
+ * @param jobTypes type of the job
+ * @param city city of the job's renovation record
+ * @param suburb suburb of the job's renovation record
+ * @param startDate earliest start date in the format dd/MM/yyyy
+ * @param dueDate latest due date in the format dd/MM/yyyy
+ * @param latitude latitude of the point jobs must be near
+ * @param longitude longitude of the point jobs must be near
+ * @param radiusKm how far from the point jobs can be, in kilometres
+ */
 public record JobFilter(
         String keywords,
         String jobTypes,
         String city,
         String suburb,
         String startDate,
-        String dueDate
+        String dueDate,
+        Double latitude,
+        Double longitude,
+        Double radiusKm
 ) {
+
+    public JobFilter(String keywords, String jobTypes, String city, String suburb, String startDate, String dueDate) {
+        this(keywords, jobTypes, city, suburb, startDate, dueDate, null, null, null);
+    }
+
+    /**
+     * @return true if jobs must be within a radius of a point
+     */
+    public boolean hasRadius() {
+        return latitude != null && longitude != null && radiusKm != null && radiusKm > 0;
+    }
 }
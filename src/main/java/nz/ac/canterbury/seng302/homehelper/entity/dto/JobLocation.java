@@ -0,0 +1,37 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+
+/**
+ * Where a job is, taken from the coordinates of its renovation record
+ * @param jobId ID of the job
+ * @param recordId ID of the job's renovation record
+ * @param name name of the job, shown on its map marker
+ * @param latitude latitude of the renovation record, or zero if it is unknown
+ * @param longitude longitude of the renovation record, or zero if it is unknown
+ */
+public record JobLocation(
+        Long jobId,
+        Long recordId,
+        String name,
+        float latitude,
+        float longitude
+) {
+
+    /**
+     * @param job a job with its renovation record
+     * @return the location of the job
+     */
+    public static JobLocation of(Job job) {
+        RenovationRecord record = job.getRenovationRecord();
+        return new JobLocation(job.getId(), record.getId(), job.getName(), record.getLatitude(), record.getLongitude());
+    }
+
+    /**
+     * @return true if the job's renovation record has been given coordinates
+     */
+    public boolean isLocated() {
+        return latitude != 0 || longitude != 0;
+    }
+}
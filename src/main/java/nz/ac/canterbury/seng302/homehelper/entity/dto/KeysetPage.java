@@ -0,0 +1,33 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * One page of items loaded by a keyset query, along with what the pagination controls need to link to the other pages
+ * @param items the items on the page
+ * @param pageNumber number of the page, starting from 1
+ * @param lastPage number of the last page, 0 if there are no items
+ * @param totalItems number of items across every page
+ * @param firstId ID of the first item on the page, passed back when loading the previous page so it can seek
+ *                straight to the items before it, or null if the page is empty
+ * @param lastId ID of the last item on the page, passed back when loading the next page so it can seek straight
+ *               to the items after it, or null if the page is empty
+ * @param <T> type of the items
+ */
+public record KeysetPage<T>(
+        List<T> items,
+        int pageNumber,
+        int lastPage,
+        long totalItems,
+        Long firstId,
+        Long lastId
+) {
+
+    /**
+     * @return every page number in order, as used by the pagination fragment
+     */
+    public List<Integer> pageNumbers() {
+        return IntStream.rangeClosed(1, lastPage).boxed().toList();
+    }
+}
@@ -0,0 +1,13 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.util.List;
+
+/**
+ * A group of job markers that are close together on the map at some zoom level, shown as one marker
+ * @param pos centre of the jobs in the cluster
+ * @param count number of jobs in the cluster
+ * @param markers markers of the jobs if they are all at the same location, otherwise empty so that large
+ *                clusters stay small to send
+ */
+public record MapCluster(MapPosition pos, int count, List<MapMarker> markers) {
+}
@@ -0,0 +1,11 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+/**
+ * A posted job found near a point, as returned by the nearby jobs endpoint
+ * @param jobId ID of the job
+ * @param name name of the job
+ * @param distanceKm distance from the point to the job in kilometres
+ * @param pos location of the job
+ */
+public record NearbyJob(Long jobId, String name, double distanceKm, MapPosition pos) {
+}
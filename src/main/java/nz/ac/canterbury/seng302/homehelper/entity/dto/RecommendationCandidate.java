@@ -0,0 +1,36 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+
+/**
+ * A posted job that can be recommended on the home page, with the details of its renovation record that are used
+ * to decide who it is recommended to
+ * @param jobId ID of the job
+ * @param recordId ID of the job's renovation record
+ * @param ownerEmail email of the owner of the renovation record
+ * @param city city of the renovation record, or null if it has none
+ * @param jobType type of the job
+ * @param latitude latitude of the renovation record, or zero if it is unknown
+ * @param longitude longitude of the renovation record, or zero if it is unknown
+ */
+public record RecommendationCandidate(
+        Long jobId,
+        Long recordId,
+        String ownerEmail,
+        String city,
+        String jobType,
+        float latitude,
+        float longitude
+) {
+
+    /**
+     * @param job a job with its renovation record
+     * @return the candidate for the job
+     */
+    public static RecommendationCandidate of(Job job) {
+        RenovationRecord record = job.getRenovationRecord();
+        return new RecommendationCandidate(job.getId(), record.getId(), record.getUserEmail(), record.getCity(),
+                job.getType(), record.getLatitude(), record.getLongitude());
+    }
+}
@@ -1,5 +1,14 @@
 package nz.ac.canterbury.seng302.homehelper.entity.dto;
 
+/**
+ * Used to pass a renovation record's info to the renovation card template
+ * @param name name of the record
+ * @param description description of the record
+ * @param location city of the record
+ * @param userFullName full name of the record's owner
+ * @param recordId id of the record
+ * @param profilePicture url of the owner's profile picture, or null if they have not set one
+ */
 public record RenovationCardInfo (
         String name,
         String description,
@@ -8,6 +17,31 @@ public record RenovationCardInfo (
         Long recordId,
         String profilePicture
 ) {
+
+    /**
+     * Builds a renovation card from the columns loaded by a card projection query
+     * @param recordId id of the record
+     * @param name name of the record
+     * @param description description of the record
+     * @param city city of the record
+     * @param ownerFirstName first name of the record's owner
+     * @param ownerLastName last name of the record's owner
+     * @param ownerProfilePicture profile picture filename of the record's owner
+     */
+    public RenovationCardInfo(Long recordId, String name, String description, String city, String ownerFirstName,
+                              String ownerLastName, String ownerProfilePicture) {
+        this(name, description, city, ownerFirstName == null ? "" : ownerFirstName + " " + ownerLastName, recordId,
+                ownerProfilePicture == null ? null : "/profileImages/" + ownerProfilePicture);
+    }
+
+    /**
+     * @param profilePicture url of the owner's profile picture, or null if they have not set one
+     * @return a copy of this card showing a different profile picture
+     */
+    public RenovationCardInfo withProfilePicture(String profilePicture) {
+        return new RenovationCardInfo(name, description, location, userFullName, recordId, profilePicture);
+    }
+
     public String getName() {
         return name;
     }
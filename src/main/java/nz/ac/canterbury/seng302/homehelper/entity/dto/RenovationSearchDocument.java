@@ -0,0 +1,20 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+/**
+ * The searchable fields of a renovation record, loaded without the rest of the record to build the search index
+ * @param recordId ID of the renovation record
+ * @param name name of the record
+ * @param description description of the record
+ * @param city city the record is located in, or null if it has no location
+ * @param userEmail email of the record's owner
+ * @param isPublic true if the record is visible to every user
+ */
+public record RenovationSearchDocument(
+        Long recordId,
+        String name,
+        String description,
+        String city,
+        String userEmail,
+        boolean isPublic
+) {
+}
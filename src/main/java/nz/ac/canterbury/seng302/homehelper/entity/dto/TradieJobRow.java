@@ -0,0 +1,25 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One row of a tradie's work history, used to calculate their statistics for many tradies in one query.
+ * The job fields are null for a tradie with no completed jobs
+ * @param tradieId ID of the tradie
+ * @param ratingCount number of ratings the tradie has received
+ * @param ratingSum sum of the ratings the tradie has received
+ * @param jobId ID of a completed job the tradie had a quote accepted for
+ * @param startDate start date of the job
+ * @param dueDate due date of the job
+ * @param completedDate date the job was completed
+ */
+public record TradieJobRow(
+        Long tradieId,
+        int ratingCount,
+        long ratingSum,
+        Long jobId,
+        LocalDate startDate,
+        LocalDate dueDate,
+        LocalDate completedDate
+) {
+}
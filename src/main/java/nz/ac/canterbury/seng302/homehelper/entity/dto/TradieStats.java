@@ -0,0 +1,26 @@
+package nz.ac.canterbury.seng302.homehelper.entity.dto;
+
+import java.io.Serializable;
+
+/**
+ * Statistics about a tradie's past work, shown and compared on the compare tradies page
+ * @param tradieId ID of the tradie
+ * @param completedJobs number of completed jobs the tradie had a quote accepted for
+ * @param workEfficiency average ratio of the actual to planned time taken on those jobs, or zero if unknown
+ * @param averageRating average of the ratings the tradie has received, or zero if they have none
+ */
+public record TradieStats(
+        Long tradieId,
+        int completedJobs,
+        double workEfficiency,
+        double averageRating
+) implements Serializable {
+
+    /**
+     * @param tradieId ID of the tradie
+     * @return statistics for a tradie with no completed jobs or ratings
+     */
+    public static TradieStats empty(Long tradieId) {
+        return new TradieStats(tradieId, 0, 0, 0);
+    }
+}
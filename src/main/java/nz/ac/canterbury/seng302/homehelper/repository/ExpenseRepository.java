@@ -3,6 +3,7 @@ package nz.ac.canterbury.seng302.homehelper.repository;
 import nz.ac.canterbury.seng302.homehelper.entity.Expense;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,9 +18,18 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     List<Expense> findAllByJobId(Long jobId);
 
+    @Query("SELECT e FROM Expense e WHERE e.job.id = :jobId ORDER BY e.id")
+    Page<Expense> findPageByJobId(Long jobId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(CAST(e.cost AS double)), 0) FROM Expense e WHERE e.job.id = :jobId")
+    double sumCostByJobId(Long jobId);
+
     @Query("SELECT t FROM Expense t WHERE t.job = :job")
     Slice<Expense> findAllFromJob(Job job, Pageable pageable);
 
     @Query("SELECT e FROM Expense e WHERE e.job.renovationRecord = :record")
     Slice<Expense> findAllFromRecord(RenovationRecord record, Pageable pageable);
+
+    @Query("SELECT e FROM Expense e WHERE e.id > :afterId AND e.date IS NOT NULL AND e.localDate IS NULL ORDER BY e.id")
+    List<Expense> findExpensesWithUnconvertedDates(Long afterId, Pageable pageable);
 }
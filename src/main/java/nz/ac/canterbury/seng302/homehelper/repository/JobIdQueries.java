@@ -0,0 +1,19 @@
+package nz.ac.canterbury.seng302.homehelper.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Queries for the IDs of jobs matching a specification, for when the jobs themselves are not needed
+ */
+public interface JobIdQueries {
+
+    /**
+     * Finds the IDs of the jobs matching a specification without loading the jobs or their associations
+     * @param specification the specification the jobs must match
+     * @return IDs of the matching jobs, in no particular order
+     */
+    List<Long> findJobIds(Specification<Job> specification);
+}
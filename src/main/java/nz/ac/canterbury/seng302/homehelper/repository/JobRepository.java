@@ -2,19 +2,26 @@ package nz.ac.canterbury.seng302.homehelper.repository;
 
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Job repository accessor using Spring's @link{CrudRepository}.
  */
 @Repository
-public interface JobRepository extends JpaRepository<Job, Long> {
+public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job>, JobIdQueries {
     List<Job> findAll();
 
     @Query("SELECT COUNT(t.id) from Job t WHERE t.renovationRecord = :renovationRecordId")
@@ -28,4 +35,46 @@ public interface JobRepository extends JpaRepository<Job, Long> {
 
     @Query("SELECT j from Job j WHERE j.isPosted = true")
     List<Job> findPostedJobs();
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"quotes"})
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findJobWithQuotesById(Long id);
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"portfolioUsers"})
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findJobWithPortfolioUsersById(Long id);
+
+    @Query("SELECT j FROM Job j WHERE j.id > :afterId " +
+            "AND ((j.startDate IS NOT NULL AND j.startLocalDate IS NULL) OR (j.dueDate IS NOT NULL AND j.dueLocalDate IS NULL)) " +
+            "ORDER BY j.id")
+    List<Job> findJobsWithUnconvertedDates(Long afterId, Pageable pageable);
+
+    /**
+     * Builds the cards of the given jobs in one query, joining each job to its record's owner and its first room
+     * rather than loading the jobs and looking up each owner
+     * @param jobIds IDs of the jobs
+     * @return a card for each job that exists, in no particular order
+     */
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo(" +
+            "j.id, j.name, j.startDate, j.dueDate, j.type, j.status, j.icon, r.streetAddress, r.suburb, r.city, " +
+            "u.firstName, u.lastName, firstRoom.id, firstRoom.imageFilename) " +
+            "FROM Job j JOIN j.renovationRecord r " +
+            "LEFT JOIN User u ON u.normalizedEmail = LOWER(r.userEmail) " +
+            "LEFT JOIN Room firstRoom ON firstRoom.id = " +
+            "(SELECT MIN(room.id) FROM Room room JOIN room.jobs roomJob WHERE roomJob = j) " +
+            "WHERE j.id IN :jobIds")
+    List<JobCardInfo> findJobCards(Collection<Long> jobIds);
+
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate(" +
+            "j.id, r.id, r.userEmail, r.city, j.type, r.latitude, r.longitude) " +
+            "FROM Job j JOIN j.renovationRecord r WHERE j.isPosted = true")
+    List<RecommendationCandidate> findRecommendationCandidates();
+
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation(" +
+            "j.id, r.id, j.name, r.latitude, r.longitude) " +
+            "FROM Job j JOIN j.renovationRecord r WHERE j.isPosted = true")
+    List<JobLocation> findPostedJobLocations();
+
+    @Query("SELECT DISTINCT f FROM Job j JOIN j.imageFilenames f WHERE f IN :filenames")
+    List<String> findImageFilenamesIn(Collection<String> filenames);
 }
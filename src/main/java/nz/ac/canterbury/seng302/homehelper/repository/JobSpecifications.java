@@ -0,0 +1,148 @@
+package nz.ac.canterbury.seng302.homehelper.repository;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Criteria predicates used to search posted jobs in the database rather than in memory.
+ * Each method returns null when its filter value is empty so that Spring ignores it when combined.
+ */
+public final class JobSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private JobSpecifications() {}
+
+    /**
+     * Combines every predicate of a job filter with the posted job predicate
+     * @param filter the job filter entered on the job listings page
+     * @return specification matching posted jobs that satisfy every given filter
+     */
+    public static Specification<Job> matchesFilter(JobFilter filter) {
+        return Specification.where(isPosted())
+                .and(keywordsMatch(filter.keywords()))
+                .and(hasType(filter.jobTypes()))
+                .and(startsOnOrAfter(filter.startDate()))
+                .and(dueOnOrBefore(filter.dueDate()))
+                .and(inCity(filter.city()))
+                .and(inSuburb(filter.suburb()));
+    }
+
+    /**
+     * @return specification matching jobs that have been posted to the job listings page
+     */
+    public static Specification<Job> isPosted() {
+        return (root, query, cb) -> cb.isTrue(root.get("isPosted"));
+    }
+
+    /**
+     * Matches jobs whose name or description contain the keywords, ignoring case
+     * @param keywords keywords to search for
+     * @return specification for the keyword search, or null if no keywords were given
+     */
+    public static Specification<Job> keywordsMatch(String keywords) {
+        if (isEmpty(keywords)) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(keywords.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE));
+    }
+
+    /**
+     * @param type job type to match
+     * @return specification for the job type, or null if no type was given
+     */
+    public static Specification<Job> hasType(String type) {
+        if (isEmpty(type)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    /**
+     * Matches jobs starting on or after the given date. An invalid date matches no jobs
+     * @param startDate date string in the format dd/MM/yyyy
+     * @return specification for the start date, or null if no date was given
+     */
+    public static Specification<Job> startsOnOrAfter(String startDate) {
+        if (isEmpty(startDate)) {
+            return null;
+        }
+        LocalDate start = Job.toLocalDate(startDate);
+        return (root, query, cb) -> start == null ? cb.disjunction() :
+                cb.greaterThanOrEqualTo(root.get("startLocalDate"), start);
+    }
+
+    /**
+     * Matches jobs due on or before the given date. An invalid date matches no jobs
+     * @param dueDate date string in the format dd/MM/yyyy
+     * @return specification for the due date, or null if no date was given
+     */
+    public static Specification<Job> dueOnOrBefore(String dueDate) {
+        if (isEmpty(dueDate)) {
+            return null;
+        }
+        LocalDate due = Job.toLocalDate(dueDate);
+        return (root, query, cb) -> due == null ? cb.disjunction() :
+                cb.lessThanOrEqualTo(root.get("dueLocalDate"), due);
+    }
+
+    /**
+     * @param city city the job's renovation record is located in, ignoring case
+     * @return specification for the city, or null if no city was given
+     */
+    public static Specification<Job> inCity(String city) {
+        if (isEmpty(city)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.upper(renovationRecord(root).get("city")), city.toUpperCase());
+    }
+
+    /**
+     * @param suburb suburb the job's renovation record is located in, ignoring case
+     * @return specification for the suburb, or null if no suburb was given
+     */
+    public static Specification<Job> inSuburb(String suburb) {
+        if (isEmpty(suburb)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(cb.upper(renovationRecord(root).get("suburb")), suburb.toUpperCase());
+    }
+
+    /**
+     * @param jobIds IDs of the jobs to match
+     * @return specification matching the jobs with the given IDs
+     */
+    public static Specification<Job> hasIdIn(Collection<Long> jobIds) {
+        return (root, query, cb) -> root.get("id").in(jobIds);
+    }
+
+    /**
+     * Reuses the renovation record join if the city and suburb predicates are both applied
+     */
+    @SuppressWarnings("unchecked")
+    private static Join<Job, RenovationRecord> renovationRecord(Root<Job> root) {
+        return (Join<Job, RenovationRecord>) root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("renovationRecord"))
+                .findFirst()
+                .orElseGet(() -> root.join("renovationRecord", JoinType.INNER));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package nz.ac.canterbury.seng302.homehelper.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.OutboundEmail;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends CrudRepository<OutboundEmail, Long> {
+
+    /**
+     * Finds the emails in the outbox that are due to be sent, oldest first
+     * @param now the current time
+     * @param pageable how many emails to fetch
+     * @return emails that have not been given up on and whose next attempt is due
+     */
+    List<OutboundEmail> findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Finds the ids of emails that were given up on, using the index on the failed flag and next attempt time
+     * @param cutoff the time to find emails given up on before
+     * @param pageable how many ids to fetch
+     * @return ids of emails that were given up on at or before the cutoff
+     */
+    @Query("SELECT e.id FROM OutboundEmail e WHERE e.failed = true AND e.nextAttemptAt <= :cutoff ORDER BY e.nextAttemptAt")
+    List<Long> findFailedIds(LocalDateTime cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboundEmail e WHERE e.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -3,6 +3,8 @@ package nz.ac.canterbury.seng302.homehelper.repository;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -18,6 +20,30 @@ public interface QuoteRepository extends JpaRepository<Quote, Long> {
     List<Quote> findAllByDescription(String description);
     List<Quote> findAllByUserId(Long userId);
     List<Quote> findAllByJobId(Long jobId);
+
+    @Query("SELECT q FROM Quote q WHERE q.job.id = :jobId ORDER BY q.id")
+    Page<Quote> findPageByJobId(Long jobId, Pageable pageable);
+
+    /**
+     * Gets one page of the completed jobs that a tradie had a quote accepted for
+     * @param userId ID of the tradie
+     * @param pageable the size and offset of the page
+     * @return the page of jobs, in order of ID
+     */
+    @Query("SELECT j FROM Job j WHERE j.status = 'Completed' AND EXISTS " +
+            "(SELECT q FROM Quote q WHERE q.job = j AND q.user.id = :userId AND q.status = 'Accepted') ORDER BY j.id")
+    Page<Job> findCompletedJobsWorkedOnBy(Long userId, Pageable pageable);
+
+    /**
+     * Gets one page of the completed jobs that a tradie had a quote accepted for and has added to their portfolio
+     * @param userId ID of the tradie
+     * @param pageable the size and offset of the page
+     * @return the page of jobs, in order of ID
+     */
+    @Query("SELECT j FROM Job j WHERE j.status = 'Completed' " +
+            "AND EXISTS (SELECT u FROM User u JOIN u.portfolioJobs portfolioJob WHERE u.id = :userId AND portfolioJob = j) " +
+            "AND EXISTS (SELECT q FROM Quote q WHERE q.job = j AND q.user.id = :userId AND q.status = 'Accepted') ORDER BY j.id")
+    Page<Job> findPortfolioJobsOf(Long userId, Pageable pageable);
     List<Quote> findAllByUser(User user);
     /**
      * Gets the quotes sent by a user, filtered with a given status. If status is null then the
@@ -39,6 +65,38 @@ public interface QuoteRepository extends JpaRepository<Quote, Long> {
      */
     @Query("SELECT q FROM Quote q WHERE q.job.renovationRecord.userEmail = :userEmail AND (:status is NULL OR LOWER(q.status) = :status)")
     List<Quote> findReceivedQuotes(String userEmail, String status);
+
+    /**
+     * Gets one page of the quotes sent by a user, filtered with a given status
+     * @param userEmail the email of the user that sent the quotes.
+     * @param status the status used to filter the quotes, or null to ignore the filter
+     * @param afterId only quotes with a larger ID than this are returned, or null
+     * @param beforeId only quotes with a smaller ID than this are returned, or null
+     * @param pageable the size, offset and order of the page
+     * @return the page of quotes
+     */
+    @Query("SELECT q FROM Quote q WHERE q.user.email = :userEmail AND (:status is NULL OR LOWER(q.status) = :status) " +
+            "AND (:afterId IS NULL OR q.id > :afterId) AND (:beforeId IS NULL OR q.id < :beforeId)")
+    List<Quote> findSentQuotesPage(String userEmail, String status, Long afterId, Long beforeId, Pageable pageable);
+
+    @Query("SELECT COUNT(q) FROM Quote q WHERE q.user.email = :userEmail AND (:status is NULL OR LOWER(q.status) = :status)")
+    long countSentQuotes(String userEmail, String status);
+
+    /**
+     * Gets one page of the received quotes of jobs owned by a given user, filtered with a given status
+     * @param userEmail the email of the owner of the jobs for which quotes have been sent to.
+     * @param status the status used to filter the quotes, or null to ignore the filter
+     * @param afterId only quotes with a larger ID than this are returned, or null
+     * @param beforeId only quotes with a smaller ID than this are returned, or null
+     * @param pageable the size, offset and order of the page
+     * @return the page of quotes
+     */
+    @Query("SELECT q FROM Quote q WHERE q.job.renovationRecord.userEmail = :userEmail AND (:status is NULL OR LOWER(q.status) = :status) " +
+            "AND (:afterId IS NULL OR q.id > :afterId) AND (:beforeId IS NULL OR q.id < :beforeId)")
+    List<Quote> findReceivedQuotesPage(String userEmail, String status, Long afterId, Long beforeId, Pageable pageable);
+
+    @Query("SELECT COUNT(q) FROM Quote q WHERE q.job.renovationRecord.userEmail = :userEmail AND (:status is NULL OR LOWER(q.status) = :status)")
+    long countReceivedQuotes(String userEmail, String status);
     void deleteAll();
 
     /**
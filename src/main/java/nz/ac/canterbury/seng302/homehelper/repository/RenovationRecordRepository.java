@@ -3,6 +3,11 @@ package nz.ac.canterbury.seng302.homehelper.repository;
 import jakarta.persistence.Tuple;
 import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -10,6 +15,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,17 +34,25 @@ public interface RenovationRecordRepository extends CrudRepository<RenovationRec
     @Query("SELECT record FROM RenovationRecord record WHERE record.userEmail = :email")
     List<RenovationRecord> findRenovationRecordsByEmail(@Param("email") String email);
 
+    @Query("SELECT record FROM RenovationRecord record WHERE record.userEmail = :email ORDER BY record.id")
+    Page<RenovationRecord> findRenovationRecordsPageByEmail(String email, Pageable pageable);
+
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"jobs"})
+    @Query("SELECT record FROM RenovationRecord record WHERE record.userEmail = :email")
+    List<RenovationRecord> findRenovationRecordsWithJobsByEmail(@Param("email") String email);
+
 
     @Transactional
-    @Query(value = "SELECT r FROM RenovationRecord r " +
+    @Query(value = "SELECT r.id FROM RenovationRecord r " +
             "WHERE (r.isPublic = TRUE OR r.userEmail = :currentUser) " +
 //            "WHERE (r.userEmail = :currentUser) " +
             "AND (upper(r.name) LIKE upper(concat('%', :searchString, '%')) " +
-            "OR upper(r.description) LIKE upper(concat('%', :searchString, '%')) )")
-    List<RenovationRecord> findMatchingRenovationRecordsBySearchString(@Param("searchString") String searchString, @Param("currentUser") String currentUser);
+            "OR upper(r.description) LIKE upper(concat('%', :searchString, '%')) ) " +
+            "ORDER BY r.id DESC")
+    List<Long> findMatchingRecordIdsBySearchString(@Param("searchString") String searchString, @Param("currentUser") String currentUser);
 
     @Transactional
-    @Query(value = "SELECT DISTINCT * FROM renovation_record " +
+    @Query(value = "SELECT DISTINCT renovation_record.RENOVATION_RECORD_ID FROM renovation_record " +
             "WHERE (renovation_record.IS_PUBLIC = TRUE OR renovation_record.USER_EMAIL = :currentUser) " +
             "AND ((upper(renovation_record.NAME) LIKE upper(concat('%', :searchString, '%')) " +
             "OR upper(renovation_record.DESCRIPTION) LIKE upper(concat('%', :searchString, '%')) )" +
@@ -46,11 +60,12 @@ public interface RenovationRecordRepository extends CrudRepository<RenovationRec
             "FROM renovation_record_tag join tag on renovation_record_tag.TAG_ID = tag.TAG_ID " +
             "Where tag.NAME in :searchTags " +
             "group by RENOVATION_RECORD_ID " +
-            "having count(renovation_record_id) = :#{#searchTags.size()} ))", nativeQuery = true)
-    List<RenovationRecord> findMatchingRecordsByStringAndTags(@Param("searchString") String searchString, @Param("currentUser") String currentUser, @Param("searchTags") List<String> searchTags);
+            "having count(renovation_record_id) = :#{#searchTags.size()} )) " +
+            "ORDER BY renovation_record.RENOVATION_RECORD_ID DESC", nativeQuery = true)
+    List<Long> findMatchingRecordIdsByStringAndTags(@Param("searchString") String searchString, @Param("currentUser") String currentUser, @Param("searchTags") List<String> searchTags);
 
     @Transactional
-    @Query(value = "SELECT DISTINCT * FROM renovation_record " +
+    @Query(value = "SELECT DISTINCT renovation_record.RENOVATION_RECORD_ID FROM renovation_record " +
             "WHERE (renovation_record.IS_PUBLIC = TRUE OR renovation_record.USER_EMAIL = :currentUser) " +
             "AND ((upper(renovation_record.NAME) LIKE null " +
             "OR upper(renovation_record.DESCRIPTION) LIKE null) " +
@@ -58,15 +73,29 @@ public interface RenovationRecordRepository extends CrudRepository<RenovationRec
             "FROM renovation_record_tag join tag on renovation_record_tag.TAG_ID = tag.TAG_ID " +
             "Where tag.NAME in :searchTags " +
             "group by RENOVATION_RECORD_ID " +
-            "having count(renovation_record_id) = :#{#searchTags.size()} ))", nativeQuery = true)
-    List<RenovationRecord> findMatchingRecordsByEmptyStringAndTags(@Param("currentUser") String currentUser, @Param("searchTags") List<String> searchTags);
+            "having count(renovation_record_id) = :#{#searchTags.size()} )) " +
+            "ORDER BY renovation_record.RENOVATION_RECORD_ID DESC", nativeQuery = true)
+    List<Long> findMatchingRecordIdsByEmptyStringAndTags(@Param("currentUser") String currentUser, @Param("searchTags") List<String> searchTags);
 
-    @Query(value = "SELECT DISTINCT city, suburb FROM renovation_record WHERE city IS NOT NULL", nativeQuery = true)
-    List<Tuple> findCitySuburbs();
+    /**
+     * Builds the cards of the given records in one query, joining each record to its owner rather than loading the
+     * records and looking up each owner
+     * @param recordIds IDs of the records
+     * @return a card for each record that exists, in no particular order
+     */
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo(" +
+            "r.id, r.name, r.description, r.city, u.firstName, u.lastName, u.profilePictureFilename) " +
+            "FROM RenovationRecord r LEFT JOIN User u ON u.normalizedEmail = LOWER(r.userEmail) " +
+            "WHERE r.id IN :recordIds")
+    List<RenovationCardInfo> findRenovationCards(Collection<Long> recordIds);
 
-    @Transactional
-    @Modifying
-    @Query("UPDATE RenovationRecord r SET r.latitude = :latitude, r.longitude = :longitude WHERE r.id = :recordId")
-    void updateCoordinates(Long recordId, float latitude, float longitude);
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument(" +
+            "r.id, r.name, r.description, r.city, r.userEmail, r.isPublic) FROM RenovationRecord r")
+    List<RenovationSearchDocument> findSearchDocuments();
+
+    @Query("SELECT r.id AS recordId, t.name AS tagName FROM RenovationRecord r JOIN r.tags t")
+    List<Tuple> findRecordTagNames();
 
+    @Query(value = "SELECT DISTINCT city, suburb FROM renovation_record WHERE city IS NOT NULL", nativeQuery = true)
+    List<Tuple> findCitySuburbs();
 }
\ No newline at end of file
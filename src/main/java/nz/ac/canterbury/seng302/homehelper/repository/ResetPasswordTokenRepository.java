@@ -1,12 +1,43 @@
 package nz.ac.canterbury.seng302.homehelper.repository;
 
+import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.ResetPasswordToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ResetPasswordTokenRepository extends CrudRepository<ResetPasswordToken, Long> {
     Optional<ResetPasswordToken> findByToken(String token);
+
+    /**
+     * Finds the ids of tokens that have expired, using the index on the expiry time
+     * @param now the current time
+     * @param pageable how many ids to fetch
+     * @return ids of tokens that expired at or before now
+     */
+    @Query("SELECT t.id FROM ResetPasswordToken t WHERE t.expiresAt <= :now ORDER BY t.expiresAt")
+    List<Long> findExpiredIds(LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ResetPasswordToken t WHERE t.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    /**
+     * Gives an expiry time to the tokens saved before tokens had one
+     * @param expiresAt when the tokens expire
+     * @return the number of tokens updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ResetPasswordToken t SET t.expiresAt = :expiresAt WHERE t.expiresAt IS NULL")
+    int backfillExpiresAt(LocalDateTime expiresAt);
 }
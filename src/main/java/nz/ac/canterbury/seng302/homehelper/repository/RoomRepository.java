@@ -8,6 +8,9 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RoomRepository extends CrudRepository<Room, Long> {
     void deleteById(Long id);
@@ -18,6 +21,9 @@ public interface RoomRepository extends CrudRepository<Room, Long> {
     @Query(value = "DELETE FROM room_job " +
                     "WHERE room_id = :roomId", nativeQuery = true)
     void deleteByRoomId(@Param("roomId") Long roomId);
+
+    @Query("SELECT DISTINCT r.imageFilename FROM Room r WHERE r.imageFilename IN :filenames")
+    List<String> findImageFilenamesIn(@Param("filenames") Collection<String> filenames);
 }
 
 
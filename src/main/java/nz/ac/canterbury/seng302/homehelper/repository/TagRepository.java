@@ -1,6 +1,7 @@
 package nz.ac.canterbury.seng302.homehelper.repository;
 
 import nz.ac.canterbury.seng302.homehelper.entity.Tag;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,5 +11,6 @@ import java.util.List;
 public interface TagRepository extends JpaRepository<Tag, Long> {
     List<Tag> findAll();
 
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"renovationRecords"})
     Tag findByName(String name);
 }
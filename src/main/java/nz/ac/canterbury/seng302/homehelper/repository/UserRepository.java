@@ -2,12 +2,17 @@ package nz.ac.canterbury.seng302.homehelper.repository;
 
 import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieJobRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,32 +21,97 @@ public interface UserRepository extends CrudRepository<User, Long> {
 
     List<User> findAll();
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
-    Optional<User> findUserByEmail(@Param("email") String email);
+    User findByNormalizedEmail(String normalizedEmail);
 
-    @Query("SELECT u.password FROM User u WHERE LOWER(u.email) = LOWER(:email)")
-    String findPasswordByEmailIgnoreCase(@Param("email")String email);
+    @Query("SELECT u.password FROM User u WHERE u.normalizedEmail = :normalizedEmail")
+    String findPasswordByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail);
 
-    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(:email)")
-    User findByEmailContainingIgnoreCase(@Param("email") String email);
+    default Optional<User> findUserByEmail(String email) {
+        return Optional.ofNullable(findByNormalizedEmail(User.normalizeEmail(email)));
+    }
+
+    default String findPasswordByEmailIgnoreCase(String email) {
+        return findPasswordByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    default User findByEmailContainingIgnoreCase(String email) {
+        return findByNormalizedEmail(User.normalizeEmail(email));
+    }
+
+    /**
+     * Finds accounts that were not verified in time, using the index on the verification expiry time
+     * @param now the current time
+     * @param pageable how many accounts to fetch
+     * @return unverified accounts whose verification expired at or before now
+     */
+    @Query("SELECT u FROM User u WHERE u.verificationExpiresAt <= :now AND u.verificationCode IS NOT NULL " +
+            "ORDER BY u.verificationExpiresAt")
+    List<User> findExpiredUnverified(LocalDateTime now, Pageable pageable);
 
     @Query("SELECT u.verificationCode FROM User u WHERE u.verificationCode = :verificationCode")
     String findVerificationCodeByVerificationCode(@Param("verificationCode") String verificationCode);
 
     @Transactional
     @Modifying
-    @Query("UPDATE User u SET u.password =:newHashedPassword WHERE u.email = :userEmail")
+    @Query("UPDATE User u SET u.password =:newHashedPassword WHERE u.normalizedEmail = LOWER(:userEmail)")
     void updatePasswordWithUserEmail(@Param("userEmail") String userEmail, @Param("newHashedPassword") String newHashedPassword);
 
     @Query("SELECT u FROM User u WHERE u.id = :id")
     User findUserById(@Param("id") Long id);
 
-    @Query("SELECT u FROM User u WHERE size(u.quotes) > 0")
-    List<User> findAllQuoteSenders();
+    @EntityGraph(type = EntityGraph.EntityGraphType.LOAD, attributePaths = {"portfolioJobs"})
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    User findUserWithPortfolioJobsById(@Param("id") Long id);
+
+    @Query("SELECT u FROM User u WHERE u.acceptedQuoteCount > 0 ORDER BY u.acceptedQuoteCount DESC, u.id")
+    List<User> findTopQuoteSenders(Pageable pageable);
+
+    @Query("SELECT new nz.ac.canterbury.seng302.homehelper.entity.dto.TradieJobRow(" +
+            "u.id, u.ratingCount, u.ratingSum, j.id, j.startLocalDate, j.dueLocalDate, j.completedTimestamp) " +
+            "FROM User u LEFT JOIN u.quotes q ON q.status = 'Accepted' LEFT JOIN q.job j ON j.status = 'Completed' " +
+            "WHERE u.id IN :userIds")
+    List<TradieJobRow> findTradieJobRows(Collection<Long> userIds);
 
     @Transactional
     @Modifying
-    @Query("UPDATE User u SET u.email = :newEmail, u.firstName = :newFirstName, u.lastName = :newLastName, " +
+    @Query("UPDATE User u SET u.acceptedQuoteCount = u.acceptedQuoteCount + :change WHERE u.id = :userId")
+    void updateAcceptedQuoteCount(Long userId, int change);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.acceptedQuoteCount = " +
+            "(SELECT COUNT(q) FROM Quote q WHERE q.user = u AND q.status = 'Accepted')")
+    int recountAcceptedQuotes();
+
+    /**
+     * Takes the accepted quotes for the jobs of a renovation record off their senders' accepted quote counts,
+     * for when the record is deleted along with its jobs and their quotes
+     * @param recordId ID of the renovation record
+     * @return the number of users updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.acceptedQuoteCount = u.acceptedQuoteCount - " +
+            "(SELECT COUNT(q) FROM Quote q WHERE q.user = u AND q.status = 'Accepted' " +
+            "AND q.job.renovationRecord.id = :recordId) " +
+            "WHERE EXISTS (SELECT q FROM Quote q WHERE q.user = u AND q.status = 'Accepted' " +
+            "AND q.job.renovationRecord.id = :recordId)")
+    int removeAcceptedQuotesOfRecord(Long recordId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.ratingCount = u.ratingCount + 1, u.ratingSum = u.ratingSum + :rating WHERE u.id = :userId")
+    void addToRatingTotals(Long userId, int rating);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.ratingCount = (SELECT COUNT(r) FROM Rating r WHERE r.receivingUser = u), " +
+            "u.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Rating r WHERE r.receivingUser = u)")
+    int recountRatings();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.email = :newEmail, u.normalizedEmail = LOWER(:newEmail), u.firstName = :newFirstName, u.lastName = :newLastName, " +
             "u.profilePictureFilename = :newProfileImage WHERE u.id = :userId")
     void updateDetails(@Param("userId") Long userId,
                        @Param("newEmail") String newEmail,
@@ -65,5 +135,25 @@ public interface UserRepository extends CrudRepository<User, Long> {
     @Query("UPDATE User u SET u.latitude = :latitude, u.longitude = :longitude WHERE u.id = :userId")
     void updateCoordinates(Long userId, float latitude, float longitude);
 
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.normalizedEmail = LOWER(u.email) WHERE u.normalizedEmail IS NULL")
+    int backfillNormalizedEmails();
+
+    /**
+     * Gives a verification expiry time to the unverified accounts saved before accounts had one
+     * @param expiresAt when the accounts are deleted if they are still not verified
+     * @return the number of accounts updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.verificationExpiresAt = :expiresAt " +
+            "WHERE u.verificationExpiresAt IS NULL AND u.verificationCode IS NOT NULL")
+    int backfillVerificationExpiresAt(LocalDateTime expiresAt);
+
+    @Query("SELECT DISTINCT u.profilePictureFilename FROM User u WHERE u.profilePictureFilename IN :filenames")
+    List<String> findProfilePicturesIn(Collection<String> filenames);
 
+    @Query("SELECT DISTINCT j.id FROM User u JOIN u.portfolioJobs j WHERE u.id = :userId AND j.id IN :jobIds")
+    List<Long> findPortfolioJobIdsIn(Long userId, Collection<Long> jobIds);
 }
@@ -0,0 +1,14 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+
+/**
+ * A thread pool kept for one kind of background work, so that slow work of one kind cannot hold up the others
+ */
+public interface Bulkhead {
+
+    /**
+     * @return how busy the pool is and how long its tasks have been taking
+     */
+    BulkheadMetrics getMetrics();
+}
@@ -0,0 +1,51 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fixed size thread pool with a bounded queue for one kind of background work. Tasks submitted while the queue is
+ * full are rejected with a {@link org.springframework.core.task.TaskRejectedException} so the caller can fall back
+ * rather than wait, and the time each task waits in the queue and runs for is recorded.
+ */
+public class BulkheadExecutor extends ThreadPoolTaskExecutor implements Bulkhead {
+
+    private final String name;
+    private final TaskTimings timings = new TaskTimings();
+
+    /**
+     * Constructor for a bulkhead, which starts its threads once it is initialized
+     * @param name name of the pool, used to name its threads
+     * @param threads number of threads in the pool
+     * @param queueCapacity most tasks that can wait for a thread
+     */
+    public BulkheadExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        setCorePoolSize(threads);
+        setMaxPoolSize(threads);
+        setQueueCapacity(queueCapacity);
+        setThreadNamePrefix(name + "-");
+        setTaskDecorator(task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    timings.recordCompleted(startedAt - queuedAt, System.nanoTime() - startedAt);
+                }
+            };
+        });
+        setRejectedExecutionHandler((task, executor) -> {
+            timings.recordRejected();
+            throw new RejectedExecutionException("The " + name + " queue is full");
+        });
+    }
+
+    @Override
+    public BulkheadMetrics getMetrics() {
+        return timings.snapshot(name, getPoolSize(), getActiveCount(), getQueueSize());
+    }
+}
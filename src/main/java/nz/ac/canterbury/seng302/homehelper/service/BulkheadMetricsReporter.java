@@ -0,0 +1,59 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logs how busy each of the app's background thread pools is once a minute. Pools that have been idle since the
+ * last report are left out, and a warning is logged when a pool has had to reject work.
+ */
+@Service
+public class BulkheadMetricsReporter {
+    Logger logger = LoggerFactory.getLogger(BulkheadMetricsReporter.class);
+
+    private final List<Bulkhead> bulkheads;
+    private final Map<String, BulkheadMetrics> lastReported = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkheadMetricsReporter(List<Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * @return the current metrics of every bulkhead
+     */
+    public List<BulkheadMetrics> getMetrics() {
+        return bulkheads.stream().map(Bulkhead::getMetrics).toList();
+    }
+
+    /**
+     * Logs the metrics of the bulkheads that have done work since the last report
+     */
+    @Scheduled(fixedRate = 60000, initialDelay = 60000)
+    public void reportMetrics() {
+        for (BulkheadMetrics metrics : getMetrics()) {
+            BulkheadMetrics previous = lastReported.put(metrics.name(), metrics);
+            long previousCompleted = previous == null ? 0 : previous.completedTasks();
+            long previousRejected = previous == null ? 0 : previous.rejectedTasks();
+            if (metrics.rejectedTasks() > previousRejected) {
+                logger.warn("{} rejected {} tasks in the last minute, {} queued", metrics.name(),
+                        metrics.rejectedTasks() - previousRejected, metrics.queueDepth());
+            }
+            if (metrics.completedTasks() > previousCompleted || metrics.activeThreads() > 0) {
+                logger.info("{}: {}/{} threads active, {} queued, {} completed, wait avg {} ms max {} ms, run avg {} ms max {} ms",
+                        metrics.name(), metrics.activeThreads(), metrics.poolSize(), metrics.queueDepth(),
+                        metrics.completedTasks(), String.format("%.1f", metrics.averageWaitMillis()),
+                        String.format("%.1f", metrics.maxWaitMillis()), String.format("%.1f", metrics.averageRunMillis()),
+                        String.format("%.1f", metrics.maxRunMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.*;
+
+/**
+ * Scheduler for one kind of delayed or repeating background work. The time each task runs for is recorded, along
+ * with how late it started compared to when it was due, which grows when the scheduler's threads are busy.
+ */
+public class BulkheadScheduler extends ThreadPoolTaskScheduler implements Bulkhead {
+
+    private final String name;
+    private final TaskTimings timings = new TaskTimings();
+
+    /**
+     * Constructor for a scheduler bulkhead, which starts its threads once it is initialized
+     * @param name name of the scheduler, used to name its threads
+     * @param threads number of threads in the scheduler
+     */
+    public BulkheadScheduler(String name, int threads) {
+        this.name = name;
+        setPoolSize(threads);
+        setThreadNamePrefix(name + "-");
+    }
+
+    @Override
+    protected ScheduledExecutorService createExecutor(int poolSize, ThreadFactory threadFactory,
+                                                      RejectedExecutionHandler rejectedExecutionHandler) {
+        return new ScheduledThreadPoolExecutor(poolSize, threadFactory, (task, executor) -> {
+            timings.recordRejected();
+            rejectedExecutionHandler.rejectedExecution(task, executor);
+        }) {
+            private final ThreadLocal<long[]> started = new ThreadLocal<>();
+
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                long lateNanos = task instanceof Delayed delayed ? -delayed.getDelay(TimeUnit.NANOSECONDS) : 0;
+                started.set(new long[] {lateNanos, System.nanoTime()});
+                super.beforeExecute(thread, task);
+            }
+
+            @Override
+            protected void afterExecute(Runnable task, Throwable error) {
+                super.afterExecute(task, error);
+                long[] start = started.get();
+                started.remove();
+                if (start != null) {
+                    timings.recordCompleted(start[0], System.nanoTime() - start[1]);
+                }
+            }
+        };
+    }
+
+    @Override
+    public BulkheadMetrics getMetrics() {
+        ScheduledThreadPoolExecutor executor = getScheduledThreadPoolExecutor();
+        return timings.snapshot(name, executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size());
+    }
+}
@@ -0,0 +1,178 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.OutboundEmail;
+import nz.ac.canterbury.seng302.homehelper.repository.OutboundEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends the emails waiting in the outbox in the background. The outbox is polled every couple of seconds
+ * and the due emails are handed to a small fixed pool of workers in batches. Each batch is sent through a
+ * single connection to the mail server rather than connecting once per email. Emails that fail are retried
+ * with an exponential backoff until they have failed too many times, so a mail server outage delays emails
+ * rather than losing them. Delivery is at least once, an email may be sent twice if the mail server fails
+ * part way through a batch without saying which emails were sent. Emails that were given up on are kept for
+ * {@link #FAILED_RETENTION} so the failures can be looked into, then removed by the {@link ExpiredDataSweeper}.
+ */
+@Service
+public class EmailOutboxDispatcher {
+    Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    static final String SENDER = "seng301team1000@gmail.com";
+    public static final int WORKER_COUNT = 2;
+    public static final int BATCH_SIZE = 20;
+    public static final int MAX_ATTEMPTS = 8;
+    public static final Duration LEASE = Duration.ofMinutes(5);
+    public static final Duration BASE_RETRY_DELAY = Duration.ofSeconds(30);
+    public static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+    public static final Duration FAILED_RETENTION = Duration.ofDays(30);
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final JavaMailSender emailSender;
+    private final Executor workers;
+    private final Semaphore idleWorkers = new Semaphore(WORKER_COUNT);
+
+    /**
+     * Constructor for a dispatcher that runs its batches on the given executor
+     * @param outboundEmailRepository repository for the outbox
+     * @param emailSender sender connected to the mail server
+     * @param workers executor the batches of emails are sent on, with at least {@link #WORKER_COUNT} threads
+     */
+    @Autowired
+    public EmailOutboxDispatcher(OutboundEmailRepository outboundEmailRepository, JavaMailSender emailSender,
+                                 @Qualifier("emailExecutor") Executor workers) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.emailSender = emailSender;
+        this.workers = workers;
+    }
+
+    /**
+     * Hands the emails that are due to be sent to the idle workers. The emails are leased first by pushing back
+     * their next attempt, so the next poll does not pick them up again while they are being sent, and so they
+     * are retried if the app stops before they are sent.
+     */
+    @Scheduled(fixedDelay = 2000)
+    public void dispatchDueEmails() {
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboundEmail> due = outboundEmailRepository
+                .findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(now, PageRequest.of(0, idle * BATCH_SIZE));
+        if (due.isEmpty()) {
+            return;
+        }
+        due.forEach(email -> email.setNextAttemptAt(now.plus(LEASE)));
+        outboundEmailRepository.saveAll(due);
+
+        for (int start = 0; start < due.size(); start += BATCH_SIZE) {
+            List<OutboundEmail> batch = due.subList(start, Math.min(start + BATCH_SIZE, due.size()));
+            idleWorkers.acquireUninterruptibly();
+            try {
+                workers.execute(() -> {
+                    try {
+                        sendBatch(batch);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                idleWorkers.release();
+                logger.error("Could not hand emails to the outbox workers, they will be retried", e);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of emails through one connection to the mail server. Sent emails are removed from the
+     * outbox and the rest are scheduled to be retried.
+     * @param batch emails to send
+     */
+    public void sendBatch(List<OutboundEmail> batch) {
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        List<OutboundEmail> sent = new ArrayList<>();
+        List<OutboundEmail> retry = new ArrayList<>();
+        try {
+            emailSender.send(messages);
+            sent.addAll(batch);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failedMessages.get(messages[i]);
+                if (failure != null || failedMessages.isEmpty()) {
+                    recordFailure(batch.get(i), failure != null ? failure : e);
+                    retry.add(batch.get(i));
+                } else {
+                    sent.add(batch.get(i));
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(email -> recordFailure(email, e));
+            retry.addAll(batch);
+        }
+        outboundEmailRepository.deleteAll(sent);
+        outboundEmailRepository.saveAll(retry);
+    }
+
+    /**
+     * Gets how long to wait before the next attempt at sending an email, doubling after each failure
+     * @param attempts number of attempts that have failed so far
+     * @return delay before the next attempt
+     */
+    public static Duration retryDelay(int attempts) {
+        Duration delay = BASE_RETRY_DELAY.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+
+    /**
+     * Deletes a chunk of the emails that were given up on more than {@link #FAILED_RETENTION} ago
+     * @param now the current time
+     * @param limit the most emails to delete
+     * @return the number of emails deleted
+     */
+    public int removeFailedEmails(LocalDateTime now, int limit) {
+        List<Long> failedIds = outboundEmailRepository.findFailedIds(now.minus(FAILED_RETENTION), PageRequest.of(0, limit));
+        if (failedIds.isEmpty()) {
+            return 0;
+        }
+        return outboundEmailRepository.deleteByIdIn(failedIds);
+    }
+
+    private void recordFailure(OutboundEmail email, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            logger.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts, e);
+            email.recordFailedAttempt(e.getMessage(), null);
+        } else {
+            logger.warn("Could not send email {}, retrying: {}", email.getId(), e.getMessage());
+            email.recordFailedAttempt(e.getMessage(), LocalDateTime.now().plus(retryDelay(attempts)));
+        }
+    }
+
+    private SimpleMailMessage toMessage(OutboundEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(SENDER);
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+}
@@ -0,0 +1,40 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that publishes an {@link EntityChangedEvent} when an entity is saved, updated or deleted,
+ * so that anything built from the entity can be updated or cleared. Hibernate creates the listener through Spring, which
+ * supplies the event publisher.
+ */
+public class EntityChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EntityChangePublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Publishes the saving or updating of an entity
+     * @param entity the entity that was saved
+     */
+    @PostPersist
+    @PostUpdate
+    public void entitySaved(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent(Hibernate.getClass(entity), entity, false));
+    }
+
+    /**
+     * Publishes the deletion of an entity
+     * @param entity the entity that was deleted
+     */
+    @PostRemove
+    public void entityRemoved(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent(Hibernate.getClass(entity), entity, true));
+    }
+}
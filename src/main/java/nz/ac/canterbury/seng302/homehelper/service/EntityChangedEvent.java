@@ -0,0 +1,10 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+/**
+ * Published when an entity watched by {@link EntityChangePublisher} is saved, updated or deleted
+ * @param entityType class of the entity that changed
+ * @param entity the entity as it was saved or deleted
+ * @param removed true if the entity was deleted
+ */
+public record EntityChangedEvent(Class<?> entityType, Object entity, boolean removed) {
+}
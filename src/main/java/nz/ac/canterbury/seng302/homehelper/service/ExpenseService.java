@@ -6,6 +6,7 @@ import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.repository.ExpenseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
@@ -14,7 +15,6 @@ import org.springframework.stereotype.Service;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -39,6 +39,11 @@ public class ExpenseService {
     public static final String EXPENSE_DATE_IN_FUTURE = "Date cannot be in the future";
     public static final String EXPENSE_DATE_INVALID_DATE = "Date is not a valid date";
 
+    // Names of the fields on the add expense form
+    public static final String EXPENSE_COST_FIELD = "expenseCost";
+    public static final String EXPENSE_DESCRIPTION_FIELD = "description";
+    public static final String EXPENSE_DATE_FIELD = "expenseDate";
+
     @Autowired
     public ExpenseService(ExpenseRepository expenseRepository, UserService userService) {
         this.expenseRepository = expenseRepository;
@@ -49,6 +54,26 @@ public class ExpenseService {
         return expenseRepository.findAllByJobId(jobId);
     }
 
+    /**
+     * Gets one page of the expenses of a job, in the order they were added
+     * @param jobId ID of the job
+     * @param page number of the page, starting from 1
+     * @param pageSize number of expenses on each page
+     * @return the page of expenses, empty if the page number is out of range
+     */
+    public Page<Expense> getExpensesPageByJobId(Long jobId, int page, int pageSize) {
+        return expenseRepository.findPageByJobId(jobId, PageRequest.of(Math.max(page, 1) - 1, pageSize));
+    }
+
+    /**
+     * Adds up the costs of every expense of a job in the database
+     * @param jobId ID of the job
+     * @return the total cost, 0 if the job has no expenses
+     */
+    public double getTotalCostByJobId(Long jobId) {
+        return expenseRepository.sumCostByJobId(jobId);
+    }
+
     /**
      * Adds an expense object to storage
      * @param expense expense object being stored
@@ -61,79 +86,48 @@ public class ExpenseService {
     /**
      * Validates the attributes of an expense object
      * @param expense expense object being validated
-     * @throws IllegalArgumentException if there is at least one invalid expense attribute
+     * @throws FieldValidationException if there is at least one invalid expense attribute
      */
-    public void validateExpense(Expense expense) throws IllegalArgumentException {
-        List<String> errors = new ArrayList<>();
+    public void validateExpense(Expense expense) throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
 
         if (validationService.stringEmpty(expense.getCost())) {
-            errors.add(EXPENSE_COST_EMPTY);
+            errors.add(EXPENSE_COST_FIELD, EXPENSE_COST_EMPTY);
         } else if (!validationService.correctExpenseCostFormat(expense.getCost())) {
-            errors.add(EXPENSE_COST_INVALID);
+            errors.add(EXPENSE_COST_FIELD, EXPENSE_COST_INVALID);
         } else if (!validationService.correctExpenseCostLength(expense.getCost())) {
-            errors.add(EXPENSE_COST_TOO_LONG);
+            errors.add(EXPENSE_COST_FIELD, EXPENSE_COST_TOO_LONG);
         }
 
         if (validationService.stringEmpty(expense.getDescription())) {
-            errors.add(EXPENSE_DESCRIPTION_EMPTY);
+            errors.add(EXPENSE_DESCRIPTION_FIELD, EXPENSE_DESCRIPTION_EMPTY);
         } else if (!validationService.correctDescriptionLength(expense.getDescription())) {
-            errors.add(EXPENSE_DESCRIPTION_TOO_LONG);
+            errors.add(EXPENSE_DESCRIPTION_FIELD, EXPENSE_DESCRIPTION_TOO_LONG);
         }
 
         if (!validationService.correctDateFormat(expense.getDate())) {
-            errors.add(EXPENSE_DATE_INVALID_FORMAT);
+            errors.add(EXPENSE_DATE_FIELD, EXPENSE_DATE_INVALID_FORMAT);
         } else {
             try {
                 if (validationService.dateInTheFuture(expense.getDate())) {
-                    errors.add(EXPENSE_DATE_IN_FUTURE);
+                    errors.add(EXPENSE_DATE_FIELD, EXPENSE_DATE_IN_FUTURE);
                 }
             } catch (ParseException e) {
-                errors.add(EXPENSE_DATE_INVALID_DATE);
+                errors.add(EXPENSE_DATE_FIELD, EXPENSE_DATE_INVALID_DATE);
             }
         }
 
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(" ", errors));
-        }
+        errors.throwIfAny();
     }
 
     /**
-     * Goes through a string of all detected errors from the add expense form
-     * and assigns an error message from the string to be displayed for each
-     * field of the form
-     * @param allErrorMessages String of all errors detected from the add expense form
+     * Gets the error message to display for each field of the add expense form
+     * @param errors the errors found when validating the form
      * @return List of error messages (one for each input field of the form) that will
      * be displayed on the form
      */
-    public List<String> getErrorMessages(String allErrorMessages) {
-        String expenseCostErrorMessage = "";
-        if (allErrorMessages.contains(EXPENSE_COST_EMPTY)) {
-            expenseCostErrorMessage = EXPENSE_COST_EMPTY;
-        } else if (allErrorMessages.contains(EXPENSE_COST_INVALID)) {
-            expenseCostErrorMessage = EXPENSE_COST_INVALID;
-        } else if (allErrorMessages.contains(EXPENSE_COST_TOO_LONG)) {
-            expenseCostErrorMessage = EXPENSE_COST_TOO_LONG;
-        }
-
-        String expenseDescriptionErrorMessage = "";
-        if (allErrorMessages.contains(EXPENSE_DESCRIPTION_EMPTY)) {
-            expenseDescriptionErrorMessage = EXPENSE_DESCRIPTION_EMPTY;
-        } else if (allErrorMessages.contains(EXPENSE_DESCRIPTION_TOO_LONG)) {
-            expenseDescriptionErrorMessage = EXPENSE_DESCRIPTION_TOO_LONG;
-        }
-
-        String expenseDateErrorMessage = "";
-        if (allErrorMessages.contains(EXPENSE_DATE_INVALID_FORMAT)) {
-            expenseDateErrorMessage = EXPENSE_DATE_INVALID_FORMAT;
-        }
-        if (allErrorMessages.contains(EXPENSE_DATE_IN_FUTURE)) {
-            expenseDateErrorMessage = EXPENSE_DATE_IN_FUTURE;
-        }
-        if (allErrorMessages.contains(EXPENSE_DATE_INVALID_DATE)) {
-            expenseDateErrorMessage = EXPENSE_DATE_INVALID_DATE;
-        }
-
-        return List.of(expenseCostErrorMessage, expenseDescriptionErrorMessage, expenseDateErrorMessage);
+    public List<String> getErrorMessages(FieldErrors errors) {
+        return errors.get(EXPENSE_COST_FIELD, EXPENSE_DESCRIPTION_FIELD, EXPENSE_DATE_FIELD);
     }
 
     public void setNumberOfExpenses(int numberOfExpenses) {
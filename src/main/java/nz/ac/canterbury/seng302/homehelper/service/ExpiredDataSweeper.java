@@ -0,0 +1,73 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Removes data that has expired, like reset password tokens, accounts that were not verified in time and
+ * outbox emails that were given up on long enough ago.
+ * The expiry time is stored on each row, so nothing is held in memory while waiting and data that expires
+ * while the app is stopped is still removed. Expired rows are found through an index and deleted in chunks,
+ * each in its own transaction, so a large backlog never holds a long transaction. Sweeps running at the same
+ * time on different servers only cost a failed chunk that is picked up again by the next sweep.
+ */
+@Service
+public class ExpiredDataSweeper {
+    Logger logger = LoggerFactory.getLogger(ExpiredDataSweeper.class);
+
+    public static final int CHUNK_SIZE = 500;
+
+    private final ResetPasswordService resetPasswordService;
+    private final UserService userService;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    public ExpiredDataSweeper(ResetPasswordService resetPasswordService, UserService userService,
+                              EmailOutboxDispatcher emailOutboxDispatcher) {
+        this.resetPasswordService = resetPasswordService;
+        this.userService = userService;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
+    }
+
+    /**
+     * Deletes everything that has expired
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 10000, scheduler = "expiryScheduler")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        sweep("reset password tokens", now, resetPasswordService::removeExpiredTokens);
+        sweep("unverified accounts", now, userService::removeExpiredUnverifiedUsers);
+        sweep("failed outbox emails", now, emailOutboxDispatcher::removeFailedEmails);
+    }
+
+    /**
+     * Deletes chunks of expired rows until a chunk comes back less than full
+     * @param name what is being deleted, for the logs
+     * @param now the time to delete rows that expired before
+     * @param removeChunk deletes up to the given number of rows that expired before the given time,
+     *                    returning how many were deleted
+     * @return the number of rows deleted
+     */
+    public int sweep(String name, LocalDateTime now, ToIntBiFunction<LocalDateTime, Integer> removeChunk) {
+        int total = 0;
+        try {
+            int removed;
+            do {
+                removed = removeChunk.applyAsInt(now, CHUNK_SIZE);
+                total += removed;
+            } while (removed >= CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            logger.warn("Could not remove expired {}, they will be removed by the next sweep", name, e);
+        }
+        if (total > 0) {
+            logger.info("Removed {} expired {}", total, name);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,103 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache. Once the cache is full the least recently used entry is dropped to make room,
+ * and entries are ignored once they are older than the time to live. Safe to share between threads.
+ * @param <K> type of the keys
+ * @param <V> type of the cached values
+ */
+public class ExpiringLruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * Constructor for an empty cache
+     * @param maxSize most entries the cache holds
+     * @param timeToLive how long an entry is kept for
+     */
+    public ExpiringLruCache(int maxSize, Duration timeToLive) {
+        this(maxSize, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * Constructor for an empty cache that reads the time from the given clock
+     * @param maxSize most entries the cache holds
+     * @param timeToLive how long an entry is kept for
+     * @param nanoClock clock giving the current time in nanoseconds
+     */
+    public ExpiringLruCache(int maxSize, Duration timeToLive, LongSupplier nanoClock) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key key the value was cached under
+     * @return the cached value, or null if there is none or it has expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Caches a value, replacing any value already cached under the key
+     * @param key key to cache the value under
+     * @param value value to cache
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong() + timeToLiveNanos));
+    }
+
+    /**
+     * Removes the value cached under a key, if there is one
+     * @param key key the value was cached under
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the entries that match a condition
+     * @param condition condition tested against each key and its cached value
+     */
+    public synchronized void removeIf(BiPredicate<K, V> condition) {
+        entries.entrySet().removeIf(entry -> condition.test(entry.getKey(), entry.getValue().value()));
+    }
+
+    /**
+     * Removes every entry from the cache
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of entries in the cache, including any that have expired but not been removed yet
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
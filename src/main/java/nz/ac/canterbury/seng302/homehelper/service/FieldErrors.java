@@ -0,0 +1,92 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The validation errors found in a form, kept by the field they belong to so that a controller can look up each
+ * field's message directly rather than searching a joined string for every message it knows about. Only the first
+ * error added for a field is shown on the form, so checks should be added most important first.
+ */
+public class FieldErrors {
+
+    private final Map<String, String> firstErrorByField = new LinkedHashMap<>();
+    private final List<String> messages = new ArrayList<>();
+
+    /**
+     * Adds an error for a field
+     * @param field name of the form field
+     * @param message message describing the error
+     */
+    public void add(String field, String message) {
+        firstErrorByField.putIfAbsent(field, message);
+        messages.add(message);
+    }
+
+    /**
+     * Adds all the errors from another set of errors
+     * @param other the errors to add
+     */
+    public void addAll(FieldErrors other) {
+        other.firstErrorByField.forEach(firstErrorByField::putIfAbsent);
+        messages.addAll(other.messages);
+    }
+
+    /**
+     * @param field name of the form field
+     * @return the first error added for the field, or an empty string if the field has no errors
+     */
+    public String get(String field) {
+        return firstErrorByField.getOrDefault(field, "");
+    }
+
+    /**
+     * @param fields names of the form fields, in the order the messages are wanted
+     * @return the first error added for each field, with empty strings for fields without errors
+     */
+    public List<String> get(String... fields) {
+        List<String> fieldMessages = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            fieldMessages.add(get(field));
+        }
+        return fieldMessages;
+    }
+
+    /**
+     * @return true if no errors have been added
+     */
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    /**
+     * Throws the errors if there are any
+     * @throws FieldValidationException holding these errors, if any have been added
+     */
+    public void throwIfAny() throws FieldValidationException {
+        if (!isEmpty()) {
+            throw new FieldValidationException(this);
+        }
+    }
+
+    /**
+     * Gets the field errors carried by an exception thrown while validating a form
+     * @param e the exception
+     * @return the errors if the exception came from a failed validation, otherwise no errors
+     */
+    public static FieldErrors of(IllegalArgumentException e) {
+        return e instanceof FieldValidationException validationException
+                ? validationException.getFieldErrors()
+                : new FieldErrors();
+    }
+
+    /**
+     * @return every error message, in the order they were added, separated by spaces
+     */
+    @Override
+    public String toString() {
+        return String.join(" ", messages);
+    }
+}
@@ -0,0 +1,35 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+/**
+ * Thrown when a form fails validation. The message is every error joined together, as before, and the errors for
+ * each field can be read from {@link #getFieldErrors()}.
+ */
+public class FieldValidationException extends IllegalArgumentException {
+
+    private final transient FieldErrors fieldErrors;
+
+    /**
+     * @param fieldErrors the errors found in the form
+     */
+    public FieldValidationException(FieldErrors fieldErrors) {
+        super(fieldErrors.toString());
+        this.fieldErrors = fieldErrors;
+    }
+
+    /**
+     * Skips capturing the stack trace, as a form failing validation is expected and the trace is never used.
+     * Capturing it cost more than running all the checks on the form.
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    /**
+     * @return the errors found in the form, by field
+     */
+    public FieldErrors getFieldErrors() {
+        return fieldErrors;
+    }
+}
@@ -0,0 +1,22 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+/**
+ * Distances between points on the map, given as latitudes and longitudes in degrees
+ */
+public class GeoUtil {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    private GeoUtil() {}
+
+    /**
+     * @return the great-circle distance between two points in kilometres
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDifference = Math.toRadians(latitude2 - latitude1);
+        double longitudeDifference = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(latitudeDifference / 2), 2) + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(longitudeDifference / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
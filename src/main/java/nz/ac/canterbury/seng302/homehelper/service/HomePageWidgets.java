@@ -0,0 +1,315 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCalendar;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads the widgets shown on a user's home page. Only the widgets the user has turned on are loaded, and they are
+ * loaded at the same time so the page takes as long as its slowest widget rather than all of them together.
+ * Each widget is cached per user for a short time. The caches are cleared when a job, quote or renovation record
+ * is changed, and changes to the user's recently viewed items or location are part of the cache keys. A widget that
+ * takes longer than the load timeout is shown empty, and is cached for the next request once it has loaded.
+ * Each widget load holds a database connection of its own while the request keeps its open session, so at most
+ * half of the connection pool is used for widget loads and the rest is left for requests.
+ */
+@Service
+public class HomePageWidgets {
+    Logger logger = LoggerFactory.getLogger(HomePageWidgets.class);
+
+    public static final String RECENT_JOBS = "Recently Viewed Jobs";
+    public static final String JOB_RECOMMENDATIONS = "Job Recommendations";
+    public static final String JOB_CALENDAR = "Job Calendar";
+    public static final String RECENT_RENOVATIONS = "Recently Viewed Renovations";
+    public static final String HOTTEST_TRADIES = "Hottest Tradies Leaderboard";
+
+    public static final int MAX_CONCURRENT_LOADS = 8;
+    public static final Duration LOAD_TIMEOUT = Duration.ofSeconds(5);
+    private static final int CACHE_SIZE = 2000;
+    private static final Duration USER_WIDGET_TIME_TO_LIVE = Duration.ofSeconds(30);
+    private static final Duration SHARED_WIDGET_TIME_TO_LIVE = Duration.ofMinutes(1);
+    private static final String ACCEPTED = "Accepted";
+    private static final JobCalendar EMPTY_CALENDAR = new JobCalendar(List.of(), List.of(), List.of(), List.of(),
+            List.of(), List.of(), List.of(), List.of());
+
+    private final JobService jobService;
+    private final JobRecommendationService jobRecommendationService;
+    private final RenovationRecordService renovationRecordService;
+    private final UserService userService;
+    private final QuoteService quoteService;
+    private final ImageStore imageStore;
+    private final Executor executor;
+    private final TransactionOperations transactions;
+    private final Duration loadTimeout;
+    private final LongAdder timedOutLoads = new LongAdder();
+
+    private final ExpiringLruCache<String, List<JobCardInfo>> recentJobs =
+            new ExpiringLruCache<>(CACHE_SIZE, USER_WIDGET_TIME_TO_LIVE);
+    private final ExpiringLruCache<String, List<JobCardInfo>> recommendedJobs =
+            new ExpiringLruCache<>(CACHE_SIZE, SHARED_WIDGET_TIME_TO_LIVE);
+    private final ExpiringLruCache<String, JobCalendar> calendars =
+            new ExpiringLruCache<>(CACHE_SIZE, USER_WIDGET_TIME_TO_LIVE);
+    private final ExpiringLruCache<String, List<RenovationCardInfo>> recentRenovations =
+            new ExpiringLruCache<>(CACHE_SIZE, USER_WIDGET_TIME_TO_LIVE);
+    private final ExpiringLruCache<String, List<User>> hottestTradies =
+            new ExpiringLruCache<>(1, SHARED_WIDGET_TIME_TO_LIVE);
+
+    @Autowired
+    public HomePageWidgets(JobService jobService, JobRecommendationService jobRecommendationService,
+                           RenovationRecordService renovationRecordService, UserService userService,
+                           QuoteService quoteService, ImageStore imageStore,
+                           @Qualifier("homeWidgetExecutor") Executor executor,
+                           PlatformTransactionManager transactionManager) {
+        this(jobService, jobRecommendationService, renovationRecordService, userService, quoteService, imageStore,
+                executor, readOnlyTransactions(transactionManager), LOAD_TIMEOUT);
+    }
+
+    /**
+     * Constructor for the home page widgets
+     * @param jobService service for loading jobs and job cards
+     * @param jobRecommendationService service for picking the jobs recommended to the user
+     * @param renovationRecordService service for loading renovation records and their cards
+     * @param userService service for loading the hottest tradies
+     * @param quoteService service for loading the quotes a user has sent
+     * @param imageStore gives the URLs of the tradies' profile pictures
+     * @param executor executor the widgets are loaded on
+     * @param transactions runs each widget's loader in its own transaction
+     * @param loadTimeout how long a page waits for its widgets before showing the unloaded ones empty
+     */
+    public HomePageWidgets(JobService jobService, JobRecommendationService jobRecommendationService,
+                           RenovationRecordService renovationRecordService, UserService userService,
+                           QuoteService quoteService, ImageStore imageStore, Executor executor,
+                           TransactionOperations transactions, Duration loadTimeout) {
+        this.jobService = jobService;
+        this.jobRecommendationService = jobRecommendationService;
+        this.renovationRecordService = renovationRecordService;
+        this.userService = userService;
+        this.quoteService = quoteService;
+        this.imageStore = imageStore;
+        this.executor = executor;
+        this.transactions = transactions;
+        this.loadTimeout = loadTimeout;
+    }
+
+    private static TransactionOperations readOnlyTransactions(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * Loads the widgets a user has turned on for their home page
+     * @param user the user viewing their home page
+     * @return the model attributes used by the widgets, keyed by attribute name
+     */
+    public Map<String, Object> loadWidgets(User user) {
+        Map<String, Object> attributes = new HashMap<>();
+        List<CompletableFuture<Runnable>> loads = new ArrayList<>();
+        // Everything read from the user is read here, as the widgets are loaded on other threads
+        Long userId = user.getId();
+        String email = user.getEmail();
+        String city = user.getCity();
+        float latitude = user.getLatitude();
+        float longitude = user.getLongitude();
+        for (String widget : new LinkedHashSet<>(user.getHomePageWidgetOrder())) {
+            switch (widget) {
+                case RECENT_JOBS -> {
+                    List<Long> jobIds = List.copyOf(user.getRecentJobs());
+                    loads.add(load(recentJobs, userId + ":" + jobIds, () -> jobService.getJobCards(jobIds),
+                            List.of(), (cards, model) -> model.put("recentJobs", cards), attributes));
+                }
+                case JOB_RECOMMENDATIONS -> {
+                    List<Long> recentJobIds = List.copyOf(user.getRecentJobs());
+                    loads.add(load(recommendedJobs,
+                            userId + ":" + city + ":" + latitude + ":" + longitude + ":" + recentJobIds,
+                            () -> jobRecommendationService.getRecommendedJobCards(email, city, latitude, longitude,
+                                    recentJobIds),
+                            List.of(), (cards, model) -> model.put("recommendedJobs", cards), attributes));
+                }
+                case JOB_CALENDAR -> loads.add(load(calendars, String.valueOf(userId),
+                        () -> getJobCalendar(email, userId), EMPTY_CALENDAR, HomePageWidgets::addCalendar,
+                        attributes));
+                case RECENT_RENOVATIONS -> {
+                    List<Long> recordIds = userService.getRecentRenovationIds(user);
+                    loads.add(load(recentRenovations, userId + ":" + recordIds,
+                            () -> renovationRecordService.getRenovationRecordCardsByIds(recordIds),
+                            List.of(), (cards, model) -> model.put("recentRenovations", cards), attributes));
+                }
+                case HOTTEST_TRADIES -> loads.add(load(hottestTradies, HOTTEST_TRADIES, userService::getHottestTradies,
+                        List.of(), this::addHottestTradies, attributes));
+                default -> logger.warn("Unknown home page widget {}", widget);
+            }
+        }
+        for (CompletableFuture<Runnable> load : loads) {
+            try {
+                load.join().run();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * Gets a widget from its cache, or starts loading it if it is not cached. A widget that cannot be started
+     * because too many are already loading is loaded on the calling thread instead. A widget that has not loaded
+     * within the load timeout is added to the model empty, and keeps loading so it is cached for later requests.
+     * @param cache cache of the widget
+     * @param key cache key of the widget for the user
+     * @param loader loads the widget
+     * @param empty the widget with nothing in it, shown if it takes too long to load
+     * @param addToModel adds the widget to the model attributes
+     * @param attributes the model attributes
+     * @return a future completing with the step that adds the widget to the model attributes
+     */
+    private <V> CompletableFuture<Runnable> load(ExpiringLruCache<String, V> cache, String key, Supplier<V> loader,
+                                                 V empty, BiConsumer<V, Map<String, Object>> addToModel,
+                                                 Map<String, Object> attributes) {
+        V cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(() -> addToModel.accept(cached, attributes));
+        }
+        Supplier<Runnable> loadAndCache = () -> {
+            V value = transactions.execute(status -> loader.get());
+            cache.put(key, value);
+            return () -> addToModel.accept(value, attributes);
+        };
+        Runnable addEmpty = () -> {
+            timedOutLoads.increment();
+            logger.warn("Home page widget {} did not load within {}, showing it empty ({} widgets timed out so far)",
+                    key, loadTimeout, timedOutLoads.sum());
+            addToModel.accept(empty, attributes);
+        };
+        try {
+            return CompletableFuture.supplyAsync(loadAndCache, executor)
+                    .completeOnTimeout(addEmpty, loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Loading home page widget on the request thread: {}", e.getMessage());
+            return CompletableFuture.completedFuture(loadAndCache.get());
+        }
+    }
+
+    /**
+     * @return number of widgets that have been shown empty because they did not load within the load timeout
+     */
+    public long getTimedOutLoadCount() {
+        return timedOutLoads.sum();
+    }
+
+    /**
+     * Gets the jobs shown on a user's calendar, which are the jobs of their renovation records followed by the
+     * jobs they have had a quote accepted for
+     * @param email email of the user
+     * @param userId ID of the user
+     * @return the calendar's jobs
+     */
+    private JobCalendar getJobCalendar(String email, Long userId) {
+        List<Job> jobs = new ArrayList<>();
+        for (RenovationRecord record : renovationRecordService.getRenovationRecordsWithJobsByOwner(email)) {
+            jobs.addAll(record.getJobs());
+        }
+        List<Job> quotedJobs = new ArrayList<>();
+        for (Quote quote : quoteService.getQuotesByUserId(userId)) {
+            if (ACCEPTED.equals(quote.getStatus()) && quote.getJob() != null) {
+                quotedJobs.add(quote.getJob());
+            }
+        }
+        jobs.addAll(quotedJobs);
+        return new JobCalendar(
+                jobs.stream().map(j -> j.getRenovationRecord().getId()).toList(),
+                jobs.stream().map(Job::getId).toList(),
+                jobs.stream().map(Job::getName).toList(),
+                jobService.convertJobStartDatesForCalendar(jobs),
+                jobService.convertJobDueDatesForCalendar(jobs),
+                jobs.stream().map(Job::getStatus).toList(),
+                jobs.stream().map(Job::getLastUpdated).toList(),
+                jobs.stream().map(quotedJobs::contains).toList());
+    }
+
+    /**
+     * Adds a calendar to the model attributes. Whether a job was just changed is worked out on every request,
+     * as a cached calendar may have been loaded some time ago.
+     */
+    private static void addCalendar(JobCalendar calendar, Map<String, Object> model) {
+        model.put("recordIds", calendar.recordIds());
+        model.put("jobIds", calendar.jobIds());
+        model.put("jobNames", calendar.jobNames());
+        model.put("jobStartDates", calendar.startDates());
+        model.put("jobDueDates", calendar.dueDates());
+        model.put("jobStatuses", calendar.statuses());
+        model.put("jobWasModified", calendar.lastUpdated().stream().map(JobService::wasModifiedRecently).toList());
+        model.put("isQuotedJob", calendar.quotedJobs());
+    }
+
+    /**
+     * Adds the hottest tradies to the model attributes along with the URLs of their profile pictures
+     */
+    private void addHottestTradies(List<User> tradies, Map<String, Object> model) {
+        model.put("hottestTradies", tradies);
+        model.put("imageUrls", imageStore.getImageUrls(tradies.stream().map(User::getProfilePicture).toList()));
+    }
+
+    /**
+     * Clears the widgets that could show an entity once a change to it has been committed. Changes made outside
+     * a transaction clear the widgets straight away.
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Class<?> type = event.entityType();
+        if (Job.class.isAssignableFrom(type)) {
+            recentJobs.clear();
+            recommendedJobs.clear();
+            calendars.clear();
+        } else if (Quote.class.isAssignableFrom(type)) {
+            calendars.clear();
+            hottestTradies.clear();
+        } else if (RenovationRecord.class.isAssignableFrom(type)) {
+            recentJobs.clear();
+            recommendedJobs.clear();
+            calendars.clear();
+            recentRenovations.clear();
+        }
+    }
+
+    /**
+     * Clears every cached widget
+     */
+    public void clearCaches() {
+        recentJobs.clear();
+        recommendedJobs.clear();
+        calendars.clear();
+        recentRenovations.clear();
+        hottestTradies.clear();
+    }
+}
@@ -3,6 +3,9 @@ package nz.ac.canterbury.seng302.homehelper.service;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Room;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +16,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class ImageService {
@@ -21,12 +27,24 @@ public class ImageService {
     UserService userService;
     ValidationService validationService;
     private final JobService jobService;
+    private final ImageStore imageStore;
+    private final UserRepository userRepository;
+    private final JobRepository jobRepository;
+    private final RoomRepository roomRepository;
+
+    public static final int UNREFERENCED_CHECK_BATCH_SIZE = 500;
 
     @Autowired
-    public ImageService(ValidationService validationService, UserService userService, JobService jobService) {
+    public ImageService(ValidationService validationService, UserService userService, JobService jobService,
+                        ImageStore imageStore, UserRepository userRepository, JobRepository jobRepository,
+                        RoomRepository roomRepository) {
         this.validationService = validationService;
         this.userService = userService;
         this.jobService = jobService;
+        this.imageStore = imageStore;
+        this.userRepository = userRepository;
+        this.jobRepository = jobRepository;
+        this.roomRepository = roomRepository;
     }
 
     /**
@@ -59,17 +77,7 @@ public class ImageService {
      * @throws IOException Error which can be thrown due to creating new directory
      */
     public void saveImage(MultipartFile file, User user) throws IOException {
-        String uniqueFileName = "user" + user.getId().toString() + file.getOriginalFilename();
-
-        Path uploadPath = Paths.get("uploads/images");
-
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        logger.info("Saving image at: {}", filePath.toAbsolutePath());
+        String uniqueFileName = imageStore.store(file);
         userService.updateDetails(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), uniqueFileName);
     }
 
@@ -81,36 +89,56 @@ public class ImageService {
      * @throws IOException In the case that there is an error with retrieving or saving the file
      */
     public void saveJobImage(MultipartFile file, Job job) throws IOException {
-        String uniqueFileName = "job" + job.getId().toString() + file.getOriginalFilename();
-
-        Path uploadPath = Paths.get("uploads/images");
-
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        logger.info("Saving image at: {}", filePath.toAbsolutePath());
+        String uniqueFileName = imageStore.store(file);
         job.addImageFilename(uniqueFileName);
         jobService.addJob(job);
     }
 
     /**
      * Removes an image from a given job.
-     * Deletes the job from storage and unlinks the job and image filename.
+     * Unlinks the job and image filename, and deletes the image from storage unless it is stored by its contents
+     * and so may also be used by other uploads. Those images are deleted by the unreferenced image sweep once
+     * nothing uses them.
      * @param filename The name of the image to remove.
      * @param job The job the image is being removed from.
      * @throws IOException In the case that there is an error with retrieving or saving the image file.
      */
     public void removeJobImage(String filename, Job job) throws IOException {
-        Path uploadPath = Paths.get("uploads/images");
-        Path filePath = uploadPath.resolve(filename);
-        Files.deleteIfExists(filePath);
+        if (!ImageStore.isContentAddressed(filename)) {
+            Path uploadPath = Paths.get("uploads/images");
+            Path filePath = uploadPath.resolve(filename);
+            Files.deleteIfExists(filePath);
+        }
         job.removeImageFilename(filename);
         jobService.addJob(job);
     }
 
+    /**
+     * Deletes the images stored under the hash of their contents that are no longer a profile picture, job image
+     * or room image. Only images last uploaded before the given time are deleted, so an image that has just been
+     * uploaded is kept until the upload has been saved.
+     * @param storedBefore the time the images must have been last uploaded before
+     * @return the number of images deleted
+     * @throws IOException if the image directory could not be read or an image could not be deleted
+     */
+    public int removeUnreferencedImages(Instant storedBefore) throws IOException {
+        List<String> filenames = imageStore.findContentAddressedImages(storedBefore);
+        int removed = 0;
+        for (int start = 0; start < filenames.size(); start += UNREFERENCED_CHECK_BATCH_SIZE) {
+            List<String> batch = filenames.subList(start, Math.min(start + UNREFERENCED_CHECK_BATCH_SIZE, filenames.size()));
+            Set<String> referenced = new HashSet<>(userRepository.findProfilePicturesIn(batch));
+            referenced.addAll(jobRepository.findImageFilenamesIn(batch));
+            referenced.addAll(roomRepository.findImageFilenamesIn(batch));
+            for (String filename : batch) {
+                if (!referenced.contains(filename)) {
+                    imageStore.delete(filename);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
     /**
      * Saves the image that a user has uploaded for a job
      * @param file The image to save
@@ -118,17 +146,7 @@ public class ImageService {
      * @throws IOException In the case that there is an error with retrieving or saving the file
      */
     public void saveRoomImage(MultipartFile file, Room room) throws IOException {
-        String uniqueFileName = "room" + room.getId().toString() + file.getOriginalFilename();
-
-        Path uploadPath = Paths.get("uploads/images");
-
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        logger.info("Saving image at: {}", filePath.toAbsolutePath());
+        String uniqueFileName = imageStore.store(file);
         room.setImageFilename(uniqueFileName);
     }
 }
@@ -0,0 +1,468 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.ImageUrls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Stores uploaded images and the smaller copies of them shown on pages. Uploads are named by the SHA-256 hash
+ * of their contents, so the same image uploaded twice is only stored once. Downscaled variants for avatars, cards
+ * and galleries are generated by a small background worker pool, and until a variant is ready pages are given the
+ * URL of the original. JPEG images get JPEG variants and PNG images get PNG variants so transparency is kept.
+ * SVG images scale without losing quality so they are always served as they are. Because an image may be shared
+ * by several uploads, images are not deleted when an upload is removed; instead images that nothing refers to
+ * any more are swept up later along with their variants.
+ */
+@Service
+public class ImageStore {
+    Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    public static final String IMAGE_URL_PREFIX = "/profileImages/";
+    public static final String VARIANT_DIRECTORY = "variants";
+    public static final int THUMBNAIL_WIDTH = 128;
+    public static final int CARD_WIDTH = 480;
+    public static final int GALLERY_WIDTH = 1280;
+    public static final int WORKER_COUNT = 2;
+    public static final int QUEUE_CAPACITY = 100;
+    public static final long MAX_VARIANT_SOURCE_PIXELS = 40_000_000L;
+    static final float JPEG_QUALITY = 0.8f;
+
+    private final Path imageDirectory;
+    private final Path variantDirectory;
+    private final Executor workers;
+    private final Map<String, String> resolvedUrls = new ConcurrentHashMap<>();
+    private final Set<String> pendingVariants = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ImageStore(@Qualifier("imageExecutor") Executor workers) {
+        this(Paths.get("uploads/images"), workers);
+    }
+
+    /**
+     * Constructor for an image store that keeps its images in the given directory and generates variants on
+     * the given executor
+     * @param imageDirectory directory the uploaded images are stored in
+     * @param workers executor the variants are generated on
+     */
+    public ImageStore(Path imageDirectory, Executor workers) {
+        this.imageDirectory = imageDirectory;
+        this.variantDirectory = imageDirectory.resolve(VARIANT_DIRECTORY);
+        this.workers = workers;
+    }
+
+    /**
+     * Saves an uploaded image under the hash of its contents and starts generating its variants
+     * @param file image uploaded by the user
+     * @return the name the image is stored under
+     * @throws IOException if the image could not be saved
+     */
+    public String store(MultipartFile file) throws IOException {
+        Files.createDirectories(imageDirectory);
+        Path upload = Files.createTempFile(imageDirectory, "upload", ".tmp");
+        String filename;
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(upload)) {
+                in.transferTo(out);
+            }
+            filename = HexFormat.of().formatHex(digest.digest()) + "." + extensionOf(file);
+            Path stored = imageDirectory.resolve(filename);
+            if (Files.exists(stored)) {
+                // Restarts the time before the image can be swept up, as the new upload may not be saved yet
+                Files.setLastModifiedTime(stored, FileTime.from(Instant.now()));
+                logger.info("Image {} is already stored", filename);
+            } else {
+                Files.move(upload, stored, StandardCopyOption.ATOMIC_MOVE);
+                logger.info("Saving image at: {}", stored.toAbsolutePath());
+            }
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+        generateVariantsLater(filename);
+        return filename;
+    }
+
+    /**
+     * Checks if an image was stored under the hash of its contents. These images may be shared by several uploads
+     * so they should not be deleted when one of them is removed.
+     * @param filename name the image is stored under
+     * @return true if the name is a content hash
+     */
+    public static boolean isContentAddressed(String filename) {
+        return filename != null && filename.matches("[0-9a-f]{64}\\.[a-z]+");
+    }
+
+    /**
+     * Finds the images stored under the hash of their contents that were last uploaded before the given time.
+     * Images uploaded since then may belong to an upload that has not been saved yet.
+     * @param storedBefore the time the images must have been last uploaded before
+     * @return names the images are stored under
+     * @throws IOException if the image directory could not be read
+     */
+    public List<String> findContentAddressedImages(Instant storedBefore) throws IOException {
+        if (!Files.isDirectory(imageDirectory)) {
+            return List.of();
+        }
+        List<String> filenames = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageDirectory)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (isContentAddressed(filename) && Files.isRegularFile(file)
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(storedBefore)) {
+                    filenames.add(filename);
+                }
+            }
+        }
+        return filenames;
+    }
+
+    /**
+     * Deletes an image stored under the hash of its contents and all of its variants. Pages that still link to
+     * it will get a missing image, so this should only be used for images nothing refers to.
+     * @param filename name the image is stored under
+     * @throws IOException if the image or one of its variants could not be deleted
+     */
+    public void delete(String filename) throws IOException {
+        if (!isContentAddressed(filename)) {
+            return;
+        }
+        for (int width : new int[] {THUMBNAIL_WIDTH, CARD_WIDTH, GALLERY_WIDTH}) {
+            String variantName = variantName(filename, width);
+            resolvedUrls.remove(variantName);
+            Files.deleteIfExists(variantDirectory.resolve(variantName));
+        }
+        Files.deleteIfExists(imageDirectory.resolve(filename));
+        logger.info("Deleted unused image {}", filename);
+    }
+
+    /**
+     * Checks if a stored image or variant can never change. Content-addressed images and their variants are named
+     * by their contents so they can be cached forever, while older images were named by their owner and may be
+     * replaced under the same name.
+     * @param relativePath path of the image below the image directory, as it appears after the image URL prefix
+     * @return true if the file at the path never changes
+     */
+    public static boolean isImmutable(String relativePath) {
+        return relativePath != null && relativePath.matches("(" + VARIANT_DIRECTORY + "/)?[0-9a-f]{64}(-\\d+)?\\.[a-z]+");
+    }
+
+    /**
+     * Finds the file a stored image or variant is kept in
+     * @param relativePath path of the image below the image directory, as it appears after the image URL prefix
+     * @return the file, or null if the path points outside the image directory or there is no such file
+     */
+    public Path resolve(String relativePath) {
+        if (relativePath == null || relativePath.isBlank()) {
+            return null;
+        }
+        Path file = imageDirectory.resolve(relativePath).normalize();
+        if (!file.startsWith(imageDirectory.normalize()) || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for avatars, or null if there is no image
+     */
+    public String thumbnailUrl(String filename) {
+        return variantUrl(filename, THUMBNAIL_WIDTH);
+    }
+
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for cards, or null if there is no image
+     */
+    public String cardUrl(String filename) {
+        return variantUrl(filename, CARD_WIDTH);
+    }
+
+    /**
+     * @param filename name the image is stored under
+     * @return URL of the image sized for galleries, or null if there is no image
+     */
+    public String galleryUrl(String filename) {
+        return variantUrl(filename, GALLERY_WIDTH);
+    }
+
+    /**
+     * Gets the avatar sized version of an image URL, used where only the URL of the original image is known
+     * @param imageUrl URL of an uploaded image or a bundled default image
+     * @return URL of the image sized for avatars, or the same URL if it is not an uploaded image
+     */
+    public String thumbnailUrlForPath(String imageUrl) {
+        return variantUrlForPath(imageUrl, THUMBNAIL_WIDTH);
+    }
+
+    /**
+     * Gets the card sized version of an image URL, used where only the URL of the original image is known
+     * @param imageUrl URL of an uploaded image or a bundled default image
+     * @return URL of the image sized for cards, or the same URL if it is not an uploaded image
+     */
+    public String cardUrlForPath(String imageUrl) {
+        return variantUrlForPath(imageUrl, CARD_WIDTH);
+    }
+
+    /**
+     * Gets the URLs of every size of several images, for a page to look up as it renders
+     * @param filenames names the images are stored under, which may include nulls for missing images
+     * @return the URLs of the images, keyed by the name each image is stored under
+     */
+    public ImageUrls getImageUrls(Collection<String> filenames) {
+        Map<String, String> thumbnails = new HashMap<>();
+        Map<String, String> cards = new HashMap<>();
+        Map<String, String> galleries = new HashMap<>();
+        for (String filename : filenames) {
+            if (filename != null && !filename.isBlank() && !thumbnails.containsKey(filename)) {
+                thumbnails.put(filename, thumbnailUrl(filename));
+                cards.put(filename, cardUrl(filename));
+                galleries.put(filename, galleryUrl(filename));
+            }
+        }
+        return new ImageUrls(thumbnails, cards, galleries);
+    }
+
+    private String variantUrlForPath(String imageUrl, int width) {
+        if (imageUrl == null || !imageUrl.startsWith(IMAGE_URL_PREFIX)) {
+            return imageUrl;
+        }
+        return variantUrl(imageUrl.substring(IMAGE_URL_PREFIX.length()), width);
+    }
+
+    /**
+     * Gets the URL of an image no wider than the given width. If the variant has not been generated yet, the URL
+     * of the original is returned and the variant is generated in the background.
+     * @param filename name the image is stored under
+     * @param width largest width wanted, in pixels
+     * @return URL of the variant if it is ready, otherwise the URL of the original, or null if there is no image
+     */
+    public String variantUrl(String filename, int width) {
+        if (filename == null || filename.isBlank()) {
+            return null;
+        }
+        String originalUrl = IMAGE_URL_PREFIX + filename;
+        if (isSvg(filename)) {
+            return originalUrl;
+        }
+        String variantName = variantName(filename, width);
+        String resolved = resolvedUrls.get(variantName);
+        if (resolved != null) {
+            return resolved;
+        }
+        Path variant = variantDirectory.resolve(variantName).normalize();
+        if (!variant.startsWith(variantDirectory)) {
+            return originalUrl;
+        }
+        if (Files.exists(variant)) {
+            String variantUrl = IMAGE_URL_PREFIX + VARIANT_DIRECTORY + "/" + variantName;
+            resolvedUrls.put(variantName, variantUrl);
+            return variantUrl;
+        }
+        generateVariantsLater(filename);
+        return originalUrl;
+    }
+
+    /**
+     * Generates every variant of an image that is smaller than the original. Variants that would be as large
+     * as the original are not made, and the original is used in their place.
+     * @param filename name the image is stored under
+     */
+    public void generateVariants(String filename) {
+        Path original = imageDirectory.resolve(filename).normalize();
+        if (!original.startsWith(imageDirectory) || !Files.exists(original)) {
+            return;
+        }
+        String originalUrl = IMAGE_URL_PREFIX + filename;
+        try {
+            BufferedImage image = readWithinPixelBudget(original);
+            if (image == null) {
+                logger.warn("Could not read image {} or it is too large, serving the original", filename);
+                for (int width : new int[] {THUMBNAIL_WIDTH, CARD_WIDTH, GALLERY_WIDTH}) {
+                    resolvedUrls.put(variantName(filename, width), originalUrl);
+                }
+                return;
+            }
+            Files.createDirectories(variantDirectory);
+            for (int width : new int[] {THUMBNAIL_WIDTH, CARD_WIDTH, GALLERY_WIDTH}) {
+                String variantName = variantName(filename, width);
+                if (image.getWidth() <= width) {
+                    resolvedUrls.put(variantName, originalUrl);
+                    continue;
+                }
+                Path variant = variantDirectory.resolve(variantName);
+                if (!Files.exists(variant)) {
+                    writeVariant(downscale(image, width), variant, isPng(filename));
+                }
+                resolvedUrls.put(variantName, IMAGE_URL_PREFIX + VARIANT_DIRECTORY + "/" + variantName);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not generate the variants of image {}", filename, e);
+        }
+    }
+
+    /**
+     * Reads an image if it has no more than {@link #MAX_VARIANT_SOURCE_PIXELS} pixels. The size is read from the
+     * image's header before any pixels are decoded, so a small file that claims to be a huge image cannot use up
+     * the worker's memory.
+     * @return the image, or null if it could not be read or has too many pixels
+     */
+    private static BufferedImage readWithinPixelBudget(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_VARIANT_SOURCE_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void generateVariantsLater(String filename) {
+        if (isSvg(filename) || !pendingVariants.add(filename)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generateVariants(filename);
+                } finally {
+                    pendingVariants.remove(filename);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pendingVariants.remove(filename);
+            logger.warn("Image variant workers are busy, the variants of {} will be generated later", filename);
+        }
+    }
+
+    /**
+     * Halves the image until it is close to the target width before the final resize, which keeps large
+     * downscales smooth without the cost of a high quality filter
+     */
+    private static BufferedImage downscale(BufferedImage image, int width) {
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(currentWidth / 2, width);
+            currentHeight = Math.max(1, (int) Math.round((double) image.getHeight() * currentWidth / image.getWidth()));
+            BufferedImage scaled = new BufferedImage(currentWidth, currentHeight,
+                    hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = scaled;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private static void writeVariant(BufferedImage image, Path variant, boolean png) throws IOException {
+        Path temporary = Files.createTempFile(variant.getParent(), "variant", ".tmp");
+        try {
+            if (png) {
+                ImageIO.write(image, "png", temporary.toFile());
+            } else {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                try (ImageOutputStream out = ImageIO.createImageOutputStream(temporary.toFile())) {
+                    writer.setOutput(out);
+                    writer.write(null, new IIOImage(image, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            Files.move(temporary, variant, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static String variantName(String filename, int width) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base + "-" + width + (isPng(filename) ? ".png" : ".jpg");
+    }
+
+    private static String extensionOf(MultipartFile file) {
+        String contentType = file.getContentType();
+        if ("image/png".equals(contentType)) {
+            return "png";
+        } else if ("image/jpeg".equals(contentType)) {
+            return "jpg";
+        } else if ("image/svg+xml".equals(contentType)) {
+            return "svg";
+        }
+        String originalName = file.getOriginalFilename();
+        int dot = originalName == null ? -1 : originalName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalName.substring(dot + 1).toLowerCase();
+        return extension.matches("[a-z]{1,5}") ? extension : "img";
+    }
+
+    private static boolean isSvg(String filename) {
+        return filename.toLowerCase().endsWith(".svg");
+    }
+
+    private static boolean isPng(String filename) {
+        return filename.toLowerCase().endsWith(".png");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
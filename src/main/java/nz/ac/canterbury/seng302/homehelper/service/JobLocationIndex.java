@@ -0,0 +1,415 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapPosition;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.NearbyJob;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index of where posted jobs are. The world is split into a grid of cells a tenth of a degree
+ * across, about 11km, and each located job is kept in the cell its renovation record is in. A radius or map area
+ * search only looks at the jobs in the cells it overlaps, so it takes about as long however many jobs are posted
+ * elsewhere. Jobs whose renovation record has no coordinates are kept track of but are never found by a search.
+ * The index is kept up to date from the changes to jobs and renovation records, and built from the database on
+ * startup. Until it has been built, searches must go to the database.
+ */
+@Service
+public class JobLocationIndex {
+
+    public static final double MAX_RADIUS_KM = 500;
+    private static final double CELL_SIZE_DEGREES = 0.1;
+    private static final int LATITUDE_CELLS = (int) Math.round(180 / CELL_SIZE_DEGREES);
+    private static final int LONGITUDE_CELLS = (int) Math.round(360 / CELL_SIZE_DEGREES);
+    private static final double KM_PER_DEGREE = GeoUtil.EARTH_RADIUS_KM * Math.PI / 180;
+
+    private record RecordLocation(float latitude, float longitude) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, JobLocation> locations = new HashMap<>();
+    private final Map<Long, Map<Long, JobLocation>> cells = new HashMap<>();
+    private final Map<Long, Set<Long>> jobsByRecord = new HashMap<>();
+    private final RebuildChanges<RecordLocation> rebuildChanges = new RebuildChanges<>();
+    private volatile boolean ready = false;
+    private volatile long version = 0;
+
+    /**
+     * @return true once the index has been built, before that searches must go to the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return a number that goes up every time a job is added, moved or removed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return markers of every located job, by job ID
+     */
+    public List<MapMarker> getAllMarkers() {
+        lock.readLock().lock();
+        try {
+            return locations.values().stream()
+                    .filter(JobLocation::isLocated)
+                    .map(JobLocationIndex::toMarker)
+                    .sorted(Comparator.comparing(MapMarker::jobId))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the located jobs within a distance of a point
+     * @param latitude latitude of the point
+     * @param longitude longitude of the point
+     * @param radiusKm how far from the point jobs can be, in kilometres
+     * @param limit most jobs to return
+     * @return the nearest jobs within the radius, nearest first
+     */
+    public List<NearbyJob> findWithinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        double latitudeDelta = radiusKm / KM_PER_DEGREE;
+        double south = Math.max(latitude - latitudeDelta, -90);
+        double north = Math.min(latitude + latitudeDelta, 90);
+        // Lines of longitude get closer together away from the equator, so the search is widest at the edge of the
+        // circle nearest a pole. A circle that reaches a pole covers every longitude.
+        double widestLatitude = Math.max(Math.abs(south), Math.abs(north));
+        double longitudeDelta = north >= 90 || south <= -90 ? 180
+                : Math.min(latitudeDelta / Math.cos(Math.toRadians(widestLatitude)), 180);
+        List<NearbyJob> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map<Long, JobLocation> cell : cellsOverlapping(south, longitude - longitudeDelta, north,
+                    longitude + longitudeDelta)) {
+                for (JobLocation location : cell.values()) {
+                    if (Math.abs(location.latitude() - latitude) > latitudeDelta) {
+                        continue;
+                    }
+                    double distance = GeoUtil.distanceKm(latitude, longitude, location.latitude(), location.longitude());
+                    if (distance <= radiusKm) {
+                        found.add(toNearbyJob(location, distance));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return nearestFirst(found, limit);
+    }
+
+    /**
+     * Finds the located jobs in an area of the map. An area whose west edge is east of its east edge crosses the
+     * 180th meridian.
+     * @param south latitude of the south edge
+     * @param west longitude of the west edge
+     * @param north latitude of the north edge
+     * @param east longitude of the east edge
+     * @return markers of the jobs in the area, by job ID
+     */
+    public List<MapMarker> findInBoundingBox(double south, double west, double north, double east) {
+        double eastUnwrapped = east < west ? east + 360 : east;
+        List<MapMarker> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map<Long, JobLocation> cell : cellsOverlapping(south, west, north, eastUnwrapped)) {
+                for (JobLocation location : cell.values()) {
+                    if (inBoundingBox(location, south, west, north, east)) {
+                        found.add(toMarker(location));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.sort(Comparator.comparing(MapMarker::jobId));
+        return found;
+    }
+
+    /**
+     * Finds the located jobs within a distance of a point by checking every job, for use before the index is built
+     * @param locations locations of every posted job
+     * @param latitude latitude of the point
+     * @param longitude longitude of the point
+     * @param radiusKm how far from the point jobs can be, in kilometres
+     * @param limit most jobs to return
+     * @return the nearest jobs within the radius, nearest first
+     */
+    public static List<NearbyJob> findWithinRadius(Collection<JobLocation> locations, double latitude,
+                                                   double longitude, double radiusKm, int limit) {
+        List<NearbyJob> found = new ArrayList<>();
+        for (JobLocation location : locations) {
+            if (location.isLocated()) {
+                double distance = GeoUtil.distanceKm(latitude, longitude, location.latitude(), location.longitude());
+                if (distance <= radiusKm) {
+                    found.add(toNearbyJob(location, distance));
+                }
+            }
+        }
+        return nearestFirst(found, limit);
+    }
+
+    /**
+     * Finds the located jobs in an area of the map by checking every job, for use before the index is built
+     * @param locations locations of every posted job
+     * @param south latitude of the south edge
+     * @param west longitude of the west edge
+     * @param north latitude of the north edge
+     * @param east longitude of the east edge
+     * @return markers of the jobs in the area, by job ID
+     */
+    public static List<MapMarker> findInBoundingBox(Collection<JobLocation> locations, double south, double west,
+                                                    double north, double east) {
+        return locations.stream()
+                .filter(location -> location.isLocated() && inBoundingBox(location, south, west, north, east))
+                .map(JobLocationIndex::toMarker)
+                .sorted(Comparator.comparing(MapMarker::jobId))
+                .toList();
+    }
+
+    /**
+     * Gets the cells of the grid that overlap an area. When the area covers more cells than there are jobs in the
+     * index, every cell holding a job is returned instead.
+     * @param east longitude of the east edge, which may be past 180 when the area crosses the 180th meridian
+     */
+    private Collection<Map<Long, JobLocation>> cellsOverlapping(double south, double west, double north,
+                                                                double east) {
+        int southCell = latitudeCell(south);
+        int northCell = latitudeCell(north);
+        long westCell = (long) Math.floor((west + 180) / CELL_SIZE_DEGREES);
+        long eastCell = (long) Math.floor((east + 180) / CELL_SIZE_DEGREES);
+        long longitudeCells = Math.min(eastCell - westCell + 1, LONGITUDE_CELLS);
+        if ((northCell - southCell + 1) * longitudeCells > cells.size()) {
+            return cells.values();
+        }
+        List<Map<Long, JobLocation>> overlapping = new ArrayList<>();
+        for (int latitudeCell = southCell; latitudeCell <= northCell; latitudeCell++) {
+            for (long cell = westCell; cell < westCell + longitudeCells; cell++) {
+                Map<Long, JobLocation> jobs = cells.get(cellKey(latitudeCell,
+                        (int) Math.floorMod(cell, (long) LONGITUDE_CELLS)));
+                if (jobs != null) {
+                    overlapping.add(jobs);
+                }
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Keeps the index up to date once a change to a job or renovation record has been committed. Changes made
+     * outside a transaction are applied straight away.
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entity() instanceof Job job) {
+            if (event.removed() || !Boolean.TRUE.equals(job.getIsPosted()) || job.getRenovationRecord() == null) {
+                removeJob(job.getId());
+            } else {
+                addJob(JobLocation.of(job));
+            }
+        } else if (event.entity() instanceof RenovationRecord record) {
+            if (event.removed()) {
+                removeRecord(record.getId());
+            } else {
+                updateRecord(record.getId(), new RecordLocation(record.getLatitude(), record.getLongitude()));
+            }
+        }
+    }
+
+    /**
+     * Adds a posted job to the index, replacing any earlier version of it
+     * @param location the location of the job
+     */
+    public void addJob(JobLocation location) {
+        if (location.jobId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(location);
+            rebuildChanges.changed(location.jobId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a job that has been deleted or is no longer posted
+     * @param jobId ID of the job
+     */
+    public void removeJob(Long jobId) {
+        if (jobId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(jobId);
+            rebuildChanges.changed(jobId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateRecord(Long recordId, RecordLocation recordLocation) {
+        if (recordId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long jobId : List.copyOf(jobsByRecord.getOrDefault(recordId, Set.of()))) {
+                put(withRecordLocation(locations.get(jobId), recordLocation));
+            }
+            rebuildChanges.recordChanged(recordId, recordLocation);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeRecord(Long recordId) {
+        if (recordId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long jobId : List.copyOf(jobsByRecord.getOrDefault(recordId, Set.of()))) {
+                remove(jobId);
+                rebuildChanges.changed(jobId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a rebuild. Jobs and records changed from now until the rebuild finishes keep their new
+     * state rather than being overwritten by the state loaded for the rebuild.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildChanges.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with every posted job loaded from the database
+     * @param loaded locations of every posted job
+     */
+    public void finishRebuild(List<JobLocation> loaded) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> loadedIds = new HashSet<>();
+            for (JobLocation location : loaded) {
+                loadedIds.add(location.jobId());
+            }
+            for (Long jobId : List.copyOf(locations.keySet())) {
+                if (!loadedIds.contains(jobId) && !rebuildChanges.wasChanged(jobId)) {
+                    remove(jobId);
+                }
+            }
+            for (JobLocation location : loaded) {
+                if (!rebuildChanges.wasChanged(location.jobId())) {
+                    RecordLocation changedRecord = rebuildChanges.getChangedRecord(location.recordId());
+                    put(changedRecord == null ? location : withRecordLocation(location, changedRecord));
+                }
+            }
+            rebuildChanges.finish();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(JobLocation location) {
+        remove(location.jobId());
+        version++;
+        locations.put(location.jobId(), location);
+        jobsByRecord.computeIfAbsent(location.recordId(), key -> new HashSet<>()).add(location.jobId());
+        if (location.isLocated()) {
+            cells.computeIfAbsent(cellKey(location), key -> new HashMap<>()).put(location.jobId(), location);
+        }
+    }
+
+    private void remove(Long jobId) {
+        JobLocation location = locations.remove(jobId);
+        if (location == null) {
+            return;
+        }
+        version++;
+        Set<Long> recordJobs = jobsByRecord.get(location.recordId());
+        if (recordJobs != null) {
+            recordJobs.remove(jobId);
+            if (recordJobs.isEmpty()) {
+                jobsByRecord.remove(location.recordId());
+            }
+        }
+        if (location.isLocated()) {
+            long key = cellKey(location);
+            Map<Long, JobLocation> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(jobId);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private static JobLocation withRecordLocation(JobLocation location, RecordLocation recordLocation) {
+        return new JobLocation(location.jobId(), location.recordId(), location.name(), recordLocation.latitude(),
+                recordLocation.longitude());
+    }
+
+    private static long cellKey(JobLocation location) {
+        int longitudeCell = Math.floorMod((int) Math.floor((location.longitude() + 180) / CELL_SIZE_DEGREES),
+                LONGITUDE_CELLS);
+        return cellKey(latitudeCell(location.latitude()), longitudeCell);
+    }
+
+    private static long cellKey(int latitudeCell, int longitudeCell) {
+        return (long) latitudeCell * LONGITUDE_CELLS + longitudeCell;
+    }
+
+    private static int latitudeCell(double latitude) {
+        return Math.clamp((int) Math.floor((latitude + 90) / CELL_SIZE_DEGREES), 0, LATITUDE_CELLS - 1);
+    }
+
+    private static boolean inBoundingBox(JobLocation location, double south, double west, double north,
+                                         double east) {
+        if (location.latitude() < south || location.latitude() > north) {
+            return false;
+        }
+        if (west <= east) {
+            return location.longitude() >= west && location.longitude() <= east;
+        }
+        return location.longitude() >= west || location.longitude() <= east;
+    }
+
+    private static List<NearbyJob> nearestFirst(List<NearbyJob> found, int limit) {
+        found.sort(Comparator.comparingDouble(NearbyJob::distanceKm).thenComparing(NearbyJob::jobId));
+        return found.size() > limit ? List.copyOf(found.subList(0, limit)) : found;
+    }
+
+    private static NearbyJob toNearbyJob(JobLocation location, double distanceKm) {
+        return new NearbyJob(location.jobId(), location.name(), distanceKm,
+                new MapPosition(location.latitude(), location.longitude()));
+    }
+
+    static MapMarker toMarker(JobLocation location) {
+        return new MapMarker(location.name(), location.jobId(),
+                new MapPosition(location.latitude(), location.longitude()));
+    }
+}
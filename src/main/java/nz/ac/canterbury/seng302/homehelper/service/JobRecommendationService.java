@@ -0,0 +1,395 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recommends posted jobs for the home page. The IDs of the posted jobs are kept in memory in pools for every
+ * city and job type, so a recommendation draws a few candidates at random from the pools that suit the user
+ * instead of loading every posted job. Candidates are weighted by whether they are in the user's city, whether they
+ * are of a type the user has recently viewed and how close they are to the user, and the recommendations are a
+ * weighted random pick of the candidates. Jobs in the user's city are listed first.
+ * The pools are kept up to date from the changes to jobs and renovation records, and built from the database on
+ * startup. Until they have been built, recommendations are worked out from the database.
+ */
+@Service
+public class JobRecommendationService {
+
+    public static final int RECOMMENDATION_COUNT = 6;
+    // Candidates drawn from each pool for every recommendation made
+    private static final int SAMPLES_PER_RECOMMENDATION = 4;
+    private static final double SAME_CITY_WEIGHT = 4;
+    private static final double PREFERRED_TYPE_WEIGHT = 2;
+    // A job next door is weighted up to this many times more than a job far away
+    private static final double NEARBY_WEIGHT = 3;
+    private static final double NEARBY_DISTANCE_KM = 10;
+
+    private record RecordDetails(String ownerEmail, String city, float latitude, float longitude) {}
+
+    /**
+     * IDs of jobs that can be added, removed and picked at random in constant time
+     */
+    private static class CandidatePool {
+        private final List<Long> jobIds = new ArrayList<>();
+        private final Map<Long, Integer> positions = new HashMap<>();
+
+        void add(Long jobId) {
+            if (positions.putIfAbsent(jobId, jobIds.size()) == null) {
+                jobIds.add(jobId);
+            }
+        }
+
+        void remove(Long jobId) {
+            Integer position = positions.remove(jobId);
+            if (position == null) {
+                return;
+            }
+            Long last = jobIds.removeLast();
+            if (position < jobIds.size()) {
+                jobIds.set(position, last);
+                positions.put(last, position);
+            }
+        }
+
+        int size() {
+            return jobIds.size();
+        }
+
+        Long get(int position) {
+            return jobIds.get(position);
+        }
+    }
+
+    private final JobService jobService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RecommendationCandidate> candidates = new HashMap<>();
+    private final CandidatePool allJobs = new CandidatePool();
+    private final Map<String, CandidatePool> jobsByCity = new HashMap<>();
+    private final Map<String, CandidatePool> jobsByType = new HashMap<>();
+    private final Map<Long, Set<Long>> jobsByRecord = new HashMap<>();
+    private final RebuildChanges<RecordDetails> rebuildChanges = new RebuildChanges<>();
+    private volatile boolean ready = false;
+
+    public JobRecommendationService(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * @return true once the pools have been built, before that recommendations are worked out from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Gets the cards of the jobs recommended to a user
+     * @param email email of the user, whose own jobs are not recommended
+     * @param city city of the user, or null if they have not given one
+     * @param latitude latitude of the user, or zero if unknown
+     * @param longitude longitude of the user, or zero if unknown
+     * @param recentJobIds IDs of the jobs the user has recently viewed, the types of which are preferred
+     * @return cards of up to six posted jobs the user does not own, with jobs in the user's city first
+     */
+    public List<JobCardInfo> getRecommendedJobCards(String email, String city, float latitude, float longitude,
+                                                    List<Long> recentJobIds) {
+        if (!ready) {
+            return jobService.getJobCardsPosted(jobService.getRecommendedPostedJobs(email, city));
+        }
+        return jobService.getJobCards(getRecommendedJobIds(email, city, latitude, longitude, recentJobIds));
+    }
+
+    /**
+     * Picks the jobs to recommend to a user. Only a fixed number of candidates are drawn from the pools, so the
+     * time taken does not depend on how many jobs are posted.
+     * @param email email of the user, whose own jobs are not recommended
+     * @param city city of the user, or null if they have not given one
+     * @param latitude latitude of the user, or zero if unknown
+     * @param longitude longitude of the user, or zero if unknown
+     * @param recentJobIds IDs of the jobs the user has recently viewed, the types of which are preferred
+     * @return IDs of up to six posted jobs, with jobs in the user's city first
+     */
+    public List<Long> getRecommendedJobIds(String email, String city, float latitude, float longitude,
+                                           List<Long> recentJobIds) {
+        String userCity = cityKey(city);
+        int sampleSize = RECOMMENDATION_COUNT * SAMPLES_PER_RECOMMENDATION;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<String> preferredTypes = new HashSet<>();
+        Map<Long, RecommendationCandidate> sample = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long jobId : recentJobIds) {
+                RecommendationCandidate viewed = candidates.get(jobId);
+                if (viewed != null) {
+                    preferredTypes.add(viewed.jobType());
+                }
+            }
+            if (userCity != null) {
+                sampleFrom(jobsByCity.get(userCity), sampleSize, email, sample, random);
+            }
+            for (String type : preferredTypes) {
+                sampleFrom(jobsByType.get(type), Math.max(RECOMMENDATION_COUNT, sampleSize / preferredTypes.size()),
+                        email, sample, random);
+            }
+            sampleFrom(allJobs, sampleSize, email, sample, random);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Weighted random sampling without replacement: each candidate gets a random key that tends to be
+        // larger the heavier it is weighted, and the candidates with the largest keys are recommended
+        boolean userLocated = hasCoordinates(latitude, longitude);
+        Map<RecommendationCandidate, Double> keys = new HashMap<>();
+        for (RecommendationCandidate candidate : sample.values()) {
+            double weight = 1;
+            if (userCity != null && userCity.equals(cityKey(candidate.city()))) {
+                weight *= SAME_CITY_WEIGHT;
+            }
+            if (preferredTypes.contains(candidate.jobType())) {
+                weight *= PREFERRED_TYPE_WEIGHT;
+            }
+            if (userLocated && hasCoordinates(candidate.latitude(), candidate.longitude())) {
+                double distance = GeoUtil.distanceKm(latitude, longitude, candidate.latitude(), candidate.longitude());
+                weight *= 1 + NEARBY_WEIGHT * NEARBY_DISTANCE_KM / (NEARBY_DISTANCE_KM + distance);
+            }
+            keys.put(candidate, Math.log(random.nextDouble()) / weight);
+        }
+        return keys.entrySet().stream()
+                .sorted(Map.Entry.<RecommendationCandidate, Double>comparingByValue().reversed())
+                .limit(RECOMMENDATION_COUNT)
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.comparing(candidate -> userCity == null || !userCity.equals(cityKey(candidate.city()))))
+                .map(RecommendationCandidate::jobId)
+                .toList();
+    }
+
+    /**
+     * Draws candidates at random from a pool, skipping the user's own jobs. A pool no bigger than the number of
+     * candidates wanted is taken whole.
+     * @param pool pool to draw from, may be null
+     * @param count number of candidates to draw
+     * @param email email of the user
+     * @param sample candidates drawn so far, by job ID
+     * @param random source of randomness
+     */
+    private void sampleFrom(CandidatePool pool, int count, String email, Map<Long, RecommendationCandidate> sample,
+                            Random random) {
+        if (pool == null) {
+            return;
+        }
+        if (pool.size() <= count) {
+            for (int i = 0; i < pool.size(); i++) {
+                addToSample(candidates.get(pool.get(i)), email, sample);
+            }
+            return;
+        }
+        int drawn = 0;
+        for (int attempt = 0; attempt < count * 2 && drawn < count; attempt++) {
+            if (addToSample(candidates.get(pool.get(random.nextInt(pool.size()))), email, sample)) {
+                drawn++;
+            }
+        }
+    }
+
+    private static boolean addToSample(RecommendationCandidate candidate, String email,
+                                       Map<Long, RecommendationCandidate> sample) {
+        if (candidate.ownerEmail() != null && candidate.ownerEmail().equalsIgnoreCase(email)) {
+            return false;
+        }
+        return sample.putIfAbsent(candidate.jobId(), candidate) == null;
+    }
+
+    /**
+     * Keeps the pools up to date once a change to a job or renovation record has been committed. Changes made
+     * outside a transaction are applied straight away.
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entity() instanceof Job job) {
+            if (event.removed() || !Boolean.TRUE.equals(job.getIsPosted()) || job.getRenovationRecord() == null) {
+                removeJob(job.getId());
+            } else {
+                addJob(RecommendationCandidate.of(job));
+            }
+        } else if (event.entity() instanceof RenovationRecord record) {
+            if (event.removed()) {
+                removeRecord(record.getId());
+            } else {
+                updateRecord(record.getId(), new RecordDetails(record.getUserEmail(), record.getCity(),
+                        record.getLatitude(), record.getLongitude()));
+            }
+        }
+    }
+
+    /**
+     * Adds a posted job to the pools, replacing any earlier version of it
+     * @param candidate the job
+     */
+    public void addJob(RecommendationCandidate candidate) {
+        if (candidate.jobId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(candidate);
+            rebuildChanges.changed(candidate.jobId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a job that has been deleted or is no longer posted
+     * @param jobId ID of the job
+     */
+    public void removeJob(Long jobId) {
+        if (jobId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(jobId);
+            rebuildChanges.changed(jobId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateRecord(Long recordId, RecordDetails details) {
+        if (recordId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long jobId : List.copyOf(jobsByRecord.getOrDefault(recordId, Set.of()))) {
+                put(withRecordDetails(candidates.get(jobId), details));
+            }
+            rebuildChanges.recordChanged(recordId, details);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeRecord(Long recordId) {
+        if (recordId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long jobId : List.copyOf(jobsByRecord.getOrDefault(recordId, Set.of()))) {
+                remove(jobId);
+                rebuildChanges.changed(jobId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a rebuild. Jobs and records changed from now until the rebuild finishes keep their new
+     * state rather than being overwritten by the state loaded for the rebuild.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildChanges.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the pools with every posted job loaded from the database
+     * @param loaded every posted job
+     */
+    public void finishRebuild(List<RecommendationCandidate> loaded) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> loadedIds = new HashSet<>();
+            for (RecommendationCandidate candidate : loaded) {
+                loadedIds.add(candidate.jobId());
+            }
+            for (Long jobId : List.copyOf(candidates.keySet())) {
+                if (!loadedIds.contains(jobId) && !rebuildChanges.wasChanged(jobId)) {
+                    remove(jobId);
+                }
+            }
+            for (RecommendationCandidate candidate : loaded) {
+                if (!rebuildChanges.wasChanged(candidate.jobId())) {
+                    RecordDetails changedRecord = rebuildChanges.getChangedRecord(candidate.recordId());
+                    put(changedRecord == null ? candidate : withRecordDetails(candidate, changedRecord));
+                }
+            }
+            rebuildChanges.finish();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(RecommendationCandidate candidate) {
+        remove(candidate.jobId());
+        candidates.put(candidate.jobId(), candidate);
+        allJobs.add(candidate.jobId());
+        String city = cityKey(candidate.city());
+        if (city != null) {
+            jobsByCity.computeIfAbsent(city, key -> new CandidatePool()).add(candidate.jobId());
+        }
+        jobsByType.computeIfAbsent(candidate.jobType(), key -> new CandidatePool()).add(candidate.jobId());
+        jobsByRecord.computeIfAbsent(candidate.recordId(), key -> new HashSet<>()).add(candidate.jobId());
+    }
+
+    private void remove(Long jobId) {
+        RecommendationCandidate candidate = candidates.remove(jobId);
+        if (candidate == null) {
+            return;
+        }
+        allJobs.remove(jobId);
+        String city = cityKey(candidate.city());
+        if (city != null) {
+            removeFromPool(jobsByCity, city, jobId);
+        }
+        removeFromPool(jobsByType, candidate.jobType(), jobId);
+        Set<Long> recordJobs = jobsByRecord.get(candidate.recordId());
+        if (recordJobs != null) {
+            recordJobs.remove(jobId);
+            if (recordJobs.isEmpty()) {
+                jobsByRecord.remove(candidate.recordId());
+            }
+        }
+    }
+
+    private static void removeFromPool(Map<String, CandidatePool> pools, String key, Long jobId) {
+        CandidatePool pool = pools.get(key);
+        if (pool != null) {
+            pool.remove(jobId);
+            if (pool.size() == 0) {
+                pools.remove(key);
+            }
+        }
+    }
+
+    private static RecommendationCandidate withRecordDetails(RecommendationCandidate candidate, RecordDetails details) {
+        return new RecommendationCandidate(candidate.jobId(), candidate.recordId(), details.ownerEmail(),
+                details.city(), candidate.jobType(), details.latitude(), details.longitude());
+    }
+
+    private static String cityKey(String city) {
+        return city == null || city.isBlank() ? null : city.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Coordinates that were never set are left at zero
+    private static boolean hasCoordinates(float latitude, float longitude) {
+        return latitude != 0 || longitude != 0;
+    }
+}
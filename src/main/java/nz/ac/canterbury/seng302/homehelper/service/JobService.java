@@ -1,18 +1,26 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
+import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.*;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.NearbyJob;
 import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.JobSpecifications;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -31,8 +39,13 @@ public class JobService {
     private final JobRepository jobRepository;
     private final RoomRepository roomRepository;
     private final ValidationService validationService;
+    private final JobLocationIndex jobLocationIndex;
+    private final ImageStore imageStore;
 
     private Integer numberOfJobs = 6;
+    // Most jobs within a radius that are filtered, nearest first, and how many are checked in each query
+    public static final int MAX_NEARBY_FILTER_CANDIDATES = 5000;
+    private static final int NEARBY_FILTER_BATCH_SIZE = 1000;
 
     public static final String JOB_NAME_EMPTY_OR_INVALID = "Job name cannot be empty and must only include " +
             "letters, numbers, spaces, dots, hyphens or apostrophes";
@@ -55,6 +68,11 @@ public class JobService {
     public static final String JOB_START_DATE_INVALID_DATE = "Start date is not a valid date";
     public static final String JOB_START_DATE_AFTER_DUE = "Start date must be before due date";
 
+    public static final String LATITUDE_INVALID = "Latitude must be between -90 and 90";
+    public static final String LONGITUDE_INVALID = "Longitude must be between -180 and 180";
+    public static final String RADIUS_INVALID = "Radius must be more than 0km and at most " +
+            (int) JobLocationIndex.MAX_RADIUS_KM + "km";
+
     public static final List<String> ICON_LIST = List.of(
             "bolt-solid",
             "broom-solid",
@@ -65,10 +83,13 @@ public class JobService {
     );
 
     @Autowired
-    public JobService(JobRepository jobRepository, RoomRepository roomRepository, ValidationService validationService) {
+    public JobService(JobRepository jobRepository, RoomRepository roomRepository, ValidationService validationService,
+                      JobLocationIndex jobLocationIndex, ImageStore imageStore) {
         this.jobRepository = jobRepository;
         this.roomRepository = roomRepository;
         this.validationService = validationService;
+        this.jobLocationIndex = jobLocationIndex;
+        this.imageStore = imageStore;
     }
 
     /**
@@ -80,6 +101,32 @@ public class JobService {
         return jobRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Gets a job along with its quotes and the portfolio jobs of each quote's sender, as shown on the compare
+     * tradies page
+     * @param id ID number of the job
+     * @return Job with the unique ID number, or null if there is no such job
+     */
+    @Transactional
+    public Job getJobForComparison(long id) {
+        Job job = jobRepository.findJobWithQuotesById(id).orElse(null);
+        if (job != null) {
+            for (Quote quote : job.getQuotes()) {
+                Hibernate.initialize(quote.getUser().getPortfolioJobs());
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Gets a job along with the users who have added it to their portfolio
+     * @param id ID number of the job
+     * @return Job with the unique ID number, or null if there is no such job
+     */
+    public Job getJobWithPortfolioUsers(long id) {
+        return jobRepository.findJobWithPortfolioUsersById(id).orElse(null);
+    }
+
     /**
      * Gets a job and validates if it belongs to a renovation record
      * @param id ID of the job
@@ -105,20 +152,25 @@ public class JobService {
      * @return All posted jobs currently saved in storage
      */
     public List<Job> getRecommendedPostedJobs(User user) {
+        return getRecommendedPostedJobs(user.getEmail(), user.getCity());
+    }
+
+    /**
+     * Gets up to six posted jobs at random that a user does not own, with the jobs in the user's city first
+     * @param email email of the user
+     * @param city city of the user, or null if they have not given one
+     * @return the recommended posted jobs
+     */
+    public List<Job> getRecommendedPostedJobs(String email, String city) {
         List<Job> postedJobs = new ArrayList<>(jobRepository.findPostedJobs().stream().filter(
-                job -> !job.getRenovationRecord().getUserEmail().equals(user.getEmail())).toList());
+                job -> !job.getRenovationRecord().getUserEmail().equals(email)).toList());
 
         Collections.shuffle(postedJobs);
 
-        if (!(user.getCity() == null || user.getCity().isEmpty())) {
-            List<Job> nearbyJobs = postedJobs.stream().filter(
-                    j -> j.getRenovationRecord().getCity() != null &&
-                            Objects.equals(j.getRenovationRecord().getCity().toUpperCase(), user.getCity().toUpperCase())).toList();
-
-            for (Job job : nearbyJobs) {
-                postedJobs.remove(job);
-                postedJobs.addFirst(job);
-            }
+        if (!(city == null || city.isEmpty())) {
+            // The sort is stable, so the nearby jobs and the other jobs stay shuffled
+            postedJobs.sort(Comparator.comparing(j -> j.getRenovationRecord().getCity() == null ||
+                    !j.getRenovationRecord().getCity().equalsIgnoreCase(city)));
         }
 
         int maxRecommendedJobs = 6;
@@ -583,51 +635,129 @@ public class JobService {
     }
 
     /**
-     * Gets the Slice batch object of Jobs which are posted on the given page.
-     * Uses the set numberOfJobs to determine the number of jobs to be included in the Slice.
-     * @return The Slice object containing the batch of jobs.
+     * Gets the page of posted jobs matching a job filter. Every filter is applied by the database so that
+     * only the jobs on the requested page are loaded, with the total coming from a separate count query.
+     * If the requested page is past the last page, the first page is returned instead.
+     * When the filter has a radius, the jobs within it are found from the job location index and listed
+     * nearest first.
+     * @param filter the job filter entered on the job listings page
+     * @param jobPage the page number to select, starting from 1
+     * @return the Page object containing the batch of jobs and the total number of matching jobs
      */
-    public List<Job> getFilteredJobs(JobFilter filter) {
-        List<Job> jobs = jobRepository.findPostedJobs();
-
-        if (filter.keywords() != null && !filter.keywords().isEmpty()) {
-            jobs = jobs.stream().filter(j ->
-                    j.getName().toLowerCase().contains(filter.keywords().toLowerCase()) ||
-                            j.getDescription().toLowerCase().contains(filter.keywords().toLowerCase())).toList();
+    public Page<Job> getFilteredJobs(JobFilter filter, Integer jobPage) {
+        Specification<Job> specification = JobSpecifications.matchesFilter(filter);
+        int pageIndex = Math.max(jobPage, 1) - 1;
+        if (filter.hasRadius()) {
+            return getFilteredJobsNearby(filter, specification, pageIndex);
+        }
+        Page<Job> jobs = jobRepository.findAll(specification, PageRequest.of(pageIndex, numberOfJobs, Sort.by("id")));
+        if (pageIndex > 0 && pageIndex >= jobs.getTotalPages()) {
+            jobs = jobRepository.findAll(specification, PageRequest.of(0, numberOfJobs, Sort.by("id")));
         }
+        return jobs;
+    }
 
-        if (filter.jobTypes() != null && !filter.jobTypes().isEmpty()) {
-            jobs = jobs.stream().filter(j ->
-                    Objects.equals(j.getType(), filter.jobTypes())).toList();
+    /**
+     * Gets the page of posted jobs matching a job filter that are within the filter's radius, nearest first.
+     * Only the nearest jobs in the radius are considered, up to a fixed limit. The other filters are applied by the
+     * database to those jobs in batches of IDs, selecting only the IDs that match, and then only the jobs on the
+     * requested page are loaded.
+     * @param filter the job filter, which has a radius
+     * @param specification the other filters of the job filter
+     * @param pageIndex the page index to select, starting from 0
+     * @return the Page object containing the batch of jobs and the total number of matching jobs
+     */
+    private Page<Job> getFilteredJobsNearby(JobFilter filter, Specification<Job> specification, int pageIndex) {
+        List<NearbyJob> nearbyJobs = getNearbyJobs(filter.latitude(), filter.longitude(),
+                Math.min(filter.radiusKm(), JobLocationIndex.MAX_RADIUS_KM), MAX_NEARBY_FILTER_CANDIDATES);
+        List<Long> matchingJobIds = new ArrayList<>();
+        for (int start = 0; start < nearbyJobs.size(); start += NEARBY_FILTER_BATCH_SIZE) {
+            List<Long> batch = nearbyJobs.subList(start, Math.min(start + NEARBY_FILTER_BATCH_SIZE, nearbyJobs.size()))
+                    .stream().map(NearbyJob::jobId).toList();
+            Set<Long> matching = new HashSet<>(jobRepository.findJobIds(specification.and(JobSpecifications.hasIdIn(batch))));
+            batch.stream().filter(matching::contains).forEach(matchingJobIds::add);
+        }
+        if (pageIndex > 0 && (long) pageIndex * numberOfJobs >= matchingJobIds.size()) {
+            pageIndex = 0;
+        }
+        int fromIndex = Math.min(pageIndex * numberOfJobs, matchingJobIds.size());
+        int toIndex = Math.min(fromIndex + numberOfJobs, matchingJobIds.size());
+        List<Long> pageJobIds = matchingJobIds.subList(fromIndex, toIndex);
+        Map<Long, Job> jobsById = new HashMap<>();
+        if (!pageJobIds.isEmpty()) {
+            jobRepository.findAllById(pageJobIds).forEach(job -> jobsById.put(job.getId(), job));
+        }
+        List<Job> jobs = pageJobIds.stream().map(jobsById::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(jobs, PageRequest.of(pageIndex, numberOfJobs), matchingJobIds.size());
+    }
+
+    /**
+     * Gets the posted jobs within a distance of a point. They are found from the job location index once it has
+     * been built, and from the database before that.
+     * @param latitude latitude of the point
+     * @param longitude longitude of the point
+     * @param radiusKm how far from the point jobs can be, in kilometres
+     * @param limit most jobs to return
+     * @return the nearest posted jobs within the radius, nearest first
+     * @throws IllegalArgumentException if the point is not a valid location or the radius is too small or large
+     */
+    public List<NearbyJob> getNearbyJobs(double latitude, double longitude, double radiusKm, int limit)
+            throws IllegalArgumentException {
+        validateCoordinates(latitude, longitude);
+        if (!(radiusKm > 0 && radiusKm <= JobLocationIndex.MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException(RADIUS_INVALID);
+        }
+        if (jobLocationIndex.isReady()) {
+            return jobLocationIndex.findWithinRadius(latitude, longitude, radiusKm, limit);
         }
+        return JobLocationIndex.findWithinRadius(jobRepository.findPostedJobLocations(), latitude, longitude,
+                radiusKm, limit);
+    }
 
-        if (filter.startDate() != null && !filter.startDate().isEmpty()) {
-            jobs = jobs.stream().filter(j -> {
-                try {
-                    return (Objects.equals(j.getStartDate(), filter.startDate())) ||
-                            validationService.dateAfterAnotherDate(j.getStartDate(), filter.startDate());
-                } catch (ParseException e) {
-                    return false;
-                }
-            }).toList();
+    /**
+     * Gets the markers of the posted jobs in an area of the map. They are found from the job location index once it
+     * has been built, and from the database before that.
+     * @param south latitude of the south edge
+     * @param west longitude of the west edge
+     * @param north latitude of the north edge
+     * @param east longitude of the east edge, which is west of the west edge if the area crosses the 180th meridian
+     * @return markers of the posted jobs in the area
+     * @throws IllegalArgumentException if an edge is not a valid coordinate or the south edge is north of the north edge
+     */
+    public List<MapMarker> getJobMarkersInArea(double south, double west, double north, double east)
+            throws IllegalArgumentException {
+        validateArea(south, west, north, east);
+        if (jobLocationIndex.isReady()) {
+            return jobLocationIndex.findInBoundingBox(south, west, north, east);
         }
-        if (filter.dueDate() != null && !filter.dueDate().isEmpty()) {
-            jobs = jobs.stream().filter(j -> {
-                try {
-                    return (Objects.equals(j.getDueDate(), filter.dueDate())) ||
-                            validationService.dateAfterAnotherDate(filter.dueDate(), j.getDueDate());
-                } catch (ParseException e) {
-                    return false;
-                }
-            }).toList();
+        return JobLocationIndex.findInBoundingBox(jobRepository.findPostedJobLocations(), south, west, north, east);
+    }
+
+    /**
+     * Checks an area of the map is valid. The east edge may be west of the west edge if the area crosses the 180th
+     * meridian.
+     * @param south latitude of the south edge
+     * @param west longitude of the west edge
+     * @param north latitude of the north edge
+     * @param east longitude of the east edge
+     * @throws IllegalArgumentException if an edge is not a valid coordinate or the south edge is north of the north edge
+     */
+    public static void validateArea(double south, double west, double north, double east)
+            throws IllegalArgumentException {
+        validateCoordinates(south, west);
+        validateCoordinates(north, east);
+        if (south > north) {
+            throw new IllegalArgumentException(LATITUDE_INVALID);
         }
-        if (filter.city() != null && !filter.city().isEmpty()) {
-            jobs = jobs.stream().filter(j -> j.getRenovationRecord().getCity() != null && Objects.equals(j.getRenovationRecord().getCity().toUpperCase(), filter.city().toUpperCase())).toList();
+    }
+
+    private static void validateCoordinates(double latitude, double longitude) throws IllegalArgumentException {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException(LATITUDE_INVALID);
         }
-        if (filter.suburb() != null && !filter.suburb().isEmpty()) {
-            jobs = jobs.stream().filter(j -> j.getRenovationRecord().getSuburb() != null && Objects.equals(j.getRenovationRecord().getSuburb().toUpperCase(), filter.suburb().toUpperCase())).toList();
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException(LONGITUDE_INVALID);
         }
-        return jobs;
     }
 
 
@@ -636,12 +766,13 @@ public class JobService {
      * If the list is more than 10 then it gets the 4 pages surrounding the current page and the final and first page and returns
      * the list as distinct elements that are filtered to be between the final and 0.
      * Makes the check and creates different lists in order to match the AC3 of UserStory 15
-     * Used by the RenovationDetailsController
+     * Used by the JobListingController
      * @param currentPage the currently active page to base the others off of.
+     * @param jobs the page of filtered posted jobs
      * @return A list of the visible pagination button pages.
      */
-    public List<Integer> getPageListPosted(Integer currentPage, List<Job> jobs) {
-        int numPages = getNumPages(jobs);
+    public List<Integer> getPageListPosted(Integer currentPage, Page<Job> jobs) {
+        int numPages = jobs.getTotalPages();
         if (numPages > 10) {
             return Stream.of(1, currentPage - 2, currentPage - 1, currentPage, currentPage + 1, currentPage + 2, numPages)
                     .filter(num -> num > 0 && num <= numPages).distinct().toList();
@@ -650,20 +781,6 @@ public class JobService {
         }
     }
 
-    public List<Job> getPostedJobPages(Integer jobPage, List<Job> filteredJobs) {
-        int pageIndex = jobPage - 1;
-        int startIndex = pageIndex * numberOfJobs;
-        if (filteredJobs.size() <= numberOfJobs) {
-            startIndex = 0;
-        }
-
-        int endIndex = (pageIndex + 1) * numberOfJobs;
-        if (endIndex > filteredJobs.size()) {
-            endIndex = filteredJobs.size();
-        }
-        return filteredJobs.subList(startIndex, endIndex);
-    }
-
     /**
      * Checks if a page number falls inside the page numbers for a list of jobs
      * @param pageList list of page numbers
@@ -678,78 +795,65 @@ public class JobService {
      * Creates a job card which contains info about a job that is to be advertised on
      * the job listings page. This is done for several jobs and the function gathers them in a list.
      * The jobs returned will ONLY be posted jobs.
-     * @param userService the service to get to jobs owners
      * @param jobs the jobs to be filtered and converted.
-     * @return a list of jobCards to be display
+     * @return a list of jobCards to be display, in the same order as the jobs
      */
-    public List<JobCardInfo> getJobCardsPosted(UserService userService, List<Job> jobs) {
-        return getJobCards(userService, jobs, true);
+    public List<JobCardInfo> getJobCardsPosted(List<Job> jobs) {
+        return getJobCards(jobs.stream().filter(job -> job != null && job.getIsPosted()).map(Job::getId).toList());
     }
 
     /**
      * Creates a job card which contains info about a job that is to be advertised on
      * the job listings page. This is done for several jobs and the function gathers them in a list.
      * The jobs returned will be all jobs not just posted jobs.
-     * @param userService the service to get to jobs owners
-     * @param jobs the jobs to be filtered and converted.
-     * @return a list of jobCards to be display
+     * @param jobs the jobs to be converted.
+     * @return a list of jobCards to be display, in the same order as the jobs
      */
-    public List<JobCardInfo> getJobCardsAll(UserService userService, List<Job> jobs) {
-        return getJobCards(userService, jobs, false);
+    public List<JobCardInfo> getJobCardsAll(List<Job> jobs) {
+        return getJobCards(jobs.stream().filter(Objects::nonNull).map(Job::getId).toList());
     }
 
     /**
-     * Creates a job card which contains info about a job that is to be advertised on
-     * the job listings page. This is done for several jobs and the function gathers them in a list.
-     * @param userService the service to get to jobs owners
-     * @param jobs the jobs to be filtered and converted.
-     * @param shouldBePosted if the jobs returned should be posted jobs
-     * @return a list of jobCards to be display
+     * Creates the job cards for several jobs with a single query, so the jobs do not have to be loaded first and
+     * their owners are not looked up one card at a time. Each card links to the card sized version of its image.
+     * @param jobIds IDs of the jobs
+     * @return a list of jobCards to be display, in the same order as the IDs. IDs of jobs that no longer exist are
+     * skipped
      */
-    public List<JobCardInfo> getJobCards(UserService userService, List<Job> jobs, boolean shouldBePosted) {
-        List<JobCardInfo> jobCards = new ArrayList<>();
-        for (Job job : jobs.stream().filter(job -> !shouldBePosted || job.getIsPosted()).toList()) {
-            if (job != null) {
-                User user = userService.getUser(job.getRenovationRecord().getUserEmail());
-                jobCards.add(new JobCardInfo(
-                        job.getName(),
-                        user.getFirstName() + " " + user.getLastName(),
-                        job.getStartDate(),
-                        job.getDueDate(),
-                        writeLocationString(job.getRenovationRecord()),
-                        job.getType(),
-                        "Budget not set", // this is because there is no budget yet
-                        job.getStatus(),
-                        job.getIcon(),
-                        job.getId(),
-                        job.getRooms().isEmpty() ? "/images/JobDefault.png" : (job.getRooms().getFirst().getImageFilename() == null ? "/images/RenovationRoomDefault.png" : "/profileImages/" + job.getRooms().getFirst().getImageFilename())
-                ));
-            }
+    public List<JobCardInfo> getJobCards(List<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, JobCardInfo> cardsById = new HashMap<>();
+        for (JobCardInfo card : jobRepository.findJobCards(jobIds)) {
+            cardsById.put(card.jobId(), card.withJobImage(imageStore.cardUrlForPath(card.jobImage())));
         }
-        return jobCards;
+        return jobIds.stream().map(cardsById::get).filter(Objects::nonNull).toList();
     }
 
 
 
+    /**
+     * Gets the names of the images shown for jobs, which are each job's own images and the images of its rooms
+     * @param jobs the jobs
+     * @return the image filenames, which may include nulls for rooms without an image
+     */
+    public static List<String> getImageFilenames(Collection<Job> jobs) {
+        List<String> filenames = new ArrayList<>();
+        for (Job job : jobs) {
+            filenames.addAll(job.getImageFilenames());
+            job.getRooms().forEach(room -> filenames.add(room.getImageFilename()));
+        }
+        return filenames;
+    }
+
     /**
      * Converts all start date formats of jobs into the correct format required for adding jobs to the job calendar
      * @param jobs List of jobs being displayed on the calendar
      * @return List of converted job start date strings
      */
     public List<String> convertJobStartDatesForCalendar(List<Job> jobs) {
-        SimpleDateFormat originalFormat = new SimpleDateFormat("dd/MM/yyyy");
-        SimpleDateFormat targetFormat = new SimpleDateFormat("yyyy-MM-dd");
-        return jobs.stream().map(j -> {
-            if (j.getStartDate() == null || j.getStartDate().isEmpty()) {
-                return null;
-            }
-            try {
-                Date date = originalFormat.parse(j.getStartDate());
-                return targetFormat.format(date);
-            } catch (ParseException e) {
-                return null;
-            }
-        }).toList();
+        return jobs.stream().map(j -> j.getStartLocalDate() == null ? null : j.getStartLocalDate().toString()).toList();
     }
 
     /**
@@ -758,25 +862,13 @@ public class JobService {
      * @return List of converted job due date strings
      */
     public List<String> convertJobDueDatesForCalendar(List<Job> jobs) {
-        SimpleDateFormat originalFormat = new SimpleDateFormat("dd/MM/yyyy");
-        SimpleDateFormat targetFormat = new SimpleDateFormat("yyyy-MM-dd");
-        Calendar calendar = Calendar.getInstance();
         return jobs.stream().map(j -> {
-            if (j.getDueDate() == null || j.getDueDate().isEmpty()) {
-                return null;
-            }
-            try {
-                Date date = originalFormat.parse(j.getDueDate());
-                if (j.getStartDate() == null || j.getStartDate().isEmpty()) {
-                    return targetFormat.format(date);
-                } else {
-                    calendar.setTime(date);
-                    calendar.add(Calendar.DATE, 1);
-                    return targetFormat.format(calendar.getTime());
-                }
-            } catch (ParseException e) {
+            if (j.getDueLocalDate() == null) {
                 return null;
             }
+            // The calendar treats end dates as exclusive, so jobs with a start date include their due date
+            LocalDate dueDate = j.getStartLocalDate() == null ? j.getDueLocalDate() : j.getDueLocalDate().plusDays(1);
+            return dueDate.toString();
         }).toList();
     }
 
@@ -786,11 +878,16 @@ public class JobService {
      * @return Boolean list indicating which jobs have been modified
      */
     public List<Boolean> jobsWereModified(List<Job> jobs) {
-        return jobs.stream().map(j -> {
-            LocalDateTime now = LocalDateTime.now();
-            Duration duration = Duration.between(now, j.getLastUpdated());
-            long diff = Math.abs(duration.toSeconds());
-            return diff < 10;
-        }).toList();
+        return jobs.stream().map(j -> wasModifiedRecently(j.getLastUpdated())).toList();
+    }
+
+    /**
+     * Checks if a job was changed in the last few seconds, so the calendar can show that it was just changed
+     * @param lastUpdated when the job was last changed
+     * @return true if the job was changed less than ten seconds ago
+     */
+    public static boolean wasModifiedRecently(LocalDateTime lastUpdated) {
+        Duration duration = Duration.between(LocalDateTime.now(), lastUpdated);
+        return Math.abs(duration.toSeconds()) < 10;
     }
 }
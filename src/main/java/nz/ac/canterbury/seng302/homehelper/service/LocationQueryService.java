@@ -1,51 +1,130 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.LocationQuery;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Service class for Location Querys.
  * This class interacts with LocationIQ API and IP API.
+ * Suggestions are cached by query and region so repeated queries do not go to LocationIQ again, and a query
+ * that extends a cached query is answered by filtering the cached suggestions when those were every match.
+ * Calls to LocationIQ are limited by a token bucket shared by every user. A query that finds the bucket empty is not
+ * sent and gets whatever the cache has for it instead, so a request never holds its thread waiting for a token.
  */
 @Service
 public class LocationQueryService {
 
-    private final Queue<LocationQuery> queryQueue = new LinkedList<>();
+    public static final String LOCATION_IQ_URL = "https://us1.locationiq.com/v1/autocomplete.php";
+    public static final int SUGGESTION_LIMIT = 5;
+    public static final int MIN_PREFIX_LENGTH = 3;
+    private static final int CACHE_SIZE = 2000;
+    private static final Duration CACHE_TIME_TO_LIVE = Duration.ofHours(6);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
     private final double CHRISTCHURCH_LAT = -43.5321;
     private final double CHRISTCHURCH_LON = 172.6362;
     private final double BOUNDING_BOX_OFFSET = 1;
 
-    @Value("${location.iq.api.key}")
-    private String apiKey;
+    private final String apiUrl;
+    private final String apiKey;
+    private final TokenBucket rateLimiter;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExpiringLruCache<String, List<List<String>>> suggestionCache =
+            new ExpiringLruCache<>(CACHE_SIZE, CACHE_TIME_TO_LIVE);
 
     /**
-     * Puts a users query at the back of the queue
-     * @param query query containing users region and latest query
+     * Suggestions found by filtering the cached suggestions of a shorter query
+     * @param suggestions cached suggestions that also match the longer query
+     * @param complete true if the shorter query had fewer suggestions than the limit, so none were left out
      */
-    public void enqueueQuery(LocationQuery query) {
-        queryQueue.remove(query);
-        queryQueue.add(query);
+    private record PrefixMatch(List<List<String>> suggestions, boolean complete) {}
+
+    @Autowired
+    public LocationQueryService(@Value("${location.iq.url:" + LOCATION_IQ_URL + "}") String apiUrl,
+                                @Value("${location.iq.api.key}") String apiKey) {
+        // LocationIQ's free plan allows two requests a second
+        this(apiUrl, apiKey, new TokenBucket(2, Duration.ofMillis(500)));
     }
 
     /**
-     * updates the query queue. this runs at fixed rate of 1 query per
-     * second.
+     * Constructor for a location query service calling the given autocomplete API
+     * @param apiUrl url of the LocationIQ autocomplete API
+     * @param apiKey LocationIQ API key
+     * @param rateLimiter limits how often the autocomplete API is called
+     */
+    public LocationQueryService(String apiUrl, String apiKey, TokenBucket rateLimiter) {
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.rateLimiter = rateLimiter;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(3));
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Gets location suggestions for a user's query, from the cache where possible. If LocationIQ cannot be called
+     * straight away because of the rate limit, the cached suggestions of a shorter query that match are returned.
+     * @param query the search string
+     * @param viewbox region to bound the suggestions to
+     * @return the suggestions formatted as [[street, suburb, city, postcode, country, lat, lon], ...]
      */
-    @Scheduled(fixedRate = 1000)
-    public void updateQueue() {
-        LocationQuery query = queryQueue.poll();
-        if (query != null) {
-            query.setSuggestions(getStructuredLocationSuggestions(query.getQuery(), query.getViewbox()));
+    public List<List<String>> getSuggestions(String query, String viewbox) {
+        String normalizedQuery = normalizeQuery(query);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+        String region = viewbox == null ? "" : viewbox;
+        List<List<String>> cached = suggestionCache.get(cacheKey(region, normalizedQuery));
+        if (cached != null) {
+            return cached;
+        }
+        PrefixMatch prefixMatch = findPrefixMatch(region, normalizedQuery);
+        if (prefixMatch != null && prefixMatch.complete() && !prefixMatch.suggestions().isEmpty()) {
+            suggestionCache.put(cacheKey(region, normalizedQuery), prefixMatch.suggestions());
+            return prefixMatch.suggestions();
+        }
+        List<List<String>> fallback = prefixMatch == null ? List.of() : prefixMatch.suggestions();
+
+        try {
+            String response = null;
+            try {
+                if (!rateLimiter.tryAcquire()) {
+                    return fallback;
+                }
+                response = fetchResponse(buildLocationIqUrl(normalizedQuery, viewbox, true));
+            } catch (HttpClientErrorException.NotFound e) {
+                // LocationIQ responds with not found when nothing in the region matches, so search everywhere
+                if (!rateLimiter.tryAcquire()) {
+                    return fallback;
+                }
+                response = fetchResponse(buildLocationIqUrl(normalizedQuery, null, false));
+            }
+            List<List<String>> suggestions = List.copyOf(parseSuggestions(response));
+            suggestionCache.put(cacheKey(region, normalizedQuery), suggestions);
+            return suggestions;
+        } catch (HttpClientErrorException.NotFound e) {
+            suggestionCache.put(cacheKey(region, normalizedQuery), List.of());
+            return List.of();
+        } catch (Exception e) {
+            return fallback;
         }
     }
 
@@ -58,12 +137,12 @@ public class LocationQueryService {
      * @return the suggestions.
      */
     public String buildLocationIqUrl(String query, String viewbox, boolean bounded) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl("https://us1.locationiq.com/v1/autocomplete.php")
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(apiUrl)
                 .queryParam("key", apiKey)
                 .queryParam("q", query)
                 .queryParam("format", "json")
                 .queryParam("normalizecity", 1)
-                .queryParam("limit", 5)
+                .queryParam("limit", SUGGESTION_LIMIT)
                 .queryParam("dedupe", 1)
                 .queryParam("addressdetails", 1);
         if (bounded && viewbox != null && !viewbox.isEmpty()) {
@@ -73,13 +152,62 @@ public class LocationQueryService {
         return builder.build().toUriString();
     }
 
+    /**
+     * Normalises a query so that queries differing only in case or spacing share cached suggestions
+     * @param query the search string
+     * @return the query in lower case with surrounding spaces removed and inner spaces collapsed
+     */
+    public static String normalizeQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks for cached suggestions of the longest shorter query and keeps the ones matching the full query
+     */
+    private PrefixMatch findPrefixMatch(String region, String normalizedQuery) {
+        for (int length = normalizedQuery.length() - 1; length >= MIN_PREFIX_LENGTH; length--) {
+            List<List<String>> cached = suggestionCache.get(cacheKey(region, normalizedQuery.substring(0, length)));
+            if (cached != null) {
+                List<List<String>> matching = cached.stream()
+                        .filter(components -> matchesQuery(components, normalizedQuery))
+                        .toList();
+                return new PrefixMatch(matching, cached.size() < SUGGESTION_LIMIT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A suggestion matches a query if every word of the query starts a word of the suggestion's address
+     */
+    private boolean matchesQuery(List<String> components, String normalizedQuery) {
+        Set<String> addressWords = new HashSet<>();
+        for (String component : components.subList(0, components.size() - 2)) {
+            if (component != null) {
+                addressWords.addAll(Arrays.asList(WORD_SEPARATOR.split(component.toLowerCase(Locale.ROOT))));
+            }
+        }
+        for (String queryWord : WORD_SEPARATOR.split(normalizedQuery)) {
+            if (!queryWord.isEmpty() && addressWords.stream().noneMatch(word -> word.startsWith(queryWord))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String cacheKey(String region, String normalizedQuery) {
+        return region + "|" + normalizedQuery;
+    }
+
     /**
      * used to create a rest template that interacts with an api
      * @param url the link/url of api used.
      * @return a rest template.
      */
     public String fetchResponse(String url) {
-        RestTemplate restTemplate = new RestTemplate();
         return restTemplate.getForObject(url, String.class);
     }
 
@@ -91,7 +219,6 @@ public class LocationQueryService {
     public String getBoundingBoxFromIp(String ip) {
         try {
             String geoUrl = "https://ipapi.co/" + ip + "/json/";
-            RestTemplate restTemplate = new RestTemplate();
             Map<String, Object> geoData = restTemplate.getForObject(geoUrl, Map.class);
             double lat = Double.parseDouble(geoData.get("latitude").toString());
             double lon = Double.parseDouble(geoData.get("longitude").toString());
@@ -110,77 +237,60 @@ public class LocationQueryService {
     }
 
     /**
-     * Gets structured location suggestions as list of components:
-     * [street address, suburb, city, postcode, country]
-     * this function was made with help of chatgpt
-     * @param query the search string
-     * @param viewbox optional bounding box
-     * @return list of lists of address components formatted as [[street, suburb, city, postcode, country, fullAddress], ...]
+     * Reads the address components of each suggestion in a LocationIQ autocomplete response
+     * @param response JSON response from LocationIQ
+     * @return list of lists of address components formatted as [[street, suburb, city, postcode, country, lat, lon], ...]
+     * @throws JsonProcessingException if the response is not valid JSON
      */
-    public List<List<String>> getStructuredLocationSuggestions(String query, String viewbox) {
-        String boundedUrl = buildLocationIqUrl(query, viewbox, true);
-        try {
-            String response;
-            try {
-                response = fetchResponse(boundedUrl);
-            } catch (Exception e) {
-                // Fallback to unbounded search
-                String unboundedUrl = buildLocationIqUrl(query, null, false);
-                response = fetchResponse(unboundedUrl);
-            }
+    public List<List<String>> parseSuggestions(String response) throws JsonProcessingException {
+        JsonNode root = objectMapper.readTree(response);
+        List<List<String>> structuredSuggestions = new ArrayList<>();
 
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(response);
-            List<List<String>> structuredSuggestions = new ArrayList<>();
-
-            for (JsonNode suggestion : root) {
-                JsonNode address = suggestion.path("address");
-                String houseNumber = getFirstNonEmpty(address,
-                        "house_number", "housenumber");
-                String road = getFirstNonEmpty(address,
-                        "road", "pedestrian", "path", "footway", "residential", "street", "address29");
-                String suburb = getFirstNonEmpty(address,
-                        "suburb", "neighbourhood", "quarter", "borough", "locality");
-                String city = getFirstNonEmpty(address,
-                        "city", "town", "village", "municipality", "hamlet", "locality", "county", "state_district");
-                String postcode = getFirstNonEmpty(address,
-                        "postcode", "postal_code");
-                String country = getFirstNonEmpty(address,
-                        "country", "country_name");
-                String streetAddress = (houseNumber + " " + road).trim();
-
-                // Coordinates
-                String lat = suggestion.path("lat").asText("");
-                String lon = suggestion.path("lon").asText("");
-
-                boolean hasStructuredAddress = !streetAddress.isEmpty() || !suburb.isEmpty() || !city.isEmpty();
-                if (!hasStructuredAddress) {
-                    String displayName = suggestion.path("display_name").asText("");
-                    if (!displayName.isEmpty() && !lat.isEmpty() && !lon.isEmpty()) {
-                        List<String> components = Arrays.asList(
-                                displayName, "", "", "", "", lat, lon
-                        );
-                        structuredSuggestions.add(components);
-                        continue;
-                    }
-                }
+        for (JsonNode suggestion : root) {
+            JsonNode address = suggestion.path("address");
+            String houseNumber = getFirstNonEmpty(address,
+                    "house_number", "housenumber");
+            String road = getFirstNonEmpty(address,
+                    "road", "pedestrian", "path", "footway", "residential", "street", "address29");
+            String suburb = getFirstNonEmpty(address,
+                    "suburb", "neighbourhood", "quarter", "borough", "locality");
+            String city = getFirstNonEmpty(address,
+                    "city", "town", "village", "municipality", "hamlet", "locality", "county", "state_district");
+            String postcode = getFirstNonEmpty(address,
+                    "postcode", "postal_code");
+            String country = getFirstNonEmpty(address,
+                    "country", "country_name");
+            String streetAddress = (houseNumber + " " + road).trim();
+
+            // Coordinates
+            String lat = suggestion.path("lat").asText("");
+            String lon = suggestion.path("lon").asText("");
 
-                List<String> components = Arrays.asList(
-                        streetAddress,
-                        suburb,
-                        city,
-                        postcode,
-                        country,
-                        lat,
-                        lon
-                );
-
-                structuredSuggestions.add(components);
+            boolean hasStructuredAddress = !streetAddress.isEmpty() || !suburb.isEmpty() || !city.isEmpty();
+            if (!hasStructuredAddress) {
+                String displayName = suggestion.path("display_name").asText("");
+                if (!displayName.isEmpty() && !lat.isEmpty() && !lon.isEmpty()) {
+                    List<String> components = Arrays.asList(
+                            displayName, "", "", "", "", lat, lon
+                    );
+                    structuredSuggestions.add(components);
+                    continue;
+                }
             }
-            return structuredSuggestions;
-        } catch (Exception e) {
-            return Collections.emptyList();
+
+            List<String> components = Arrays.asList(
+                    streetAddress,
+                    suburb,
+                    city,
+                    postcode,
+                    country,
+                    lat,
+                    lon
+            );
+
+            structuredSuggestions.add(components);
         }
+        return structuredSuggestions;
     }
 
     private String getFirstNonEmpty(JsonNode node, String... fields) {
@@ -220,7 +330,7 @@ public class LocationQueryService {
         } else {
             ipAddress = ipAddress.split(",")[0];
         }
-        LocationQuery query = new LocationQuery("", getBoundingBoxFromIp(ipAddress), null);
+        LocationQuery query = new LocationQuery("", getBoundingBoxFromIp(ipAddress));
         session.setAttribute("locationQuery", query);
     }
 }
@@ -0,0 +1,132 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the clustered markers shown on maps, so that each view of a map only has to find the clusters in view.
+ * A tradie's portfolio map is clustered the first time it is viewed and cached until their portfolio, one of its
+ * jobs or one of those jobs' renovation records changes. The map of every posted job is clustered from the job location index, and is reclustered at most once
+ * every few seconds while jobs are being changed so that a busy site is not reclustering on every request.
+ */
+@Service
+public class MapClusterService {
+
+    private static final int PORTFOLIO_CACHE_SIZE = 1000;
+    private static final Duration PORTFOLIO_TIME_TO_LIVE = Duration.ofMinutes(5);
+    private static final Duration POSTED_JOBS_RECLUSTER_INTERVAL = Duration.ofSeconds(5);
+
+    private record PostedJobClusters(MarkerClusters clusters, long indexVersion, long clusteredAt) {}
+
+    /**
+     * A tradie's clustered portfolio map, along with the jobs and renovation records it was built from so that it
+     * is only dropped when one of them changes
+     */
+    private record Portfolio(MarkerClusters clusters, Set<Long> jobIds, Set<Long> recordIds) {}
+
+    private final UserService userService;
+    private final JobLocationIndex jobLocationIndex;
+    private final LongSupplier nanoClock;
+    private final ExpiringLruCache<Long, Portfolio> portfolios;
+    private volatile PostedJobClusters postedJobs;
+
+    @Autowired
+    public MapClusterService(UserService userService, JobLocationIndex jobLocationIndex) {
+        this(userService, jobLocationIndex, System::nanoTime);
+    }
+
+    /**
+     * Constructor for the map cluster service that reads the time from the given clock
+     * @param userService service for loading the markers of a tradie's portfolio jobs
+     * @param jobLocationIndex index of where posted jobs are
+     * @param nanoClock clock giving the current time in nanoseconds
+     */
+    public MapClusterService(UserService userService, JobLocationIndex jobLocationIndex, LongSupplier nanoClock) {
+        this.userService = userService;
+        this.jobLocationIndex = jobLocationIndex;
+        this.nanoClock = nanoClock;
+        this.portfolios = new ExpiringLruCache<>(PORTFOLIO_CACHE_SIZE, PORTFOLIO_TIME_TO_LIVE, nanoClock);
+    }
+
+    /**
+     * Gets the clustered markers of a tradie's portfolio jobs
+     * @param userId ID of the tradie
+     * @return the clustered markers of the tradie's located portfolio jobs, or null if there is no such tradie
+     */
+    public MarkerClusters getPortfolioClusters(long userId) {
+        Portfolio portfolio = portfolios.get(userId);
+        if (portfolio == null) {
+            List<JobLocation> locations = userService.getPortfolioJobLocations(userId);
+            if (locations == null) {
+                return null;
+            }
+            portfolio = new Portfolio(
+                    MarkerClusters.of(locations.stream()
+                            .filter(JobLocation::isLocated)
+                            .map(JobLocationIndex::toMarker)
+                            .toList()),
+                    locations.stream().map(JobLocation::jobId).collect(Collectors.toSet()),
+                    locations.stream().map(JobLocation::recordId).collect(Collectors.toSet()));
+            portfolios.put(userId, portfolio);
+        }
+        return portfolio.clusters();
+    }
+
+    /**
+     * Gets the clustered markers of every located posted job. Jobs changed in the last few seconds may not be
+     * shown yet.
+     * @return the clustered markers of the posted jobs
+     */
+    public MarkerClusters getPostedJobClusters() {
+        PostedJobClusters current = postedJobs;
+        if (current != null && (current.indexVersion() == jobLocationIndex.getVersion()
+                || nanoClock.getAsLong() - current.clusteredAt() < POSTED_JOBS_RECLUSTER_INTERVAL.toNanos())) {
+            return current.clusters();
+        }
+        synchronized (this) {
+            current = postedJobs;
+            long indexVersion = jobLocationIndex.getVersion();
+            if (current == null || (current.indexVersion() != indexVersion
+                    && nanoClock.getAsLong() - current.clusteredAt() >= POSTED_JOBS_RECLUSTER_INTERVAL.toNanos())) {
+                current = new PostedJobClusters(MarkerClusters.of(jobLocationIndex.getAllMarkers()), indexVersion,
+                        nanoClock.getAsLong());
+                postedJobs = current;
+            }
+            return current.clusters();
+        }
+    }
+
+    /**
+     * Drops the cached portfolio map of a tradie, so it is clustered again the next time it is viewed
+     * @param userId ID of the tradie
+     */
+    public void evictPortfolio(long userId) {
+        portfolios.remove(userId);
+    }
+
+    /**
+     * Drops the cached portfolio maps a change could affect once it has been committed. A change to a job or
+     * renovation record drops the maps that show it. Changes made outside a transaction drop them straight away.
+     * Adding or removing a portfolio job only changes the tradie's portfolio collection, which publishes no change,
+     * so that drops the map through {@link #evictPortfolio} instead.
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entity() instanceof Job job) {
+            portfolios.removeIf((userId, portfolio) -> portfolio.jobIds().contains(job.getId()));
+        } else if (event.entity() instanceof RenovationRecord record) {
+            portfolios.removeIf((userId, portfolio) -> portfolio.recordIds().contains(record.getId()));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapCluster;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapPosition;
+
+import java.util.*;
+
+/**
+ * Job markers clustered ahead of time for every zoom level of the map, so that showing part of the map only sends
+ * the clusters in view rather than every marker. Markers at the same location are always grouped together. Each
+ * zoom level then groups the clusters of the level above it that fall in the same square of a grid about 60 pixels
+ * across on screen, with the group placed at the centre of its markers. Past the last clustered zoom level, only
+ * markers at the same location are grouped.
+ * The clusters of each level are sorted from west to east, so the clusters in view are found by binary search.
+ * An area holding more than {@link #MAX_CLUSTERS} clusters at its zoom level, such as the whole world viewed at street
+ * level, is given the clusters of the closest zoomed out level that fits instead.
+ * Once built the clusters are never changed, so they can be shared between threads.
+ */
+public class MarkerClusters {
+
+    public static final int MAX_CLUSTER_ZOOM = 16;
+    public static final int MAX_CLUSTERS = 2000;
+    private static final double CLUSTER_SIZE_PIXELS = 60;
+    private static final double TILE_SIZE_PIXELS = 256;
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    /**
+     * Clusters of one zoom level, sorted by x. Positions are kept in web mercator coordinates, where x and y run
+     * from 0 to 1 across the map from west to east and from north to south.
+     */
+    private record Level(double[] x, double[] y, double[] latitudes, double[] longitudes, int[] counts,
+                         List<List<MapMarker>> markers) {}
+
+    /**
+     * A cluster while it is being built
+     */
+    private static class Group {
+        double sumX;
+        double sumY;
+        int count;
+        double latitude;
+        double longitude;
+        List<MapMarker> markers;
+
+        Group(double x, double y, double latitude, double longitude, List<MapMarker> markers) {
+            this.sumX = x * markers.size();
+            this.sumY = y * markers.size();
+            this.count = markers.size();
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.markers = markers;
+        }
+
+        Group(Group child) {
+            this.sumX = child.sumX;
+            this.sumY = child.sumY;
+            this.count = child.count;
+            this.latitude = child.latitude;
+            this.longitude = child.longitude;
+            this.markers = child.markers;
+        }
+
+        void add(Group child) {
+            sumX += child.sumX;
+            sumY += child.sumY;
+            count += child.count;
+            latitude = toLatitude(sumY / count);
+            longitude = toLongitude(sumX / count);
+            markers = List.of();
+        }
+
+        double x() {
+            return sumX / count;
+        }
+
+        double y() {
+            return sumY / count;
+        }
+    }
+
+    private final Level[] levels;
+    private final String version;
+    private final int size;
+
+    private MarkerClusters(Level[] levels, String version, int size) {
+        this.levels = levels;
+        this.version = version;
+        this.size = size;
+    }
+
+    /**
+     * Clusters markers for every zoom level
+     * @param markers the markers, none of which may be at the location 0, 0 as that means the location is unknown
+     * @return the clustered markers
+     */
+    public static MarkerClusters of(Collection<MapMarker> markers) {
+        List<MapMarker> sorted = new ArrayList<>(markers);
+        sorted.sort(Comparator.comparing(MapMarker::jobId));
+
+        Map<List<Double>, List<MapMarker>> markersByPosition = new LinkedHashMap<>();
+        for (MapMarker marker : sorted) {
+            markersByPosition.computeIfAbsent(List.of(marker.pos().lat, marker.pos().lng), key -> new ArrayList<>())
+                    .add(marker);
+        }
+        List<Group> groups = new ArrayList<>();
+        for (Map.Entry<List<Double>, List<MapMarker>> entry : markersByPosition.entrySet()) {
+            double latitude = entry.getKey().get(0);
+            double longitude = entry.getKey().get(1);
+            groups.add(new Group(toX(longitude), toY(latitude), latitude, longitude, List.copyOf(entry.getValue())));
+        }
+
+        Level[] levels = new Level[MAX_CLUSTER_ZOOM + 2];
+        levels[MAX_CLUSTER_ZOOM + 1] = toLevel(groups);
+        for (int zoom = MAX_CLUSTER_ZOOM; zoom >= 0; zoom--) {
+            double cellSize = CLUSTER_SIZE_PIXELS / (TILE_SIZE_PIXELS * (1L << zoom));
+            long cellsAcross = (long) Math.ceil(1 / cellSize) + 1;
+            Map<Long, Group> cells = new LinkedHashMap<>();
+            for (Group child : groups) {
+                long key = (long) Math.floor(child.x() / cellSize) * cellsAcross + (long) Math.floor(child.y() / cellSize);
+                Group cell = cells.get(key);
+                if (cell == null) {
+                    cells.put(key, new Group(child));
+                } else {
+                    cell.add(child);
+                }
+            }
+            groups = new ArrayList<>(cells.values());
+            levels[zoom] = toLevel(groups);
+        }
+        return new MarkerClusters(levels, version(sorted), sorted.size());
+    }
+
+    private static Level toLevel(List<Group> groups) {
+        List<Group> sorted = new ArrayList<>(groups);
+        sorted.sort(Comparator.comparingDouble(Group::x));
+        int count = sorted.size();
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        int[] counts = new int[count];
+        List<List<MapMarker>> markers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Group group = sorted.get(i);
+            x[i] = group.x();
+            y[i] = group.y();
+            latitudes[i] = group.latitude;
+            longitudes[i] = group.longitude;
+            counts[i] = group.count;
+            markers.add(group.markers);
+        }
+        return new Level(x, y, latitudes, longitudes, counts, markers);
+    }
+
+    /**
+     * Works out a version of the markers that changes whenever a marker is added, removed, renamed or moved
+     * @param markers the markers sorted by job ID
+     */
+    private static String version(List<MapMarker> markers) {
+        long hash = 1125899906842597L;
+        for (MapMarker marker : markers) {
+            hash = 31 * hash + Objects.hashCode(marker.jobId());
+            hash = 31 * hash + Objects.hashCode(marker.name());
+            hash = 31 * hash + Double.hashCode(marker.pos().lat);
+            hash = 31 * hash + Double.hashCode(marker.pos().lng);
+        }
+        return Long.toHexString(hash) + "-" + markers.size();
+    }
+
+    /**
+     * @return a version of the markers, which is the same for the same markers and changes when they change
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of markers clustered
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the clusters in an area of the map at a zoom level. An area whose west edge is east of its east edge
+     * crosses the 180th meridian.
+     * @param south latitude of the south edge
+     * @param west longitude of the west edge
+     * @param north latitude of the north edge
+     * @param east longitude of the east edge
+     * @param zoom zoom level of the map, levels past the last clustered level only group markers at the same location
+     * @return at most {@link #MAX_CLUSTERS} clusters whose centre is in the area, from west to east, taken from a
+     * more zoomed out level if the area holds more than that at its zoom level
+     */
+    public List<MapCluster> getClusters(double south, double west, double north, double east, int zoom) {
+        double top = toY(north);
+        double bottom = toY(south);
+        for (int zoomLevel = Math.clamp(zoom, 0, MAX_CLUSTER_ZOOM + 1); ; zoomLevel--) {
+            Level level = levels[zoomLevel];
+            List<MapCluster> clusters = new ArrayList<>();
+            boolean fits;
+            if (west <= east) {
+                fits = addClusters(level, toX(west), toX(east), top, bottom, clusters);
+            } else {
+                fits = addClusters(level, toX(west), 1, top, bottom, clusters)
+                        && addClusters(level, 0, toX(east), top, bottom, clusters);
+            }
+            // The whole world has only a few dozen clusters at the most zoomed out level, so it always fits
+            if (fits || zoomLevel == 0) {
+                return clusters;
+            }
+        }
+    }
+
+    /**
+     * Adds the clusters of a level that are in an area, stopping once there are more than the most that are sent
+     * @return false if the area holds too many clusters
+     */
+    private static boolean addClusters(Level level, double left, double right, double top, double bottom,
+                                       List<MapCluster> clusters) {
+        int index = Arrays.binarySearch(level.x(), left);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Several clusters can have the same x, and the binary search may not find the first of them
+        while (index > 0 && level.x()[index - 1] >= left) {
+            index--;
+        }
+        for (; index < level.x().length && level.x()[index] <= right; index++) {
+            if (level.y()[index] >= top && level.y()[index] <= bottom) {
+                if (clusters.size() == MAX_CLUSTERS) {
+                    return false;
+                }
+                clusters.add(new MapCluster(new MapPosition(level.latitudes()[index], level.longitudes()[index]),
+                        level.counts()[index], level.markers().get(index)));
+            }
+        }
+        return true;
+    }
+
+    private static double toX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    private static double toY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.clamp(latitude, -MAX_MERCATOR_LATITUDE, MAX_MERCATOR_LATITUDE)));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static double toLongitude(double x) {
+        return x * 360 - 180;
+    }
+
+    private static double toLatitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
@@ -3,28 +3,92 @@ package nz.ac.canterbury.seng302.homehelper.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.*;
 import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
 import java.util.regex.Pattern;
 
+/**
+ * Service for checking text for profanity with the Perspective API.
+ * Text is normalized before it is checked, and verdicts are cached by the normalized text so repeated tags are
+ * answered without another call. Obvious profanity and text made of known clean words are decided locally by a
+ * {@link ProfanityFilter}. Calls to the API are limited by a token bucket, and a call waiting for a token is
+ * scheduled for when one is due rather than holding up other checks. Checks of the same text that overlap share
+ * one call. A check fails once it has waited {@link #MAX_WAIT}, and new checks are turned away while
+ * {@link #MAX_PENDING_CHECKS} are already waiting, so a burst of tags cannot queue calls without limit.
+ */
 @Service
 public class ModerationService {
+    Logger logger = LoggerFactory.getLogger(ModerationService.class);
 
-    @Value("${perspective.api.key}")
-    private String apiKey;
-
-    private final Object lock = new Object();
-    private long lastQueryTime = 0;
-    private static final long MIN_INTERVAL = 1000;
+    public static final String PERSPECTIVE_URL = "https://commentanalyzer.googleapis.com/v1alpha1/comments:analyze";
+    public static final Duration MAX_WAIT = Duration.ofSeconds(10);
+    public static final int MAX_PENDING_CHECKS = 20;
+    private static final int CACHE_SIZE = 5000;
+    private static final Duration CACHE_TIME_TO_LIVE = Duration.ofHours(24);
     private final double PROFANITY_THRESHOLD = 0.3;
     private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{M}");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String apiUrl;
+    private final String apiKey;
+    private final TokenBucket rateLimiter;
+    private final ProfanityFilter profanityFilter;
+    private final Executor workers;
+    private final TaskScheduler timer;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExpiringLruCache<String, Boolean> verdictCache = new ExpiringLruCache<>(CACHE_SIZE, CACHE_TIME_TO_LIVE);
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ModerationService(@Value("${perspective.api.url:" + PERSPECTIVE_URL + "}") String apiUrl,
+                             @Value("${perspective.api.key}") String apiKey,
+                             @Qualifier("outboundHttpExecutor") Executor workers,
+                             TaskScheduler timer) {
+        // Perspective allows one request a second by default
+        this(apiUrl, apiKey, new TokenBucket(1, Duration.ofSeconds(1)), ProfanityFilter.fromWordLists(), workers, timer);
+    }
+
+    /**
+     * Constructor for a moderation service calling the given Perspective API
+     * @param apiUrl url of the Perspective analyze comment API
+     * @param apiKey Perspective API key
+     * @param rateLimiter limits how often the API is called
+     * @param profanityFilter word lists deciding text locally before the API is asked
+     * @param workers executor the API calls are made on
+     * @param timer scheduler used to try again once the rate limiter has a token
+     */
+    public ModerationService(String apiUrl, String apiKey, TokenBucket rateLimiter, ProfanityFilter profanityFilter,
+                             Executor workers, TaskScheduler timer) {
+        this.apiUrl = apiUrl;
+        this.apiKey = apiKey;
+        this.rateLimiter = rateLimiter;
+        this.profanityFilter = profanityFilter;
+        this.workers = workers;
+        this.timer = timer;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(3));
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
 
     /**
      * This chunk of code has been assisted using ChatGPT
@@ -38,52 +102,122 @@ public class ModerationService {
     }
 
     /**
-     * Sends a request to the perspective api for the chance a string contains profanity. It has a lock at the start
-     * to avoid multiple queries happening at the same time and also returns an error to the controller if the api
-     * call is not successful.
+     * Checks if text contains profanity. Cached verdicts and the local word lists are used where possible,
+     * otherwise the Perspective API is asked once a call is allowed by the rate limiter.
      * @param text The tag entered by the user
-     * @return Returns true if probability of profanity is too high (above 0.5) and false if not
-     * @throws IOException
+     * @return Returns true if probability of profanity is too high (above 0.3) and false if not
+     * @throws IOException if the check was interrupted
+     * @throws IllegalArgumentException if the API could not be reached, with a message for the user
      */
     public boolean isProfanity(String text) throws IOException {
-        synchronized (lock) {
-            long now = System.currentTimeMillis();
-            long timeSinceLastQuery = now - lastQueryTime;
-
-            if (timeSinceLastQuery < MIN_INTERVAL) {
-                try {
-                    Thread.sleep(MIN_INTERVAL - timeSinceLastQuery);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-            lastQueryTime = System.currentTimeMillis();
+        try {
+            return isProfanityAsync(text).get(MAX_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while checking for profanity");
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Could not check text for profanity", e.getCause() == null ? e : e.getCause());
+            throw new IllegalArgumentException("An error occurred while validating tag please try again");
+        }
+    }
+
+    /**
+     * Checks if text contains profanity without waiting for the API
+     * @param text The tag entered by the user
+     * @return a future completed with true if the text contains profanity, or completed exceptionally if the API
+     * could not be reached
+     */
+    public CompletableFuture<Boolean> isProfanityAsync(String text) {
+        String key = verdictKey(text);
+        Boolean cached = verdictCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (profanityFilter.containsBlockedWord(key)) {
+            verdictCache.put(key, true);
+            return CompletableFuture.completedFuture(true);
+        }
+        if (profanityFilter.isKnownClean(key)) {
+            verdictCache.put(key, false);
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (inFlight.size() >= MAX_PENDING_CHECKS) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many profanity checks waiting"));
         }
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        created.orTimeout(MAX_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        created.whenComplete((verdict, error) -> {
+            inFlight.remove(key, created);
+            if (verdict != null) {
+                verdictCache.put(key, verdict);
+            }
+        });
+        runWhenPermitted(() -> {
+            try {
+                created.complete(queryProfanity(key));
+            } catch (IOException | RestClientException e) {
+                created.completeExceptionally(e);
+            }
+        }, created);
+        return created;
+    }
 
-        String cleanedText = normalizeText(text);
-        String url = "https://commentanalyzer.googleapis.com/v1alpha1/comments:analyze?key=" + apiKey;
-        String jsonInput = """
-        {
-        "comment": {"text": "%s"},
-        "requestedAttributes": {"PROFANITY": {}},
-        "languages": ["en"],
-        "doNotStore": true
+    /**
+     * Runs the task as soon as the rate limiter has a token, trying again when the next token is due. The task is
+     * dropped once its result is complete, such as when it has timed out, so it does not use up a token.
+     */
+    private void runWhenPermitted(Runnable task, CompletableFuture<Boolean> result) {
+        if (result.isDone()) {
+            return;
         }
-        """.formatted(cleanedText);
+        try {
+            if (rateLimiter.tryAcquire()) {
+                workers.execute(task);
+            } else {
+                long waitMillis = Math.max(1, rateLimiter.timeUntilNextToken().toMillis());
+                timer.schedule(() -> runWhenPermitted(task, result), Instant.now().plusMillis(waitMillis));
+            }
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Sends a request to the perspective api for the chance a string contains profanity.
+     * @param text the normalized tag
+     * @return true if the probability of profanity is above the threshold
+     * @throws IOException if the request or response could not be processed
+     */
+    private boolean queryProfanity(String text) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("comment").put("text", text);
+        body.putObject("requestedAttributes").putObject("PROFANITY");
+        body.putArray("languages").add("en");
+        body.put("doNotStore", true);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> request = new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
 
-        HttpEntity<String> request = new HttpEntity<>(jsonInput, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
+        ResponseEntity<String> response = restTemplate.postForEntity(apiUrl + "?key=" + apiKey, request, String.class);
+        return findProfanityScore(response.getBody()) > PROFANITY_THRESHOLD;
+    }
 
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
-            return findProfanityScore(response.getBody()) > PROFANITY_THRESHOLD;
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            throw new IllegalArgumentException("An error occurred while validating tag please try again");
-        }
+    /**
+     * Normalizes text so that tags differing only in case, spacing or diacritics share a verdict
+     * @param text The tag entered by the user
+     * @return the text in lower case without diacritics, with surrounding spaces removed and inner spaces collapsed
+     */
+    public String verdictKey(String text) {
+        return WHITESPACE.matcher(normalizeText(text).trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -93,7 +227,6 @@ public class ModerationService {
      * @throws JsonProcessingException Throws an error if json response isn't set up correctly
      */
     public double findProfanityScore(String jsonOutput) throws JsonProcessingException {
-        ObjectMapper objectMapper = new ObjectMapper();
         JsonNode root = objectMapper.readTree(jsonOutput);
         return root.path("attributeScores")
                 .path("PROFANITY")
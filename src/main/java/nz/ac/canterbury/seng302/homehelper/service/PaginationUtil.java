@@ -1,7 +1,14 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * This class is used for generating pagination values to be passed into the model for a page. This class was written
@@ -9,25 +16,6 @@ import java.util.List;
  */
 public class PaginationUtil {
 
-    /**
-     * Finds the items on a page given a page number and returns those items as a list.
-     * @param allItems This is the list of all the items that you want to be paginated.
-     * @param pageNumber This is the number of the page that you want.
-     * @param pageSize This is the number of elements you want in each page.
-     * @return a list of {@code pageSize} items of type {@code T}, this list represents the items on the page with number {@code pageNumber}
-     * @param <T> this is an object that is being paginated. an example is that this function is used to paginate a
-     *           list of Quotes, in this scenario the class {@code Quote} is {@code T}
-     */
-    public static <T> List<T> getPage(List<T> allItems, int pageNumber, int pageSize) {
-        int totalItems = allItems.size();
-        int fromIndex = (pageNumber - 1) * pageSize;
-        int toIndex = Math.min(fromIndex + pageSize, totalItems);
-        if (fromIndex >= totalItems || fromIndex < 0) {
-            return List.of();
-        }
-        return allItems.subList(fromIndex, toIndex);
-    }
-
     /**
      * Finds the number of the last page.
      * @param totalItems the total number of items being paginated.
@@ -51,4 +39,58 @@ public class PaginationUtil {
         }
         return nums;
     }
-}
\ No newline at end of file
+
+    /**
+     * A repository query for one page of items. Only items with an ID larger than {@code afterId} and smaller than
+     * {@code beforeId} are returned, with either bound ignored when it is null, and the {@code pageable} holds the
+     * size, offset and ID order of the page.
+     * @param <T> type of the items
+     */
+    @FunctionalInterface
+    public interface KeysetQuery<T> {
+        List<T> findPage(Long afterId, Long beforeId, Pageable pageable);
+    }
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    /**
+     * Loads a single page of items from the database with one count query and one page query, rather than loading
+     * every item and taking a sublist. Items are ordered by ID. Moving to the next or previous page seeks past the
+     * last or first ID of the page the user came from, and the last page is read backwards from the end, so paging
+     * through a long list does not make the database skip over every earlier row. Jumping to any other page falls
+     * back to an offset query.
+     * @param pageNumber number of the page wanted, starting from 1
+     * @param pageSize number of items on each page
+     * @param afterId last ID of the page the user came from, or null
+     * @param beforeId first ID of the page the user came from, or null
+     * @param fromPage number of the page the user came from, or null
+     * @param count query counting every item
+     * @param query query for one page of items
+     * @param idOf gets the ID of an item
+     * @return the page of items, empty if the page number is out of range
+     * @param <T> type of the items
+     */
+    public static <T> KeysetPage<T> getKeysetPage(int pageNumber, int pageSize, Long afterId, Long beforeId,
+                                                  Integer fromPage, LongSupplier count, KeysetQuery<T> query,
+                                                  Function<T, Long> idOf) {
+        long totalItems = count.getAsLong();
+        int lastPage = getLastPageNumber((int) Math.min(totalItems, Integer.MAX_VALUE), pageSize);
+        if (pageNumber < 1 || pageNumber > lastPage) {
+            return new KeysetPage<>(List.of(), pageNumber, lastPage, totalItems, null, null);
+        }
+        List<T> items;
+        if (afterId != null && fromPage != null && fromPage == pageNumber - 1) {
+            items = query.findPage(afterId, null, PageRequest.of(0, pageSize, BY_ID));
+        } else if (beforeId != null && fromPage != null && fromPage == pageNumber + 1) {
+            items = query.findPage(null, beforeId, PageRequest.of(0, pageSize, BY_ID.descending())).reversed();
+        } else if (pageNumber == lastPage && pageNumber > 1) {
+            int lastPageSize = (int) (totalItems - (long) (lastPage - 1) * pageSize);
+            items = query.findPage(null, null, PageRequest.of(0, lastPageSize, BY_ID.descending())).reversed();
+        } else {
+            items = query.findPage(null, null, PageRequest.of(pageNumber - 1, pageSize, BY_ID));
+        }
+        Long firstId = items.isEmpty() ? null : idOf.apply(items.getFirst());
+        Long lastId = items.isEmpty() ? null : idOf.apply(items.getLast());
+        return new KeysetPage<>(items, pageNumber, lastPage, totalItems, firstId, lastId);
+    }
+}
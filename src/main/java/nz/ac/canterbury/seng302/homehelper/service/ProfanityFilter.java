@@ -0,0 +1,158 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Local word lists checked before text is sent to the Perspective API. Blocked words are found with an
+ * Aho-Corasick automaton, so the text is scanned once however many words are blocked. A blocked word only counts
+ * when it is a whole word of the text, so words that merely contain one, like "scrap" or "class", are not blocked.
+ * Text made only of known clean words, like the usual renovation tags, needs no check at all. Anything else
+ * is left for the API to decide. Text is expected to be normalized first, in lower case without diacritics.
+ * Immutable once built, so safe to share between threads.
+ */
+public class ProfanityFilter {
+
+    public static final String BLOCKED_WORDS_RESOURCE = "moderation/blocked-words.txt";
+    public static final String CLEAN_WORDS_RESOURCE = "moderation/clean-words.txt";
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * State of the automaton, reached by reading the characters on the path to it from the root
+     */
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        private final List<Integer> matchLengths = new ArrayList<>();
+    }
+
+    private final Node root = new Node();
+    private final Set<String> cleanWords;
+
+    /**
+     * Constructor for a filter with the given word lists
+     * @param blockedWords words and phrases that are always profanity
+     * @param cleanWords words that are never profanity
+     */
+    public ProfanityFilter(Collection<String> blockedWords, Collection<String> cleanWords) {
+        for (String blockedWord : blockedWords) {
+            addBlockedWord(blockedWord.toLowerCase(Locale.ROOT));
+        }
+        linkFailures();
+        this.cleanWords = new HashSet<>();
+        for (String cleanWord : cleanWords) {
+            this.cleanWords.add(cleanWord.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Creates a filter from the word lists bundled with the app
+     * @return the filter
+     */
+    public static ProfanityFilter fromWordLists() {
+        return new ProfanityFilter(readWordList(BLOCKED_WORDS_RESOURCE), readWordList(CLEAN_WORDS_RESOURCE));
+    }
+
+    /**
+     * @param normalizedText text in lower case without diacritics
+     * @return true if a blocked word or phrase appears in the text as whole words
+     */
+    public boolean containsBlockedWord(String normalizedText) {
+        Node state = root;
+        for (int i = 0; i < normalizedText.length(); i++) {
+            char c = normalizedText.charAt(i);
+            while (state != root && !state.next.containsKey(c)) {
+                state = state.fail;
+            }
+            state = state.next.getOrDefault(c, root);
+            for (int length : state.matchLengths) {
+                if (isBoundary(normalizedText, i - length) && isBoundary(normalizedText, i + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param normalizedText text in lower case without diacritics
+     * @return true if the text has words and every one of them is a known clean word
+     */
+    public boolean isKnownClean(String normalizedText) {
+        boolean hasWords = false;
+        for (String word : WORD_SEPARATOR.split(normalizedText)) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!cleanWords.contains(word)) {
+                return false;
+            }
+            hasWords = true;
+        }
+        return hasWords;
+    }
+
+    private void addBlockedWord(String blockedWord) {
+        if (blockedWord.isBlank()) {
+            return;
+        }
+        Node node = root;
+        for (char c : blockedWord.toCharArray()) {
+            node = node.next.computeIfAbsent(c, key -> new Node());
+        }
+        node.matchLengths.add(blockedWord.length());
+    }
+
+    /**
+     * Links each state to the state for the longest suffix of its path that is also a path from the root, breadth
+     * first so the shorter paths are linked before the longer ones that depend on them
+     */
+    private void linkFailures() {
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            node.next.forEach((c, child) -> {
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(c);
+                child.fail = target == null ? root : target;
+                child.matchLengths.addAll(child.fail.matchLengths);
+                queue.add(child);
+            });
+        }
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    private static List<String> readWordList(String resource) {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(resource).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    words.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read word list " + resource, e);
+        }
+        return words;
+    }
+}
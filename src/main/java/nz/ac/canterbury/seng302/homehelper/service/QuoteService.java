@@ -5,17 +5,26 @@ import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieStats;
 import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -28,7 +37,6 @@ public class QuoteService {
 
     private final QuoteRepository quoteRepository;
     private final ValidationService validationService;
-    private final TaskScheduler taskScheduler;
     private final EmailService emailService;
     private final UserService userService;
 
@@ -44,17 +52,17 @@ public class QuoteService {
 
     public static final Integer maxWorkTimeLength = 5;
 
+    static final String COMPARISON_STATS_ATTRIBUTE = QuoteService.class.getName() + ".comparisonStats";
+
 
     @Autowired
     public QuoteService(
             QuoteRepository quoteRepository,
             ValidationService validationService,
-            TaskScheduler taskScheduler,
             EmailService emailService, UserService userService
     ) {
         this.quoteRepository = quoteRepository;
         this.validationService = validationService;
-        this.taskScheduler = taskScheduler;
         this.emailService = emailService;
         this.userService = userService;
     }
@@ -85,6 +93,17 @@ public class QuoteService {
         return quoteRepository.findAllByJobId(jobId);
     }
 
+    /**
+     * Gets one page of the quotes for a job, in the order they were sent
+     * @param jobId ID of the job
+     * @param page number of the page, starting from 1
+     * @param pageSize number of quotes on each page
+     * @return the page of quotes, empty if the page number is out of range
+     */
+    public Page<Quote> getQuotesPageByJobId(Long jobId, int page, int pageSize) {
+        return quoteRepository.findPageByJobId(jobId, PageRequest.of(Math.max(page, 1) - 1, pageSize));
+    }
+
     /**
      *
      * @param jobId the job id used to get quotes
@@ -118,11 +137,66 @@ public class QuoteService {
     }
 
     /**
-     * Saves the quote to the repository
+     * Gets one page of the quotes sent by a user, filtered with a given status. If status is null then the
+     * filter is ignored.
+     * @param userEmail the email of the user that sent the quotes.
+     * @param status the status used to filter the quotes
+     * @param page number of the page, starting from 1
+     * @param pageSize number of quotes on each page
+     * @param afterId last quote ID of the page the user came from, or null
+     * @param beforeId first quote ID of the page the user came from, or null
+     * @param fromPage number of the page the user came from, or null
+     * @return the page of quotes sent by the user
+     */
+    public KeysetPage<Quote> getSentQuotesPage(String userEmail, String status, int page, int pageSize, Long afterId,
+                                                Long beforeId, Integer fromPage) {
+        return PaginationUtil.getKeysetPage(page, pageSize, afterId, beforeId, fromPage,
+                () -> quoteRepository.countSentQuotes(userEmail, status),
+                (after, before, pageable) -> quoteRepository.findSentQuotesPage(userEmail, status, after, before, pageable),
+                Quote::getId);
+    }
+
+    /**
+     * Gets one page of the received quotes of jobs owned by a given user. The quotes are filtered to a
+     * status. If the status is null then the filter is ignored.
+     * @param userEmail the email of the owner of the jobs for which quotes have been sent to.
+     * @param status the status used to filter the quotes.
+     * @param page number of the page, starting from 1
+     * @param pageSize number of quotes on each page
+     * @param afterId last quote ID of the page the user came from, or null
+     * @param beforeId first quote ID of the page the user came from, or null
+     * @param fromPage number of the page the user came from, or null
+     * @return the page of quotes received by the user
+     */
+    public KeysetPage<Quote> getReceivedQuotesPage(String userEmail, String status, int page, int pageSize, Long afterId,
+                                                Long beforeId, Integer fromPage) {
+        return PaginationUtil.getKeysetPage(page, pageSize, afterId, beforeId, fromPage,
+                () -> quoteRepository.countReceivedQuotes(userEmail, status),
+                (after, before, pageable) -> quoteRepository.findReceivedQuotesPage(userEmail, status, after, before, pageable),
+                Quote::getId);
+    }
+
+    /**
+     * Saves the quote to the repository, updating the sender's accepted quote count if the quote
+     * has become accepted or is no longer accepted
      * @param quote A quote
      */
+    @Transactional
     public void addQuote(Quote quote) {
+        boolean wasAccepted = "Accepted".equals(quote.getSavedStatus());
+        boolean isAccepted = "Accepted".equals(quote.getStatus());
         quoteRepository.save(quote);
+        quote.markStatusSaved();
+        if (wasAccepted != isAccepted) {
+            updateAcceptedQuoteCount(quote, isAccepted ? 1 : -1);
+        }
+    }
+
+    private void updateAcceptedQuoteCount(Quote quote, int change) {
+        User user = quote.getUser();
+        if (user != null && user.getId() != null) {
+            userService.updateAcceptedQuoteCount(user.getId(), change);
+        }
     }
 
     /**
@@ -275,6 +349,9 @@ public class QuoteService {
     @Transactional
     public void retractQuote(Quote quote) {
         quoteRepository.deleteQuoteById(quote.getId());
+        if ("Accepted".equals(quote.getSavedStatus())) {
+            updateAcceptedQuoteCount(quote, -1);
+        }
     }
 
     /**
@@ -310,10 +387,7 @@ public class QuoteService {
         this.addQuote(quote);
         User user = quote.getUser();
         String email = user.getEmail();
-        taskScheduler.schedule(
-                () -> emailService.sendQuoteRejectedEmail(email, job),
-                Instant.now()
-        );
+        emailService.sendQuoteRejectedEmail(email, job);
         return quote;
     }
 
@@ -324,6 +398,9 @@ public class QuoteService {
     public void acceptQuote(Quote quote) {
         quote.setStatus("Accepted");
         this.addQuote(quote);
+        if (quote.getJob() != null) {
+            evictComparisonStats(quote.getJob().getId());
+        }
     }
 
     /**
@@ -333,14 +410,71 @@ public class QuoteService {
      * @return a list of booleans with true if the first quote has a better stat for that one
      */
     public List<Boolean> compareQuotes(Quote quote1, Quote quote2) {
+        Long tradie1Id = quote1.getUser().getId();
+        Long tradie2Id = quote2.getUser().getId();
+        Long jobId = quote1.getJob() == null ? null : quote1.getJob().getId();
+        Map<Long, TradieStats> stats = getTradieStats(jobId, Arrays.asList(tradie1Id, tradie2Id));
+        TradieStats tradie1Stats = stats.getOrDefault(tradie1Id, TradieStats.empty(tradie1Id));
+        TradieStats tradie2Stats = stats.getOrDefault(tradie2Id, TradieStats.empty(tradie2Id));
+
         List<Boolean> quote1stats = new ArrayList<>();
-        quote1stats.add(quote1.getUser().getAverageRating() >= quote2.getUser().getAverageRating());
+        quote1stats.add(tradie1Stats.averageRating() >= tradie2Stats.averageRating());
         quote1stats.add(quote1.getPriceAsFloat() <= quote2.getPriceAsFloat());
-        quote1stats.add(userService.getCompletedJobsUserHasWorkedOn(quote1.getUser().getId()).size() >= userService.getCompletedJobsUserHasWorkedOn(quote2.getUser().getId()).size());
+        quote1stats.add(tradie1Stats.completedJobs() >= tradie2Stats.completedJobs());
         quote1stats.add(quote1.getWorkTimeAsLong() <= quote2.getWorkTimeAsLong());
-        quote1stats.add(userService.getUsersWorkEfficiency(quote1.getUser().getId()) <= userService.getUsersWorkEfficiency(quote2.getUser().getId()));
+        quote1stats.add(tradie1Stats.workEfficiency() <= tradie2Stats.workEfficiency());
 
         return quote1stats;
     }
 
+    /**
+     * Gets the statistics of tradies who quoted for a job. The statistics are remembered in the user's session
+     * for as long as they are comparing the job's quotes, so only tradies not seen before are queried
+     * @param jobId the job being compared, or null to not remember the statistics
+     * @param tradieIds IDs of the tradies
+     * @return the statistics of each tradie, by tradie ID
+     */
+    public Map<Long, TradieStats> getTradieStats(Long jobId, Collection<Long> tradieIds) {
+        Map<Long, TradieStats> snapshot = getComparisonStats(jobId);
+        List<Long> missingIds = tradieIds.stream()
+                .filter(id -> id != null && !snapshot.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            snapshot.putAll(userService.getTradieStats(missingIds));
+            missingIds.forEach(id -> snapshot.putIfAbsent(id, TradieStats.empty(id)));
+        }
+        return new HashMap<>(snapshot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, TradieStats> getComparisonStats(Long jobId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (jobId == null || attributes == null) {
+            return new HashMap<>();
+        }
+        Map<Long, Map<Long, TradieStats>> statsByJob = (Map<Long, Map<Long, TradieStats>>)
+                attributes.getAttribute(COMPARISON_STATS_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+        if (statsByJob == null) {
+            statsByJob = new ConcurrentHashMap<>();
+            attributes.setAttribute(COMPARISON_STATS_ATTRIBUTE, statsByJob, RequestAttributes.SCOPE_SESSION);
+        }
+        return statsByJob.computeIfAbsent(jobId, id -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Forgets the remembered tradie statistics for a job once its comparison is over
+     * @param jobId the job that was being compared
+     */
+    private void evictComparisonStats(Long jobId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (jobId == null || attributes == null) {
+            return;
+        }
+        Object statsByJob = attributes.getAttribute(COMPARISON_STATS_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+        if (statsByJob instanceof Map<?, ?> map) {
+            map.remove(jobId);
+        }
+    }
+
 }
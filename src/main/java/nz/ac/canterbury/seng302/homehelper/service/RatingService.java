@@ -1,7 +1,10 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
+import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.Rating;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.repository.RatingRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,17 +14,24 @@ import org.springframework.stereotype.Service;
 @Service
 public class RatingService {
     private final RatingRepository ratingRepository;
+    private final UserRepository userRepository;
 
     @Autowired
-    public RatingService(RatingRepository ratingRepository) {
+    public RatingService(RatingRepository ratingRepository, UserRepository userRepository) {
         this.ratingRepository = ratingRepository;
+        this.userRepository = userRepository;
     }
 
     /**
-     * Adds a new rating to database storage
+     * Adds a new rating to database storage and adds it to the receiving user's rating totals
      * @param rating Rating being stored
      */
+    @Transactional
     public void addRating(Rating rating) {
         ratingRepository.save(rating);
+        User receivingUser = rating.getReceivingUser();
+        if (receivingUser != null && receivingUser.getId() != null) {
+            userRepository.addToRatingTotals(receivingUser.getId(), rating.getRating());
+        }
     }
 }
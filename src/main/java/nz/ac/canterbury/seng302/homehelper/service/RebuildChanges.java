@@ -0,0 +1,75 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of what changed in an in-memory index while it was being rebuilt from the database. The state loaded
+ * for a rebuild may be older than a change committed while it was loading, so anything changed during the rebuild
+ * keeps its new state rather than being overwritten by the loaded one. Not safe to share between threads, the index
+ * guards it with its own lock.
+ * @param <R> the details of a renovation record the index keeps, for indexes of jobs that copy them from their record
+ */
+class RebuildChanges<R> {
+
+    private final Set<Long> changedIds = new HashSet<>();
+    private final Map<Long, R> changedRecords = new HashMap<>();
+    private boolean rebuilding = false;
+
+    /**
+     * Marks the start of a rebuild, forgetting any earlier changes
+     */
+    void start() {
+        rebuilding = true;
+        changedIds.clear();
+        changedRecords.clear();
+    }
+
+    /**
+     * Marks the end of a rebuild, after which changes are no longer kept track of
+     */
+    void finish() {
+        rebuilding = false;
+        changedIds.clear();
+        changedRecords.clear();
+    }
+
+    /**
+     * Notes that an indexed entity was added, updated or removed, if a rebuild is running
+     * @param id ID of the entity
+     */
+    void changed(Long id) {
+        if (rebuilding) {
+            changedIds.add(id);
+        }
+    }
+
+    /**
+     * Notes the new details of a renovation record, if a rebuild is running
+     * @param recordId ID of the renovation record
+     * @param details details of the record as they now are
+     */
+    void recordChanged(Long recordId, R details) {
+        if (rebuilding) {
+            changedRecords.put(recordId, details);
+        }
+    }
+
+    /**
+     * @param id ID of an indexed entity
+     * @return true if the entity changed during the rebuild, so its loaded state must not be used
+     */
+    boolean wasChanged(Long id) {
+        return changedIds.contains(id);
+    }
+
+    /**
+     * @param recordId ID of a renovation record
+     * @return the details of the record as they were changed during the rebuild, or null if it was not changed
+     */
+    R getChangedRecord(Long recordId) {
+        return changedRecords.get(recordId);
+    }
+}
@@ -0,0 +1,385 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of record IDs. The IDs are split into chunks of 65536 by their high bits, and each chunk
+ * stores the low bits of its IDs either as a sorted array while it holds few IDs, or as a fixed size bitmap
+ * once it holds many. Record IDs come from a sequence, so most chunks are either sparse or densely packed
+ * and both are stored compactly. Intersections and unions work chunk by chunk and skip chunks that only one
+ * side has, so filtering by several tags does not touch every record. Not safe to share between threads
+ * without locking.
+ */
+public class RecordIdBitmap {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+
+    private final NavigableMap<Long, Container> containers = new TreeMap<>();
+
+    /**
+     * Creates a bitmap holding the given IDs
+     * @param recordIds IDs to add
+     * @return a bitmap holding the IDs
+     */
+    public static RecordIdBitmap of(long... recordIds) {
+        RecordIdBitmap bitmap = new RecordIdBitmap();
+        for (long recordId : recordIds) {
+            bitmap.add(recordId);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Intersects several bitmaps, starting from the smallest so the intermediate results stay small
+     * @param bitmaps bitmaps to intersect
+     * @return a new bitmap of the IDs in every bitmap, empty if no bitmaps are given
+     */
+    public static RecordIdBitmap andAll(Collection<RecordIdBitmap> bitmaps) {
+        List<RecordIdBitmap> sorted = new ArrayList<>(bitmaps);
+        if (sorted.isEmpty()) {
+            return new RecordIdBitmap();
+        }
+        sorted.sort(Comparator.comparingInt(RecordIdBitmap::cardinality));
+        RecordIdBitmap result = sorted.get(0);
+        for (RecordIdBitmap bitmap : sorted.subList(1, sorted.size())) {
+            if (result.isEmpty()) {
+                break;
+            }
+            result = result.and(bitmap);
+        }
+        return result == sorted.get(0) ? result.copy() : result;
+    }
+
+    /**
+     * Unions several bitmaps
+     * @param bitmaps bitmaps to union
+     * @return a new bitmap of the IDs in any of the bitmaps
+     */
+    public static RecordIdBitmap orAll(Collection<RecordIdBitmap> bitmaps) {
+        RecordIdBitmap result = new RecordIdBitmap();
+        for (RecordIdBitmap bitmap : bitmaps) {
+            result = result.or(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Adds an ID to the bitmap
+     * @param recordId ID to add
+     */
+    public void add(long recordId) {
+        long key = recordId >>> CHUNK_BITS;
+        Container container = containers.get(key);
+        containers.put(key, container == null ? new ArrayContainer().add(low(recordId)) : container.add(low(recordId)));
+    }
+
+    /**
+     * Removes an ID from the bitmap
+     * @param recordId ID to remove
+     */
+    public void remove(long recordId) {
+        long key = recordId >>> CHUNK_BITS;
+        Container container = containers.get(key);
+        if (container == null) {
+            return;
+        }
+        Container updated = container.remove(low(recordId));
+        if (updated.cardinality() == 0) {
+            containers.remove(key);
+        } else {
+            containers.put(key, updated);
+        }
+    }
+
+    /**
+     * @param recordId ID to look for
+     * @return true if the bitmap holds the ID
+     */
+    public boolean contains(long recordId) {
+        Container container = containers.get(recordId >>> CHUNK_BITS);
+        return container != null && container.contains(low(recordId));
+    }
+
+    /**
+     * @return true if the bitmap holds no IDs
+     */
+    public boolean isEmpty() {
+        return containers.isEmpty();
+    }
+
+    /**
+     * @return number of IDs in the bitmap
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (Container container : containers.values()) {
+            cardinality += container.cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other bitmap to intersect with
+     * @return a new bitmap of the IDs in both bitmaps
+     */
+    public RecordIdBitmap and(RecordIdBitmap other) {
+        RecordIdBitmap result = new RecordIdBitmap();
+        NavigableMap<Long, Container> smaller = containers.size() <= other.containers.size() ? containers : other.containers;
+        NavigableMap<Long, Container> larger = smaller == containers ? other.containers : containers;
+        smaller.forEach((key, container) -> {
+            Container otherContainer = larger.get(key);
+            if (otherContainer != null) {
+                Container intersection = and(container, otherContainer);
+                if (intersection.cardinality() > 0) {
+                    result.containers.put(key, intersection);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param other bitmap to union with
+     * @return a new bitmap of the IDs in either bitmap
+     */
+    public RecordIdBitmap or(RecordIdBitmap other) {
+        RecordIdBitmap result = new RecordIdBitmap();
+        containers.forEach((key, container) -> result.containers.put(key, container.copy()));
+        other.containers.forEach((key, container) -> {
+            Container existing = result.containers.get(key);
+            result.containers.put(key, existing == null ? container.copy() : or(existing, container));
+        });
+        return result;
+    }
+
+    /**
+     * @return a new bitmap holding the same IDs
+     */
+    public RecordIdBitmap copy() {
+        RecordIdBitmap copy = new RecordIdBitmap();
+        containers.forEach((key, container) -> copy.containers.put(key, container.copy()));
+        return copy;
+    }
+
+    /**
+     * Calls the action with each ID in ascending order
+     * @param action action to call
+     */
+    public void forEach(LongConsumer action) {
+        containers.forEach((key, container) -> {
+            long high = key << CHUNK_BITS;
+            container.forEach(low -> action.accept(high | low));
+        });
+    }
+
+    /**
+     * @return the IDs in ascending order
+     */
+    public List<Long> toList() {
+        List<Long> recordIds = new ArrayList<>(cardinality());
+        forEach(recordIds::add);
+        return recordIds;
+    }
+
+    private static char low(long recordId) {
+        return (char) (recordId & 0xFFFF);
+    }
+
+    private static Container and(Container first, Container second) {
+        if (first instanceof BitmapContainer firstBitmap && second instanceof BitmapContainer secondBitmap) {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = firstBitmap.words[i] & secondBitmap.words[i];
+            }
+            return new BitmapContainer(words).shrinkIfSparse();
+        }
+        Container smaller = first.cardinality() <= second.cardinality() ? first : second;
+        Container larger = smaller == first ? second : first;
+        ArrayContainer intersection = new ArrayContainer();
+        smaller.forEach(low -> {
+            if (larger.contains((char) low)) {
+                intersection.append((char) low);
+            }
+        });
+        return intersection;
+    }
+
+    private static Container or(Container first, Container second) {
+        if (first instanceof ArrayContainer && second instanceof ArrayContainer
+                && first.cardinality() + second.cardinality() <= ARRAY_LIMIT) {
+            Container union = first;
+            for (char low : ((ArrayContainer) second).values()) {
+                union = union.add(low);
+            }
+            return union;
+        }
+        long[] words = new long[BITMAP_WORDS];
+        first.forEach(low -> words[low >>> 6] |= 1L << low);
+        second.forEach(low -> words[low >>> 6] |= 1L << low);
+        return new BitmapContainer(words);
+    }
+
+    /**
+     * Low 16 bits of the IDs in one chunk
+     */
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+        Container add(char low);
+        Container remove(char low);
+        boolean contains(char low);
+        int cardinality();
+        void forEach(IntConsumer action);
+        Container copy();
+    }
+
+    /**
+     * Sorted array of the IDs in a sparse chunk
+     */
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size = 0;
+
+        @Override
+        public Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                long[] words = new long[BITMAP_WORDS];
+                forEach(value -> words[value >>> 6] |= 1L << value);
+                return new BitmapContainer(words).add(low);
+            }
+            int insertAt = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = low;
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds a value larger than every value already in the array
+         */
+        private void append(char low) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+            }
+            values[size++] = low;
+        }
+
+        @Override
+        public Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(values[i]);
+            }
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(size, 4));
+            copy.size = size;
+            return copy;
+        }
+
+        private char[] values() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * One bit per possible ID in a dense chunk
+     */
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(long[] words) {
+            this.words = words;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+        }
+
+        @Override
+        public Container add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return shrinkIfSparse();
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone());
+        }
+
+        private Container shrinkIfSparse() {
+            if (cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer();
+            forEach(low -> array.append((char) low));
+            return array;
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
 import jakarta.persistence.Tuple;
+import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.*;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
 import nz.ac.canterbury.seng302.homehelper.repository.RecentRenovationRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -25,12 +33,31 @@ public class RenovationRecordService {
 
     private final RenovationRecordRepository renovationRecordRepository;
     private final RecentRenovationRepository recentRenovationRepository;
+    private final UserRepository userRepository;
     private final RoomRepository roomRepository;
     private final LocationService locationService;
+    private final RenovationSearchIndex renovationSearchIndex;
+    private final ImageStore imageStore;
     private final ValidationService validationService = new ValidationService();
 
     private final Integer numberOfRecords = 12;
 
+    private static final String OWNER_RECORDS_CACHE_KEY = "ownerRecords:";
+    private static final int RECENT_SEARCH_CACHE_SIZE = 1000;
+    private static final Duration RECENT_SEARCH_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    private record SearchKey(String currentUser, String searchString, List<String> searchTags) {}
+
+    /**
+     * The records found by a search, along with the version of the search index they were found in so that they
+     * are only reused while the index is unchanged
+     */
+    private record RecentSearch(List<Long> recordIds, long indexVersion) {}
+
+    // Changing the results page asks for the page count and then loads the page, so both use the same search
+    private final ExpiringLruCache<SearchKey, RecentSearch> recentSearches =
+            new ExpiringLruCache<>(RECENT_SEARCH_CACHE_SIZE, RECENT_SEARCH_TIME_TO_LIVE);
+
     public static final String RENO_TITLE_EMPTY = "Renovation record name cannot be empty";
     public static final String RENO_TITLE_TOO_LONG = "Renovation record name must be 60 characters or less";
     public static final String RENO_TITLE_INCORRECT_CHARACTER = "Renovation record name must only include letters, numbers, spaces, dots, commas, hyphens or apostrophes";
@@ -39,13 +66,24 @@ public class RenovationRecordService {
     public static final String RENO_DESCRIPTION_TOO_LONG = "Renovation record description must be 512 characters or less";
     public static final String RENO_ROOM_NAME_INVALID = "Renovation record room names must only include letters, numbers, spaces, dots, commas, hyphens or apostrophes";
 
+    // Names of the fields on the add and edit renovation forms
+    public static final String RENO_TITLE_FIELD = "name";
+    public static final String RENO_DESCRIPTION_FIELD = "description";
+    public static final String RENO_ROOMS_FIELD = "rooms";
+    public static final String LOCATION_FIELD = "location";
+
     @Autowired
     public RenovationRecordService(RenovationRecordRepository renovationRecordRepository, RoomRepository roomRepository,
-                                   LocationService locationService, RecentRenovationRepository recentRenovationRepository) {
+                                   LocationService locationService, RecentRenovationRepository recentRenovationRepository,
+                                   RenovationSearchIndex renovationSearchIndex, ImageStore imageStore,
+                                   UserRepository userRepository) {
         this.renovationRecordRepository = renovationRecordRepository;
         this.roomRepository = roomRepository;
         this.locationService = locationService;
         this.recentRenovationRepository = recentRenovationRepository;
+        this.renovationSearchIndex = renovationSearchIndex;
+        this.imageStore = imageStore;
+        this.userRepository = userRepository;
     }
 
     /**
@@ -58,12 +96,41 @@ public class RenovationRecordService {
 
     /**
      * Gets all renovation records owned by a user with a given email
-     * in database storage.
+     * in database storage. These are shown in the page header, so the result is remembered for the rest of the
+     * current request.
      * @param email the email of the user.
      * @return All renovation records owned by user with given email.
      */
     public List<RenovationRecord> getRenovationRecordsByOwner(String email) {
-        return renovationRecordRepository.findRenovationRecordsByEmail(email);
+        return RequestCache.get(OWNER_RECORDS_CACHE_KEY + email,
+                () -> renovationRecordRepository.findRenovationRecordsByEmail(email));
+    }
+
+    /**
+     * Gets one page of the renovation records owned by a user, in the order they were created. A page number past
+     * the last page gives the last page, and one before the first page gives the first page.
+     * @param email the email of the user.
+     * @param page number of the page, starting from 1
+     * @param pageSize number of records on each page
+     * @return the page of renovation records
+     */
+    public Page<RenovationRecord> getRenovationRecordsPageByOwner(String email, int page, int pageSize) {
+        Page<RenovationRecord> records = renovationRecordRepository.findRenovationRecordsPageByEmail(email,
+                PageRequest.of(Math.max(page, 1) - 1, pageSize));
+        if (records.getNumber() >= records.getTotalPages() && records.getTotalPages() > 0) {
+            records = renovationRecordRepository.findRenovationRecordsPageByEmail(email,
+                    PageRequest.of(records.getTotalPages() - 1, pageSize));
+        }
+        return records;
+    }
+
+    /**
+     * Gets all renovation records owned by a user with a given email along with their jobs.
+     * @param email the email of the user.
+     * @return All renovation records owned by user with given email, with their jobs loaded.
+     */
+    public List<RenovationRecord> getRenovationRecordsWithJobsByOwner(String email) {
+        return renovationRecordRepository.findRenovationRecordsWithJobsByEmail(email);
     }
 
     /**
@@ -75,6 +142,21 @@ public class RenovationRecordService {
         return renovationRecordRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Gets the renovation record with the given id along with its jobs and their expenses,
+     * as shown on the renovation details page.
+     * @param id unique id of a renovation record.
+     * @return The renovation record with the unique id, or null if there is no such record
+     */
+    @Transactional
+    public RenovationRecord getRecordWithJobsById(long id) {
+        RenovationRecord record = getRecordById(id);
+        if (record != null) {
+            record.getJobs().forEach(job -> Hibernate.initialize(job.getExpenses()));
+        }
+        return record;
+    }
+
     /**
      * Gets the renovation record and validates it belongs to a user
      * @param id unique id of the renovation record
@@ -123,6 +205,7 @@ public class RenovationRecordService {
      * @param renovationRecord Renovation record being added
      */
     public RenovationRecord addRenovationRecord(RenovationRecord renovationRecord) {
+        RequestCache.evict(OWNER_RECORDS_CACHE_KEY);
         return renovationRecordRepository.save(renovationRecord);
     }
 
@@ -156,6 +239,7 @@ public class RenovationRecordService {
             }
         }
         renovationRecordRepository.save(renovationRecord);
+        RequestCache.evict(OWNER_RECORDS_CACHE_KEY);
 
         for (Room room : roomsToDelete) {
             roomRepository.deleteById(room.getId());
@@ -173,13 +257,25 @@ public class RenovationRecordService {
     }
 
     /**
-     * Adds a tag to the renovation record and saves this change
+     * Adds a tag to the renovation record and saves this change. Changing only the tags of a record does not update
+     * the record itself, so the record is indexed again here rather than from its change event.
      * @param record Renovation record being edited
      * @param tag the tag being added to the renovations list of tags
      */
     public void editRenovationRecordTags(RenovationRecord record, Tag tag) {
         record.addTag(tag);
-        renovationRecordRepository.save(record);
+        renovationSearchIndex.index(renovationRecordRepository.save(record));
+    }
+
+    /**
+     * Removes a tag from the renovation record and saves this change, indexing the record again for the same
+     * reason as {@link #editRenovationRecordTags}
+     * @param record Renovation record being edited
+     * @param tag the tag being removed from the renovations list of tags
+     */
+    public void removeRenovationRecordTag(RenovationRecord record, Tag tag) {
+        record.getTags().remove(tag);
+        renovationSearchIndex.index(renovationRecordRepository.save(record));
     }
 
     /**
@@ -190,94 +286,67 @@ public class RenovationRecordService {
      * @param rooms the rooms of the renovations to be validated
      * @param editMode is a boolean that is used to tell the validation that the user is editing a
      *                 record rather than creating one
-     * @throws IllegalArgumentException when the inputs arent valid/dont meet to ACs
+     * @throws FieldValidationException when the inputs arent valid/dont meet to ACs
      */
     public void validateRenovationRecord(RenovationRecord record, String name, String description, List<Room> rooms,
-                                         List<String> locationInfo, String userEmail, boolean editMode) throws IllegalArgumentException {
-        List<String> errors = new ArrayList<>();
+                                         List<String> locationInfo, String userEmail, boolean editMode) throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
         int maxTitleLength = 60;
 
         if (validationService.stringEmpty(name)) {
-            errors.add(RENO_TITLE_EMPTY);
+            errors.add(RENO_TITLE_FIELD, RENO_TITLE_EMPTY);
         } else if (name.length() > maxTitleLength) {
-            errors.add(RENO_TITLE_TOO_LONG);
+            errors.add(RENO_TITLE_FIELD, RENO_TITLE_TOO_LONG);
         }
         if (validationService.containsNonAlphaNumeric(name)) {
-            errors.add(RENO_TITLE_INCORRECT_CHARACTER);
+            errors.add(RENO_TITLE_FIELD, RENO_TITLE_INCORRECT_CHARACTER);
         }
         if (editMode) {
             if (!Objects.equals(record.getName(), name) && !recordNameUnique(name, userEmail)) {
-                errors.add(RENO_TITLE_NOT_UNIQUE);
+                errors.add(RENO_TITLE_FIELD, RENO_TITLE_NOT_UNIQUE);
             }
         } else if (!recordNameUnique(name, userEmail)) {
-            errors.add(RENO_TITLE_NOT_UNIQUE);
+            errors.add(RENO_TITLE_FIELD, RENO_TITLE_NOT_UNIQUE);
         }
         if (validationService.stringEmpty(description)) {
-            errors.add(RENO_DESCRIPTION_EMPTY);
+            errors.add(RENO_DESCRIPTION_FIELD, RENO_DESCRIPTION_EMPTY);
         } else if (!validationService.correctDescriptionLength(description)) {
-            errors.add(RENO_DESCRIPTION_TOO_LONG);
+            errors.add(RENO_DESCRIPTION_FIELD, RENO_DESCRIPTION_TOO_LONG);
         }
         for (Room room : rooms) {
             if (validationService.containsNonAlphaNumeric(room.getName())) {
-                errors.add(RENO_ROOM_NAME_INVALID);
+                errors.add(RENO_ROOMS_FIELD, RENO_ROOM_NAME_INVALID);
             }
         }
-        if (!locationService.locationErrors(locationInfo).isEmpty()) {
-            errors.add(locationService.locationErrors(locationInfo));
+        String locationErrors = locationService.locationErrors(locationInfo);
+        if (!locationErrors.isEmpty()) {
+            errors.add(LOCATION_FIELD, locationErrors);
         }
 
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(" ", errors));
-        }
+        errors.throwIfAny();
     }
 
     /**
-     * Goes through a string of all detected errors from the add renovation or edit renovation form
-     * and assigns an error message from the string to be displayed for each
-     * field of the form
-     * @param allErrorMessages String of all errors detected from the add renovation or edit renovation form
+     * Gets the error message to display for each field of the add renovation or edit renovation form
+     * @param errors the errors found when validating the form
      * @return List of error messages (one for each input field of the form) that will
      * be displayed on the form
      */
-    public List<String> getErrorMessages(String allErrorMessages) {
-        String renovationTitleErrorMessage = "";
-
-        if (allErrorMessages.contains(RENO_TITLE_NOT_UNIQUE)) {
-            renovationTitleErrorMessage = RENO_TITLE_NOT_UNIQUE;
-        }
-        if (allErrorMessages.contains(RENO_TITLE_INCORRECT_CHARACTER)) {
-            renovationTitleErrorMessage = RENO_TITLE_INCORRECT_CHARACTER;
-        }
-        if (allErrorMessages.contains(RENO_TITLE_EMPTY)) {
-            renovationTitleErrorMessage = RENO_TITLE_EMPTY;
-        }
-        if (allErrorMessages.contains(RENO_TITLE_TOO_LONG)) {
-            renovationTitleErrorMessage = RENO_TITLE_TOO_LONG;
-        }
-
-        String renovationDescriptionErrorMessage = "";
-        if (allErrorMessages.contains(RENO_DESCRIPTION_EMPTY)) {
-            renovationDescriptionErrorMessage = RENO_DESCRIPTION_EMPTY;
-        }
-        if (allErrorMessages.contains(RENO_DESCRIPTION_TOO_LONG)) {
-            renovationDescriptionErrorMessage = RENO_DESCRIPTION_TOO_LONG;
-        }
-
-        String renovationRoomsErrorMessage = "";
-        if (allErrorMessages.contains(RENO_ROOM_NAME_INVALID)) {
-            renovationRoomsErrorMessage = RENO_ROOM_NAME_INVALID;
-        }
-
-        return List.of(renovationTitleErrorMessage, renovationDescriptionErrorMessage, renovationRoomsErrorMessage);
+    public List<String> getErrorMessages(FieldErrors errors) {
+        return errors.get(RENO_TITLE_FIELD, RENO_DESCRIPTION_FIELD, RENO_ROOMS_FIELD);
     }
 
     /**
-     * Deletes a renovation record from database storage
+     * Deletes a renovation record from database storage, along with its jobs and their quotes. The accepted quotes
+     * are taken off their senders' accepted quote counts first.
      * @param recordId ID of the record wanting to be deleted
      */
+    @Transactional
     public void deleteRenovationRecord(Long recordId) {
+        userRepository.removeAcceptedQuotesOfRecord(recordId);
         recentRenovationRepository.deleteByRecordId(recordId);
         renovationRecordRepository.deleteById(recordId);
+        RequestCache.evict(OWNER_RECORDS_CACHE_KEY);
     }
 
     /**
@@ -296,59 +365,72 @@ public class RenovationRecordService {
     }
 
     /**
-     * returns the renovationRecords where the user search string is contained within the record name or description
+     * Gets one page of the cards of the renovation records matching the user search string and search tags that
+     * the user is allowed to see, newest first. Only the records on the page are loaded.
      * @param searchString the user search string to check the record against
-     * @return a list of the records that contain the search string in the name or description.
+     * @param currentUser email of the user searching
+     * @param searchTags names of tags the records must all have
+     * @param page number of the page, starting from 1
+     * @return the page of record cards, with the total number of matching records
+     */
+    public Page<RenovationCardInfo> getMatchingRenovationRecordCards(String searchString, String currentUser,
+                                                                     List<String> searchTags, int page) {
+        List<Long> recordIds = getMatchingRecordIds(searchString, currentUser, searchTags);
+        Pageable pageable = PageRequest.of(Math.max(page, 1) - 1, numberOfRecords);
+        int fromIndex = (int) Math.min(pageable.getOffset(), recordIds.size());
+        int toIndex = Math.min(fromIndex + numberOfRecords, recordIds.size());
+        return new PageImpl<>(getRenovationRecordCardsByIds(recordIds.subList(fromIndex, toIndex)), pageable,
+                recordIds.size());
+    }
+
+    /**
+     * Counts the renovation records matching the user search string and search tags that the user is allowed to see
+     * @param searchString the user search string to check the record against
+     * @param currentUser email of the user searching
+     * @param searchTags names of tags the records must all have
+     * @return the number of matching records
+     */
+    public int countMatchingRenovationRecords(String searchString, String currentUser, List<String> searchTags) {
+        return getMatchingRecordIds(searchString, currentUser, searchTags).size();
+    }
+
+    /**
+     * Finds the IDs of the records matching a search, newest first. Searches the in-memory search index, reusing
+     * the result of the same search if nothing has been indexed since, or the database if the index has not been
+     * built yet.
      */
-    public List<RenovationRecord> getMatchingRenovationRecords(String searchString, String currentUser, List<String> searchTags) {
+    private List<Long> getMatchingRecordIds(String searchString, String currentUser, List<String> searchTags) {
         if (searchString == null) {
             searchString = "";
         }
-        if (searchTags.isEmpty()) {
-            logger.info("Not empty, empty");
-            return renovationRecordRepository.findMatchingRenovationRecordsBySearchString(searchString, currentUser);
+        if (renovationSearchIndex.isReady()) {
+            SearchKey key = new SearchKey(currentUser, searchString, List.copyOf(searchTags));
+            long indexVersion = renovationSearchIndex.getVersion();
+            RecentSearch recent = recentSearches.get(key);
+            if (recent != null && recent.indexVersion() == indexVersion) {
+                return recent.recordIds();
+            }
+            List<Long> recordIds = renovationSearchIndex.search(searchString, currentUser, searchTags);
+            recentSearches.put(key, new RecentSearch(recordIds, indexVersion));
+            return recordIds;
         }
-        else if (searchString.isEmpty() && !searchTags.isEmpty()) {
-            logger.info("empty, Not empty");
-            return renovationRecordRepository.findMatchingRecordsByEmptyStringAndTags(currentUser, searchTags);
+        if (searchTags.isEmpty()) {
+            return renovationRecordRepository.findMatchingRecordIdsBySearchString(searchString, currentUser);
+        } else if (searchString.isEmpty()) {
+            return renovationRecordRepository.findMatchingRecordIdsByEmptyStringAndTags(currentUser, searchTags);
         } else {
-            logger.info("Not empty, not empty - empty, empty");
-            return renovationRecordRepository.findMatchingRecordsByStringAndTags(searchString, currentUser, searchTags);
+            return renovationRecordRepository.findMatchingRecordIdsByStringAndTags(searchString, currentUser, searchTags);
         }
     }
 
     /**
      * Gets the total number of pages of records when paginating
-     * Uses Math.ceil to round up the result so that the remaining jobs have a page.
-     * @param records The RenovationRecords for which are returned by a search.
+     * Uses Math.ceil to round up the result so that the remaining records have a page.
+     * @param totalRecords the number of records returned by a search.
      * @return The total number of pages to be displayed.
      */
-    public int getNumPages(List<RenovationRecord> records) {
-        if (records == null || records.isEmpty()) {
-            return 0;
-        }
-        return (int)Math.ceil((double) (records.size()) / numberOfRecords);
-    }
-
-    /**
-     * Gets the sublist of records for the given page.
-     * Uses the numberOfRecords constant to determine the number of records to be included in the sublist.
-     * @param page The page number to select.
-     * @param records The list of renovation records from the search query.
-     * @return The sublist of the list containing the records to show on the page.
-     */
-    public List<RenovationRecord> getRenovationRecordPages(Integer page, List<RenovationRecord> records) {
-        int pageIndex = page - 1;
-        int startIndex = pageIndex * numberOfRecords;
-        if (records.size() <= numberOfRecords) {
-            startIndex = 0;
-        }
-
-        int endIndex = (pageIndex + 1) * numberOfRecords;
-        if (endIndex > records.size()) {
-            endIndex = records.size();
-        }
-        return records.subList(startIndex, endIndex);
+    public int getNumPages(long totalRecords) {
+        return (int) Math.ceil((double) totalRecords / numberOfRecords);
     }
 
     /**
@@ -358,11 +440,11 @@ public class RenovationRecordService {
      * Makes the check and creates different lists in order to match the AC3 of UserStory 15
      * Used by the RenovationDetailsController
      * @param currentPage the currently active page to base the others off of.
-     * @param records the record for which the jobs are from.
+     * @param totalRecords the number of records being paginated.
      * @return A list of the visible pagination button pages.
      */
-    public List<Integer> getPageList(Integer currentPage, List<RenovationRecord> records) {
-        int numPages = getNumPages(records);
+    public List<Integer> getPageList(Integer currentPage, long totalRecords) {
+        int numPages = getNumPages(totalRecords);
         if (numPages > 10) {
             return Stream.of(1, currentPage - 2, currentPage - 1, currentPage, currentPage + 1, currentPage + 2, numPages)
                     .filter(num -> num > 0 && num <= numPages).distinct().toList();
@@ -388,13 +470,8 @@ public class RenovationRecordService {
      * @return a location string
      */
     public static String writeLocationString(RenovationRecord renovationRecord) {
-        String suburb = renovationRecord.getSuburb();
-        suburb = (suburb == null || suburb.isEmpty()) ? "" : suburb + ", ";
-
-        return renovationRecord.getCity() == null ? "Location not set by owner" :
-                renovationRecord.getStreetAddress() + ", "
-                        + suburb
-                        + renovationRecord.getCity();
+        return RenovationRecord.formatLocation(renovationRecord.getStreetAddress(), renovationRecord.getSuburb(),
+                renovationRecord.getCity());
     }
 
     /**
@@ -419,17 +496,29 @@ public class RenovationRecordService {
 
     /**
      * Gets the information for renovation record info cards.
-     * @param userService the userService to access the users for each record.
      * @param records the list of RenovationRecords to be used
-     * @return List of RenovationCardInfo objects for the renovations in records
+     * @return List of RenovationCardInfo objects for the renovations in records, in the same order
+     */
+    public List<RenovationCardInfo> getRenovationRecordCards(List<RenovationRecord> records) {
+        return getRenovationRecordCardsByIds(records.stream().filter(Objects::nonNull).map(RenovationRecord::getId).toList());
+    }
+
+    /**
+     * Gets the information for renovation record info cards with a single query, without loading the records
+     * or looking up each record's owner separately. Each card links to the avatar sized version of the owner's
+     * profile picture.
+     * @param recordIds IDs of the records
+     * @return List of RenovationCardInfo objects in the same order as the IDs. IDs of records that no longer exist
+     * are skipped
      */
-    public List<RenovationCardInfo> getRenovationRecordCards(UserService userService, List<RenovationRecord> records) {
-        List<RenovationCardInfo> cardInfos = new ArrayList<>();
-        for (RenovationRecord record: records) {
-            User user = userService.getUser(record.getUserEmail());
-            cardInfos.add(
-                    new RenovationCardInfo(record.getName(), record.getDescription(), record.getCity(), user.getFirstName() + " " + user.getLastName(), record.getId(), user != null && user.getProfilePicture() != null ? "/profileImages/" + user.getProfilePicture() : null));
+    public List<RenovationCardInfo> getRenovationRecordCardsByIds(List<Long> recordIds) {
+        if (recordIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, RenovationCardInfo> cardsById = new HashMap<>();
+        for (RenovationCardInfo card : renovationRecordRepository.findRenovationCards(recordIds)) {
+            cardsById.put(card.recordId(), card.withProfilePicture(imageStore.thumbnailUrlForPath(card.profilePicture())));
         }
-        return cardInfos;
+        return recordIds.stream().map(cardsById::get).filter(Objects::nonNull).toList();
     }
 }
@@ -0,0 +1,339 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.Tag;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index for searching renovation records. The words of each record's name, description,
+ * city and tags are mapped to the IDs of the records containing them, so a search looks up its words instead
+ * of scanning every record. Each search word matches any indexed word it is the start of, and a record must match
+ * every search word and every search tag. Tags are kept as compressed bitmaps of record IDs, so filtering by
+ * several tags is a bitmap intersection rather than a grouped join. Only records that are public or owned by
+ * the searching user are returned.
+ * The index is kept up to date from the changes to renovation records and tags once they have been committed, and
+ * rebuilt from the database on startup. Adding or removing a tag does not publish a change to the record, so
+ * {@link RenovationRecordService} indexes the record again itself, which is what keeps the tag bitmaps current.
+ */
+@Service
+public class RenovationSearchIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * A record as it is indexed. The words of its name, description and city are kept apart from its tags so that
+     * the words of a deleted tag can be removed without losing the same words in the rest of the record.
+     */
+    private record IndexedRecord(String ownerEmail, boolean isPublic, Set<String> textWords, Set<String> tags,
+                                 Set<String> words) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedRecord> records = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> wordPostings = new TreeMap<>();
+    private final Map<String, RecordIdBitmap> tagBitmaps = new HashMap<>();
+    private final Set<Long> publicRecords = new HashSet<>();
+    private final Map<String, Set<Long>> ownerRecords = new HashMap<>();
+    private final RebuildChanges<Void> rebuildChanges = new RebuildChanges<>();
+    private volatile boolean ready = false;
+    private volatile long version = 0;
+
+    /**
+     * @return true once the index has been built, before that searches must go to the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return a number that goes up every time a record is added, changed or removed
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Keeps the index up to date once a change to a renovation record or the deletion of a tag has been committed,
+     * so that a change that is rolled back never reaches the index. Changes made outside a transaction are applied
+     * straight away.
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entity() instanceof RenovationRecord record) {
+            if (event.removed()) {
+                remove(record.getId());
+            } else {
+                index(record);
+            }
+        } else if (event.entity() instanceof Tag tag && event.removed()) {
+            removeTag(tag.getName());
+        }
+    }
+
+    /**
+     * Adds a renovation record to the index, replacing any earlier version of it
+     * @param record the saved renovation record
+     */
+    public void index(RenovationRecord record) {
+        if (record == null || record.getId() == null) {
+            return;
+        }
+        List<String> tagNames = record.getTags() == null ? List.of() : record.getTags().stream().map(Tag::getName).toList();
+        IndexedRecord indexed = toIndexedRecord(new RenovationSearchDocument(record.getId(), record.getName(),
+                record.getDescription(), record.getCity(), record.getUserEmail(), record.getIsPublic()), tagNames);
+        lock.writeLock().lock();
+        try {
+            put(record.getId(), indexed);
+            rebuildChanges.changed(record.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a renovation record from the index
+     * @param recordId ID of the deleted renovation record
+     */
+    public void remove(Long recordId) {
+        lock.writeLock().lock();
+        try {
+            removeFromPostings(recordId);
+            rebuildChanges.changed(recordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a rebuild. Records indexed or removed from now until the rebuild finishes keep their
+     * new state rather than being overwritten by the state loaded for the rebuild.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildChanges.start();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with every renovation record loaded from the database
+     * @param documents searchable fields of every renovation record
+     * @param tagsByRecord tag names of each renovation record by record ID
+     */
+    public void finishRebuild(List<RenovationSearchDocument> documents, Map<Long, List<String>> tagsByRecord) {
+        Map<Long, IndexedRecord> loaded = new HashMap<>();
+        for (RenovationSearchDocument document : documents) {
+            loaded.put(document.recordId(), toIndexedRecord(document, tagsByRecord.getOrDefault(document.recordId(), List.of())));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long recordId : new ArrayList<>(records.keySet())) {
+                if (!loaded.containsKey(recordId) && !rebuildChanges.wasChanged(recordId)) {
+                    removeFromPostings(recordId);
+                }
+            }
+            loaded.forEach((recordId, indexed) -> {
+                if (!rebuildChanges.wasChanged(recordId)) {
+                    put(recordId, indexed);
+                }
+            });
+            rebuildChanges.finish();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the renovation records matching a search that the user is allowed to see
+     * @param searchString words to search for, every word must start a word of the record's name, description, city or tags
+     * @param currentUser email of the user searching, who can also see their own private records
+     * @param searchTags names of tags the records must all have
+     * @return IDs of the matching records, newest first
+     */
+    public List<Long> search(String searchString, String currentUser, Collection<String> searchTags) {
+        List<String> searchWords = tokenize(searchString);
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> requirements = new ArrayList<>();
+            for (String word : new LinkedHashSet<>(searchWords)) {
+                requirements.add(recordsWithWordStartingWith(word));
+            }
+            RecordIdBitmap taggedRecords = searchTags.isEmpty() ? null : recordsWithTags(searchTags, true);
+
+            Set<Long> visibleOwnRecords = ownerRecords.getOrDefault(currentUser, Set.of());
+            Collection<Long> candidates;
+            if (requirements.isEmpty() && taggedRecords == null) {
+                Set<Long> visible = new HashSet<>(publicRecords);
+                visible.addAll(visibleOwnRecords);
+                candidates = visible;
+            } else if (requirements.isEmpty()) {
+                candidates = taggedRecords.toList();
+            } else {
+                requirements.sort(Comparator.comparingInt(Set::size));
+                candidates = requirements.get(0);
+                if (taggedRecords != null) {
+                    candidates = candidates.stream().filter(taggedRecords::contains).toList();
+                }
+                for (Set<Long> requirement : requirements.subList(1, requirements.size())) {
+                    candidates = candidates.stream().filter(requirement::contains).toList();
+                }
+            }
+            return candidates.stream()
+                    .filter(recordId -> publicRecords.contains(recordId) || visibleOwnRecords.contains(recordId))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the renovation records tagged with some or all of the given tags, regardless of who can see them
+     * @param tagNames names of the tags
+     * @param matchAll true to find the records with every tag, false to find the records with any of the tags
+     * @return IDs of the tagged records
+     */
+    public RecordIdBitmap findRecordsWithTags(Collection<String> tagNames, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            return recordsWithTags(tagNames, matchAll);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted tag from every renovation record in the index, along with the words it added to them
+     * @param tagName name of the deleted tag
+     */
+    public void removeTag(String tagName) {
+        if (tagName == null) {
+            return;
+        }
+        String tag = tagName.toLowerCase(Locale.ROOT);
+        lock.writeLock().lock();
+        try {
+            RecordIdBitmap taggedRecords = tagBitmaps.get(tag);
+            if (taggedRecords == null) {
+                return;
+            }
+            for (Long recordId : taggedRecords.toList()) {
+                IndexedRecord indexed = records.get(recordId);
+                Set<String> tags = new HashSet<>(indexed.tags());
+                tags.remove(tag);
+                put(recordId, withTags(indexed, tags));
+                rebuildChanges.changed(recordId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower case words, dropping punctuation
+     * @param text text to split
+     * @return the words of the text
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    private RecordIdBitmap recordsWithTags(Collection<String> tagNames, boolean matchAll) {
+        List<RecordIdBitmap> bitmaps = new ArrayList<>();
+        for (String tagName : new LinkedHashSet<>(tagNames)) {
+            RecordIdBitmap bitmap = tagBitmaps.get(tagName.toLowerCase(Locale.ROOT));
+            if (bitmap == null && matchAll) {
+                return new RecordIdBitmap();
+            }
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return matchAll ? RecordIdBitmap.andAll(bitmaps) : RecordIdBitmap.orAll(bitmaps);
+    }
+
+    private Set<Long> recordsWithWordStartingWith(String prefix) {
+        SortedMap<String, Set<Long>> matchingWords = wordPostings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (matchingWords.size() == 1) {
+            return matchingWords.values().iterator().next();
+        }
+        Set<Long> matches = new HashSet<>();
+        matchingWords.values().forEach(matches::addAll);
+        return matches;
+    }
+
+    private IndexedRecord toIndexedRecord(RenovationSearchDocument document, List<String> tagNames) {
+        Set<String> textWords = new HashSet<>();
+        textWords.addAll(tokenize(document.name()));
+        textWords.addAll(tokenize(document.description()));
+        textWords.addAll(tokenize(document.city()));
+        Set<String> tags = new HashSet<>();
+        for (String tagName : tagNames) {
+            tags.add(tagName.toLowerCase(Locale.ROOT));
+        }
+        return withTags(new IndexedRecord(document.userEmail(), document.isPublic(), textWords, Set.of(), Set.of()), tags);
+    }
+
+    private static IndexedRecord withTags(IndexedRecord indexed, Set<String> tags) {
+        Set<String> words = new HashSet<>(indexed.textWords());
+        tags.forEach(tag -> words.addAll(tokenize(tag)));
+        return new IndexedRecord(indexed.ownerEmail(), indexed.isPublic(), indexed.textWords(), tags, words);
+    }
+
+    private void put(Long recordId, IndexedRecord indexed) {
+        removeFromPostings(recordId);
+        version++;
+        records.put(recordId, indexed);
+        indexed.words().forEach(word -> wordPostings.computeIfAbsent(word, key -> new HashSet<>()).add(recordId));
+        indexed.tags().forEach(tag -> tagBitmaps.computeIfAbsent(tag, key -> new RecordIdBitmap()).add(recordId));
+        if (indexed.isPublic()) {
+            publicRecords.add(recordId);
+        }
+        ownerRecords.computeIfAbsent(indexed.ownerEmail(), key -> new HashSet<>()).add(recordId);
+    }
+
+    private void removeFromPostings(Long recordId) {
+        IndexedRecord indexed = records.remove(recordId);
+        if (indexed == null) {
+            return;
+        }
+        version++;
+        indexed.words().forEach(word -> removePosting(wordPostings, word, recordId));
+        indexed.tags().forEach(tag -> {
+            RecordIdBitmap taggedRecords = tagBitmaps.get(tag);
+            if (taggedRecords != null) {
+                taggedRecords.remove(recordId);
+                if (taggedRecords.isEmpty()) {
+                    tagBitmaps.remove(tag);
+                }
+            }
+        });
+        publicRecords.remove(recordId);
+        removePosting(ownerRecords, indexed.ownerEmail(), recordId);
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long recordId) {
+        Set<Long> recordIds = postings.get(key);
+        if (recordIds != null) {
+            recordIds.remove(recordId);
+            if (recordIds.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * This class remembers lookups for the rest of the current web request, so that the security filter and
+ * the controllers can share the current user and their header records instead of each querying for them.
+ * Outside of a web request nothing is cached and every lookup goes straight to the supplier.
+ */
+public class RequestCache {
+
+    static final String ATTRIBUTE_NAME = RequestCache.class.getName();
+
+    private RequestCache() {}
+
+    /**
+     * Gets the value cached under a key for the current request, computing and caching it if it is not there yet.
+     * Null values are cached too, so a missing user is only looked up once.
+     * @param key the key the value is cached under
+     * @param supplier computes the value if it has not been cached in this request
+     * @return the cached or newly computed value
+     * @param <T> the type of the cached value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String key, Supplier<T> supplier) {
+        Map<String, Optional<Object>> cache = getCache();
+        if (cache == null) {
+            return supplier.get();
+        }
+        Optional<Object> cached = cache.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(supplier.get());
+            cache.put(key, cached);
+        }
+        return (T) cached.orElse(null);
+    }
+
+    /**
+     * Removes every value cached in the current request whose key starts with the given prefix.
+     * Should be called after anything the cached values were loaded from is changed.
+     * @param keyPrefix the prefix of the keys to remove
+     */
+    public static void evict(String keyPrefix) {
+        Map<String, Optional<Object>> cache = getCache();
+        if (cache != null) {
+            cache.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Optional<Object>> getCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, Optional<Object>> cache = (Map<String, Optional<Object>>)
+                attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE_NAME, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cache;
+    }
+}
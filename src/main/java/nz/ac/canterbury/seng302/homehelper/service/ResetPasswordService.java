@@ -1,15 +1,15 @@
 package nz.ac.canterbury.seng302.homehelper.service;
 
+import jakarta.transaction.Transactional;
 import nz.ac.canterbury.seng302.homehelper.entity.ResetPasswordToken;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.repository.ResetPasswordTokenRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.Instant;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -20,28 +20,27 @@ import java.util.List;
 @Service
 public class ResetPasswordService {
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-    private static final long TEN_MINUTES = 600000; // in milliseconds
 
     // Error messages for invalid passwords
     public static final String NEW_PASSWORD_INVALID = "Your password must be at least 8 characters long and include " +
             "at least one uppercase letter, one lowercase letter, one number, and one special character";
     public static final String PASSWORDS_DONT_MATCH = "The passwords do not match";
 
+    // Names of the fields on the reset password form
+    public static final String NEW_PASSWORD_FIELD = "newPassword";
+    public static final String RETYPE_PASSWORD_FIELD = "retypePassword";
+
     private final ResetPasswordTokenRepository resetPasswordTokenRepository;
-    private final TaskScheduler taskScheduler;
     private final ValidationService validationService;
     private final SecureRandom secureRandom;
 
     /**
      * Constructor for the resetPasswordService.
      * @param resetPasswordTokenRepository repo for the {@link ResetPasswordToken} entity.
-     * @param taskScheduler spring boot job scheduler.
      */
     @Autowired
-    public ResetPasswordService(ResetPasswordTokenRepository resetPasswordTokenRepository,
-                                TaskScheduler taskScheduler) {
+    public ResetPasswordService(ResetPasswordTokenRepository resetPasswordTokenRepository) {
         this.resetPasswordTokenRepository = resetPasswordTokenRepository;
-        this.taskScheduler = taskScheduler;
         this.validationService = new ValidationService();
         this.secureRandom = new SecureRandom();
     }
@@ -61,13 +60,12 @@ public class ResetPasswordService {
     }
 
     /**
-     * Adds a resetPasswordToken to the repo and schedules a job to delete the token
-     * from the repo ten minutes later.
+     * Adds a resetPasswordToken to the repo. The token is removed by the {@link ExpiredDataSweeper}
+     * once it expires.
      * @param resetPasswordToken the token being added to the repo
      */
     public void addResetPasswordToken(ResetPasswordToken resetPasswordToken) {
         resetPasswordTokenRepository.save(resetPasswordToken);
-        taskScheduler.schedule(()->removeResetPasswordToken(resetPasswordToken), Instant.now().plusMillis(TEN_MINUTES));
     }
 
     /**
@@ -79,12 +77,31 @@ public class ResetPasswordService {
     }
 
     /**
-     * Searches the repo for a resetPasswordToken with the given token.
+     * Deletes a chunk of the tokens that have expired.
+     * @param now the current time.
+     * @param limit the most tokens to delete.
+     * @return the number of tokens deleted.
+     */
+    @Transactional
+    public int removeExpiredTokens(LocalDateTime now, int limit) {
+        List<Long> expiredIds = resetPasswordTokenRepository.findExpiredIds(now, PageRequest.of(0, limit));
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+        return resetPasswordTokenRepository.deleteByIdIn(expiredIds);
+    }
+
+    /**
+     * Searches the repo for a resetPasswordToken with the given token. Tokens that have expired
+     * but not been removed yet are not returned.
      * @param token a 10 character string which is the token.
      * @return The resetPasswordToken if found
      */
     public ResetPasswordToken getByToken(String token) {
-        return resetPasswordTokenRepository.findByToken(token).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        return resetPasswordTokenRepository.findByToken(token)
+                .filter(resetPasswordToken -> !resetPasswordToken.isExpired(now))
+                .orElse(null);
     }
 
     /**
@@ -92,41 +109,28 @@ public class ResetPasswordService {
      * @param user The user wanting to reset their password
      * @param newPassword The new password entered into the form
      * @param retypePassword The retyped new password entered into the form
+     * @throws FieldValidationException if either password is invalid
      */
-    public void validatePasswords(User user, String newPassword, String retypePassword) throws IllegalArgumentException {
-        List<String> errors = new ArrayList<>();
+    public void validatePasswords(User user, String newPassword, String retypePassword) throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
 
         if (!validationService.checkPassword(newPassword, user)) {
-            errors.add(NEW_PASSWORD_INVALID);
+            errors.add(NEW_PASSWORD_FIELD, NEW_PASSWORD_INVALID);
         }
         if (!validationService.passwordMatch(newPassword, retypePassword)) {
-            errors.add(PASSWORDS_DONT_MATCH);
+            errors.add(RETYPE_PASSWORD_FIELD, PASSWORDS_DONT_MATCH);
         }
 
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(" ", errors));
-        }
+        errors.throwIfAny();
     }
 
     /**
-     * Goes through a string of all detected errors from the reset password form
-     * and assigns an error message from the string to be displayed for each
-     * field of the form
-     * @param allErrorMessages String of all errors detected from the reset password form
+     * Gets the error message to display for each field of the reset password form
+     * @param errors the errors found when validating the form
      * @return List of error messages (one for each input field of the form) that will
      * be displayed on the form
      */
-    public List<String> getErrorMessages(String allErrorMessages) {
-        String newPasswordErrorMessage = "";
-        if (allErrorMessages.contains(NEW_PASSWORD_INVALID)) {
-            newPasswordErrorMessage = NEW_PASSWORD_INVALID;
-        }
-
-        String retypePasswordErrorMessage = "";
-        if (allErrorMessages.contains(PASSWORDS_DONT_MATCH)) {
-            retypePasswordErrorMessage = PASSWORDS_DONT_MATCH;
-        }
-
-        return List.of(newPasswordErrorMessage, retypePasswordErrorMessage);
+    public List<String> getErrorMessages(FieldErrors errors) {
+        return errors.get(NEW_PASSWORD_FIELD, RETYPE_PASSWORD_FIELD);
     }
 }
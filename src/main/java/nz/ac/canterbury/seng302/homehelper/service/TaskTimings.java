@@ -0,0 +1,50 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the tasks a bulkhead has run and how long they waited and ran for. Safe to share between threads.
+ */
+class TaskTimings {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    /**
+     * Records a finished task
+     * @param waitNanos how long the task waited before it started
+     * @param runNanos how long the task ran for
+     */
+    void recordCompleted(long waitNanos, long runNanos) {
+        long wait = Math.max(0, waitNanos);
+        totalWaitNanos.add(wait);
+        totalRunNanos.add(runNanos);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+        maxRunNanos.accumulateAndGet(runNanos, Math::max);
+        completed.increment();
+    }
+
+    /**
+     * Records a task that was turned away
+     */
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * @return a snapshot of the timings together with the current state of the pool
+     */
+    BulkheadMetrics snapshot(String name, int poolSize, int activeThreads, int queueDepth) {
+        long count = completed.sum();
+        return new BulkheadMetrics(name, poolSize, activeThreads, queueDepth, count, rejected.sum(),
+                count == 0 ? 0 : totalWaitNanos.sum() / 1e6 / count, maxWaitNanos.get() / 1e6,
+                count == 0 ? 0 : totalRunNanos.sum() / 1e6 / count, maxRunNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,70 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter. The bucket holds up to a fixed number of tokens and gains one back every refill
+ * period, so calls can burst up to the capacity and are then limited to one per period. Safe to share between threads.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long refillPeriodNanos;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructor for a full token bucket
+     * @param capacity most tokens the bucket can hold
+     * @param refillPeriod how long it takes to gain one token back
+     */
+    public TokenBucket(int capacity, Duration refillPeriod) {
+        this(capacity, refillPeriod, System::nanoTime);
+    }
+
+    /**
+     * Constructor for a full token bucket that reads the time from the given clock
+     * @param capacity most tokens the bucket can hold
+     * @param refillPeriod how long it takes to gain one token back
+     * @param nanoClock clock giving the current time in nanoseconds
+     */
+    public TokenBucket(int capacity, Duration refillPeriod, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.refillPeriodNanos = refillPeriod.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token from the bucket if there is one
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * @return how long until the bucket has a token, zero if it has one now
+     */
+    public synchronized Duration timeUntilNextToken() {
+        refill();
+        if (tokens >= 1) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) * refillPeriodNanos));
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillPeriodNanos);
+        lastRefill = now;
+    }
+}
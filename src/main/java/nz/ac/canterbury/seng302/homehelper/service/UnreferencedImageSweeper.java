@@ -0,0 +1,48 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes uploaded images that nothing refers to any more. Images are stored under the hash of their contents and
+ * may be shared by several uploads, so removing a job image or replacing a profile picture leaves the image in place
+ * and it is cleaned up here instead. Images uploaded within the grace period are kept, as the upload they belong to
+ * may not have been saved yet.
+ */
+@Service
+@ConditionalOnProperty(name = "images.unreferenced-sweep.enabled", matchIfMissing = true)
+public class UnreferencedImageSweeper {
+    Logger logger = LoggerFactory.getLogger(UnreferencedImageSweeper.class);
+
+    public static final Duration GRACE_PERIOD = Duration.ofHours(1);
+
+    private final ImageService imageService;
+
+    @Autowired
+    public UnreferencedImageSweeper(ImageService imageService) {
+        this.imageService = imageService;
+    }
+
+    /**
+     * Deletes the images that nothing has referred to since before the grace period
+     */
+    @Scheduled(fixedDelay = 3600000, initialDelay = 600000, scheduler = "expiryScheduler")
+    public void sweep() {
+        try {
+            int removed = imageService.removeUnreferencedImages(Instant.now().minus(GRACE_PERIOD));
+            if (removed > 0) {
+                logger.info("Removed {} unused images", removed);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not remove unused images, they will be removed by the next sweep", e);
+        }
+    }
+}
@@ -2,22 +2,27 @@ package nz.ac.canterbury.seng302.homehelper.service;
 
 import nz.ac.canterbury.seng302.homehelper.entity.*;
 import jakarta.transaction.Transactional;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.MapPosition;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieJobRow;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieStats;
 import nz.ac.canterbury.seng302.homehelper.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for User, defined by the @link{Service} annotation.
@@ -25,7 +30,8 @@ import java.util.stream.Collectors;
  */
 @Service
 public class UserService {
-    private static final long TEN_MINUTES = 600000; // in milliseconds
+    public static final Duration VERIFICATION_TIME_TO_LIVE = Duration.ofMinutes(10);
+    private static final int HOTTEST_TRADIES_COUNT = 5;
 
     // Error messages for invalid user details
     public static final String FIRST_NAME_EMPTY = "First name cannot be empty";
@@ -40,10 +46,19 @@ public class UserService {
             ", and one special character";
     public static final String PASSWORDS_DONT_MATCH = "Passwords do not match";
 
+    // Names of the fields on the user details forms
+    public static final String FIRST_NAME_FIELD = "firstName";
+    public static final String LAST_NAME_FIELD = "lastName";
+    public static final String EMAIL_FIELD = "email";
+    public static final String PASSWORD_FIELD = "password";
+    public static final String SECOND_PASSWORD_FIELD = "secondPassword";
+    public static final String LOCATION_FIELD = "location";
+
+    private static final String USER_CACHE_KEY = "user:";
+
     private final UserRepository userRepository;
     private final ValidationService validationService;
     private final PasswordEncoder passwordEncoder;
-    private final TaskScheduler taskScheduler;
     private final LocationService locationService;
     private final RenovationRecordService renovationRecordService;
     private final RenovationRecordRepository renovationRecordRepository;
@@ -51,11 +66,10 @@ public class UserService {
     private final QuoteRepository quoteRepository;
 
     @Autowired
-    public UserService(UserRepository userRepository, ValidationService validationService, TaskScheduler taskScheduler, LocationService locationService, RenovationRecordService renovationRecordService, RenovationRecordRepository renovationRecordRepository, RecentRenovationRepository recentRenovationRepository, QuoteRepository quoteRepository) {
+    public UserService(UserRepository userRepository, ValidationService validationService, LocationService locationService, RenovationRecordService renovationRecordService, RenovationRecordRepository renovationRecordRepository, RecentRenovationRepository recentRenovationRepository, QuoteRepository quoteRepository) {
         this.userRepository = userRepository;
         this.passwordEncoder = new BCryptPasswordEncoder();
         this.validationService = validationService;
-        this.taskScheduler = taskScheduler;
         this.locationService = locationService;
         this.renovationRecordService = renovationRecordService;
         this.renovationRecordRepository = renovationRecordRepository;
@@ -64,12 +78,14 @@ public class UserService {
     }
 
     /**
-     * Gets all Users from persistence
+     * Gets all Users from persistence. The result is remembered for the rest of the current request, so the
+     * security filter and the controller handling the request only look the user up once
      * @param email string to search on name (partial matching)
      * @return all UserResults currently saved in persistence
      */
     public User getUser(String email) {
-        return userRepository.findByEmailContainingIgnoreCase(email);
+        return RequestCache.get(USER_CACHE_KEY + Objects.toString(email).toLowerCase(),
+                () -> userRepository.findByEmailContainingIgnoreCase(email));
     }
 
     /**
@@ -81,6 +97,15 @@ public class UserService {
         return userRepository.findUserById(id);
     }
 
+    /**
+     * Gets a user by id along with the jobs they have added to their portfolio
+     * @param id the id of the user to be retrieved.
+     * @return the user with the given id.
+     */
+    public User getUserWithPortfolioJobs(Long id) {
+        return userRepository.findUserWithPortfolioJobsById(id);
+    }
+
     /**
      * Sets empty location information strings to null
      * @param locationInfo List of location information, containing street address, suburb, city, postcode and country
@@ -113,19 +138,34 @@ public class UserService {
     }
 
     /**
-     * Adds a new user to the database.
+     * Adds a new user to the database. A user that still needs verifying is given an expiry time, after which
+     * the account is removed by the {@link ExpiredDataSweeper} if it has not been verified.
      * @param user the new user to be added.
      * @throws IllegalArgumentException when the inputs for the user details do not pass the required checks.
      */
     public void addUser(User user) throws IllegalArgumentException {
         user.setCreatedTimestamp(LocalDate.now());
+        if (user.getVerificationCode() != null) {
+            user.setVerificationExpiresAt(LocalDateTime.now().plus(VERIFICATION_TIME_TO_LIVE));
+        }
         userRepository.save(user);
-        taskScheduler.schedule(() -> {
-            User inDatabaseUser = userRepository.findByEmailContainingIgnoreCase(user.getEmail());
-            if (inDatabaseUser.getVerificationCode() != null) {
-                userRepository.delete(user);
-            }
-        }, Instant.now().plusMillis(TEN_MINUTES));
+        RequestCache.evict(USER_CACHE_KEY);
+    }
+
+    /**
+     * Deletes a chunk of the accounts that were not verified in time
+     * @param now the current time
+     * @param limit the most accounts to delete
+     * @return the number of accounts deleted
+     */
+    @Transactional
+    public int removeExpiredUnverifiedUsers(LocalDateTime now, int limit) {
+        List<User> expired = userRepository.findExpiredUnverified(now, PageRequest.of(0, limit));
+        if (!expired.isEmpty()) {
+            userRepository.deleteAll(expired);
+            RequestCache.evict(USER_CACHE_KEY);
+        }
+        return expired.size();
     }
 
     /**
@@ -137,6 +177,7 @@ public class UserService {
      */
     public void updateUserPassword(String email, String newPassword) throws IllegalArgumentException {
         userRepository.updatePasswordWithUserEmail(email, passwordEncoder.encode(newPassword));
+        RequestCache.evict(USER_CACHE_KEY);
     }
 
     /**
@@ -149,17 +190,17 @@ public class UserService {
      * @param firstPassword The first password input
      * @param secondPassword The second password input
      * @param locationInfo The user location input
-     * @throws IllegalArgumentException throws if any of the inputs are invalid.
+     * @throws FieldValidationException throws if any of the inputs are invalid.
      */
     public void validateUserWithPasswordAndEmailUnique(String firstName, String lastName, String email, String firstPassword,
                                                        String secondPassword, List<String> locationInfo, Long userId, boolean checkPassword)
-            throws IllegalArgumentException {
-        String errors = "";
+            throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
 
         try {
             validateUser(email, firstName, lastName, userId);
-        } catch (IllegalArgumentException e) {
-            errors = errors.concat(" " + e.getMessage());
+        } catch (FieldValidationException e) {
+            errors.addAll(e.getFieldErrors());
         }
 
         User checkerUser = new User(firstName, lastName, email, firstPassword, null, null);
@@ -167,76 +208,72 @@ public class UserService {
         if (checkPassword) {
             try {
                 validatePassword(firstPassword, secondPassword, checkerUser);
-            } catch (IllegalArgumentException e) {
-                errors = errors.concat(" " + e.getMessage());
+            } catch (FieldValidationException e) {
+                errors.addAll(e.getFieldErrors());
             }
         }
 
-        if (!locationService.locationErrors(locationInfo).isEmpty()) {
-            errors = errors.concat(" " + locationService.locationErrors(locationInfo));
+        String locationErrors = locationService.locationErrors(locationInfo);
+        if (!locationErrors.isEmpty()) {
+            errors.add(LOCATION_FIELD, locationErrors);
         }
 
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(errors);
-        }
+        errors.throwIfAny();
     }
 
     /**
      * Checks the user details to ensure that they meet the validation criteria.
+     * The first error found for a field is the one shown, so each field's checks run most important first.
      * @param email The user email to check
      * @param firstName The user first name to check
      * @param lastName The user last name to check
-     * @throws IllegalArgumentException throws if any of the inputs are invalid.
+     * @throws FieldValidationException throws if any of the inputs are invalid.
      */
-    public void validateUser(String email, String firstName, String lastName, Long userId) throws IllegalArgumentException {
-        List<String> errors = new ArrayList<>();
+    public void validateUser(String email, String firstName, String lastName, Long userId) throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
 
-        if (validationService.stringEmpty(firstName)) {
-            errors.add(FIRST_NAME_EMPTY);
+        if (!validationService.correctNameLength(firstName)) {
+            errors.add(FIRST_NAME_FIELD, FIRST_NAME_OVER_64_CHARS);
         }
         if (!validationService.checkName(firstName)) {
-            errors.add(FIRST_NAME_INVALID_CHARS);
+            errors.add(FIRST_NAME_FIELD, FIRST_NAME_INVALID_CHARS);
         }
-        if (!validationService.correctNameLength(firstName)) {
-            errors.add(FIRST_NAME_OVER_64_CHARS);
-        }
-        if (!validationService.checkName(lastName)) {
-            errors.add(LAST_NAME_INVALID_CHARS);
+        if (validationService.stringEmpty(firstName)) {
+            errors.add(FIRST_NAME_FIELD, FIRST_NAME_EMPTY);
         }
         if (!validationService.correctNameLength(lastName)) {
-            errors.add(LAST_NAME_OVER_64_CHARS);
+            errors.add(LAST_NAME_FIELD, LAST_NAME_OVER_64_CHARS);
         }
-        if (!validationService.checkEmailForm(email)) {
-            errors.add(EMAIL_INVALID);
+        if (!validationService.checkName(lastName)) {
+            errors.add(LAST_NAME_FIELD, LAST_NAME_INVALID_CHARS);
         }
         try {
             checkEmailNotUsed(userId, email);
         } catch (IllegalArgumentException e) {
-            errors.add(e.getMessage());
+            errors.add(EMAIL_FIELD, e.getMessage());
         }
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(" ", errors));
+        if (!validationService.checkEmailForm(email)) {
+            errors.add(EMAIL_FIELD, EMAIL_INVALID);
         }
+        errors.throwIfAny();
     }
 
     /**
      * Checks the user password inputs when a new user is being registered.
      * @param firstPassword The first password input
      * @param secondPassword The second password input
-     * @throws IllegalArgumentException Throws if the password inputs do not meet the validation checks.
+     * @throws FieldValidationException Throws if the password inputs do not meet the validation checks.
      */
-    public void validatePassword(String firstPassword, String secondPassword, User user) throws IllegalArgumentException {
-        List<String> errors = new ArrayList<>();
+    public void validatePassword(String firstPassword, String secondPassword, User user) throws FieldValidationException {
+        FieldErrors errors = new FieldErrors();
 
         if (!validationService.checkPassword(firstPassword, user)) {
-            errors.add(PASSWORD_INVALID);
+            errors.add(PASSWORD_FIELD, PASSWORD_INVALID);
         }
         if (!validationService.passwordMatch(firstPassword, secondPassword)) {
-            errors.add(PASSWORDS_DONT_MATCH);
-        }
-        if (!errors.isEmpty()) {
-            throw new IllegalArgumentException(String.join(" ", errors));
+            errors.add(SECOND_PASSWORD_FIELD, PASSWORDS_DONT_MATCH);
         }
+        errors.throwIfAny();
     }
 
 
@@ -268,52 +305,13 @@ public class UserService {
     }
 
     /**
-     * Goes through a string of all detected errors from a user details form
-     * and assigns an error message from the string to be displayed for each
-     * field of the form
-     * @param allErrorMessages String of all errors detected from a user details form
+     * Gets the error message to display for each field of a user details form
+     * @param errors the errors found when validating the form
      * @return List of error messages (one for each input field of the form) that will
      * be displayed on the form
      */
-    public List<String> getErrorMessages(String allErrorMessages) {
-        String firstNameErrorMessage = "";
-        if (allErrorMessages.contains(FIRST_NAME_EMPTY)) {
-            firstNameErrorMessage = FIRST_NAME_EMPTY;
-        }
-        if (allErrorMessages.contains(FIRST_NAME_INVALID_CHARS)) {
-            firstNameErrorMessage = FIRST_NAME_INVALID_CHARS;
-        }
-        if (allErrorMessages.contains(FIRST_NAME_OVER_64_CHARS)) {
-            firstNameErrorMessage = FIRST_NAME_OVER_64_CHARS;
-        }
-
-        String lastNameErrorMessage = "";
-        if (allErrorMessages.contains(LAST_NAME_INVALID_CHARS)) {
-            lastNameErrorMessage = LAST_NAME_INVALID_CHARS;
-        }
-        if (allErrorMessages.contains(LAST_NAME_OVER_64_CHARS)) {
-            lastNameErrorMessage = LAST_NAME_OVER_64_CHARS;
-        }
-
-        String emailErrorMessage = "";
-        if (allErrorMessages.contains(EMAIL_INVALID)) {
-            emailErrorMessage = EMAIL_INVALID;
-        }
-        if (allErrorMessages.contains(EMAIL_EXISTS)) {
-            emailErrorMessage = EMAIL_EXISTS;
-        }
-
-        String passwordErrorMessage = "";
-        if (allErrorMessages.contains(PASSWORD_INVALID)) {
-            passwordErrorMessage = PASSWORD_INVALID;
-        }
-
-        String secondPasswordErrorMessage = "";
-        if (allErrorMessages.contains(PASSWORDS_DONT_MATCH)) {
-            secondPasswordErrorMessage = PASSWORDS_DONT_MATCH;
-        }
-
-        return List.of(firstNameErrorMessage, lastNameErrorMessage, emailErrorMessage, passwordErrorMessage, secondPasswordErrorMessage);
+    public List<String> getErrorMessages(FieldErrors errors) {
+        return errors.get(FIRST_NAME_FIELD, LAST_NAME_FIELD, EMAIL_FIELD, PASSWORD_FIELD, SECOND_PASSWORD_FIELD);
     }
 
     /**
@@ -386,6 +384,7 @@ public class UserService {
     public void updateDetails(Long userId, String newEmail, String newFirstName, String newLastName,
                               String newProfileImage) throws IllegalArgumentException {
         userRepository.updateDetails(userId, newEmail, newFirstName, newLastName, newProfileImage);
+        RequestCache.evict(USER_CACHE_KEY);
     }
 
     /**
@@ -402,6 +401,7 @@ public class UserService {
         String country = locationInfo.get(4);
 
         userRepository.updateLocation(userId, streetAddress, suburb, city, postcode, country);
+        RequestCache.evict(USER_CACHE_KEY);
     }
 
     /**
@@ -449,6 +449,18 @@ public class UserService {
         return renovations;
     }
 
+    /**
+     * Gets the IDs of the user's recently viewed renovations without loading the renovations
+     * @param user the user whose recent renovations are being got
+     * @return the IDs of the recently viewed renovations, newest first
+     */
+    public List<Long> getRecentRenovationIds(User user) {
+        return user.getRecentRenovations().stream()
+                .sorted(Comparator.comparing(RecentRenovation::getTimestamp).reversed())
+                .map(recentRenovation -> recentRenovation.getRenovationRecord().getId())
+                .toList();
+    }
+
     /**
      * gets the jobs that a user has worked on as a tradie that have been completed
      * @param userId the users id
@@ -472,6 +484,7 @@ public class UserService {
      * @param user the user
      * @return a list of completed jobs worked on by the user that are also in the user's list of portfolio jobs
      */
+    @Transactional
     public List<Job> getPortfolioJobs(User user) {
         List<Job> completedJobs = getCompletedJobsUserHasWorkedOn(user.getId());
         List<Job> portfolioJobs = new ArrayList<>();
@@ -484,13 +497,64 @@ public class UserService {
         return portfolioJobs;
     }
 
+    /**
+     * Gets one page of the completed jobs that a user has worked on as a tradie
+     * @param userId the users id
+     * @param page number of the page, starting from 1
+     * @param pageSize number of jobs on each page
+     * @return the page of completed jobs, empty if the page number is out of range
+     */
+    public Page<Job> getCompletedJobsPage(Long userId, int page, int pageSize) {
+        return quoteRepository.findCompletedJobsWorkedOnBy(userId, PageRequest.of(Math.max(page, 1) - 1, pageSize));
+    }
+
+    /**
+     * Gets one page of the completed jobs that a user has worked on as a tradie and added to their portfolio
+     * @param userId the users id
+     * @param page number of the page, starting from 1
+     * @param pageSize number of jobs on each page
+     * @return the page of portfolio jobs, empty if the page number is out of range
+     */
+    public Page<Job> getPortfolioJobsPage(Long userId, int page, int pageSize) {
+        return quoteRepository.findPortfolioJobsOf(userId, PageRequest.of(Math.max(page, 1) - 1, pageSize));
+    }
+
+    /**
+     * Finds which of some jobs are in a user's portfolio
+     * @param userId the users id
+     * @param jobs the jobs to check
+     * @return the IDs of the jobs that are in the user's portfolio
+     */
+    public Set<Long> getPortfolioJobIds(Long userId, Collection<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(userRepository.findPortfolioJobIdsIn(userId, jobs.stream().map(Job::getId).toList()));
+    }
+
+    /**
+     * Gets where each of a tradie's portfolio jobs is, including the jobs whose renovation record has no coordinates
+     * @param userId tradie that has the portfolio jobs.
+     * @return the locations of the tradie's portfolio jobs, or null if there is no such user.
+     */
+    public List<JobLocation> getPortfolioJobLocations(long userId) {
+        User tradie = this.getUserWithPortfolioJobs(userId);
+        if (tradie == null) {
+            return null;
+        }
+        return tradie.getPortfolioJobs().stream()
+                .filter(job -> job.getRenovationRecord() != null)
+                .map(JobLocation::of)
+                .toList();
+    }
+
     /**
      * Gets a list of map marker dtos. These carry the coords and name and id.
      * @param userId tradie that has the portfolio jobs.
      * @return a list of map marker dtos.
      */
     public List<MapMarker> getPortfolioMapMarkers(long userId) {
-        User tradie = this.getUserById(userId);
+        User tradie = this.getUserWithPortfolioJobs(userId);
         return tradie.getPortfolioJobs().stream()
                 .filter(job -> { try {
                     float lat = job.getRenovationRecord().getLatitude();
@@ -506,11 +570,16 @@ public class UserService {
      * @return a list of the 5 tradies with the highest amount of accepted quotes
      */
     public List<User> getHottestTradies() {
-        List<User> tradies = userRepository.findAllQuoteSenders();
-        return tradies.stream()
-                .sorted(Comparator.comparingInt(User::getNumberOfAcceptedQuotes).reversed())
-                .limit(5)
-                .toList();
+        return userRepository.findTopQuoteSenders(PageRequest.of(0, HOTTEST_TRADIES_COUNT));
+    }
+
+    /**
+     * Updates the number of accepted quotes a tradie has sent, used to rank the hottest tradies
+     * @param userId the id of the tradie who sent the quote
+     * @param change 1 if one of their quotes was accepted, -1 if an accepted quote was rejected or removed
+     */
+    public void updateAcceptedQuoteCount(Long userId, int change) {
+        userRepository.updateAcceptedQuoteCount(userId, change);
     }
 
     /**
@@ -528,27 +597,54 @@ public class UserService {
      * @return the average efficiency ratio
      */
     public double getUsersWorkEfficiency(Long userId) {
-        List<Job> completedJobs = getCompletedJobsUserHasWorkedOn(userId).stream()
-                .filter(j -> j.getCompletedTimestamp() != null)
-                .toList();
-        if (completedJobs.isEmpty()) return 0.0;
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        double totalEfficiency = 0;
-        int count = 0;
-        for (Job job : completedJobs) {
-            LocalDate startDate = LocalDate.parse(job.getStartDate(), formatter);
-            LocalDate dueDate = LocalDate.parse(job.getDueDate(), formatter);
-            LocalDate completedDate = job.getCompletedTimestamp();
-            long plannedDays = ChronoUnit.DAYS.between(startDate, dueDate);
-            long actualDays = ChronoUnit.DAYS.between(startDate, completedDate);
-            if (actualDays <= 0) continue;
-            if (plannedDays <= 0) plannedDays = 1;
-
-            double efficiencyRatio = (double) actualDays / plannedDays;
-            totalEfficiency += efficiencyRatio;
-            count++;
-        }
-        if (count == 0) return 0.0;
-        return Math.round((totalEfficiency / count) * 100.0) / 100.0;
+        return averageEfficiency(getCompletedJobsUserHasWorkedOn(userId).stream()
+                .map(job -> efficiencyRatio(job.getStartLocalDate(), job.getDueLocalDate(), job.getCompletedTimestamp())));
+    }
+
+    /**
+     * Gets the completed job count, work efficiency and average rating of many tradies with a single query
+     * @param tradieIds IDs of the tradies
+     * @return the statistics of each tradie that was found, by tradie ID
+     */
+    public Map<Long, TradieStats> getTradieStats(Collection<Long> tradieIds) {
+        List<Long> ids = tradieIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, TradieStats> stats = new HashMap<>();
+        if (ids.isEmpty()) {
+            return stats;
+        }
+        Map<Long, List<TradieJobRow>> rowsByTradie = userRepository.findTradieJobRows(ids).stream()
+                .collect(Collectors.groupingBy(TradieJobRow::tradieId));
+        rowsByTradie.forEach((tradieId, rows) -> {
+            List<TradieJobRow> completedJobs = rows.stream().filter(row -> row.jobId() != null).toList();
+            double efficiency = averageEfficiency(completedJobs.stream()
+                    .map(row -> efficiencyRatio(row.startDate(), row.dueDate(), row.completedDate())));
+            TradieJobRow first = rows.getFirst();
+            stats.put(tradieId, new TradieStats(tradieId, completedJobs.size(), efficiency,
+                    User.averageRating(first.ratingCount(), first.ratingSum())));
+        });
+        return stats;
+    }
+
+    /**
+     * Calculates the ratio of the actual to planned time taken on a job
+     * @return the ratio, or null if the job has no completion date, start date or due date, or was completed on its start date
+     */
+    private static Double efficiencyRatio(LocalDate startDate, LocalDate dueDate, LocalDate completedDate) {
+        if (startDate == null || dueDate == null || completedDate == null) return null;
+        long plannedDays = ChronoUnit.DAYS.between(startDate, dueDate);
+        long actualDays = ChronoUnit.DAYS.between(startDate, completedDate);
+        if (actualDays <= 0) return null;
+        if (plannedDays <= 0) plannedDays = 1;
+        return (double) actualDays / plannedDays;
+    }
+
+    /**
+     * Averages efficiency ratios, ignoring missing ones
+     * @return the average rounded to two decimal places, or zero if there are no ratios
+     */
+    private static double averageEfficiency(Stream<Double> ratios) {
+        OptionalDouble average = ratios.filter(Objects::nonNull).mapToDouble(Double::doubleValue).average();
+        if (average.isEmpty()) return 0.0;
+        return Math.round(average.getAsDouble() * 100.0) / 100.0;
     }
 }
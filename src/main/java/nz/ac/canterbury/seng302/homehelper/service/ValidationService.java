@@ -8,21 +8,44 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.time.LocalDate;
 import java.util.Objects;
-import java.util.regex.Matcher;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+/**
+ * Checks the values entered into forms. The patterns and date format used by the checks are compiled once and
+ * shared, as they are immutable and safe to use from many threads at once.
+ */
 @Service
 public class ValidationService {
 
     private static final int MAX_TRADIE_RATING = 5;
     private static final int MIN_TRADIE_RATING = 1;
 
+    //ChatGPT used to find how to make regular expression
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N} .,'-]");
+    private static final Pattern EMAIL = Pattern.compile("^(?!.*\\.\\.)[\\p{L}\\p{N}\\p{M}་!#$%&'*+/=?^_`{|}~.-]+@[\\p{L}\\p{N}\\p{M}་-]+(?:\\.[\\p{L}\\p{N}\\p{M}་-]+)*\\.[a-zA-Z]{2,}$");
+    private static final Pattern STREET_ADDRESS = Pattern.compile("^[\\p{L}\\p{N}\\s.'-]*$");
+    private static final Pattern SUBURB = Pattern.compile("^[\\p{L}\\p{N}\\s'-]*$");
+    private static final Pattern CITY = Pattern.compile("^[\\p{L}\\s'-]*$");
+    private static final Pattern POSTCODE = Pattern.compile("^[\\p{L}\\p{N}]* ?[\\p{L}\\p{N}]*$");
+    private static final Pattern COUNTRY = Pattern.compile("^[\\p{L}-']* ?[\\p{L}-']*$");
+    private static final Pattern CONTAINS_LETTER = Pattern.compile("^.*\\p{L}.*$");
+    private static final Pattern EXPENSE_COST = Pattern.compile("^([0-9]*[.])?[0-9]+$");
+    private static final Pattern ZERO = Pattern.compile("^(0*[.])?0+$");
+    private static final Pattern DATE = Pattern.compile("[0-9]{2}/[0-9]{2}/[0-9]{4}");
+    private static final Pattern PHONE_NUMBER = Pattern.compile("^(\\+\\d{1,3}\\s?)?(\\(?\\d{2,4}\\)?[\\s.-]?)?\\d{3,4}[\\s.-]?\\d{3,4}$");
+    private static final Pattern POSITIVE_NUMBER = Pattern.compile("^[+]?((([1-9]\\d*)(\\.\\d+)?)|(0*\\.0*[1-9]\\d*))$");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/svg+xml");
+
 
     public ValidationService() {}
 
@@ -103,8 +126,7 @@ public class ValidationService {
      * @param name String of the name of a renovation record
      */
     public boolean containsNonAlphaNumeric(String name) {
-        Pattern p = Pattern.compile("[^\\p{L}\\p{N} .,'-]"); //ChatGPT used to find how to make regular expression
-        return p.matcher(name).find();
+        return NON_ALPHANUMERIC.matcher(name).find();
     }
 
     /**
@@ -200,10 +222,7 @@ public class ValidationService {
      * @return true if the email string is of the correct form, false otherwise.
      */
     public boolean checkEmailForm(String email) {
-        String emailRegex = "^(?!.*\\.\\.)[\\p{L}\\p{N}\\p{M}་!#$%&'*+/=?^_`{|}~.-]+@[\\p{L}\\p{N}\\p{M}་-]+(?:\\.[\\p{L}\\p{N}\\p{M}་-]+)*\\.[a-zA-Z]{2,}$";
-        Pattern pattern = Pattern.compile(emailRegex);
-        Matcher matcher = pattern.matcher(email);
-        return matcher.matches();
+        return EMAIL.matcher(email).matches();
     }
 
     /**
@@ -212,12 +231,8 @@ public class ValidationService {
      * @return true if image is valid type and false if not
      */
     public boolean checkImageType(MultipartFile file) {
-        List<String> validTypes = new ArrayList<>();
-        validTypes.add("image/jpeg");
-        validTypes.add("image/png");
-        validTypes.add("image/svg+xml");
         String fileType = file.getContentType();
-        return validTypes.contains(fileType);
+        return fileType != null && IMAGE_TYPES.contains(fileType);
     }
 
     /**
@@ -253,10 +268,7 @@ public class ValidationService {
      * @return true if the string contains only accepted characters, false otherwise.
      */
     public boolean checkStreetAddress(String streetAddress) {
-        String addressRegex = "^[\\p{L}\\p{N}\\s.'-]*$";
-        Pattern pattern = Pattern.compile(addressRegex);
-        Matcher matcher = pattern.matcher(streetAddress);
-        return matcher.matches();
+        return STREET_ADDRESS.matcher(streetAddress).matches();
     }
 
     /**
@@ -266,10 +278,7 @@ public class ValidationService {
      * @return true if the string contains only accepted characters, false otherwise.
      */
     public boolean checkSuburb(String suburb) {
-        String suburbRegex = "^[\\p{L}\\p{N}\\s'-]*$";
-        Pattern pattern = Pattern.compile(suburbRegex);
-        Matcher matcher = pattern.matcher(suburb);
-        return matcher.matches();
+        return SUBURB.matcher(suburb).matches();
     }
 
     /**
@@ -279,10 +288,7 @@ public class ValidationService {
      * @return true if the string contains only accepted characters, false otherwise.
      */
     public boolean checkCity(String city) {
-        String cityRegex = "^[\\p{L}\\s'-]*$";
-        Pattern pattern = Pattern.compile(cityRegex);
-        Matcher matcher = pattern.matcher(city);
-        return matcher.matches();
+        return CITY.matcher(city).matches();
     }
 
     /**
@@ -292,10 +298,7 @@ public class ValidationService {
      * @return true if the string contains only accepted characters, false otherwise.
      */
     public boolean checkPostCode(String postCode) {
-        String postCodeRegex = "^[\\p{L}\\p{N}]* ?[\\p{L}\\p{N}]*$";
-        Pattern pattern = Pattern.compile(postCodeRegex);
-        Matcher matcher = pattern.matcher(postCode);
-        return matcher.matches();
+        return POSTCODE.matcher(postCode).matches();
     }
 
     /**
@@ -305,10 +308,7 @@ public class ValidationService {
      * @return true if the string contains only accepted characters, false otherwise.
      */
     public boolean checkCountry(String country) {
-        String countryRegex = "^[\\p{L}-']* ?[\\p{L}-']*$";
-        Pattern pattern = Pattern.compile(countryRegex);
-        Matcher matcher = pattern.matcher(country);
-        return matcher.matches();
+        return COUNTRY.matcher(country).matches();
     }
 
     /**
@@ -386,10 +386,7 @@ public class ValidationService {
      * @return true if tag name contains at least one letter, false otherwise
      */
     public Boolean tagNameContainsLetters(String tagName) {
-        String tagRegex = "^.*\\p{L}.*$";
-        Pattern pattern = Pattern.compile(tagRegex);
-        Matcher matcher = pattern.matcher(tagName);
-        return matcher.matches();
+        return CONTAINS_LETTER.matcher(tagName).matches();
     }
 
     /**
@@ -446,13 +443,7 @@ public class ValidationService {
      * @return true if cost matches floating point number form, false otherwise
      */
     public Boolean correctExpenseCostFormat(String expenseCost) {
-        String costRegex = "^([0-9]*[.])?[0-9]+$";
-        Pattern costPattern = Pattern.compile(costRegex);
-        Matcher costMatcher = costPattern.matcher(expenseCost);
-        String zeroRegex = "^(0*[.])?0+$";
-        Pattern zeroPattern = Pattern.compile(zeroRegex);
-        Matcher zeroMatcher = zeroPattern.matcher(expenseCost);
-        return costMatcher.matches() && !zeroMatcher.matches();
+        return EXPENSE_COST.matcher(expenseCost).matches() && !ZERO.matcher(expenseCost).matches();
     }
 
     /**
@@ -470,7 +461,7 @@ public class ValidationService {
      * @return true if date string matches format, false otherwise
      */
     public Boolean correctDateFormat(String date) {
-        return Pattern.matches("[0-9]{2}/[0-9]{2}/[0-9]{4}", date);
+        return DATE.matcher(date).matches();
     }
 
     /**
@@ -480,12 +471,7 @@ public class ValidationService {
      * @throws ParseException thrown if date is not a valid date
      */
     public Boolean dateInThePast(String dateString) throws ParseException {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        dateFormat.setLenient(false);
-        Date date = dateFormat.parse(dateString);
-        String todayDateString = dateFormat.format(new Date());
-        Date todayDate = dateFormat.parse(todayDateString);
-        return date.before(todayDate);
+        return parseDate(dateString).isBefore(LocalDate.now());
     }
 
     /**
@@ -495,12 +481,7 @@ public class ValidationService {
      * @throws ParseException thrown if date is not a valid date
      */
     public Boolean dateInTheFuture(String dateString) throws ParseException {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        dateFormat.setLenient(false);
-        Date date = dateFormat.parse(dateString);
-        String todayDateString = dateFormat.format(new Date());
-        Date todayDate = dateFormat.parse(todayDateString);
-        return date.after(todayDate);
+        return parseDate(dateString).isAfter(LocalDate.now());
     }
 
     /**
@@ -511,11 +492,21 @@ public class ValidationService {
      * @throws ParseException thrown if date is not a valid date
      */
     public Boolean dateAfterAnotherDate(String dateString1, String dateString2) throws ParseException {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
-        dateFormat.setLenient(false);
-        Date date1 = dateFormat.parse(dateString1);
-        Date date2 = dateFormat.parse(dateString2);
-        return date1.after(date2);
+        return parseDate(dateString1).isAfter(parseDate(dateString2));
+    }
+
+    /**
+     * Parses a date in the dd/MM/yyyy form, rejecting dates that do not exist like 31/02/2025
+     * @param dateString date string being parsed
+     * @return the date
+     * @throws ParseException thrown if date is not a valid date
+     */
+    private LocalDate parseDate(String dateString) throws ParseException {
+        try {
+            return LocalDate.parse(dateString, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new ParseException(e.getMessage(), e.getErrorIndex());
+        }
     }
 
     /**
@@ -524,10 +515,7 @@ public class ValidationService {
      * @return a boolean that is true if the phone number is valid
      */
     public Boolean checkValidPhoneNumber(String phoneNumber) {
-        String phoneRegex = "^(\\+\\d{1,3}\\s?)?(\\(?\\d{2,4}\\)?[\\s.-]?)?\\d{3,4}[\\s.-]?\\d{3,4}$";
-        Pattern phonePattern = Pattern.compile(phoneRegex);
-        Matcher phoneMatcher = phonePattern.matcher(phoneNumber);
-        return phoneMatcher.matches();
+        return PHONE_NUMBER.matcher(phoneNumber).matches();
     }
 
     /**
@@ -536,10 +524,7 @@ public class ValidationService {
      * @return a boolean that is true if the number is positive
      */
     public Boolean checkPositiveNumber(String number) {
-        String numberRegex = "^[+]?((([1-9]\\d*)(\\.\\d+)?)|(0*\\.0*[1-9]\\d*))$";
-        Pattern numberPattern = Pattern.compile(numberRegex);
-        Matcher numberMatcher = numberPattern.matcher(number);
-        return numberMatcher.matches();
+        return POSITIVE_NUMBER.matcher(number).matches();
     }
 
     /**
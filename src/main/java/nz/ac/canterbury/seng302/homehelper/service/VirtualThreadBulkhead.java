@@ -0,0 +1,68 @@
+package nz.ac.canterbury.seng302.homehelper.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs each task on its own virtual thread, with a limit on how many tasks can run at once. Suited to short tasks
+ * that spend most of their time waiting on the database. Tasks submitted once the limit is reached are rejected
+ * with a {@link RejectedExecutionException} so the caller can run them itself rather than wait, and the time each
+ * task runs for is recorded.
+ */
+public class VirtualThreadBulkhead implements Executor, Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentTasks;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final TaskTimings timings = new TaskTimings();
+
+    /**
+     * Constructor for a bulkhead
+     * @param name name of the bulkhead, used to name its threads
+     * @param maxConcurrentTasks most tasks that can run at once
+     */
+    public VirtualThreadBulkhead(String name, int maxConcurrentTasks) {
+        this.name = name;
+        this.maxConcurrentTasks = maxConcurrentTasks;
+        this.permits = new Semaphore(maxConcurrentTasks);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            timings.recordRejected();
+            throw new RejectedExecutionException("The " + name + " bulkhead is running " + maxConcurrentTasks + " tasks");
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    timings.recordCompleted(startedAt - queuedAt, System.nanoTime() - startedAt);
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            timings.recordRejected();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting tasks. Tasks already running are left to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public BulkheadMetrics getMetrics() {
+        return timings.snapshot(name, maxConcurrentTasks, maxConcurrentTasks - permits.availablePermits(), 0);
+    }
+}
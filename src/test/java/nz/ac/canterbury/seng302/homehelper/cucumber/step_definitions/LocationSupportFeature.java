@@ -19,7 +19,6 @@ import org.junit.jupiter.api.Assertions;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -45,7 +44,6 @@ public class LocationSupportFeature {
     private static UserService userService;
     private static ValidationService validationService;
     private static EmailService emailService;
-    private static TaskScheduler taskScheduler;
     private static RenovationRecordService renovationRecordService;
     private static ImageService imageService;
     private static Principal principal;
@@ -68,11 +66,9 @@ public class LocationSupportFeature {
         model = Mockito.mock(Model.class);
         userRepository = Mockito.mock(UserRepository.class);
         validationService = new ValidationService();
-        taskScheduler = Mockito.mock(TaskScheduler.class);
         locationService = new LocationService(validationService);
-        userService = new UserService(userRepository, validationService, taskScheduler, locationService, renovationRecordService, renovationRecordRepository,recentRenovationRepository, quoteRepository );
+        userService = new UserService(userRepository, validationService, locationService, renovationRecordService, renovationRecordRepository,recentRenovationRepository, quoteRepository );
         emailService = Mockito.mock(EmailService.class);
-        taskScheduler = Mockito.mock(TaskScheduler.class);
         renovationRecordService = Mockito.mock(RenovationRecordService.class);
         imageService = Mockito.mock(ImageService.class);
         principal = Mockito.mock(Principal.class);
@@ -86,7 +82,7 @@ public class LocationSupportFeature {
     @Given("I register to the system on the registration page")
     public void i_register_to_the_system_on_the_registration_page() {
         RegistrationFormController registrationFormController = new RegistrationFormController(userService, emailService,
-                taskScheduler, locationService, passwordEncoder, authenticationManager, locationQueryService);
+                locationService, passwordEncoder, authenticationManager, locationQueryService);
         model = Mockito.mock(Model.class);
         viewName = registrationFormController.registration(model, request, Mockito.mock(HttpSession.class));
         mockMvc = MockMvcBuilders.standaloneSetup(registrationFormController).build();
@@ -220,7 +216,7 @@ public class LocationSupportFeature {
         SecurityContextHolder.setContext(securityContext);
 
         RegistrationFormController registrationFormController = new RegistrationFormController(userService, emailService,
-                taskScheduler, locationService, passwordEncoder, authenticationManager, locationQueryService);
+                locationService, passwordEncoder, authenticationManager, locationQueryService);
         viewName = registrationFormController.registration(model, request, Mockito.mock(HttpSession.class));
         mockMvc = MockMvcBuilders.standaloneSetup(registrationFormController).build();
         mockMvc.perform(post("/registration-form")
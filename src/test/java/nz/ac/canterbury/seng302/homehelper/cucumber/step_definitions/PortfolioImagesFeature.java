@@ -30,6 +30,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.Principal;
 import java.util.List;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
@@ -142,12 +144,16 @@ public class PortfolioImagesFeature {
     }
 
     @Then("the image is added to the portfolio job")
-    public void the_image_is_added_to_the_portfolio_job() {
-        String uniqueFileName = "job" + postedJob.getId().toString() + file.getOriginalFilename();
+    public void the_image_is_added_to_the_portfolio_job() throws Exception {
+        String uniqueFileName = contentHash(file) + ".png";
         Path uploadPath = Paths.get("uploads/images/");
         Path filePath = uploadPath.resolve(uniqueFileName);
         assertTrue(Files.exists(filePath));
         postedJob = jobService.getJobById(postedJob.getId());
         assertTrue(postedJob.getImageFilenames().contains(uniqueFileName));
     }
+
+    private static String contentHash(MockMultipartFile file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
@@ -18,6 +18,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -69,9 +71,9 @@ public class RenovationRoomImagesFeature {
     }
 
     @Then("the image for my room is updated")
-    public void the_image_for_my_room_is_updated() {
+    public void the_image_for_my_room_is_updated() throws Exception {
         renovationRecord = renovationRecordService.getRecordById(renovationRecord.getId());
-        assertEquals("room"+room.getId()+file.getOriginalFilename(), renovationRecord.getRooms().getFirst().getImageFilename());
+        assertTrue(renovationRecord.getRooms().getFirst().getImageFilename().startsWith(contentHash(file) + "."));
         ModelAndView mav = mvcResult.getModelAndView();
         assertNull(mav.getModel().get("fileErrorMessage"));
     }
@@ -89,4 +91,8 @@ public class RenovationRoomImagesFeature {
         String errorMessage = (String) mvcResult.getFlashMap().get("fileErrorMessage");
         assertEquals(correctErrorMessage, errorMessage);
     }
+
+    private static String contentHash(MockMultipartFile file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
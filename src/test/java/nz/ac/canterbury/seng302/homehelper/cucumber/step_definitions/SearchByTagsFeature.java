@@ -10,6 +10,8 @@ import nz.ac.canterbury.seng302.homehelper.service.*;
 import nz.ac.canterbury.seng302.homehelper.entity.Tag;
 import org.junit.jupiter.api.Assertions;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -38,8 +40,10 @@ public class SearchByTagsFeature {
     public static void beforeAll() {
         principal = Mockito.mock(Principal.class);
         validationService = new ValidationService();
-        moderationService = new ModerationService();
+        moderationService = new ModerationService(ModerationService.PERSPECTIVE_URL, "", Runnable::run, Mockito.mock(TaskScheduler.class));
         renovationRecordService = Mockito.mock(RenovationRecordService.class);
+        Mockito.when(renovationRecordService.getMatchingRenovationRecordCards(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(Page.empty());
         userService = Mockito.mock(UserService.class);
         tagRepository = Mockito.mock(TagRepository.class);
         tagService = new TagService(tagRepository, validationService, moderationService);
@@ -185,17 +185,17 @@ public class SearchPageFeature {
 
     @Given("there are more than ten pages")
     public void there_are_more_than_ten_pages() throws Exception {
-        Assertions.assertTrue(renovationRecordService.getNumPages(records) >= 10);
+        Assertions.assertTrue(renovationRecordService.getNumPages(records.size()) >= 10);
 
         mockMvc.perform(get("/search")
                         .principal(() -> "john@example.com"))
-                .andExpect(model().attribute("pages", renovationRecordService.getPageList(1, records)))
-                .andExpect(model().attribute("lastPage", renovationRecordService.getNumPages(records)));
+                .andExpect(model().attribute("pages", renovationRecordService.getPageList(1, records.size())))
+                .andExpect(model().attribute("lastPage", renovationRecordService.getNumPages(records.size())));
     }
 
     @When("I input page number {int} that is within the range of available pages")
     public void i_input_page_number_that_is_within_the_range_of_available_pages(Integer pageNumber) {
-        Assertions.assertTrue(0 < pageNumber && pageNumber <= renovationRecordService.getNumPages(records));
+        Assertions.assertTrue(0 < pageNumber && pageNumber <= renovationRecordService.getNumPages(records.size()));
     }
 
     @When("I confirm that I want to go to page {int}")
@@ -6,11 +6,13 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import nz.ac.canterbury.seng302.homehelper.controller.renovations.SearchPageController;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
 import nz.ac.canterbury.seng302.homehelper.repository.*;
 import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -22,6 +24,8 @@ import java.util.List;
 
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,6 +50,14 @@ public class SearchingRenovationRecordsFeature {
         return renovationRecords;
     }
 
+    public Page<RenovationCardInfo> makeRenovationCardPage(int value) {
+        List<RenovationCardInfo> cards = new ArrayList<>();
+        for (long i = 0; i < value; i++) {
+            cards.add(new RenovationCardInfo("example" + i, "text", null, "John Doe", i, null));
+        }
+        return new PageImpl<>(cards);
+    }
+
     @BeforeAll
     public static void beforeAll() {
         recentRenovationRepository = Mockito.mock(RecentRenovationRepository.class);
@@ -53,9 +65,8 @@ public class SearchingRenovationRecordsFeature {
         renovationRecordService = Mockito.mock(RenovationRecordService.class);
         UserRepository userRepository = Mockito.mock(UserRepository.class);
         ValidationService validationService = new ValidationService();
-        TaskScheduler taskScheduler = Mockito.mock(TaskScheduler.class);
         LocationService locationService = new LocationService(validationService);
-        UserService userService = new UserService(userRepository, validationService, taskScheduler, locationService, renovationRecordService, renovationRecordRepository, recentRenovationRepository, quoteRepository);
+        UserService userService = new UserService(userRepository, validationService, locationService, renovationRecordService, renovationRecordRepository, recentRenovationRepository, quoteRepository);
         TagService tagService = Mockito.mock(TagService.class);
         SearchPageController searchPageController = new SearchPageController(renovationRecordService, userService, tagService);
 
@@ -66,7 +77,9 @@ public class SearchingRenovationRecordsFeature {
     @Given("I am on the search renovations page")
     public void i_am_on_the_search_renovations_page() throws Exception {
         Mockito.when(renovationRecordService.getRenovationRecords()).thenReturn(makeRenovationRecordList(14));
-        Mockito.when(renovationRecordService.getPageList(any(), any(List.class))).thenReturn(List.of(1, 2, 3));
+        Mockito.when(renovationRecordService.getMatchingRenovationRecordCards(any(), any(), any(), anyInt()))
+                .thenReturn(makeRenovationCardPage(12));
+        Mockito.when(renovationRecordService.getPageList(any(), anyLong())).thenReturn(List.of(1, 2, 3));
 
         mockMvc.perform(get("/search")
                         .principal(principal))
@@ -76,7 +89,7 @@ public class SearchingRenovationRecordsFeature {
 
     @When("I enter a search string {string} and search for it")
     public void i_enter_a_search_string_and_search_for_it(String searchString) throws Exception {
-        Mockito.when(renovationRecordService.getPageList(any(), any(List.class))).thenReturn(List.of(1, 2, 3));
+        Mockito.when(renovationRecordService.getPageList(any(), anyLong())).thenReturn(List.of(1, 2, 3));
 
         mockMvc.perform(post("/search")
                         .param("searchString", searchString)
@@ -89,8 +102,8 @@ public class SearchingRenovationRecordsFeature {
 
     @Then("I am only shown my renovation records whose name or description include my search value")
     public void i_am_only_shown_my_renovation_records_whose_name_or_description_include_my_search_value() throws Exception {
-        List<RenovationRecord> renovationRecords = makeRenovationRecordList(28);
-        Mockito.when(renovationRecordService.getRenovationRecordPages(any(), any(List.class))).thenReturn(renovationRecords.subList(4,5));
+        Mockito.when(renovationRecordService.getMatchingRenovationRecordCards(any(), any(), any(), anyInt()))
+                .thenReturn(makeRenovationCardPage(1));
 
         mockMvc.perform(get("/search")
                 .param("searchString", "3")
@@ -101,9 +114,9 @@ public class SearchingRenovationRecordsFeature {
 
     @Then("I see pagination buttons and the results are split into pages")
     public void i_see_pagination_buttons_and_the_results_are_split_into_pages() throws Exception {
-        List<RenovationRecord> renovationRecords = makeRenovationRecordList(14);
         List<Integer> paginationNumbers = Arrays.asList(1, 2, 3);
-        Mockito.when(renovationRecordService.getRenovationRecordPages(any(), any(List.class))).thenReturn(renovationRecords);
+        Mockito.when(renovationRecordService.getMatchingRenovationRecordCards(any(), any(), any(), anyInt()))
+                .thenReturn(makeRenovationCardPage(12));
 
         mockMvc.perform(get("/search")
                 .param("searchString", "e")
@@ -114,10 +127,10 @@ public class SearchingRenovationRecordsFeature {
 
     @Then("I see pagination buttons set up for more than ten pages")
     public void i_see_pagination_buttons_set_up_for_more_than_pages() throws Exception {
-        List<RenovationRecord> renovationRecords = makeRenovationRecordList(70);
         List<Integer> paginationNumbers = Arrays.asList(1, 2, 3, 4, 5);
-        Mockito.when(renovationRecordService.getMatchingRenovationRecords("e", principal.getName(), Collections.emptyList())).thenReturn(renovationRecords);
-        Mockito.when(renovationRecordService.getPageList(any(), any(List.class))).thenReturn(paginationNumbers);
+        Mockito.when(renovationRecordService.getMatchingRenovationRecordCards("e", principal.getName(), Collections.emptyList(), 3))
+                .thenReturn(makeRenovationCardPage(12));
+        Mockito.when(renovationRecordService.getPageList(any(), anyLong())).thenReturn(paginationNumbers);
 
         mockMvc.perform(get("/search")
                 .param("searchString", "e")
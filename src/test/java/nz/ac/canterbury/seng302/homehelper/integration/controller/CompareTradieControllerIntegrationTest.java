@@ -91,7 +91,7 @@ public class CompareTradieControllerIntegrationTest {
         quotes.add(quote3);
         testJob.setQuotes(quotes);
 
-        when(jobRepository.findById(testJob.getId())).thenReturn(Optional.ofNullable(testJob));
+        when(jobRepository.findJobWithQuotesById(testJob.getId())).thenReturn(Optional.ofNullable(testJob));
         when(userRepository.findByEmailContainingIgnoreCase(testUser.getEmail())).thenReturn(testUser);
     }
 
@@ -3,10 +3,13 @@ package nz.ac.canterbury.seng302.homehelper.integration.controller;
 import nz.ac.canterbury.seng302.homehelper.controller.HomePageController;
 import nz.ac.canterbury.seng302.homehelper.entity.*;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
 import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.HomePageWidgets;
+import nz.ac.canterbury.seng302.homehelper.service.JobRecommendationService;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
@@ -23,13 +26,16 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.security.Principal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -47,6 +53,10 @@ public class HomePageControllerIntegrationTest {
     private UserService userService;
     @Autowired
     private JobService jobService;
+    @Autowired
+    private HomePageWidgets homePageWidgets;
+    @Autowired
+    private JobRecommendationService jobRecommendationService;
     @MockBean
     private JobRepository jobRepository;
     @MockBean
@@ -73,6 +83,8 @@ public class HomePageControllerIntegrationTest {
     @BeforeEach
     public void setup() {
         mockMvc = MockMvcBuilders.standaloneSetup(homePageController).build();
+        // The repositories are mocked, so changes to the test data do not clear the cached widgets
+        homePageWidgets.clearCaches();
         user = new User("Jane", "Doe", "jane@doe.nz", "P4$$word", null, null);
         when(principal.getName()).thenReturn("jane@doe.nz");
         when(userRepository.findByEmailContainingIgnoreCase("jane@doe.nz")).thenReturn(user);
@@ -80,6 +92,7 @@ public class HomePageControllerIntegrationTest {
         userRecord = new RenovationRecord("Record", "Record", List.of(), "jane@doe.nz");
         userRecord.setUserEmail("jane@doe.nz");
         when(renovationRecordRepository.findRenovationRecordsByEmail(anyString())).thenReturn(List.of(userRecord));
+        when(renovationRecordRepository.findRenovationRecordsWithJobsByEmail(anyString())).thenReturn(List.of(userRecord));
 
         anotherUser = new User("John", "Doe", "john@doe.nz", "P4$$word", null, null);
         when(userRepository.findByEmailContainingIgnoreCase("john@doe.nz")).thenReturn(anotherUser);
@@ -107,12 +120,37 @@ public class HomePageControllerIntegrationTest {
         postedJobs = List.of(job1, job2, job3, job4);
         userRecord.setJobs(List.of(job1, job2));
         when(jobRepository.findPostedJobs()).thenReturn(postedJobs);
+        when(jobRepository.findJobCards(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> jobIds = invocation.getArgument(0);
+            return Stream.of(job1, job2, job3, job4).filter(job -> jobIds.contains(job.getId())).map(this::jobCard).toList();
+        });
+        loadRecommendationCandidates();
+    }
+
+    /**
+     * Loads the posted jobs into the recommendation pools, as the job repository is mocked and so the pools are
+     * not built from it on startup
+     */
+    private void loadRecommendationCandidates() {
+        jobRecommendationService.startRebuild();
+        jobRecommendationService.finishRebuild(postedJobs.stream().map(RecommendationCandidate::of).toList());
+    }
+
+    /**
+     * Builds the card the job card query would return for a job
+     */
+    private JobCardInfo jobCard(Job job) {
+        RenovationRecord record = job.getRenovationRecord();
+        User owner = record.getUserEmail().equals(user.getEmail()) ? user : anotherUser;
+        return new JobCardInfo(job.getId(), job.getName(), job.getStartDate(), job.getDueDate(), job.getType(),
+                job.getStatus(), job.getIcon(), record.getStreetAddress(), record.getSuburb(), record.getCity(),
+                owner.getFirstName(), owner.getLastName(), null, null);
     }
 
     @Test
     public void getLoggedInHomePage_UserHasNoLocation_PostedJobsUserDoesNotOwnReturned() throws Exception {
         List<Job> expectedJobs = List.of(job4, job3);
-        List<JobCardInfo> expectedJobCards = jobService.getJobCardsPosted(userService, expectedJobs);
+        List<JobCardInfo> expectedJobCards = jobService.getJobCardsPosted(expectedJobs);
 
         MvcResult mvcResult = mockMvc.perform(get("/home")
                     .param("name", "Jane")
@@ -137,9 +175,10 @@ public class HomePageControllerIntegrationTest {
         job2.setRenovationRecord(anotherUserRecord2);
         job3.setRenovationRecord(anotherUserRecord1);
         job4.setRenovationRecord(anotherUserRecord2);
+        loadRecommendationCandidates();
 
         List<Job> expectedJobs = List.of(job3, job1, job2, job4);
-        List<JobCardInfo> expectedJobCards = jobService.getJobCardsPosted(userService, expectedJobs);
+        List<JobCardInfo> expectedJobCards = jobService.getJobCardsPosted(expectedJobs);
 
         MvcResult mvcResult = mockMvc.perform(get("/home")
                         .param("name", "Jane")
@@ -150,8 +189,8 @@ public class HomePageControllerIntegrationTest {
         List<JobCardInfo> jobCards = (List<JobCardInfo>) mvcResult.getModelAndView().getModel().get("recommendedJobs");
         Assertions.assertNotNull(jobCards);
         assertTrue(jobCards.containsAll(expectedJobCards));
-        JobCardInfo job1Card = jobService.getJobCardsPosted(userService, List.of(job1)).getFirst();
-        JobCardInfo job3Card = jobService.getJobCardsPosted(userService, List.of(job3)).getFirst();
+        JobCardInfo job1Card = jobService.getJobCardsPosted(List.of(job1)).getFirst();
+        JobCardInfo job3Card = jobService.getJobCardsPosted(List.of(job3)).getFirst();
         assertTrue(jobCards.getFirst().equals(job3Card) || jobCards.getFirst().equals(job1Card));
         assertTrue(jobCards.get(1).equals(job1Card) || jobCards.get(1).equals(job3Card));
     }
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -116,6 +117,8 @@ public class JobDetailsControllerIntegrationTest {
         when(renovationRecordRepository.findRenovationRecordsByEmail(Mockito.anyString())).thenReturn(List.of(renovationRecord));
         when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
         when(quoteService.checkIfAlreadyQuoted(any(), any())).thenReturn(false);
+        when(quoteService.getQuotesPageByJobId(any(), anyInt(), anyInt())).thenReturn(Page.empty());
+        when(expenseRepository.findPageByJobId(any(), any())).thenReturn(Page.empty());
         Mockito.doNothing().when(quoteService).setQuoteAsRated(any(), any());
     }
 
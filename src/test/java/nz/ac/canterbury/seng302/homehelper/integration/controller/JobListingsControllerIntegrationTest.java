@@ -5,6 +5,7 @@ import nz.ac.canterbury.seng302.homehelper.controller.job.JobListingController;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
 import nz.ac.canterbury.seng302.homehelper.repository.*;
 import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,9 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,8 +33,10 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -51,6 +57,8 @@ public class JobListingsControllerIntegrationTest {
     private RoomRepository roomRepository;
     @Autowired
     private LocationService locationService;
+    @Autowired
+    private JobLocationIndex jobLocationIndex;
     @MockBean
     private UserRepository userRepository;
     @MockBean
@@ -90,11 +98,23 @@ public class JobListingsControllerIntegrationTest {
         principal = new UsernamePasswordAuthenticationToken(testUser.getEmail(), null, testUser.getAuthorities());
 
         when(renovationRecordRepository.findAll()).thenReturn(List.of(testRenovationRecord));
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
         when(jobRepository.findById(testJob.getId())).thenReturn(Optional.of(testJob));
         when(userRepository.findByEmailContainingIgnoreCase(testUser.getEmail())).thenReturn(testUser);
     }
 
+    /**
+     * Answers filtered job queries with the requested page of the test jobs
+     */
+    private void mockPostedJobs() {
+        when(jobRepository.findAll(any(Specification.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            int fromIndex = (int) Math.min(pageable.getOffset(), jobs.size());
+            int toIndex = Math.min(fromIndex + pageable.getPageSize(), jobs.size());
+            return new PageImpl<>(jobs.subList(fromIndex, toIndex), pageable, jobs.size());
+        });
+    }
+
     @Test
     void getJobListing_RepoHasJobs_JobsAreDisplayed() throws Exception {
         mockMvc.perform(get("/job-listings").param("job-page", "1")
@@ -105,7 +125,7 @@ public class JobListingsControllerIntegrationTest {
 
     @Test
     void userInputtedPage_ValidInput() throws Exception {
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
         mockMvc.perform(post("/job-listings").param("job-page", "1")
                         .param("pageNumber", "4")
                         .principal(principal))
@@ -143,7 +163,7 @@ public class JobListingsControllerIntegrationTest {
 
     @Test
     void userInputtedPage_LastPage() throws Exception {
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
         String last = String.valueOf(pageNumbers);
         mockMvc.perform(post("/job-listings").param("job-page", "1")
                         .param("pageNumber", last)
@@ -154,7 +174,7 @@ public class JobListingsControllerIntegrationTest {
 
     @Test
     void userInputtedPage_FirstPage() throws Exception {
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
         mockMvc.perform(post("/job-listings").param("job-page", "5")
                         .param("pageNumber", "1")
                         .principal(principal))
@@ -164,7 +184,7 @@ public class JobListingsControllerIntegrationTest {
 
     @Test
     void getJobListingPage_nullTypeGiven() throws Exception {
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
 
         mockMvc.perform(get("/job-listings").param("job-page", "1")
                         .param("pageNumber", "1")
@@ -175,7 +195,7 @@ public class JobListingsControllerIntegrationTest {
 
     @Test
     void getJobListingPage_TypeGiven() throws Exception {
-        when(jobRepository.findPostedJobs()).thenReturn(jobs);
+        mockPostedJobs();
 
         mockMvc.perform(get("/job-listings").param("job-page", "1")
                         .param("pageNumber", "1")
@@ -208,7 +228,7 @@ public class JobListingsControllerIntegrationTest {
         RenovationRecordRepository renovationRecordRepository = mock(RenovationRecordRepository.class);
         when(renovationRecordRepository.findCitySuburbs()).thenReturn(mockTuples);
 
-        RenovationRecordService renovationRecordService = new RenovationRecordService(renovationRecordRepository, roomRepository, locationService, recentRenovationRepository);
+        RenovationRecordService renovationRecordService = new RenovationRecordService(renovationRecordRepository, roomRepository, locationService, recentRenovationRepository, new RenovationSearchIndex(), mock(ImageStore.class), userRepository);
 
         Map<String, List<String>> expectedMap = new HashMap<>();
         expectedMap.put("Christchurch", List.of("Avonhead", "Sumner"));
@@ -333,4 +353,133 @@ public class JobListingsControllerIntegrationTest {
                 .andExpect(model().attribute("jobDueDate", "31/12/2025"))
                 .andExpect(model().attribute("jobStartDateErrorMessage", JobService.JOB_START_DATE_AFTER_DUE));
     }
+
+    @Test
+    public void getNearbyJobs_UserLocated_JobsNearUserReturnedNearestFirst() throws Exception {
+        testUser.setLatitude(-43.53f);
+        testUser.setLongitude(172.63f);
+        jobLocationIndex.addJob(new JobLocation(9001L, 9001L, "Far job", -43.60f, 172.70f));
+        jobLocationIndex.addJob(new JobLocation(9002L, 9002L, "Near job", -43.531f, 172.631f));
+        jobLocationIndex.addJob(new JobLocation(9003L, 9003L, "Auckland job", -36.85f, 174.76f));
+        try {
+            mockMvc.perform(get("/job-listings/nearby")
+                            .param("radius", "20")
+                            .principal(principal))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].jobId").value(9002))
+                    .andExpect(jsonPath("$[0].name").value("Near job"))
+                    .andExpect(jsonPath("$[1].jobId").value(9001));
+        } finally {
+            List.of(9001L, 9002L, 9003L).forEach(jobLocationIndex::removeJob);
+        }
+    }
+
+    @Test
+    public void getNearbyJobs_UserNotLocatedAndNoPointGiven_BadRequest() throws Exception {
+        mockMvc.perform(get("/job-listings/nearby")
+                        .principal(principal))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(JobListingController.NO_LOCATION));
+    }
+
+    @Test
+    public void getNearbyJobs_RadiusTooLarge_BadRequest() throws Exception {
+        mockMvc.perform(get("/job-listings/nearby")
+                        .param("lat", "-43.53")
+                        .param("lng", "172.63")
+                        .param("radius", "100000")
+                        .principal(principal))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(JobService.RADIUS_INVALID));
+    }
+
+    @Test
+    public void getJobMarkersInArea_JobsInArea_MarkersReturned() throws Exception {
+        jobLocationIndex.addJob(new JobLocation(9004L, 9004L, "Christchurch job", -43.53f, 172.63f));
+        try {
+            mockMvc.perform(get("/job-listings/map")
+                            .param("south", "-43.6")
+                            .param("west", "172.6")
+                            .param("north", "-43.5")
+                            .param("east", "172.7")
+                            .principal(principal))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].jobId").value(9004))
+                    .andExpect(jsonPath("$[0].pos.lat").value(closeTo(-43.53, 0.001), Double.class));
+        } finally {
+            jobLocationIndex.removeJob(9004L);
+        }
+    }
+
+    @Test
+    public void getJobMarkersInArea_SouthEdgeNorthOfNorthEdge_BadRequest() throws Exception {
+        mockMvc.perform(get("/job-listings/map")
+                        .param("south", "-43.5")
+                        .param("west", "172.6")
+                        .param("north", "-43.6")
+                        .param("east", "172.7")
+                        .principal(principal))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getJobClustersInArea_ETagUnchanged_NotModifiedReturned() throws Exception {
+        String eTag = mockMvc.perform(get("/job-listings/map/clusters")
+                        .param("south", "-44")
+                        .param("west", "172")
+                        .param("north", "-43")
+                        .param("east", "173")
+                        .param("zoom", "10")
+                        .principal(principal))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/job-listings/map/clusters")
+                        .param("south", "-44")
+                        .param("west", "172")
+                        .param("north", "-43")
+                        .param("east", "173")
+                        .param("zoom", "10")
+                        .header("If-None-Match", eTag)
+                        .principal(principal))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getJobClustersInArea_SouthEdgeNorthOfNorthEdge_BadRequest() throws Exception {
+        mockMvc.perform(get("/job-listings/map/clusters")
+                        .param("south", "-43")
+                        .param("west", "172")
+                        .param("north", "-44")
+                        .param("east", "173")
+                        .param("zoom", "10")
+                        .principal(principal))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getJobListingPage_RadiusGivenAndUserLocated_JobsWithinRadiusListed() throws Exception {
+        testUser.setLatitude(-43.53f);
+        testUser.setLongitude(172.63f);
+        Job nearJob = jobs.get(0);
+        nearJob.setId(9005L);
+        jobLocationIndex.addJob(new JobLocation(9005L, 9005L, nearJob.getName(), -43.531f, 172.631f));
+        when(jobRepository.findJobIds(any(Specification.class))).thenReturn(List.of(9005L));
+        when(jobRepository.findAllById(List.of(9005L))).thenReturn(List.of(nearJob));
+        try {
+            mockMvc.perform(get("/job-listings")
+                            .param("job-page", "1")
+                            .param("radius-filter", "10")
+                            .principal(principal))
+                    .andExpect(view().name("jobListingTemplate"))
+                    .andExpect(model().attribute("radiusFilter", 10))
+                    .andExpect(model().attribute("userLocated", true))
+                    .andExpect(model().attribute("lastPage", 1));
+        } finally {
+            jobLocationIndex.removeJob(9005L);
+        }
+    }
 }
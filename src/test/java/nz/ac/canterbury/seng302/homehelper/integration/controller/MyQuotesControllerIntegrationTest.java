@@ -18,6 +18,9 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -99,14 +102,14 @@ public class MyQuotesControllerIntegrationTest {
 
         quotes = new ArrayList<>();
 
-        when(quoteRepository.findSentQuotes(anyString(), anyString()))
-                .then(i -> quotes.stream()
-                        .filter(q -> i.getArgument(0) != null && q.getUser().getEmail().equalsIgnoreCase(i.getArgument(0)) && q.getStatus().equalsIgnoreCase(i.getArgument(1)))
-                        .toList());
-        when(quoteRepository.findReceivedQuotes(anyString(), anyString()))
-                .then(i -> quotes.stream()
-                        .filter(q -> i.getArgument(0) != null && q.getJob().getRenovationRecord().getUserEmail().equalsIgnoreCase(i.getArgument(0)) && q.getStatus().equalsIgnoreCase(i.getArgument(1)))
-                        .toList());
+        when(quoteRepository.findSentQuotesPage(anyString(), anyString(), any(), any(), any(Pageable.class)))
+                .then(i -> getPage(sentQuotes(i.getArgument(0), i.getArgument(1)), i.getArgument(4)));
+        when(quoteRepository.countSentQuotes(anyString(), anyString()))
+                .then(i -> (long) sentQuotes(i.getArgument(0), i.getArgument(1)).size());
+        when(quoteRepository.findReceivedQuotesPage(anyString(), anyString(), any(), any(), any(Pageable.class)))
+                .then(i -> getPage(receivedQuotes(i.getArgument(0), i.getArgument(1)), i.getArgument(4)));
+        when(quoteRepository.countReceivedQuotes(anyString(), anyString()))
+                .then(i -> (long) receivedQuotes(i.getArgument(0), i.getArgument(1)).size());
 
         Random rand = new Random();
         for (int i = 1; i <= 200; i++) {
@@ -132,6 +135,23 @@ public class MyQuotesControllerIntegrationTest {
 
     }
 
+    private List<Quote> sentQuotes(String userEmail, String status) {
+        return quotes.stream()
+                .filter(q -> q.getUser().getEmail().equalsIgnoreCase(userEmail) && q.getStatus().equalsIgnoreCase(status))
+                .toList();
+    }
+
+    private List<Quote> receivedQuotes(String userEmail, String status) {
+        return quotes.stream()
+                .filter(q -> q.getJob().getRenovationRecord().getUserEmail().equalsIgnoreCase(userEmail) && q.getStatus().equalsIgnoreCase(status))
+                .toList();
+    }
+
+    private List<Quote> getPage(List<Quote> allQuotes, Pageable pageable) {
+        List<Quote> ordered = pageable.getSort().getOrderFor("id").isDescending() ? allQuotes.reversed() : allQuotes;
+        return ordered.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+    }
+
     @Test
     public void getMyQuotesPage_SentAndReceivedQuotesExist_QuotesShownOnPage() throws Exception {
         mockMvc.perform(get("/my-quotes")
@@ -191,6 +211,47 @@ public class MyQuotesControllerIntegrationTest {
         }
     }
 
+    @Test
+    public void getMyQuotesPage_NextPageFromPreviousPage_SeeksPastLastQuoteOfPreviousPage() throws Exception {
+        mockMvc.perform(get("/my-quotes")
+                        .param("status", "Pending")
+                        .param("sentPage", "2")
+                        .param("sentAfter", "42")
+                        .param("sentFromPage", "1")
+                        .principal(principalJohn))
+                .andExpect(status().isOk());
+
+        Mockito.verify(quoteRepository).findSentQuotesPage("john@doe.nz", "pending", 42L, null, PageRequest.of(0, 15, Sort.by("id")));
+        Mockito.verify(quoteRepository).findReceivedQuotesPage("john@doe.nz", "pending", null, null, PageRequest.of(0, 12, Sort.by("id")));
+    }
+
+    @Test
+    public void getMyQuotesPage_PreviousPageFromNextPage_SeeksBeforeFirstQuoteOfNextPage() throws Exception {
+        mockMvc.perform(get("/my-quotes")
+                        .param("status", "Pending")
+                        .param("sentPage", "2")
+                        .param("sentBefore", "90")
+                        .param("sentFromPage", "3")
+                        .principal(principalJohn))
+                .andExpect(status().isOk());
+
+        Mockito.verify(quoteRepository).findSentQuotesPage("john@doe.nz", "pending", null, 90L,
+                PageRequest.of(0, 15, Sort.by("id").descending()));
+    }
+
+    @Test
+    public void getMyQuotesPage_PageJumpedTo_LoadsPageByOffset() throws Exception {
+        mockMvc.perform(get("/my-quotes")
+                        .param("status", "Pending")
+                        .param("sentPage", "3")
+                        .param("sentAfter", "42")
+                        .param("sentFromPage", "1")
+                        .principal(principalJohn))
+                .andExpect(status().isOk());
+
+        Mockito.verify(quoteRepository).findSentQuotesPage("john@doe.nz", "pending", null, null, PageRequest.of(2, 15, Sort.by("id")));
+    }
+
     @Test
     public void rejectQuotesTest() throws Exception {
 
@@ -6,6 +6,7 @@ import nz.ac.canterbury.seng302.homehelper.repository.*;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
 import nz.ac.canterbury.seng302.homehelper.service.ModerationService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
+import nz.ac.canterbury.seng302.homehelper.service.RenovationSearchIndex;
 import nz.ac.canterbury.seng302.homehelper.service.TagService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +26,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.security.MessageDigest;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -62,6 +64,8 @@ public class RenovationDetailsControllerIntegrationTest {
     private RenovationRecordService renovationRecordService;
     @Autowired
     private JobService jobService;
+    @Autowired
+    private RenovationSearchIndex renovationSearchIndex;
     @MockBean
     private Principal principal;
 
@@ -427,6 +431,73 @@ public class RenovationDetailsControllerIntegrationTest {
         verify(tagRepository, Mockito.times(0)).delete(Mockito.any());
     }
 
+    @Test
+    void addTag_RecordAlreadySaved_RecordFoundBySearchingNewTag() throws Exception {
+        when(moderationService.isProfanity(Mockito.anyString())).thenReturn(false);
+        when(renovationRecordRepository.save(any(RenovationRecord.class))).then(i -> i.getArgument(0));
+        renovationRecord.setId(1L);
+        renovationSearchIndex.index(renovationRecord);
+
+        mockMvc.perform(post("/my-renovations/details/add-tag")
+                        .param("recordId", "1")
+                        .param("newTag", "Rustic")
+                        .param("job-page", "1")
+                        .principal(principal))
+                .andExpect(status().is3xxRedirection());
+
+        assertEquals(List.of(1L), renovationSearchIndex.search("", "john@cena.com", List.of("rustic")));
+        assertEquals(List.of(1L), renovationSearchIndex.search("rustic", "john@cena.com", List.of()));
+    }
+
+    @Test
+    void addTag_TwoTagsAdded_RecordFoundBySearchingBothTags() throws Exception {
+        when(moderationService.isProfanity(Mockito.anyString())).thenReturn(false);
+        when(renovationRecordRepository.save(any(RenovationRecord.class))).then(i -> i.getArgument(0));
+        renovationRecord.setId(1L);
+        renovationSearchIndex.index(renovationRecord);
+
+        for (String tagName : List.of("Loft", "Attic")) {
+            mockMvc.perform(post("/my-renovations/details/add-tag")
+                            .param("recordId", "1")
+                            .param("newTag", tagName)
+                            .param("job-page", "1")
+                            .principal(principal))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        assertEquals(List.of(1L), renovationSearchIndex.search("", "john@cena.com", List.of("loft", "attic")));
+        assertEquals(List.of(1L), renovationSearchIndex.findRecordsWithTags(List.of("loft", "attic"), true).toList());
+    }
+
+    @Test
+    void removeTag_TagStillOnOtherRecords_RecordNoLongerFoundBySearchingTag() throws Exception {
+        RenovationRecord record = new RenovationRecord("name", "description", List.of(), "test@test.com");
+        RenovationRecord record2 = new RenovationRecord("Example", "description", List.of(), "test@test.com");
+        record.setId(1L);
+        record2.setId(2L);
+        Tag tag = new Tag("vintage");
+        record.addTag(tag);
+        record2.addTag(tag);
+        tag.addRenovationRecord(record);
+        tag.addRenovationRecord(record2);
+        renovationSearchIndex.index(record);
+        renovationSearchIndex.index(record2);
+
+        when(renovationRecordRepository.findById(1L)).thenReturn(Optional.of(record));
+        when(renovationRecordRepository.save(any(RenovationRecord.class))).then(i -> i.getArgument(0));
+        when(tagRepository.findByName("vintage")).thenReturn(tag);
+        when(principal.getName()).thenReturn("test@test.com");
+
+        mockMvc.perform(post("/my-renovations/details/remove-tag")
+                        .param("recordId", "1")
+                        .param("tagNameRemove", "Vintage")
+                        .principal(principal))
+                .andExpect(status().is3xxRedirection());
+
+        assertEquals(List.of(2L), renovationSearchIndex.search("", "test@test.com", List.of("vintage")));
+        assertEquals(List.of(2L), renovationSearchIndex.search("vintage", "test@test.com", List.of()));
+    }
+
     @Test
     void removeTag_UserIsOwnerAndTagNotExists_NoTagsAreRemoved() throws Exception {
         RenovationRecord record = new RenovationRecord("name", "description", List.of(), "test@test.com");
@@ -640,15 +711,15 @@ public class RenovationDetailsControllerIntegrationTest {
 
     static Stream<Arguments> validFiles() {
         return Stream.of(
-                Arguments.of("test.png", "image/png"),
-                Arguments.of("test.jpg", "image/jpeg"),
-                Arguments.of("test.jpeg", "image/jpeg"),
-                Arguments.of("test.svg", "image/svg+xml")
+                Arguments.of("test.png", "image/png", ".png"),
+                Arguments.of("test.jpg", "image/jpeg", ".jpg"),
+                Arguments.of("test.jpeg", "image/jpeg", ".jpg"),
+                Arguments.of("test.svg", "image/svg+xml", ".svg")
         );
     }
     @ParameterizedTest
     @MethodSource("validFiles")
-    public void addRoomImage_ValidImageGiven_ImageAddedToRoom(String fileName, String fileType) throws Exception {
+    public void addRoomImage_ValidImageGiven_ImageAddedToRoom(String fileName, String fileType, String storedExtension) throws Exception {
         MockMultipartFile file = new MockMultipartFile("submittedFile", fileName, fileType, "test".getBytes());
 
         mockMvc.perform(multipart("/add-room-image")
@@ -660,7 +731,8 @@ public class RenovationDetailsControllerIntegrationTest {
         ArgumentCaptor<RenovationRecord> recordCaptor = ArgumentCaptor.forClass(RenovationRecord.class);
         verify(renovationRecordRepository).save(recordCaptor.capture());
         RenovationRecord record = recordCaptor.getValue();
-        assertEquals("room"+room.getId()+fileName, record.getRooms().getFirst().getImageFilename());
+        String contentHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+        assertEquals(contentHash + storedExtension, record.getRooms().getFirst().getImageFilename());
     }
 
     static Stream<Arguments> invalidFiles() {
@@ -25,6 +25,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import java.security.Principal;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -112,7 +113,7 @@ public class SearchPageControllerIntegrationTest {
 
     @Test
     public void userInputtedPage_ValidInput() throws Exception {
-        Mockito.when(renovationRecordService.getPageList(any(), any(List.class))).thenReturn(List.of(1, 2, 3, 4));
+        Mockito.when(renovationRecordService.getPageList(any(), anyLong())).thenReturn(List.of(1, 2, 3, 4));
         mockMvc.perform(post("/search-page-number")
                         .param("pageNumber", "3")
                         .param("searchString", "Test")
@@ -124,7 +125,7 @@ public class SearchPageControllerIntegrationTest {
 
     @Test
     public void userInputtedPage_InvalidInput() throws Exception {
-        Mockito.when(renovationRecordService.getPageList(any(), any(List.class))).thenReturn(List.of(1, 2, 3, 4));
+        Mockito.when(renovationRecordService.getPageList(any(), anyLong())).thenReturn(List.of(1, 2, 3, 4));
         mockMvc.perform(post("/search-page-number")
                         .param("pageNumber", "6")
                         .param("searchString", "Test")
@@ -0,0 +1,70 @@
+package nz.ac.canterbury.seng302.homehelper.integration.controller;
+
+import jakarta.annotation.PostConstruct;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+public class StaticResourceCachingIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @Autowired
+    private ResourceUrlEncodingFilter resourceUrlEncodingFilter;
+
+    private MockMvc mockMvc;
+
+    @PostConstruct
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(resourceUrlEncodingFilter).build();
+    }
+
+    @Test
+    void getStaticResource_FingerprintedUrl_CachedForever() throws Exception {
+        String url = resourceUrlProvider.getForLookupPath("/css/styles.css");
+        Assertions.assertTrue(url.matches("/css/styles-[0-9a-f]{32}\\.css"), url);
+
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void getStaticResource_PlainUrl_MustRevalidate() throws Exception {
+        mockMvc.perform(get("/images/DefaultProfileImage.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void getStaticResource_MatchingETagSent_NotModified() throws Exception {
+        String etag = mockMvc.perform(get("/images/DefaultProfileImage.png")).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/images/DefaultProfileImage.png").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getLoginPage_LinksToStylesheet_FingerprintedUrlUsed() throws Exception {
+        mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(resourceUrlProvider.getForLookupPath("/css/styles.css"))));
+    }
+}
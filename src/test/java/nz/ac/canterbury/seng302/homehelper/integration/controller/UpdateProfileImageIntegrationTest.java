@@ -15,6 +15,8 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -65,7 +67,7 @@ public class UpdateProfileImageIntegrationTest {
                 .file(file)
                 .param("userId", "1"));
 
-        user.setProfilePicture("user1test.png");
+        user.setProfilePicture(contentHash(file) + ".png");
         Mockito.verify(userRepository).updateDetails(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProfilePicture());
     }
 
@@ -81,7 +83,7 @@ public class UpdateProfileImageIntegrationTest {
                 .file(file)
                 .param("userId", "1"));
 
-        user.setProfilePicture("user1test.jpg");
+        user.setProfilePicture(contentHash(file) + ".jpg");
         Mockito.verify(userRepository).updateDetails(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProfilePicture());
     }
 
@@ -97,7 +99,7 @@ public class UpdateProfileImageIntegrationTest {
                 .file(file)
                 .param("userId", "1"));
 
-        user.setProfilePicture("user1test.svg");
+        user.setProfilePicture(contentHash(file) + ".svg");
         Mockito.verify(userRepository).updateDetails(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProfilePicture());
     }
 
@@ -113,7 +115,11 @@ public class UpdateProfileImageIntegrationTest {
                 .file(file)
                 .param("userId", "1"));
 
-        user.setProfilePicture("user1test.svg");
+        user.setProfilePicture(contentHash(file) + ".svg");
         Mockito.verify(userRepository).updateDetails(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProfilePicture());
     }
+
+    private static String contentHash(MockMultipartFile file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
@@ -2,11 +2,12 @@ package nz.ac.canterbury.seng302.homehelper.integration.controller;
 
 import nz.ac.canterbury.seng302.homehelper.controller.account.UserProfileController;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
-import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.MapClusterService;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,9 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,7 +28,10 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -40,6 +47,8 @@ public class UserProfileControllerIntegrationTest {
     private UserService userService;
     @Autowired
     private RenovationRecordService renovationRecordService;
+    @Autowired
+    private MapClusterService mapClusterService;
     @MockBean
     private UserRepository userRepository;
     @MockBean
@@ -66,22 +75,34 @@ public class UserProfileControllerIntegrationTest {
         when(userRepository.findByEmailContainingIgnoreCase("jane@doe.nz")).thenReturn(user2);
         when(userRepository.findUserById(user1.getId())).thenReturn(user1);
         when(userRepository.findUserById(user2.getId())).thenReturn(user2);
+        when(userRepository.findUserWithPortfolioJobsById(user1.getId())).thenReturn(user1);
         List<Job> jobs = new ArrayList<>();
-        List<Quote> quotes = new ArrayList<>();
         for(int i = 0 ; i < 10 ; i++){
             Job job = new Job("job"+i, "job", "12/12/3030", "12/12/2030");
-            Quote quote = new Quote("10", "12", "example@email.com", "1234567890", "desc");
             job.setStatus("Completed");
-            quote.setJob(job);
-            quote.setStatus("Accepted");
-            quotes.add(quote);
+            jobs.add(job);
         }
-        when(quoteRepository.findAllByUserId(user1.getId())).thenReturn(quotes);
+        when(quoteRepository.findCompletedJobsWorkedOnBy(any(), any(Pageable.class))).thenReturn(Page.empty());
+        when(quoteRepository.findCompletedJobsWorkedOnBy(eq(user1.getId()), any(Pageable.class)))
+                .then(i -> new PageImpl<>(jobs.subList(0, 9), i.getArgument(1), jobs.size()));
+        when(quoteRepository.findPortfolioJobsOf(any(), any(Pageable.class))).thenReturn(Page.empty());
 
         job = new Job(null, null, null, null);
         job.setId(1L);
         job.setStatus("Completed");
         when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(jobRepository.findJobWithPortfolioUsersById(job.getId())).thenReturn(Optional.of(job));
+        mapClusterService.evictPortfolio(user1.getId());
+    }
+
+    private void addLocatedPortfolioJob(long jobId, float latitude, float longitude) {
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setLatitude(latitude);
+        record.setLongitude(longitude);
+        Job portfolioJob = new Job("Job " + jobId, "Job", null, null);
+        portfolioJob.setId(jobId);
+        portfolioJob.setRenovationRecord(record);
+        user1.addPortfolioJob(portfolioJob);
     }
 
     @Test
@@ -171,7 +192,7 @@ public class UserProfileControllerIntegrationTest {
         ArgumentCaptor<Job> jobCaptor = ArgumentCaptor.forClass(Job.class);
         verify(jobRepository).save(jobCaptor.capture());
         Job capturedJob = jobCaptor.getValue();
-        String uniqueFileName = "job" + job.getId().toString() + file.getOriginalFilename();
+        String uniqueFileName = contentHash(file) + ".png";
         assertTrue(capturedJob.getImageFilenames().contains(uniqueFileName));
     }
 
@@ -199,7 +220,7 @@ public class UserProfileControllerIntegrationTest {
                         .param("jobId", job.getId().toString()))
                 .andExpect(status().is3xxRedirection());
 
-        String uniqueFileName = "job" + job.getId().toString() + file.getOriginalFilename();
+        String uniqueFileName = contentHash(file) + ".png";
         ArgumentCaptor<Job> jobCaptor = ArgumentCaptor.forClass(Job.class);
         verify(jobRepository).save(jobCaptor.capture());
         Job capturedJob = jobCaptor.getValue();
@@ -215,4 +236,94 @@ public class UserProfileControllerIntegrationTest {
         capturedJob = jobCaptor.getValue();
         assertFalse(capturedJob.getImageFilenames().contains(uniqueFileName));
     }
+
+    @Test
+    public void getTradiesPortfolioJobClusters_AreaGiven_ClustersInAreaReturnedWithETag() throws Exception {
+        addLocatedPortfolioJob(2L, -43.53f, 172.63f);
+        addLocatedPortfolioJob(3L, -43.52f, 172.64f);
+        addLocatedPortfolioJob(4L, -36.85f, 174.76f);
+
+        mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    @Test
+    public void getTradiesPortfolioJobClusters_ETagUnchanged_NotModifiedReturned() throws Exception {
+        addLocatedPortfolioJob(2L, -43.53f, 172.63f);
+        String eTag = mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "12"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "12")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getTradiesPortfolioJobClusters_PortfolioChanged_NewETagReturned() throws Exception {
+        addLocatedPortfolioJob(2L, -43.53f, 172.63f);
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "jane@doe.nz");
+        record.setLatitude(-43.52f);
+        record.setLongitude(172.64f);
+        job.setRenovationRecord(record);
+        String eTag = mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "18"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(post("/add-to-profile")
+                        .param("userId", user1.getId().toString())
+                        .param("jobId", job.getId().toString()))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "18")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    public void getTradiesPortfolioJobClusters_InvalidArea_BadRequestReturned() throws Exception {
+        mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", user1.getId().toString())
+                        .param("south", "-43").param("west", "172")
+                        .param("north", "-44").param("east", "173")
+                        .param("zoom", "12"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getTradiesPortfolioJobClusters_UnknownTradie_NotFoundReturned() throws Exception {
+        mockMvc.perform(get("/profile/map/clusters")
+                        .param("userId", "99")
+                        .param("south", "-44").param("west", "172")
+                        .param("north", "-43").param("east", "173")
+                        .param("zoom", "12"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static String contentHash(MockMultipartFile file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
@@ -12,9 +12,9 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.scheduling.TaskScheduler;
 
-import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -25,14 +25,12 @@ import static org.mockito.Mockito.verify;
 public class ResetPasswordServiceIntegrationTest {
 
     private ResetPasswordService resetPasswordService;
-    private TaskScheduler taskScheduler;
     private ResetPasswordTokenRepository resetPasswordTokenRepository;
 
     @PostConstruct
     public void setup() {
         resetPasswordTokenRepository = Mockito.mock(ResetPasswordTokenRepository.class);
-        taskScheduler = Mockito.mock(TaskScheduler.class);
-        resetPasswordService = new ResetPasswordService(resetPasswordTokenRepository, taskScheduler);
+        resetPasswordService = new ResetPasswordService(resetPasswordTokenRepository);
     }
 
     @Test
@@ -45,12 +43,22 @@ public class ResetPasswordServiceIntegrationTest {
     }
 
     @Test
-    public void addResetPasswordToken_ValidResetPasswordTokenIsAdded_JobIsScheduled() {
+    public void addResetPasswordToken_ValidResetPasswordTokenIsAdded_ExpiresInTenMinutes() {
+        LocalDateTime before = LocalDateTime.now();
         ResetPasswordToken resetPasswordToken = new ResetPasswordToken(
                 "john@example.com",
                 resetPasswordService.generateRandomCode());
         resetPasswordService.addResetPasswordToken(resetPasswordToken);
-        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        Assertions.assertFalse(resetPasswordToken.getExpiresAt().isBefore(before.plusMinutes(10)));
+        Assertions.assertFalse(resetPasswordToken.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(10)));
+    }
+
+    @Test
+    public void getByToken_TokenExpiredButNotRemoved_NullReturned() {
+        ResetPasswordToken resetPasswordToken = Mockito.mock(ResetPasswordToken.class);
+        Mockito.when(resetPasswordToken.isExpired(any(LocalDateTime.class))).thenReturn(true);
+        Mockito.when(resetPasswordTokenRepository.findByToken("abc")).thenReturn(Optional.of(resetPasswordToken));
+        Assertions.assertNull(resetPasswordService.getByToken("abc"));
     }
 
     @Test
@@ -33,6 +33,7 @@ public class CompareTradieControllerTest {
     @Mock private RenovationRecordService renovationRecordService;
     @Mock private UserService userService;
     @Mock private QuoteService quoteService;
+    @Mock private ImageStore imageStore;
 
     private Model model;
     private Principal principal;
@@ -79,14 +80,14 @@ public class CompareTradieControllerTest {
         quotes.add(quote2);
         testJob.setQuotes(quotes);
 
-        controller = new CompareTradieController(jobService, renovationRecordService, userService, quoteService);
+        controller = new CompareTradieController(jobService, renovationRecordService, userService, quoteService, imageStore);
     }
 
     @Test
     public void getCompareTradiesPage_UserIsOwner_IAmShownTheComparePage() {
         when(principal.getName()).thenReturn("jane@doe.nz");
         when(userService.getUser(testUser.getEmail())).thenReturn(testUser);
-        when(jobService.getJobById(testJob.getId())).thenReturn(testJob);
+        when(jobService.getJobForComparison(testJob.getId())).thenReturn(testJob);
 
         String result = controller.getCompareTradiesPage(testJob.getId(), principal, model);
 
@@ -97,7 +98,7 @@ public class CompareTradieControllerTest {
     public void getCompareTradiesPage_UserIsNotOwner_IAmShownTheNotFoundPage() {
         when(principal.getName()).thenReturn("1@doe.nz");
         when(userService.getUser(quote1Sender.getEmail())).thenReturn(quote1Sender);
-        when(jobService.getJobById(testJob.getId())).thenReturn(testJob);
+        when(jobService.getJobForComparison(testJob.getId())).thenReturn(testJob);
 
         String result = controller.getCompareTradiesPage(testJob.getId(), principal, model);
 
@@ -169,7 +170,7 @@ public class CompareTradieControllerTest {
     public void lastQuote_StatusSetToAccepted() {
         when(principal.getName()).thenReturn("jane@doe.nz");
         when(userService.getUser(testUser.getEmail())).thenReturn(testUser);
-        when(jobService.getJobById(testJob.getId())).thenReturn(testJob);
+        when(jobService.getJobForComparison(testJob.getId())).thenReturn(testJob);
         List<RenovationRecord> recordsList = new ArrayList<>();
         recordsList.add(testRecord);
         when(renovationRecordService.getRenovationRecordsByOwner(testUser.getEmail())).thenReturn(recordsList);
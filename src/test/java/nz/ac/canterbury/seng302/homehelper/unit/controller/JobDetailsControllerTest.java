@@ -15,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
 import org.springframework.ui.Model;
 
 import java.security.Principal;
@@ -38,6 +39,8 @@ public class JobDetailsControllerTest {
     private ExpenseService expenseService;
     @Mock
     private QuoteService quoteService;
+    @Mock
+    private ImageStore imageStore;
 
     private Model model;
     private Principal principal;
@@ -67,6 +70,8 @@ public class JobDetailsControllerTest {
         when(userService.getUser("jane@doe.nz")).thenReturn(testUser);
 
         when(jobService.getJobById(1L)).thenReturn(testJob);
+        when(expenseService.getExpensesPageByJobId(1L, 1, 9)).thenReturn(Page.empty());
+        when(quoteService.getQuotesPageByJobId(1L, 1, 12)).thenReturn(Page.empty());
 
         String viewName = jobDetailsController.getJobDetailsPage(testJob.getId(), 1, 1, false, false, false, model, principal);
 
@@ -82,6 +87,7 @@ public class JobDetailsControllerTest {
     @Test
     public void updateJobIcon_RenovationRecordExistsAndJobExists_RedirectedToRenovationDetailsPage() {
         Mockito.when(renovationRecordService.getRecordById(testRecord.getId())).thenReturn(testRecord);
+        Mockito.when(jobService.getAndAuthenticateJob(testJob.getId(), testRecord)).thenReturn(testJob);
         Mockito.when(principal.getName()).thenReturn(testUser.getEmail());
 
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
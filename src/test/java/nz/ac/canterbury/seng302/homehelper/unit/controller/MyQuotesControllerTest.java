@@ -5,6 +5,7 @@ import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
 import nz.ac.canterbury.seng302.homehelper.service.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,7 +59,11 @@ public class MyQuotesControllerTest {
     @Test
     public void getMyQuotesPage_MyQuotesPageTemplateReturned() {
         when(principal.getName()).thenReturn("jane@doe.nz");
-        String viewName = myQuotesController.getMyQuotesPage(null, null, null, model, principal);
+        when(quoteService.getReceivedQuotesPage(any(), any(), anyInt(), anyInt(), any(), any(), any()))
+                .thenReturn(new KeysetPage<>(List.of(), 1, 0, 0, null, null));
+        when(quoteService.getSentQuotesPage(any(), any(), anyInt(), anyInt(), any(), any(), any()))
+                .thenReturn(new KeysetPage<>(List.of(), 1, 0, 0, null, null));
+        String viewName = myQuotesController.getMyQuotesPage(null, null, null, null, null, null, null, null, null, model, principal);
         assertEquals("myQuotesTemplate", viewName);
     }
 
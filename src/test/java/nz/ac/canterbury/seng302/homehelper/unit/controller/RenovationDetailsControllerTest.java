@@ -35,6 +35,8 @@ public class RenovationDetailsControllerTest {
     private UserService userService;
     @Mock
     private TagService tagService;
+    @Mock
+    private ImageStore imageStore;
     @InjectMocks
     private RenovationDetailsController renovationDetailsController;
 
@@ -60,7 +62,7 @@ public class RenovationDetailsControllerTest {
 
     @Test
     public void getRenovationDetails_RenovationRecordExists_RenovationDetailsTemplateShown() {
-        Mockito.when(renovationRecordService.getRecordById(testRecord.getId())).thenReturn(testRecord);
+        Mockito.when(renovationRecordService.getRecordWithJobsById(testRecord.getId())).thenReturn(testRecord);
         Mockito.when(renovationRecordService.getRenovationRecordsByOwner(testUser.getEmail())).thenReturn(List.of(testRecord));
         Mockito.when(principal.getName()).thenReturn(testUser.getEmail());
 
@@ -88,7 +90,7 @@ public class RenovationDetailsControllerTest {
 
     @Test
     public void getRenovationDetails_RenovationRecordDoesNotExist_ErrorTemplateShown() {
-        Mockito.when(renovationRecordService.getRecordById(2L)).thenReturn(null);
+        Mockito.when(renovationRecordService.getRecordWithJobsById(2L)).thenReturn(null);
 
         String viewName = renovationDetailsController.getRenovationDetails(2L,
                 1, 1, "", "false", model, principal);
@@ -98,7 +100,7 @@ public class RenovationDetailsControllerTest {
 
     @Test
     public void postJobPageNumber_RenovationRecordExistsAndValidPageNumber_RedirectedToNewPage() {
-        Mockito.when(renovationRecordService.getRecordById(testRecord.getId())).thenReturn(testRecord);
+        Mockito.when(renovationRecordService.getRecordWithJobsById(testRecord.getId())).thenReturn(testRecord);
 
         // Creating an empty Slice object was provided by ChatGPT
         Slice<Job> emptySlice = new SliceImpl<>(
@@ -120,7 +122,7 @@ public class RenovationDetailsControllerTest {
 
     @Test
     public void postJobPageNumber_RenovationRecordExistsAndInvalidPageNumber_RenovationDetailsTemplateShown() {
-        Mockito.when(renovationRecordService.getRecordById(testRecord.getId())).thenReturn(testRecord);
+        Mockito.when(renovationRecordService.getRecordWithJobsById(testRecord.getId())).thenReturn(testRecord);
 
         // Creating an empty Slice object was provided by ChatGPT
         Slice<Job> emptySlice = new SliceImpl<>(
@@ -141,7 +143,7 @@ public class RenovationDetailsControllerTest {
 
     @Test
     public void postJobPageNumber_RenovationRecordDoesNotExist_ErrorTemplateShown() {
-        Mockito.when(renovationRecordService.getRecordById(2L)).thenReturn(null);
+        Mockito.when(renovationRecordService.getRecordWithJobsById(2L)).thenReturn(null);
 
         String viewName = renovationDetailsController.postJobPageNumber(2L,
                 1, 1, 1, 1, "false-0-", "false", model, principal);
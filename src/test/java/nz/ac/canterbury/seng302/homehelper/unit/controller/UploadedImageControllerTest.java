@@ -0,0 +1,79 @@
+package nz.ac.canterbury.seng302.homehelper.unit.controller;
+
+import nz.ac.canterbury.seng302.homehelper.controller.UploadedImageController;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class UploadedImageControllerTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @TempDir
+    Path imageDirectory;
+
+    private ImageStore imageStore;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        imageStore = new ImageStore(imageDirectory, Runnable::run);
+        Files.write(imageDirectory.resolve(HASH + ".png"), new byte[] {1, 2, 3});
+        Files.write(imageDirectory.resolve("user1.png"), new byte[] {4, 5});
+    }
+
+    private MockMvc mockMvc(String accelRedirectLocation) {
+        return MockMvcBuilders.standaloneSetup(new UploadedImageController(imageStore, accelRedirectLocation)).build();
+    }
+
+    @Test
+    public void getUploadedImage_ContentAddressedImage_CachedForever() throws Exception {
+        mockMvc("").perform(get("/profileImages/" + HASH + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    public void getUploadedImage_MatchingETagSent_NotModified() throws Exception {
+        mockMvc("").perform(get("/profileImages/" + HASH + ".png").header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getUploadedImage_ImageNamedByOwner_MustRevalidate() throws Exception {
+        mockMvc("").perform(get("/profileImages/user1.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andExpect(header().string("Cache-Control", not(containsString("immutable"))))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    public void getUploadedImage_AccelRedirectConfigured_FileLeftToNginx() throws Exception {
+        mockMvc("/prod/internal-images/").perform(get("/profileImages/" + HASH + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Accel-Redirect", "/prod/internal-images/" + HASH + ".png"))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void getUploadedImage_NoSuchImage_NotFound() throws Exception {
+        mockMvc("").perform(get("/profileImages/missing.png"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,9 +1,20 @@
 package nz.ac.canterbury.seng302.homehelper.unit.repository;
 
+import nz.ac.canterbury.seng302.homehelper.LocalDateBackfill;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.Room;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
+import nz.ac.canterbury.seng302.homehelper.repository.ExpenseRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.JobSpecifications;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,9 +23,12 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,6 +41,8 @@ public class JobRepositoryTest {
     private JobRepository jobRepository;
     @Autowired
     private RenovationRecordRepository renovationRecordRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
 
     @Autowired
     private TestEntityManager entityManager;
@@ -167,4 +183,217 @@ public class JobRepositoryTest {
         Assertions.assertEquals(expectedCount, result.size());
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "job1, 1",
+            "JOB, 5",
+            "\uD83D\uDE00, 1",
+            "%, 0",
+            "invalid, 0"
+    })
+    void findAllMatchingFilter_KeywordsGiven_JobsWithKeywordsFound(String keyword, int expectedCount) {
+        JobFilter filter = new JobFilter(keyword, null, null, null, null, null);
+        Page<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(filter), pageable);
+        Assertions.assertEquals(expectedCount, result.getTotalElements());
+    }
+
+    @Test
+    void findAllMatchingFilter_TypeGiven_OnlyJobsOfTypeFound() {
+        JobFilter filter = new JobFilter(null, "Carpentry", null, null, null, null);
+        List<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(filter), pageable).getContent();
+        Assertions.assertEquals(Arrays.asList(firstJob, secondJob), result);
+    }
+
+    @Test
+    void findAllMatchingFilter_UnpostedJob_JobNotFound() {
+        firstJob.setIsPosted(false);
+        entityManager.persist(firstJob);
+        JobFilter filter = new JobFilter(null, "Carpentry", null, null, null, null);
+        List<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(filter), pageable).getContent();
+        Assertions.assertEquals(Collections.singletonList(secondJob), result);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "28/03/2077, , 5",
+            "29/03/2077, , 0",
+            "01/04/2076, , 5",
+            ", 28/02/2077, 5",
+            ", 27/02/2077, 0",
+            ", 01/01/2078, 5",
+            "01/01/2077, 01/01/2078, 5",
+            "not a date, , 0"
+    })
+    void findAllMatchingFilter_DatesGiven_JobsInsideDatesFound(String startDate, String dueDate, int expectedCount) {
+        JobFilter filter = new JobFilter(null, null, null, null, startDate, dueDate);
+        Page<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(filter), pageable);
+        Assertions.assertEquals(expectedCount, result.getTotalElements());
+    }
+
+    @Test
+    void findAllMatchingFilter_CityAndSuburbGiven_OnlyJobsAtLocationFound() {
+        firstRecord.setCity("Christchurch");
+        firstRecord.setSuburb("Ilam");
+        RenovationRecord secondRecord = new RenovationRecord("Bathroom", "new sink", new ArrayList<>(), "user@email.com");
+        secondRecord.setCity("Christchurch");
+        secondRecord.setSuburb("Riccarton");
+        entityManager.persist(secondRecord);
+        Job otherJob = new Job("job6", "job6", "28/02/2077", "28/03/2077");
+        otherJob.setRenovationRecord(secondRecord);
+        otherJob.setIsPosted(true);
+        entityManager.persist(otherJob);
+
+        JobFilter cityFilter = new JobFilter(null, null, "christchurch", null, null, null);
+        JobFilter suburbFilter = new JobFilter(null, null, "Christchurch", "RICCARTON", null, null);
+        Assertions.assertEquals(6, jobRepository.findAll(JobSpecifications.matchesFilter(cityFilter), pageable).getTotalElements());
+        Assertions.assertEquals(Collections.singletonList(otherJob),
+                jobRepository.findAll(JobSpecifications.matchesFilter(suburbFilter), pageable).getContent());
+    }
+
+    @Test
+    void findAllMatchingFilter_MoreJobsThanPageSize_OnlyPageLoadedWithTotalCount() {
+        Page<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(
+                new JobFilter(null, null, null, null, null, null)), PageRequest.of(1, 2, Sort.by("id")));
+        Assertions.assertEquals(Arrays.asList(thirdJob, fourthJob), result.getContent());
+        Assertions.assertEquals(5, result.getTotalElements());
+        Assertions.assertEquals(3, result.getTotalPages());
+    }
+
+    @Test
+    void backfillJobs_JobsSavedWithoutTypedDates_TypedDatesFilledIn() {
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE job SET start_local_date = NULL, due_local_date = NULL")
+                .executeUpdate();
+        entityManager.clear();
+        Assertions.assertEquals(5, jobRepository.findJobsWithUnconvertedDates(0L, pageable).size());
+
+        new LocalDateBackfill(jobRepository, expenseRepository).backfillJobs();
+        entityManager.flush();
+        entityManager.clear();
+
+        Job job = jobRepository.findById(firstJob.getId()).orElseThrow();
+        Assertions.assertEquals(LocalDate.of(2077, 3, 28), job.getStartLocalDate());
+        Assertions.assertEquals(LocalDate.of(2077, 2, 28), job.getDueLocalDate());
+        Assertions.assertTrue(jobRepository.findJobsWithUnconvertedDates(0L, pageable).isEmpty());
+    }
+
+    @Test
+    void findById_JobHasQuotes_QuotesNotLoaded() {
+        Quote quote = new Quote("10", "12", "example@email.com", "1234567890", "desc");
+        quote.setJob(firstJob);
+        firstJob.getQuotes().add(quote);
+        entityManager.persist(quote);
+        entityManager.flush();
+        entityManager.clear();
+
+        Job job = jobRepository.findById(firstJob.getId()).orElseThrow();
+        Assertions.assertFalse(Hibernate.isInitialized(job.getQuotes()));
+    }
+
+    @Test
+    void findJobWithQuotesById_JobHasQuotes_QuotesLoaded() {
+        Quote quote = new Quote("10", "12", "example@email.com", "1234567890", "desc");
+        quote.setJob(firstJob);
+        firstJob.getQuotes().add(quote);
+        entityManager.persist(quote);
+        entityManager.flush();
+        entityManager.clear();
+
+        Job job = jobRepository.findJobWithQuotesById(firstJob.getId()).orElseThrow();
+        Assertions.assertTrue(Hibernate.isInitialized(job.getQuotes()));
+        Assertions.assertEquals(1, job.getQuotes().size());
+        Assertions.assertTrue(Hibernate.isInitialized(job.getRenovationRecord()));
+    }
+
+    @Test
+    void findJobCards_JobsWithAndWithoutRooms_CardsBuiltWithOwnerAndFirstRoom() {
+        entityManager.persist(new User("Jane", "Doe", "User@Email.com", "P4$$word", null, null));
+        firstRecord.setStreetAddress("20 Kirkwood Avenue");
+        firstRecord.setCity("Christchurch");
+        Room laterRoom = new Room("Lounge");
+        laterRoom.setImageFilename("lounge.png");
+        Room firstRoom = new Room("Kitchen");
+        entityManager.persist(firstRoom);
+        entityManager.persist(laterRoom);
+        firstRoom.addJob(firstJob);
+        laterRoom.addJob(firstJob);
+        laterRoom.addJob(secondJob);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<JobCardInfo> cards = jobRepository.findJobCards(List.of(firstJob.getId(), secondJob.getId(), thirdJob.getId()));
+
+        Assertions.assertEquals(3, cards.size());
+        JobCardInfo firstCard = cards.stream().filter(card -> card.jobId().equals(firstJob.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals("job1", firstCard.getTitle());
+        Assertions.assertEquals("Jane Doe", firstCard.getUserFullName());
+        Assertions.assertEquals("20 Kirkwood Avenue, Christchurch", firstCard.getLocation());
+        Assertions.assertEquals(JobCardInfo.NO_ROOM_IMAGE, firstCard.getJobImage());
+        JobCardInfo secondCard = cards.stream().filter(card -> card.jobId().equals(secondJob.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals("/profileImages/lounge.png", secondCard.getJobImage());
+        JobCardInfo thirdCard = cards.stream().filter(card -> card.jobId().equals(thirdJob.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals(JobCardInfo.NO_ROOMS_IMAGE, thirdCard.getJobImage());
+    }
+
+    @Test
+    void findRecommendationCandidates_OneJobNotPosted_PostedJobsReturnedWithRecordLocation() {
+        firstRecord.setCity("Christchurch");
+        firstRecord.setLatitude(-43.5f);
+        firstRecord.setLongitude(172.6f);
+        secondJob.setIsPosted(false);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<RecommendationCandidate> candidates = jobRepository.findRecommendationCandidates();
+
+        Assertions.assertEquals(4, candidates.size());
+        Assertions.assertTrue(candidates.stream().noneMatch(candidate -> candidate.jobId().equals(secondJob.getId())));
+        RecommendationCandidate thirdCandidate = candidates.stream()
+                .filter(candidate -> candidate.jobId().equals(thirdJob.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals(new RecommendationCandidate(thirdJob.getId(), firstRecord.getId(), "user@email.com",
+                "Christchurch", "Plumbing", -43.5f, 172.6f), thirdCandidate);
+    }
+
+    @Test
+    void findPostedJobLocations_OneJobNotPosted_PostedJobsReturnedWithRecordCoordinates() {
+        firstRecord.setLatitude(-43.5f);
+        firstRecord.setLongitude(172.6f);
+        secondJob.setIsPosted(false);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<JobLocation> locations = jobRepository.findPostedJobLocations();
+
+        Assertions.assertEquals(4, locations.size());
+        Assertions.assertTrue(locations.stream().noneMatch(location -> location.jobId().equals(secondJob.getId())));
+        JobLocation thirdLocation = locations.stream()
+                .filter(location -> location.jobId().equals(thirdJob.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals(new JobLocation(thirdJob.getId(), firstRecord.getId(), thirdJob.getName(), -43.5f, 172.6f),
+                thirdLocation);
+    }
+
+    @Test
+    void findAllMatchingFilter_IdsGiven_OnlyJobsWithIdsFound() {
+        List<Job> result = jobRepository.findAll(JobSpecifications.matchesFilter(new JobFilter(null, null, null, null, null, null))
+                .and(JobSpecifications.hasIdIn(List.of(secondJob.getId(), fourthJob.getId()))), pageable).getContent();
+        Assertions.assertEquals(Arrays.asList(secondJob, fourthJob), result);
+    }
+
+    @Test
+    void findJobIds_FilterAndIdsGiven_OnlyMatchingIdsFound() {
+        List<Long> result = jobRepository.findJobIds(JobSpecifications.matchesFilter(new JobFilter(null, "Carpentry", null, null, null, null))
+                .and(JobSpecifications.hasIdIn(List.of(secondJob.getId(), thirdJob.getId(), fourthJob.getId()))));
+        Assertions.assertEquals(List.of(secondJob.getId()), result);
+    }
+
+    @Test
+    void findImageFilenamesIn_ImageUsedByTwoJobs_FoundOnce() {
+        firstJob.addImageFilename("shared.png");
+        secondJob.addImageFilename("shared.png");
+        secondJob.addImageFilename("other.png");
+        entityManager.flush();
+
+        Assertions.assertEquals(List.of("shared.png"), jobRepository.findImageFilenamesIn(List.of("shared.png", "unused.png")));
+    }
 }
@@ -0,0 +1,57 @@
+package nz.ac.canterbury.seng302.homehelper.unit.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.OutboundEmail;
+import nz.ac.canterbury.seng302.homehelper.repository.OutboundEmailRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@DataJpaTest
+public class OutboundEmailRepositoryTest {
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private OutboundEmail persistEmail(String recipient, boolean failed, LocalDateTime nextAttemptAt) {
+        OutboundEmail email = new OutboundEmail(recipient, "Subject", "Body");
+        email.recordFailedAttempt("Mail server connection failed", failed ? null : nextAttemptAt);
+        email.setNextAttemptAt(nextAttemptAt);
+        return entityManager.persist(email);
+    }
+
+    @Test
+    public void findFailedIds_SomeEmailsGivenUpOn_OnlyFailedFoundUpToLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboundEmail first = persistEmail("a@example.com", true, now.minusDays(2));
+        OutboundEmail second = persistEmail("b@example.com", true, now.minusDays(1));
+        persistEmail("c@example.com", false, now.minusDays(3));
+        entityManager.flush();
+
+        Assertions.assertTrue(outboundEmailRepository.findFailedIds(now.minusDays(3), PageRequest.of(0, 10)).isEmpty());
+        Assertions.assertEquals(List.of(first.getId(), second.getId()),
+                outboundEmailRepository.findFailedIds(now, PageRequest.of(0, 10)));
+        Assertions.assertEquals(List.of(first.getId()),
+                outboundEmailRepository.findFailedIds(now, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    public void deleteByIdIn_EmailIds_OnlyThoseEmailsDeleted() {
+        OutboundEmail deleted = persistEmail("a@example.com", true, LocalDateTime.now());
+        OutboundEmail kept = persistEmail("b@example.com", true, LocalDateTime.now());
+        entityManager.flush();
+
+        Assertions.assertEquals(1, outboundEmailRepository.deleteByIdIn(List.of(deleted.getId())));
+        entityManager.clear();
+        Assertions.assertTrue(outboundEmailRepository.findById(deleted.getId()).isEmpty());
+        Assertions.assertTrue(outboundEmailRepository.findById(kept.getId()).isPresent());
+    }
+}
@@ -0,0 +1,122 @@
+package nz.ac.canterbury.seng302.homehelper.unit.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DataJpaTest
+public class QuoteRepositoryTest {
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Quote> pendingQuotes = new ArrayList<>();
+    private User tradie;
+    private RenovationRecord record;
+
+    @BeforeEach
+    void setUp() {
+        tradie = new User("John", "Doe", "john@doe.nz", "P4$$word", null, null);
+        entityManager.persist(tradie);
+        record = new RenovationRecord("Kitchen", "blue tiles", new ArrayList<>(), "jane@doe.nz");
+        entityManager.persist(record);
+        Job job = new Job("job1", "job1", "28/02/2077", "28/03/2077");
+        job.setRenovationRecord(record);
+        entityManager.persist(job);
+
+        for (int i = 0; i < 7; i++) {
+            Quote quote = new Quote("10", "2", tradie.getEmail(), "123456", "Quote " + i);
+            quote.setUser(tradie);
+            quote.setJob(job);
+            quote.setStatus(i % 2 == 0 ? "Pending" : "Rejected");
+            entityManager.persist(quote);
+            if (i % 2 == 0) {
+                pendingQuotes.add(quote);
+            }
+        }
+    }
+
+    @Test
+    public void findSentQuotesPage_Offset_PageOfQuotesInIdOrder() {
+        List<Quote> page = quoteRepository.findSentQuotesPage("john@doe.nz", "pending", null, null, PageRequest.of(1, 2, Sort.by("id")));
+        Assertions.assertEquals(pendingQuotes.subList(2, 4), page);
+    }
+
+    @Test
+    public void findSentQuotesPage_AfterId_QuotesAfterThatId() {
+        Long afterId = pendingQuotes.get(1).getId();
+        List<Quote> page = quoteRepository.findSentQuotesPage("john@doe.nz", "pending", afterId, null, PageRequest.of(0, 2, Sort.by("id")));
+        Assertions.assertEquals(pendingQuotes.subList(2, 4), page);
+    }
+
+    @Test
+    public void findSentQuotesPage_BeforeIdDescending_QuotesBeforeThatIdNearestFirst() {
+        Long beforeId = pendingQuotes.get(3).getId();
+        List<Quote> page = quoteRepository.findSentQuotesPage("john@doe.nz", "pending", null, beforeId,
+                PageRequest.of(0, 2, Sort.by("id").descending()));
+        Assertions.assertEquals(List.of(pendingQuotes.get(2), pendingQuotes.get(1)), page);
+    }
+
+    @Test
+    public void countSentQuotes_StatusFilter_CountsMatchingQuotes() {
+        Assertions.assertEquals(4, quoteRepository.countSentQuotes("john@doe.nz", "pending"));
+        Assertions.assertEquals(7, quoteRepository.countSentQuotes("john@doe.nz", null));
+    }
+
+    @Test
+    public void findReceivedQuotesPage_AfterId_QuotesAfterThatId() {
+        Long afterId = pendingQuotes.get(2).getId();
+        List<Quote> page = quoteRepository.findReceivedQuotesPage("jane@doe.nz", "pending", afterId, null, PageRequest.of(0, 15, Sort.by("id")));
+        Assertions.assertEquals(pendingQuotes.subList(3, 4), page);
+        Assertions.assertEquals(4, quoteRepository.countReceivedQuotes("jane@doe.nz", "pending"));
+    }
+
+    private Job completedJob(String name, String quoteStatus) {
+        Job job = new Job(name, name, "28/02/2077", "28/03/2077");
+        job.setRenovationRecord(record);
+        job.setStatus("Completed");
+        entityManager.persist(job);
+        Quote quote = new Quote("10", "2", tradie.getEmail(), "123456", name);
+        quote.setUser(tradie);
+        quote.setJob(job);
+        quote.setStatus(quoteStatus);
+        entityManager.persist(quote);
+        return job;
+    }
+
+    @Test
+    public void findCompletedJobsWorkedOnBy_AcceptedAndRejectedQuotes_OnlyJobsWithAcceptedQuotesPaged() {
+        Job first = completedJob("first", "Accepted");
+        completedJob("rejected", "Rejected");
+        Job second = completedJob("second", "Accepted");
+        Job third = completedJob("third", "Accepted");
+        tradie.addPortfolioJob(first);
+        tradie.addPortfolioJob(third);
+        entityManager.flush();
+
+        Page<Job> completed = quoteRepository.findCompletedJobsWorkedOnBy(tradie.getId(), PageRequest.of(0, 2));
+        Page<Job> portfolio = quoteRepository.findPortfolioJobsOf(tradie.getId(), PageRequest.of(1, 1));
+
+        Assertions.assertEquals(List.of(first, second), completed.getContent());
+        Assertions.assertEquals(3, completed.getTotalElements());
+        Assertions.assertEquals(List.of(third), portfolio.getContent());
+        Assertions.assertEquals(2, portfolio.getTotalElements());
+    }
+}
@@ -2,6 +2,9 @@ package nz.ac.canterbury.seng302.homehelper.unit.repository;
 
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.Tag;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.TagRepository;
 import org.junit.jupiter.api.Assertions;
@@ -12,9 +15,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 
@@ -79,63 +82,101 @@ public class RenovationRecordRepositoryTest {
 
     @Test
     public void returnRecordsMatching_StringAndName() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("Kitchen", "user@email.com");
-        List<RenovationRecord> expectedRecords = Arrays.asList(firstRecord, thirdRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("Kitchen", "user@email.com");
+        List<Long> expectedRecords = List.of(thirdRecord.getId(), firstRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
 
     @Test
     public void returnRecordsMatching_StringAndDescription() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("blue tiles", "user@email.com");
-        List<RenovationRecord> expectedRecords = Arrays.asList(firstRecord, secondRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("blue tiles", "user@email.com");
+        List<Long> expectedRecords = List.of(secondRecord.getId(), firstRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
 
     @Test
     public void returnRecordsMatchingString_NoMatches() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("Living room", "user@email.com");
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("Living room", "user@email.com");
         Assertions.assertEquals(0, retrievedRecord.size());
     }
 
     @Test
     public void returnRecordsMatching_StringAndNameAndDescription() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("bathroom", "user@email.com");
-        List<RenovationRecord> expectedRecords = Arrays.asList(secondRecord, thirdRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("bathroom", "user@email.com");
+        List<Long> expectedRecords = List.of(thirdRecord.getId(), secondRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
 
     @Test
     public void returnRecordsMatching_StringCaseInsensitive_UpperCase() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("KITCHEN", "user@email.com");
-        List<RenovationRecord> expectedRecords = Arrays.asList(firstRecord, thirdRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("KITCHEN", "user@email.com");
+        List<Long> expectedRecords = List.of(thirdRecord.getId(), firstRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
 
     @Test
     public void returnRecordsMatching_StringCaseInsensitive_LowerCase() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRenovationRecordsBySearchString("garage", "user@email.com");
-        List<RenovationRecord> expectedRecords = Collections.singletonList(fourthRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsBySearchString("garage", "user@email.com");
+        List<Long> expectedRecords = List.of(fourthRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
 
     @Test
     public void returnRecordsMatchingStringAndTag_OnlyTags() {
-        List<RenovationRecord> retrievedRecords = renovationRecordRepository.findMatchingRecordsByEmptyStringAndTags("user@email.com", List.of("firstTag", "fourthTag"));
-        List<RenovationRecord> expectedRecords = Arrays.asList(firstRecord, fourthRecord);
+        List<Long> retrievedRecords = renovationRecordRepository.findMatchingRecordIdsByEmptyStringAndTags("user@email.com", List.of("firstTag", "fourthTag"));
+        List<Long> expectedRecords = List.of(fourthRecord.getId(), firstRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecords);
     }
 
     @Test
     public void returnRecordsMatchingStringAndTags_StringAndTags_NoMatch() {
-        List<RenovationRecord> retrievedRecords = renovationRecordRepository.findMatchingRecordsByStringAndTags("NotKitchen","user@email.com", List.of("firstTag", "secondTag"));
-        List<RenovationRecord> expectedRecords = Collections.emptyList();
+        List<Long> retrievedRecords = renovationRecordRepository.findMatchingRecordIdsByStringAndTags("NotKitchen","user@email.com", List.of("firstTag", "secondTag"));
+        List<Long> expectedRecords = List.of();
         Assertions.assertEquals(expectedRecords, retrievedRecords);
     }
 
     @Test
     public void returnRecordsMatchingStringAndTags_StringAndTags_Match() {
-        List<RenovationRecord> retrievedRecord = renovationRecordRepository.findMatchingRecordsByStringAndTags("Kitchen", "user@email.com", List.of("firstTag", "fourthTag"));
-        List<RenovationRecord> expectedRecords = Collections.singletonList(firstRecord);
+        List<Long> retrievedRecord = renovationRecordRepository.findMatchingRecordIdsByStringAndTags("Kitchen", "user@email.com", List.of("firstTag", "fourthTag"));
+        List<Long> expectedRecords = List.of(firstRecord.getId());
         Assertions.assertEquals(expectedRecords, retrievedRecord);
     }
+
+    @Test
+    public void findSearchDocuments_ReturnsEveryRecord() {
+        Set<Long> documentIds = renovationRecordRepository.findSearchDocuments().stream()
+                .map(RenovationSearchDocument::recordId).collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of(firstRecord.getId(), secondRecord.getId(), thirdRecord.getId(), fourthRecord.getId()), documentIds);
+    }
+
+    @Test
+    public void findRecordTagNames_ReturnsTagsOfEachRecord() {
+        List<String> firstRecordTags = renovationRecordRepository.findRecordTagNames().stream()
+                .filter(tuple -> firstRecord.getId().equals(tuple.get("recordId", Long.class)))
+                .map(tuple -> tuple.get("tagName", String.class))
+                .sorted().toList();
+        Assertions.assertEquals(List.of("firstTag", "fourthTag"), firstRecordTags);
+    }
+
+    @Test
+    void findRenovationCards_OwnerExists_CardBuiltWithOwnerNameAndPicture() {
+        entityManager.persist(new User("Jane", "Doe", "USER@email.com", "P4$$word", "jane.png", null));
+        RenovationRecord unknownOwnerRecord = new RenovationRecord("Shed", "new roof", new ArrayList<>(), "nobody@email.com");
+        entityManager.persist(unknownOwnerRecord);
+        firstRecord.setCity("Christchurch");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<RenovationCardInfo> cards = renovationRecordRepository.findRenovationCards(
+                List.of(firstRecord.getId(), unknownOwnerRecord.getId()));
+
+        Assertions.assertEquals(2, cards.size());
+        RenovationCardInfo firstCard = cards.stream().filter(card -> card.recordId().equals(firstRecord.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals(new RenovationCardInfo("Kitchen", "blue tiles and black oven", "Christchurch", "Jane Doe",
+                firstRecord.getId(), "/profileImages/jane.png"), firstCard);
+        RenovationCardInfo unknownOwnerCard = cards.stream().filter(card -> card.recordId().equals(unknownOwnerRecord.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals("", unknownOwnerCard.getUserFullName());
+        Assertions.assertNull(unknownOwnerCard.getProfilePicture());
+    }
 }
+
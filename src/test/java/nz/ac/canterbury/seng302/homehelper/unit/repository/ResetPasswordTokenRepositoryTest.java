@@ -0,0 +1,70 @@
+package nz.ac.canterbury.seng302.homehelper.unit.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.ResetPasswordToken;
+import nz.ac.canterbury.seng302.homehelper.repository.ResetPasswordTokenRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@DataJpaTest
+public class ResetPasswordTokenRepositoryTest {
+
+    @Autowired
+    private ResetPasswordTokenRepository resetPasswordTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void findExpiredIds_SomeTokensExpired_OnlyExpiredFoundUpToLimit() {
+        ResetPasswordToken first = entityManager.persist(new ResetPasswordToken("a@example.com", "aaaaaaaaaa"));
+        ResetPasswordToken second = entityManager.persist(new ResetPasswordToken("b@example.com", "bbbbbbbbbb"));
+        entityManager.flush();
+        LocalDateTime afterExpiry = second.getExpiresAt().plusSeconds(1);
+
+        Assertions.assertTrue(resetPasswordTokenRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, 10)).isEmpty());
+        Assertions.assertEquals(List.of(first.getId(), second.getId()),
+                resetPasswordTokenRepository.findExpiredIds(afterExpiry, PageRequest.of(0, 10)));
+        Assertions.assertEquals(List.of(first.getId()),
+                resetPasswordTokenRepository.findExpiredIds(afterExpiry, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    public void deleteByIdIn_TokenIds_OnlyThoseTokensDeleted() {
+        ResetPasswordToken deleted = entityManager.persist(new ResetPasswordToken("a@example.com", "aaaaaaaaaa"));
+        entityManager.persist(new ResetPasswordToken("b@example.com", "bbbbbbbbbb"));
+        entityManager.flush();
+
+        Assertions.assertEquals(1, resetPasswordTokenRepository.deleteByIdIn(List.of(deleted.getId())));
+        entityManager.clear();
+        Assertions.assertTrue(resetPasswordTokenRepository.findByToken("aaaaaaaaaa").isEmpty());
+        Assertions.assertTrue(resetPasswordTokenRepository.findByToken("bbbbbbbbbb").isPresent());
+    }
+
+    @Test
+    public void backfillExpiresAt_TokenSavedWithoutExpiry_OnlyThatTokenGivenExpiry() {
+        ResetPasswordToken old = entityManager.persist(new ResetPasswordToken("a@example.com", "aaaaaaaaaa"));
+        ResetPasswordToken current = entityManager.persist(new ResetPasswordToken("b@example.com", "bbbbbbbbbb"));
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE reset_password_token SET expires_at = NULL WHERE id = :id")
+                .setParameter("id", old.getId())
+                .executeUpdate();
+        entityManager.clear();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        Assertions.assertTrue(resetPasswordTokenRepository.findByToken("aaaaaaaaaa").orElseThrow().isExpired(now));
+        Assertions.assertEquals(1, resetPasswordTokenRepository.backfillExpiresAt(now));
+        entityManager.clear();
+        Assertions.assertEquals(List.of(old.getId()), resetPasswordTokenRepository.findExpiredIds(now, PageRequest.of(0, 10)));
+        Assertions.assertEquals(current.getExpiresAt().withNano(0),
+                resetPasswordTokenRepository.findByToken("bbbbbbbbbb").orElseThrow().getExpiresAt().withNano(0));
+    }
+}
@@ -0,0 +1,240 @@
+package nz.ac.canterbury.seng302.homehelper.unit.repository;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.Rating;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieJobRow;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@DataJpaTest
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Jane", "Doe", "Jane.Doe@Example.com", "password", "", "");
+        entityManager.persistAndFlush(user);
+        entityManager.clear();
+    }
+
+    @Test
+    public void findUserByEmail_DifferentCase_UserFound() {
+        Assertions.assertTrue(userRepository.findUserByEmail("JANE.DOE@EXAMPLE.COM").isPresent());
+        Assertions.assertEquals(user.getId(), userRepository.findByEmailContainingIgnoreCase("jane.doe@example.com").getId());
+        Assertions.assertEquals("password", userRepository.findPasswordByEmailIgnoreCase("jane.doe@EXAMPLE.com"));
+    }
+
+    @Test
+    public void updateDetails_EmailChanged_FoundByNewEmail() {
+        userRepository.updateDetails(user.getId(), "John.Doe@Example.com", "John", "Doe", "");
+        entityManager.clear();
+
+        Assertions.assertNull(userRepository.findByEmailContainingIgnoreCase("jane.doe@example.com"));
+        User updated = userRepository.findByEmailContainingIgnoreCase("JOHN.DOE@example.com");
+        Assertions.assertNotNull(updated);
+        Assertions.assertEquals("john.doe@example.com", updated.getNormalizedEmail());
+    }
+
+    @Test
+    public void backfillNormalizedEmails_NormalizedEmailMissing_UserFound() {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE tab_user SET normalized_email = NULL")
+                .executeUpdate();
+        Assertions.assertNull(userRepository.findByEmailContainingIgnoreCase("jane.doe@example.com"));
+
+        Assertions.assertEquals(1, userRepository.backfillNormalizedEmails());
+        entityManager.clear();
+        Assertions.assertNotNull(userRepository.findByEmailContainingIgnoreCase("jane.doe@example.com"));
+    }
+
+    @Test
+    public void findExpiredUnverified_UnverifiedAndVerifiedUsers_OnlyExpiredUnverifiedFound() {
+        LocalDateTime now = LocalDateTime.now();
+        User expired = new User("John", "Doe", "john@example.com", "password", "", "123456");
+        expired.setVerificationExpiresAt(now.minusMinutes(1));
+        User notExpired = new User("Jim", "Doe", "jim@example.com", "password", "", "654321");
+        notExpired.setVerificationExpiresAt(now.plusMinutes(1));
+        User verified = new User("Jill", "Doe", "jill@example.com", "password", "", "111111");
+        verified.setVerificationExpiresAt(now.minusMinutes(1));
+        verified.setUserVerifyCodeNull();
+        entityManager.persist(expired);
+        entityManager.persist(notExpired);
+        entityManager.persistAndFlush(verified);
+
+        List<User> found = userRepository.findExpiredUnverified(now, PageRequest.of(0, 10));
+        Assertions.assertEquals(List.of(expired.getId()), found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    public void backfillVerificationExpiresAt_UnverifiedUserWithoutExpiry_OnlyUnverifiedGivenExpiry() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10);
+        User unverified = new User("John", "Doe", "john@example.com", "password", "", "123456");
+        User verified = new User("Jill", "Doe", "jill@example.com", "password", "", "111111");
+        verified.setUserVerifyCodeNull();
+        entityManager.persist(unverified);
+        entityManager.persistAndFlush(verified);
+        entityManager.clear();
+
+        userRepository.backfillVerificationExpiresAt(expiresAt);
+        entityManager.clear();
+
+        Assertions.assertEquals(expiresAt.withNano(0),
+                userRepository.findUserById(unverified.getId()).getVerificationExpiresAt().withNano(0));
+        Assertions.assertNull(userRepository.findUserById(verified.getId()).getVerificationExpiresAt());
+    }
+
+    private void addQuote(User sender, String status) {
+        Quote quote = new Quote("10", "1", sender.getEmail(), "", "Quote");
+        quote.setUser(sender);
+        quote.setStatus(status);
+        entityManager.persist(quote);
+    }
+
+    private Job addJob(RenovationRecord record) {
+        Job job = new Job("Job", "Job", null, null);
+        job.setRenovationRecord(record);
+        entityManager.persist(job);
+        return job;
+    }
+
+    private void addQuote(User sender, Job job, String status) {
+        Quote quote = new Quote("10", "1", sender.getEmail(), "", "Quote");
+        quote.setUser(sender);
+        quote.setJob(job);
+        quote.setStatus(status);
+        entityManager.persist(quote);
+    }
+
+    @Test
+    public void removeAcceptedQuotesOfRecord_QuotesOnSeveralRecords_OnlyThatRecordsAcceptedQuotesRemoved() {
+        User tradie = new User("John", "Doe", "john@example.com", "password", "", "");
+        User otherTradie = new User("Jim", "Doe", "jim@example.com", "password", "", "");
+        entityManager.persist(tradie);
+        entityManager.persist(otherTradie);
+        RenovationRecord deleted = entityManager.persist(new RenovationRecord("Deleted", "Record", List.of(), "jane.doe@example.com"));
+        RenovationRecord kept = entityManager.persist(new RenovationRecord("Kept", "Record", List.of(), "jane.doe@example.com"));
+        Job deletedJob = addJob(deleted);
+        Job otherDeletedJob = addJob(deleted);
+        Job keptJob = addJob(kept);
+        addQuote(tradie, deletedJob, "Accepted");
+        addQuote(tradie, otherDeletedJob, "Accepted");
+        addQuote(tradie, keptJob, "Accepted");
+        addQuote(otherTradie, deletedJob, "Rejected");
+        addQuote(otherTradie, keptJob, "Accepted");
+        entityManager.flush();
+        userRepository.recountAcceptedQuotes();
+
+        Assertions.assertEquals(1, userRepository.removeAcceptedQuotesOfRecord(deleted.getId()));
+        entityManager.clear();
+
+        Assertions.assertEquals(1, userRepository.findUserById(tradie.getId()).getNumberOfAcceptedQuotes());
+        Assertions.assertEquals(1, userRepository.findUserById(otherTradie.getId()).getNumberOfAcceptedQuotes());
+    }
+
+    @Test
+    public void findTopQuoteSenders_CountsRecounted_OrderedByAcceptedQuotes() {
+        User tradie = new User("John", "Doe", "john@example.com", "password", "", "");
+        User noAcceptedQuotes = new User("Jim", "Doe", "jim@example.com", "password", "", "");
+        entityManager.persist(tradie);
+        entityManager.persist(noAcceptedQuotes);
+        User jane = entityManager.find(User.class, user.getId());
+        addQuote(jane, "Accepted");
+        addQuote(tradie, "Accepted");
+        addQuote(tradie, "Accepted");
+        addQuote(tradie, "Rejected");
+        addQuote(noAcceptedQuotes, "Pending");
+        entityManager.flush();
+
+        userRepository.recountAcceptedQuotes();
+        entityManager.clear();
+
+        List<User> topSenders = userRepository.findTopQuoteSenders(PageRequest.of(0, 5));
+        Assertions.assertEquals(List.of(tradie.getId(), user.getId()), topSenders.stream().map(User::getId).toList());
+        Assertions.assertEquals(2, topSenders.getFirst().getNumberOfAcceptedQuotes());
+    }
+
+    @Test
+    public void updateAcceptedQuoteCount_QuoteAccepted_CountIncremented() {
+        userRepository.updateAcceptedQuoteCount(user.getId(), 1);
+        entityManager.clear();
+
+        Assertions.assertEquals(1, userRepository.findUserById(user.getId()).getNumberOfAcceptedQuotes());
+    }
+
+    @Test
+    public void addToRatingTotals_RatingAdded_AverageUpdated() {
+        userRepository.addToRatingTotals(user.getId(), 5);
+        userRepository.addToRatingTotals(user.getId(), 2);
+        entityManager.clear();
+
+        User rated = userRepository.findUserById(user.getId());
+        Assertions.assertEquals(2, rated.getRatingCount());
+        Assertions.assertEquals(3.5, rated.getAverageRating());
+    }
+
+    @Test
+    public void recountRatings_RatingsSavedWithoutTotals_TotalsRecounted() {
+        User jane = entityManager.find(User.class, user.getId());
+        entityManager.persist(new Rating(4, jane, null));
+        entityManager.persist(new Rating(1, jane, null));
+        entityManager.flush();
+
+        userRepository.recountRatings();
+        entityManager.clear();
+
+        User rated = userRepository.findUserById(user.getId());
+        Assertions.assertEquals(2, rated.getRatingCount());
+        Assertions.assertEquals(2.5, rated.getAverageRating());
+    }
+
+    @Test
+    public void findTradieJobRows_AcceptedQuotesForCompletedAndOpenJobs_OnlyCompletedJobsReturned() {
+        User jane = entityManager.find(User.class, user.getId());
+        User noJobs = new User("Jim", "Doe", "jim@example.com", "password", "", "");
+        entityManager.persist(noJobs);
+        Job completedJob = new Job("Deck", "Build a deck", "10/01/2025", "01/01/2025");
+        completedJob.setStatus("Completed");
+        completedJob.setCompletedTimestamp(LocalDate.of(2025, 1, 8));
+        Job openJob = new Job("Fence", "Build a fence", "10/01/2025", "01/01/2025");
+        entityManager.persist(completedJob);
+        entityManager.persist(openJob);
+        for (Job job : List.of(completedJob, openJob)) {
+            Quote quote = new Quote("10", "1", jane.getEmail(), "", "Quote");
+            quote.setUser(jane);
+            quote.setJob(job);
+            quote.setStatus("Accepted");
+            entityManager.persist(quote);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<TradieJobRow> rows = userRepository.findTradieJobRows(List.of(user.getId(), noJobs.getId()));
+
+        List<TradieJobRow> janeRows = rows.stream().filter(row -> row.tradieId().equals(user.getId())).toList();
+        Assertions.assertEquals(List.of(completedJob.getId()),
+                janeRows.stream().map(TradieJobRow::jobId).filter(id -> id != null).toList());
+        Assertions.assertEquals(LocalDate.of(2025, 1, 8), janeRows.stream()
+                .filter(row -> row.jobId() != null).findFirst().orElseThrow().completedDate());
+        Assertions.assertTrue(rows.stream().anyMatch(row -> row.tradieId().equals(noJobs.getId()) && row.jobId() == null));
+    }
+}
@@ -0,0 +1,169 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.BulkheadMetrics;
+import nz.ac.canterbury.seng302.homehelper.service.BulkheadExecutor;
+import nz.ac.canterbury.seng302.homehelper.service.BulkheadScheduler;
+import nz.ac.canterbury.seng302.homehelper.service.VirtualThreadBulkhead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkheadExecutorTest {
+
+    private BulkheadExecutor executor;
+    private BulkheadScheduler scheduler;
+    private VirtualThreadBulkhead virtualThreads;
+
+    @AfterEach
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+    }
+
+    @Test
+    public void execute_TasksRun_WaitAndRunTimesRecorded() throws InterruptedException {
+        executor = new BulkheadExecutor("test", 1, 5);
+        executor.initialize();
+        CountDownLatch done = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                sleep(20);
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+        BulkheadMetrics metrics = executor.getMetrics();
+        Assertions.assertEquals("test", metrics.name());
+        Assertions.assertEquals(2, metrics.completedTasks());
+        Assertions.assertTrue(metrics.maxRunMillis() >= 20);
+        // The second task waited for the first to finish
+        Assertions.assertTrue(metrics.maxWaitMillis() >= 15);
+    }
+
+    @Test
+    public void execute_QueueFull_RejectedAndCounted() throws InterruptedException {
+        executor = new BulkheadExecutor("test", 1, 1);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {});
+
+        Assertions.assertThrows(TaskRejectedException.class, () -> executor.execute(() -> {}));
+        BulkheadMetrics metrics = executor.getMetrics();
+        Assertions.assertEquals(1, metrics.rejectedTasks());
+        Assertions.assertEquals(1, metrics.queueDepth());
+        Assertions.assertEquals(1, metrics.activeThreads());
+        release.countDown();
+    }
+
+    @Test
+    public void schedule_TaskDue_RunTimeRecorded() throws InterruptedException {
+        scheduler = new BulkheadScheduler("test", 1);
+        scheduler.initialize();
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.schedule(() -> {
+            sleep(20);
+            done.countDown();
+        }, Instant.now().plusMillis(10));
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        scheduler.getScheduledThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+        BulkheadMetrics metrics = scheduler.getMetrics();
+        Assertions.assertEquals(1, metrics.completedTasks());
+        Assertions.assertTrue(metrics.maxRunMillis() >= 20);
+    }
+
+    @Test
+    public void virtualThreads_TasksRun_RunOnVirtualThreadsAtTheSameTime() throws InterruptedException {
+        virtualThreads = new VirtualThreadBulkhead("test", 2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicInteger ranOnVirtualThread = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            virtualThreads.execute(() -> {
+                if (Thread.currentThread().isVirtual()) {
+                    ranOnVirtualThread.incrementAndGet();
+                }
+                bothStarted.countDown();
+                // Only finishes once the other task has started
+                await(bothStarted);
+                done.countDown();
+            });
+        }
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, ranOnVirtualThread.get());
+
+        BulkheadMetrics metrics = awaitCompleted(virtualThreads, 2);
+        Assertions.assertEquals("test", metrics.name());
+        Assertions.assertEquals(2, metrics.completedTasks());
+        Assertions.assertEquals(0, metrics.activeThreads());
+    }
+
+    @Test
+    public void virtualThreads_LimitReached_RejectedAndCounted() throws InterruptedException {
+        virtualThreads = new VirtualThreadBulkhead("test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        virtualThreads.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> virtualThreads.execute(() -> {}));
+        BulkheadMetrics metrics = virtualThreads.getMetrics();
+        Assertions.assertEquals(1, metrics.rejectedTasks());
+        Assertions.assertEquals(1, metrics.activeThreads());
+        release.countDown();
+        Assertions.assertEquals(1, awaitCompleted(virtualThreads, 1).completedTasks());
+    }
+
+    private static BulkheadMetrics awaitCompleted(VirtualThreadBulkhead bulkhead, long tasks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        BulkheadMetrics metrics = bulkhead.getMetrics();
+        while (metrics.completedTasks() < tasks && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            metrics = bulkhead.getMetrics();
+        }
+        return metrics;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.OutboundEmail;
+import nz.ac.canterbury.seng302.homehelper.repository.OutboundEmailRepository;
+import nz.ac.canterbury.seng302.homehelper.service.EmailOutboxDispatcher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTest {
+
+    @Mock
+    private OutboundEmailRepository outboundEmailRepository;
+    @Mock
+    private JavaMailSender emailSender;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        dispatcher = new EmailOutboxDispatcher(outboundEmailRepository, emailSender, Runnable::run);
+    }
+
+    private List<OutboundEmail> emails(int count) {
+        List<OutboundEmail> emails = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            emails.add(new OutboundEmail("user" + i + "@example.com", "Subject " + i, "Body " + i));
+        }
+        return emails;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboundEmail> captureList(ArgumentCaptor<Iterable<OutboundEmail>> captor) {
+        List<OutboundEmail> captured = new ArrayList<>();
+        captor.getValue().forEach(captured::add);
+        return captured;
+    }
+
+    @Test
+    public void dispatchDueEmails_NoEmailsDue_NothingSent() {
+        when(outboundEmailRepository.findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), any()))
+                .thenReturn(List.of());
+
+        dispatcher.dispatchDueEmails();
+        verify(emailSender, never()).send(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    public void dispatchDueEmails_MoreEmailsThanBatchSize_SentInBatchesAndRemoved() {
+        List<OutboundEmail> due = emails(EmailOutboxDispatcher.BATCH_SIZE + 1);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        when(outboundEmailRepository.findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), pageable.capture()))
+                .thenReturn(due);
+
+        dispatcher.dispatchDueEmails();
+        Assertions.assertEquals(EmailOutboxDispatcher.WORKER_COUNT * EmailOutboxDispatcher.BATCH_SIZE, pageable.getValue().getPageSize());
+        ArgumentCaptor<SimpleMailMessage[]> messages = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(emailSender, times(2)).send(messages.capture());
+        Assertions.assertEquals(EmailOutboxDispatcher.BATCH_SIZE, messages.getAllValues().get(0).length);
+        Assertions.assertEquals(1, messages.getAllValues().get(1).length);
+        verify(outboundEmailRepository).deleteAll(due.subList(0, EmailOutboxDispatcher.BATCH_SIZE));
+        verify(outboundEmailRepository).deleteAll(due.subList(EmailOutboxDispatcher.BATCH_SIZE, due.size()));
+    }
+
+    @Test
+    public void dispatchDueEmails_EmailsDue_LeasedBeforeBeingSent() {
+        List<Runnable> queuedBatches = new ArrayList<>();
+        dispatcher = new EmailOutboxDispatcher(outboundEmailRepository, emailSender, queuedBatches::add);
+        List<OutboundEmail> due = emails(1);
+        when(outboundEmailRepository.findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), any()))
+                .thenReturn(due);
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatchDueEmails();
+        verify(outboundEmailRepository).saveAll(due);
+        verify(emailSender, never()).send(any(SimpleMailMessage[].class));
+        Assertions.assertEquals(1, queuedBatches.size());
+        Assertions.assertFalse(due.get(0).getNextAttemptAt().isBefore(before.plus(EmailOutboxDispatcher.LEASE)));
+    }
+
+    @Test
+    public void dispatchDueEmails_AllWorkersBusy_NothingFetched() {
+        List<Runnable> queuedBatches = new ArrayList<>();
+        dispatcher = new EmailOutboxDispatcher(outboundEmailRepository, emailSender, queuedBatches::add);
+        when(outboundEmailRepository.findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), any()))
+                .thenAnswer(invocation -> emails(1));
+
+        for (int i = 0; i <= EmailOutboxDispatcher.WORKER_COUNT; i++) {
+            dispatcher.dispatchDueEmails();
+        }
+        Assertions.assertEquals(EmailOutboxDispatcher.WORKER_COUNT, queuedBatches.size());
+        verify(outboundEmailRepository, times(EmailOutboxDispatcher.WORKER_COUNT))
+                .findByFailedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(any(), any());
+    }
+
+    @Test
+    public void sendBatch_MailServerDown_AllRetriedWithBackoff() {
+        List<OutboundEmail> batch = emails(2);
+        doThrow(new MailSendException("Mail server connection failed"))
+                .when(emailSender).send(any(SimpleMailMessage[].class));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.sendBatch(batch);
+        verify(outboundEmailRepository).saveAll(batch);
+        verify(outboundEmailRepository).deleteAll(List.of());
+        for (OutboundEmail email : batch) {
+            Assertions.assertEquals(1, email.getAttempts());
+            Assertions.assertFalse(email.isFailed());
+            Assertions.assertFalse(email.getNextAttemptAt().isBefore(before.plus(EmailOutboxDispatcher.BASE_RETRY_DELAY)));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sendBatch_OneMessageRejected_OthersRemovedAndRejectedRetried() {
+        List<OutboundEmail> batch = emails(2);
+        SimpleMailMessage rejected = new SimpleMailMessage();
+        rejected.setFrom("seng301team1000@gmail.com");
+        rejected.setTo("user1@example.com");
+        rejected.setSubject("Subject 1");
+        rejected.setText("Body 1");
+        doThrow(new MailSendException(Map.of(rejected, new Exception("Mailbox unavailable"))))
+                .when(emailSender).send(any(SimpleMailMessage[].class));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.sendBatch(batch);
+        ArgumentCaptor<Iterable<OutboundEmail>> deleted = ArgumentCaptor.forClass(Iterable.class);
+        ArgumentCaptor<Iterable<OutboundEmail>> retried = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboundEmailRepository).deleteAll(deleted.capture());
+        verify(outboundEmailRepository).saveAll(retried.capture());
+        Assertions.assertEquals(List.of(batch.get(0)), captureList(deleted));
+        Assertions.assertEquals(List.of(batch.get(1)), captureList(retried));
+        Assertions.assertEquals(1, batch.get(1).getAttempts());
+        Assertions.assertEquals("Mailbox unavailable", batch.get(1).getLastError());
+        Assertions.assertFalse(batch.get(1).getNextAttemptAt().isBefore(before.plus(EmailOutboxDispatcher.BASE_RETRY_DELAY)));
+    }
+
+    @Test
+    public void sendBatch_FailedTooManyTimes_GivenUp() {
+        List<OutboundEmail> batch = emails(1);
+        doThrow(new MailSendException("Mail server connection failed"))
+                .when(emailSender).send(any(SimpleMailMessage[].class));
+
+        for (int i = 0; i < EmailOutboxDispatcher.MAX_ATTEMPTS; i++) {
+            dispatcher.sendBatch(batch);
+        }
+        LocalDateTime after = LocalDateTime.now();
+        Assertions.assertEquals(EmailOutboxDispatcher.MAX_ATTEMPTS, batch.get(0).getAttempts());
+        Assertions.assertTrue(batch.get(0).isFailed());
+        Assertions.assertFalse(batch.get(0).getNextAttemptAt().isAfter(after));
+    }
+
+    @Test
+    public void removeFailedEmails_FailedEmailsFound_OnlyThoseOlderThanRetentionDeleted() {
+        LocalDateTime now = LocalDateTime.now();
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        when(outboundEmailRepository.findFailedIds(eq(now.minus(EmailOutboxDispatcher.FAILED_RETENTION)), pageable.capture()))
+                .thenReturn(List.of(1L, 2L));
+        when(outboundEmailRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        Assertions.assertEquals(2, dispatcher.removeFailedEmails(now, 10));
+        Assertions.assertEquals(10, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    public void removeFailedEmails_NoFailedEmails_NothingDeleted() {
+        when(outboundEmailRepository.findFailedIds(any(), any())).thenReturn(List.of());
+
+        Assertions.assertEquals(0, dispatcher.removeFailedEmails(LocalDateTime.now(), 10));
+        verify(outboundEmailRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    public void retryDelay_MoreAttempts_DoublesUpToMaximum() {
+        Assertions.assertEquals(Duration.ofSeconds(30), EmailOutboxDispatcher.retryDelay(1));
+        Assertions.assertEquals(Duration.ofSeconds(60), EmailOutboxDispatcher.retryDelay(2));
+        Assertions.assertEquals(Duration.ofSeconds(120), EmailOutboxDispatcher.retryDelay(3));
+        Assertions.assertEquals(EmailOutboxDispatcher.MAX_RETRY_DELAY, EmailOutboxDispatcher.retryDelay(30));
+    }
+}
@@ -0,0 +1,39 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.OutboundEmail;
+import nz.ac.canterbury.seng302.homehelper.repository.OutboundEmailRepository;
+import nz.ac.canterbury.seng302.homehelper.service.EmailService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailServiceTest {
+
+    @Mock
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @InjectMocks
+    private EmailService emailService;
+
+    @Test
+    public void sendResetPasswordLinkEmail_LinkGiven_EmailQueuedInOutbox() {
+        emailService.sendResetPasswordLinkEmail("jane@example.com", "http://localhost/reset-password?token=abc");
+
+        ArgumentCaptor<OutboundEmail> captor = ArgumentCaptor.forClass(OutboundEmail.class);
+        verify(outboundEmailRepository).save(captor.capture());
+        OutboundEmail email = captor.getValue();
+        Assertions.assertEquals("jane@example.com", email.getRecipient());
+        Assertions.assertEquals("Reset Password Home Helper", email.getSubject());
+        Assertions.assertTrue(email.getBody().endsWith("http://localhost/reset-password?token=abc"));
+        Assertions.assertEquals(0, email.getAttempts());
+        Assertions.assertFalse(email.isFailed());
+        Assertions.assertEquals(email.getCreatedAt(), email.getNextAttemptAt());
+    }
+}
@@ -0,0 +1,61 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.EmailOutboxDispatcher;
+import nz.ac.canterbury.seng302.homehelper.service.ExpiredDataSweeper;
+import nz.ac.canterbury.seng302.homehelper.service.ResetPasswordService;
+import nz.ac.canterbury.seng302.homehelper.service.UserService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiredDataSweeperTest {
+    @Mock
+    public ResetPasswordService resetPasswordService;
+    @Mock
+    public UserService userService;
+    @Mock
+    public EmailOutboxDispatcher emailOutboxDispatcher;
+    @InjectMocks
+    public ExpiredDataSweeper expiredDataSweeper;
+
+    @Test
+    public void sweep_FullChunks_DeletesUntilChunkNotFull() {
+        List<Integer> remaining = new ArrayList<>(List.of(ExpiredDataSweeper.CHUNK_SIZE, ExpiredDataSweeper.CHUNK_SIZE, 3, 0));
+        int total = expiredDataSweeper.sweep("rows", LocalDateTime.now(), (now, limit) -> remaining.remove(0));
+
+        Assertions.assertEquals(2 * ExpiredDataSweeper.CHUNK_SIZE + 3, total);
+        Assertions.assertEquals(List.of(0), remaining);
+    }
+
+    @Test
+    public void sweep_ChunkFails_LaterSweepsStillRun() {
+        when(resetPasswordService.removeExpiredTokens(any(LocalDateTime.class), eq(ExpiredDataSweeper.CHUNK_SIZE)))
+                .thenThrow(new IllegalStateException("deadlock"));
+        when(userService.removeExpiredUnverifiedUsers(any(LocalDateTime.class), eq(ExpiredDataSweeper.CHUNK_SIZE)))
+                .thenReturn(1);
+
+        Assertions.assertDoesNotThrow(() -> expiredDataSweeper.sweep());
+        verify(userService, times(1)).removeExpiredUnverifiedUsers(any(LocalDateTime.class), eq(ExpiredDataSweeper.CHUNK_SIZE));
+    }
+
+    @Test
+    public void sweep_FailedOutboxEmails_RemovedWithOtherExpiredData() {
+        when(emailOutboxDispatcher.removeFailedEmails(any(LocalDateTime.class), eq(ExpiredDataSweeper.CHUNK_SIZE)))
+                .thenReturn(ExpiredDataSweeper.CHUNK_SIZE, 2);
+
+        expiredDataSweeper.sweep();
+        verify(emailOutboxDispatcher, times(2)).removeFailedEmails(any(LocalDateTime.class), eq(ExpiredDataSweeper.CHUNK_SIZE));
+    }
+}
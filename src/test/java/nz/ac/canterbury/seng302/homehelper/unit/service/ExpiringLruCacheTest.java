@@ -0,0 +1,61 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.ExpiringLruCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExpiringLruCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(2, Duration.ofMinutes(1), now::get);
+
+    @Test
+    public void get_ValueCached_ValueReturned() {
+        cache.put("a", "1");
+        Assertions.assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    public void put_CacheFull_LeastRecentlyUsedDropped() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+        Assertions.assertEquals("1", cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void get_TimeToLivePassed_NullAndRemoved() {
+        cache.put("a", "1");
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void remove_ValueCached_ValueRemoved() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.remove("a");
+
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals("2", cache.get("b"));
+    }
+
+    @Test
+    public void removeIf_SomeValuesMatch_OnlyMatchingValuesRemoved() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.removeIf((key, value) -> value.equals("2"));
+
+        Assertions.assertEquals("1", cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+    }
+}
@@ -0,0 +1,44 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
+import nz.ac.canterbury.seng302.homehelper.service.FieldValidationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class FieldErrorsTest {
+
+    @Test
+    public void get_SeveralErrorsForField_FirstErrorReturned() {
+        FieldErrors errors = new FieldErrors();
+        errors.add("name", "Name is too long");
+        errors.add("name", "Name is not unique");
+        errors.add("description", "Description is empty");
+
+        Assertions.assertEquals(List.of("Name is too long", "", "Description is empty"),
+                errors.get("name", "rooms", "description"));
+        Assertions.assertEquals("Name is too long Name is not unique Description is empty", errors.toString());
+    }
+
+    @Test
+    public void throwIfAny_NoErrors_NothingThrown() {
+        Assertions.assertDoesNotThrow(() -> new FieldErrors().throwIfAny());
+    }
+
+    @Test
+    public void throwIfAny_Errors_ExceptionHoldsErrorsAndJoinedMessage() {
+        FieldErrors errors = new FieldErrors();
+        errors.add("email", "Email is invalid");
+        errors.add("location", "CITY POSTCODE");
+
+        FieldValidationException exception = Assertions.assertThrows(FieldValidationException.class, errors::throwIfAny);
+        Assertions.assertEquals("Email is invalid CITY POSTCODE", exception.getMessage());
+        Assertions.assertSame(errors, FieldErrors.of(exception));
+    }
+
+    @Test
+    public void of_OtherIllegalArgumentException_NoErrors() {
+        Assertions.assertTrue(FieldErrors.of(new IllegalArgumentException("Record not found")).isEmpty());
+    }
+}
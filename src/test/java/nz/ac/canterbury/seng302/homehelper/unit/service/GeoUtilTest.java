@@ -0,0 +1,24 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.GeoUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeoUtilTest {
+
+    @Test
+    public void distanceKm_SamePoint_ZeroReturned() {
+        Assertions.assertEquals(0, GeoUtil.distanceKm(-43.53, 172.63, -43.53, 172.63), 1e-9);
+    }
+
+    @Test
+    public void distanceKm_ChristchurchToAuckland_GreatCircleDistanceReturned() {
+        Assertions.assertEquals(764, GeoUtil.distanceKm(-43.53, 172.63, -36.85, 174.76), 5);
+    }
+
+    @Test
+    public void distanceKm_PointsSwapped_SameDistanceReturned() {
+        Assertions.assertEquals(GeoUtil.distanceKm(-43.53, 172.63, -36.85, 174.76),
+                GeoUtil.distanceKm(-36.85, 174.76, -43.53, 172.63), 1e-9);
+    }
+}
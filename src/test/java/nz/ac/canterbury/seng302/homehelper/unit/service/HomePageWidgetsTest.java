@@ -0,0 +1,261 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.*;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
+import nz.ac.canterbury.seng302.homehelper.service.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class HomePageWidgetsTest {
+    @Mock
+    private JobService jobService;
+    @Mock
+    private JobRecommendationService jobRecommendationService;
+    @Mock
+    private RenovationRecordService renovationRecordService;
+    @Mock
+    private UserService userService;
+    @Mock
+    private QuoteService quoteService;
+    @Mock
+    private ImageStore imageStore;
+
+    private VirtualThreadBulkhead executor;
+    private User user;
+    private List<JobCardInfo> cards;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new VirtualThreadBulkhead("test", 10);
+        user = new User("Jane", "Doe", "jane@doe.nz", "P4$$word", null, null);
+        user.setId(1L);
+        user.setRecentJobs(List.of(5L));
+        cards = List.of(new JobCardInfo(5L, "Job", null, null, null, "Not Started", null, null, null, null,
+                "Jane", "Doe", null, null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private HomePageWidgets widgets(Executor executor) {
+        return new HomePageWidgets(jobService, jobRecommendationService, renovationRecordService, userService,
+                quoteService, imageStore, executor, TransactionOperations.withoutTransaction(), Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void loadWidgets_OneWidgetEnabled_OnlyThatWidgetLoaded() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS));
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenReturn(cards);
+
+        Map<String, Object> attributes = widgets(executor).loadWidgets(user);
+
+        Assertions.assertEquals(Map.of("recentJobs", cards), attributes);
+        Mockito.verifyNoInteractions(renovationRecordService, quoteService);
+        Mockito.verify(userService, Mockito.never()).getHottestTradies();
+    }
+
+    @Test
+    public void loadWidgets_RecommendationsEnabled_RecommendedUsingRecentJobs() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.JOB_RECOMMENDATIONS));
+        user.setCity("Christchurch");
+        user.setLatitude(-43.5f);
+        user.setLongitude(172.6f);
+        Mockito.when(jobRecommendationService.getRecommendedJobCards("jane@doe.nz", "Christchurch", -43.5f, 172.6f,
+                List.of(5L))).thenReturn(cards);
+
+        Map<String, Object> attributes = widgets(executor).loadWidgets(user);
+
+        Assertions.assertEquals(Map.of("recommendedJobs", cards), attributes);
+    }
+
+    @Test
+    public void loadWidgets_LocationChanged_RecommendationsReloaded() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.JOB_RECOMMENDATIONS));
+        HomePageWidgets widgets = widgets(executor);
+
+        widgets.loadWidgets(user);
+        user.setLatitude(-43.5f);
+        user.setLongitude(172.6f);
+        widgets.loadWidgets(user);
+
+        Mockito.verify(jobRecommendationService).getRecommendedJobCards("jane@doe.nz", null, 0f, 0f, List.of(5L));
+        Mockito.verify(jobRecommendationService).getRecommendedJobCards("jane@doe.nz", null, -43.5f, 172.6f,
+                List.of(5L));
+    }
+
+    @Test
+    public void loadWidgets_LoadedTwice_SecondLoadCached() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS, HomePageWidgets.HOTTEST_TRADIES));
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenReturn(cards);
+        Mockito.when(userService.getHottestTradies()).thenReturn(List.of(user));
+        HomePageWidgets widgets = widgets(executor);
+
+        widgets.loadWidgets(user);
+        Map<String, Object> attributes = widgets.loadWidgets(user);
+
+        Assertions.assertEquals(cards, attributes.get("recentJobs"));
+        Assertions.assertEquals(List.of(user), attributes.get("hottestTradies"));
+        Mockito.verify(jobService, Mockito.times(1)).getJobCards(List.of(5L));
+        Mockito.verify(userService, Mockito.times(1)).getHottestTradies();
+    }
+
+    @Test
+    public void loadWidgets_RecentJobsChanged_RecentJobsReloaded() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS));
+        HomePageWidgets widgets = widgets(executor);
+
+        widgets.loadWidgets(user);
+        user.setRecentJobs(List.of(6L, 5L));
+        widgets.loadWidgets(user);
+
+        Mockito.verify(jobService).getJobCards(List.of(5L));
+        Mockito.verify(jobService).getJobCards(List.of(6L, 5L));
+    }
+
+    @Test
+    public void loadWidgets_JobChanged_JobWidgetsReloaded() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS, HomePageWidgets.HOTTEST_TRADIES));
+        HomePageWidgets widgets = widgets(executor);
+
+        widgets.loadWidgets(user);
+        widgets.onEntityChanged(new EntityChangedEvent(Job.class, new Job("Job", "Job", null, null), false));
+        widgets.loadWidgets(user);
+
+        Mockito.verify(jobService, Mockito.times(2)).getJobCards(List.of(5L));
+        Mockito.verify(userService, Mockito.times(1)).getHottestTradies();
+    }
+
+    @Test
+    public void loadWidgets_QuoteChanged_LeaderboardReloaded() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS, HomePageWidgets.HOTTEST_TRADIES));
+        HomePageWidgets widgets = widgets(executor);
+
+        widgets.loadWidgets(user);
+        widgets.onEntityChanged(new EntityChangedEvent(Quote.class, new Quote(), false));
+        widgets.loadWidgets(user);
+
+        Mockito.verify(jobService, Mockito.times(1)).getJobCards(List.of(5L));
+        Mockito.verify(userService, Mockito.times(2)).getHottestTradies();
+    }
+
+    @Test
+    public void loadWidgets_TwoWidgets_LoadedAtTheSameTime() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS, HomePageWidgets.HOTTEST_TRADIES));
+        CountDownLatch bothLoading = new CountDownLatch(2);
+        // Each loader only finishes once the other has started, so loading them one after the other would fail
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenAnswer(invocation -> {
+            bothLoading.countDown();
+            Assertions.assertTrue(bothLoading.await(5, TimeUnit.SECONDS));
+            return cards;
+        });
+        Mockito.when(userService.getHottestTradies()).thenAnswer(invocation -> {
+            bothLoading.countDown();
+            Assertions.assertTrue(bothLoading.await(5, TimeUnit.SECONDS));
+            return List.of(user);
+        });
+
+        Map<String, Object> attributes = widgets(executor).loadWidgets(user);
+
+        Assertions.assertEquals(cards, attributes.get("recentJobs"));
+        Assertions.assertEquals(List.of(user), attributes.get("hottestTradies"));
+    }
+
+    @Test
+    public void loadWidgets_ExecutorFull_LoadedOnCallingThread() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS));
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenReturn(cards);
+        Executor full = task -> {
+            throw new RejectedExecutionException("Full");
+        };
+
+        Map<String, Object> attributes = widgets(full).loadWidgets(user);
+
+        Assertions.assertEquals(cards, attributes.get("recentJobs"));
+    }
+
+    @Test
+    public void loadWidgets_LoaderTooSlow_WidgetShownEmptyThenCached() throws InterruptedException {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS));
+        CountDownLatch timedOut = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenAnswer(invocation -> {
+            Assertions.assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+            return cards;
+        });
+        HomePageWidgets widgets = new HomePageWidgets(jobService, jobRecommendationService, renovationRecordService,
+                userService, quoteService, imageStore, task -> executor.execute(() -> {
+                    task.run();
+                    loaded.countDown();
+                }), TransactionOperations.withoutTransaction(), Duration.ofMillis(50));
+
+        Map<String, Object> attributes = widgets.loadWidgets(user);
+        timedOut.countDown();
+        Assertions.assertTrue(loaded.await(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(List.of(), attributes.get("recentJobs"));
+        Assertions.assertEquals(1, widgets.getTimedOutLoadCount());
+        Assertions.assertEquals(cards, widgets.loadWidgets(user).get("recentJobs"));
+        Mockito.verify(jobService, Mockito.times(1)).getJobCards(List.of(5L));
+    }
+
+    @Test
+    public void loadWidgets_LoaderFails_ExceptionRethrown() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.RECENT_JOBS));
+        Mockito.when(jobService.getJobCards(List.of(5L))).thenThrow(new IllegalStateException("Database down"));
+
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> widgets(executor).loadWidgets(user));
+        Assertions.assertEquals("Database down", e.getMessage());
+    }
+
+    @Test
+    public void loadWidgets_CalendarEnabled_RecordJobsThenAcceptedQuoteJobs() {
+        user.setHomePageWidgetOrder(List.of(HomePageWidgets.JOB_CALENDAR));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "jane@doe.nz");
+        record.setId(2L);
+        Job ownJob = new Job("Own job", "Own job", null, null);
+        ownJob.setId(3L);
+        ownJob.setRenovationRecord(record);
+        ownJob.setLastUpdated(LocalDateTime.now().minusHours(1));
+        record.setJobs(List.of(ownJob));
+        Job quotedJob = new Job("Quoted job", "Quoted job", null, null);
+        quotedJob.setId(4L);
+        quotedJob.setRenovationRecord(record);
+        quotedJob.setLastUpdated(LocalDateTime.now());
+        Quote accepted = new Quote("100", "5", "", "", "Description");
+        accepted.setJob(quotedJob);
+        accepted.setStatus("Accepted");
+        Quote pending = new Quote("100", "5", "", "", "Description");
+        pending.setJob(ownJob);
+        pending.setStatus("Pending");
+        Mockito.when(renovationRecordService.getRenovationRecordsWithJobsByOwner("jane@doe.nz")).thenReturn(List.of(record));
+        Mockito.when(quoteService.getQuotesByUserId(1L)).thenReturn(List.of(accepted, pending));
+
+        Map<String, Object> attributes = widgets(executor).loadWidgets(user);
+
+        Assertions.assertEquals(List.of(3L, 4L), attributes.get("jobIds"));
+        Assertions.assertEquals(List.of(2L, 2L), attributes.get("recordIds"));
+        Assertions.assertEquals(List.of("Own job", "Quoted job"), attributes.get("jobNames"));
+        Assertions.assertEquals(List.of(false, true), attributes.get("isQuotedJob"));
+        Assertions.assertEquals(List.of(false, true), attributes.get("jobWasModified"));
+    }
+}
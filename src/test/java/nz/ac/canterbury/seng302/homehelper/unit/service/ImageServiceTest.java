@@ -3,10 +3,14 @@ package nz.ac.canterbury.seng302.homehelper.unit.service;
 import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Room;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
 import nz.ac.canterbury.seng302.homehelper.service.ImageService;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -16,13 +20,19 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 public class ImageServiceTest {
@@ -42,13 +52,13 @@ public class ImageServiceTest {
     }
 
     @Test
-    void saveImage_ValidImageGiven_ImageSavedAsUserProfilePicture() throws IOException {
+    void saveImage_ValidImageGiven_ImageSavedAsUserProfilePicture() throws IOException, NoSuchAlgorithmException {
         User user = new User("Jane", "Doe", "jane@doe.nz", "P4$$word", null, null);
         user.setId(1L);
         MockMultipartFile file = new MockMultipartFile("file", "test.png", "image/png", "test".getBytes());
         imageService.saveImage(file, user);
 
-        String uniqueFileName = "user" + user.getId().toString() + file.getOriginalFilename();
+        String uniqueFileName = contentHash(file) + ".png";
         Path uploadPath = Paths.get("uploads/images/");
         Path filePath = uploadPath.resolve(uniqueFileName);
         assertTrue(Files.exists(filePath));
@@ -56,13 +66,13 @@ public class ImageServiceTest {
     }
 
     @Test
-    void saveJobImage_ValidJobImageGiven_ImageSavedInJobImages() throws IOException {
+    void saveJobImage_ValidJobImageGiven_ImageSavedInJobImages() throws IOException, NoSuchAlgorithmException {
         Job job = new Job("Job", "Job", null, null);
         job.setId(1L);
         MockMultipartFile file = new MockMultipartFile("file", "test.png", "image/png", "test".getBytes());
         imageService.saveJobImage(file, job);
 
-        String uniqueFileName = "job" + job.getId().toString() + file.getOriginalFilename();
+        String uniqueFileName = contentHash(file) + ".png";
         Path uploadPath = Paths.get("uploads/images/");
         Path filePath = uploadPath.resolve(uniqueFileName);
         assertTrue(Files.exists(filePath));
@@ -70,29 +80,38 @@ public class ImageServiceTest {
     }
 
     @Test
-    void removeJobImage_ValidJobImageGiven_ImageSavedInJobImages() throws IOException {
+    void saveJobImage_SameImageUploadedTwice_StoredOnce() throws IOException, NoSuchAlgorithmException {
         Job job = new Job("Job", "Job", null, null);
         job.setId(1L);
         MockMultipartFile file = new MockMultipartFile("file", "test.png", "image/png", "test".getBytes());
+        MockMultipartFile renamedFile = new MockMultipartFile("file", "other.png", "image/png", "test".getBytes());
         imageService.saveJobImage(file, job);
+        imageService.saveJobImage(renamedFile, job);
 
-        String uniqueFileName = "job" + job.getId().toString() + file.getOriginalFilename();
+        assertEquals(job.getImageFilenames().get(0), job.getImageFilenames().get(1));
+    }
+
+    @Test
+    void removeJobImage_ValidJobImageGiven_ImageSavedInJobImages() throws IOException, NoSuchAlgorithmException {
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(1L);
+        MockMultipartFile file = new MockMultipartFile("file", "test.png", "image/png", "test".getBytes());
+        imageService.saveJobImage(file, job);
+
+        String uniqueFileName = contentHash(file) + ".png";
         imageService.removeJobImage(uniqueFileName, job);
 
-        Path uploadPath = Paths.get("uploads/images/");
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        assertFalse(Files.exists(filePath));
         assertFalse(job.getImageFilenames().contains(uniqueFileName));
     }
 
     @Test
-    void saveRoomImage_ValidRoomImageGiven_ImageSavedAsRoomImage() throws IOException {
+    void saveRoomImage_ValidRoomImageGiven_ImageSavedAsRoomImage() throws IOException, NoSuchAlgorithmException {
         Room room = new Room("Room");
         room.setId(1L);
         MockMultipartFile file = new MockMultipartFile("file", "test.png", "image/png", "test".getBytes());
         imageService.saveRoomImage(file, room);
 
-        String uniqueFileName = "room" + room.getId().toString() + file.getOriginalFilename();
+        String uniqueFileName = contentHash(file) + ".png";
         Path uploadPath = Paths.get("uploads/images/");
         Path filePath = uploadPath.resolve(uniqueFileName);
         assertTrue(Files.exists(filePath));
@@ -111,4 +130,26 @@ public class ImageServiceTest {
         }, "You cannot have more than 5 images per job");
 
     }
+
+    @Test
+    void removeUnreferencedImages_OneImageStillUsed_OnlyUnusedImageDeleted(@TempDir Path imageDirectory) throws IOException {
+        ImageStore imageStore = new ImageStore(imageDirectory, work -> { });
+        UserRepository users = mock(UserRepository.class);
+        JobRepository jobs = mock(JobRepository.class);
+        RoomRepository rooms = mock(RoomRepository.class);
+        ImageService sweepingImageService = new ImageService(null, null, null, imageStore, users, jobs, rooms);
+        String usedImage = imageStore.store(new MockMultipartFile("file", "used.png", "image/png", "used".getBytes()));
+        String unusedImage = imageStore.store(new MockMultipartFile("file", "unused.png", "image/png", "unused".getBytes()));
+        when(jobs.findImageFilenamesIn(any())).thenReturn(List.of(usedImage));
+
+        int removed = sweepingImageService.removeUnreferencedImages(Instant.now().plusSeconds(60));
+
+        assertEquals(1, removed);
+        assertTrue(Files.exists(imageDirectory.resolve(usedImage)));
+        assertFalse(Files.exists(imageDirectory.resolve(unusedImage)));
+    }
+
+    private static String contentHash(MockMultipartFile file) throws IOException, NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file.getBytes()));
+    }
 }
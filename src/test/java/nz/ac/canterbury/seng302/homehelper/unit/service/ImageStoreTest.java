@@ -0,0 +1,200 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.ImageUrls;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ImageStoreTest {
+
+    @TempDir
+    Path imageDirectory;
+
+    private final List<Runnable> queuedWork = new ArrayList<>();
+    private ImageStore imageStore;
+
+    @BeforeEach
+    public void setUp() {
+        imageStore = new ImageStore(imageDirectory, queuedWork::add);
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private void runQueuedWork() {
+        List<Runnable> work = new ArrayList<>(queuedWork);
+        queuedWork.clear();
+        work.forEach(Runnable::run);
+    }
+
+    @Test
+    public void store_SameContentsTwice_StoredOnceUnderContentHash() throws IOException {
+        byte[] contents = image(10, 10, "png");
+        String first = imageStore.store(new MockMultipartFile("file", "a.png", "image/png", contents));
+        String second = imageStore.store(new MockMultipartFile("file", "b.png", "image/png", contents));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertTrue(ImageStore.isContentAddressed(first));
+        Assertions.assertTrue(first.endsWith(".png"));
+        try (var files = Files.list(imageDirectory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void cardUrl_VariantNotGenerated_OriginalUntilVariantReady() throws IOException {
+        String filename = imageStore.store(new MockMultipartFile("file", "big.jpg", "image/jpeg", image(2000, 1000, "jpg")));
+        Assertions.assertEquals("/profileImages/" + filename, imageStore.cardUrl(filename));
+
+        runQueuedWork();
+
+        String cardUrl = imageStore.cardUrl(filename);
+        Assertions.assertTrue(cardUrl.startsWith("/profileImages/variants/"));
+        Assertions.assertTrue(cardUrl.endsWith("-480.jpg"));
+        BufferedImage variant = ImageIO.read(imageDirectory.resolve("variants").resolve(cardUrl.substring("/profileImages/variants/".length())).toFile());
+        Assertions.assertEquals(480, variant.getWidth());
+        Assertions.assertEquals(240, variant.getHeight());
+    }
+
+    @Test
+    public void thumbnailUrl_PngImage_PngVariant() throws IOException {
+        String filename = imageStore.store(new MockMultipartFile("file", "icon.png", "image/png", image(300, 300, "png")));
+        runQueuedWork();
+        Assertions.assertTrue(imageStore.thumbnailUrl(filename).endsWith("-128.png"));
+    }
+
+    @Test
+    public void galleryUrl_ImageSmallerThanVariant_Original() throws IOException {
+        String filename = imageStore.store(new MockMultipartFile("file", "small.png", "image/png", image(300, 300, "png")));
+        runQueuedWork();
+        Assertions.assertEquals("/profileImages/" + filename, imageStore.galleryUrl(filename));
+    }
+
+    @Test
+    public void cardUrl_SvgImage_OriginalWithoutVariants() throws IOException {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes();
+        String filename = imageStore.store(new MockMultipartFile("file", "logo.svg", "image/svg+xml", svg));
+        Assertions.assertTrue(queuedWork.isEmpty());
+        Assertions.assertEquals("/profileImages/" + filename, imageStore.cardUrl(filename));
+    }
+
+    @Test
+    public void cardUrl_ImageHeaderOverPixelBudget_OriginalWithoutDecoding() throws IOException {
+        byte[] contents = image(10, 10, "png");
+        // Claims to be 50000 by 50000 pixels in the PNG header while holding the pixels of a 10 by 10 image
+        ByteBuffer.wrap(contents, 16, 8).putInt(50000).putInt(50000);
+        String filename = imageStore.store(new MockMultipartFile("file", "bomb.png", "image/png", contents));
+
+        runQueuedWork();
+
+        Assertions.assertEquals("/profileImages/" + filename, imageStore.cardUrl(filename));
+        Assertions.assertFalse(Files.exists(imageDirectory.resolve("variants")));
+    }
+
+    @Test
+    public void cardUrl_LegacyImageWithoutVariants_GeneratedOnDemand() throws IOException {
+        Files.write(imageDirectory.resolve("user1photo.jpg"), image(1000, 500, "jpg"));
+        Assertions.assertEquals("/profileImages/user1photo.jpg", imageStore.cardUrl("user1photo.jpg"));
+        Assertions.assertEquals(1, queuedWork.size());
+        imageStore.cardUrl("user1photo.jpg");
+        Assertions.assertEquals(1, queuedWork.size());
+
+        runQueuedWork();
+
+        Assertions.assertEquals("/profileImages/variants/user1photo-480.jpg", imageStore.cardUrl("user1photo.jpg"));
+    }
+
+    @Test
+    public void cardUrlForPath_DefaultImage_Unchanged() {
+        Assertions.assertEquals("/images/JobDefault.png", imageStore.cardUrlForPath("/images/JobDefault.png"));
+        Assertions.assertNull(imageStore.thumbnailUrlForPath(null));
+        Assertions.assertNull(imageStore.cardUrl(null));
+    }
+
+    @Test
+    public void getImageUrls_ImagesAndMissingImages_UrlsOfEachSize() throws IOException {
+        String filename = imageStore.store(new MockMultipartFile("file", "big.jpg", "image/jpeg", image(2000, 1000, "jpg")));
+        runQueuedWork();
+
+        ImageUrls imageUrls = imageStore.getImageUrls(Arrays.asList(filename, null, ""));
+
+        Assertions.assertTrue(imageUrls.thumbnail(filename).endsWith("-128.jpg"));
+        Assertions.assertTrue(imageUrls.card(filename).endsWith("-480.jpg"));
+        Assertions.assertEquals(imageStore.galleryUrl(filename), imageUrls.gallery(filename));
+        Assertions.assertNull(imageUrls.card(null));
+        Assertions.assertEquals(1, imageUrls.cards().size());
+    }
+
+    @Test
+    public void isImmutable_ContentAddressedImagesAndVariants_True() {
+        String hash = "0123456789abcdef".repeat(4);
+        Assertions.assertTrue(ImageStore.isImmutable(hash + ".png"));
+        Assertions.assertTrue(ImageStore.isImmutable("variants/" + hash + "-128.jpg"));
+        Assertions.assertFalse(ImageStore.isImmutable("user1.png"));
+        Assertions.assertFalse(ImageStore.isImmutable("variants/user1-128.jpg"));
+    }
+
+    @Test
+    public void resolve_PathOutsideImageDirectory_Null() throws IOException {
+        Files.write(imageDirectory.resolve("user1.png"), new byte[] {1});
+        Assertions.assertEquals(imageDirectory.resolve("user1.png"), imageStore.resolve("user1.png"));
+        Assertions.assertNull(imageStore.resolve("../user1.png"));
+        Assertions.assertNull(imageStore.resolve("missing.png"));
+    }
+
+    @Test
+    public void findContentAddressedImages_ImageStoredAfterTime_NotFound() throws IOException {
+        String oldImage = imageStore.store(new MockMultipartFile("file", "old.png", "image/png", image(10, 10, "png")));
+        Files.setLastModifiedTime(imageDirectory.resolve(oldImage), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        imageStore.store(new MockMultipartFile("file", "new.png", "image/png", image(20, 20, "png")));
+        Files.writeString(imageDirectory.resolve("legacy.png"), "legacy");
+        Files.setLastModifiedTime(imageDirectory.resolve("legacy.png"), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        Assertions.assertEquals(List.of(oldImage), imageStore.findContentAddressedImages(Instant.now().minus(Duration.ofHours(1))));
+    }
+
+    @Test
+    public void findContentAddressedImages_OldImageUploadedAgain_NotFound() throws IOException {
+        byte[] contents = image(10, 10, "png");
+        String filename = imageStore.store(new MockMultipartFile("file", "a.png", "image/png", contents));
+        Files.setLastModifiedTime(imageDirectory.resolve(filename), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        imageStore.store(new MockMultipartFile("file", "b.png", "image/png", contents));
+
+        Assertions.assertEquals(List.of(), imageStore.findContentAddressedImages(Instant.now().minus(Duration.ofHours(1))));
+    }
+
+    @Test
+    public void delete_ImageWithVariants_ImageAndVariantsDeleted() throws IOException {
+        String filename = imageStore.store(new MockMultipartFile("file", "big.jpg", "image/jpeg", image(2000, 1000, "jpg")));
+        runQueuedWork();
+        Assertions.assertTrue(imageStore.cardUrl(filename).startsWith("/profileImages/variants/"));
+
+        imageStore.delete(filename);
+
+        Assertions.assertNull(imageStore.resolve(filename));
+        try (var variants = Files.list(imageDirectory.resolve("variants"))) {
+            Assertions.assertEquals(0, variants.filter(file -> !file.getFileName().toString().endsWith(".tmp")).count());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.NearbyJob;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangedEvent;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class JobLocationIndexTest {
+
+    private static final float CHRISTCHURCH_LATITUDE = -43.53f;
+    private static final float CHRISTCHURCH_LONGITUDE = 172.63f;
+
+    private JobLocationIndex jobLocationIndex;
+
+    @BeforeEach
+    public void setUp() {
+        jobLocationIndex = new JobLocationIndex();
+    }
+
+    private static JobLocation location(long jobId, long recordId, float latitude, float longitude) {
+        return new JobLocation(jobId, recordId, "Job " + jobId, latitude, longitude);
+    }
+
+    private void rebuild(List<JobLocation> locations) {
+        jobLocationIndex.startRebuild();
+        jobLocationIndex.finishRebuild(locations);
+    }
+
+    private List<Long> nearChristchurch(double radiusKm) {
+        return jobLocationIndex.findWithinRadius(CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, radiusKm, 100)
+                .stream().map(NearbyJob::jobId).toList();
+    }
+
+    @Test
+    public void findWithinRadius_JobsNearAndFar_OnlyNearJobsNearestFirst() {
+        rebuild(List.of(
+                location(1, 1, -43.60f, 172.70f),
+                location(2, 2, -43.531f, 172.631f),
+                location(3, 3, -36.85f, 174.76f),
+                location(4, 4, -43.50f, 172.55f)));
+
+        Assertions.assertEquals(List.of(2L, 4L, 1L), nearChristchurch(20));
+        Assertions.assertEquals(List.of(2L), nearChristchurch(1));
+    }
+
+    @Test
+    public void findWithinRadius_JobInNeighbouringCell_DistanceReturned() {
+        // About 5.5km north of Christchurch, which is in a different cell of the grid
+        rebuild(List.of(location(1, 1, -43.48f, CHRISTCHURCH_LONGITUDE)));
+
+        List<NearbyJob> nearbyJobs = jobLocationIndex.findWithinRadius(CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, 10, 100);
+
+        Assertions.assertEquals(1, nearbyJobs.size());
+        Assertions.assertEquals(5.56, nearbyJobs.getFirst().distanceKm(), 0.05);
+        Assertions.assertEquals("Job 1", nearbyJobs.getFirst().name());
+    }
+
+    @Test
+    public void findWithinRadius_MoreJobsThanLimit_NearestJobsReturned() {
+        List<JobLocation> locations = new ArrayList<>();
+        for (long jobId = 1; jobId <= 10; jobId++) {
+            locations.add(location(jobId, jobId, CHRISTCHURCH_LATITUDE + jobId * 0.001f, CHRISTCHURCH_LONGITUDE));
+        }
+        rebuild(locations);
+
+        List<NearbyJob> nearbyJobs = jobLocationIndex.findWithinRadius(CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, 10, 3);
+
+        Assertions.assertEquals(List.of(1L, 2L, 3L), nearbyJobs.stream().map(NearbyJob::jobId).toList());
+    }
+
+    @Test
+    public void findWithinRadius_JobHasNoCoordinates_NotFound() {
+        rebuild(List.of(location(1, 1, 0, 0)));
+
+        Assertions.assertEquals(List.of(), jobLocationIndex.findWithinRadius(0, 0, 10, 100));
+    }
+
+    @Test
+    public void findWithinRadius_RadiusCrossesDateLine_JobsOnBothSidesFound() {
+        rebuild(List.of(location(1, 1, -44f, 179.95f), location(2, 2, -44f, -179.95f), location(3, 3, -44f, 179f)));
+
+        List<Long> jobIds = jobLocationIndex.findWithinRadius(-44, 180, 10, 100).stream().map(NearbyJob::jobId).toList();
+
+        Assertions.assertEquals(List.of(1L, 2L), jobIds.stream().sorted().toList());
+    }
+
+    @Test
+    public void findWithinRadius_ManyJobs_SameAsCheckingEveryJob() {
+        List<JobLocation> locations = new ArrayList<>();
+        Random random = new Random(7);
+        for (long jobId = 1; jobId <= 5000; jobId++) {
+            locations.add(location(jobId, jobId, -47 + random.nextFloat() * 12.5f, 166.5f + random.nextFloat() * 12));
+        }
+        rebuild(locations);
+
+        for (double radiusKm : List.of(5.0, 50.0, 500.0)) {
+            Assertions.assertEquals(
+                    JobLocationIndex.findWithinRadius(locations, CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE, radiusKm, 100)
+                            .stream().map(NearbyJob::jobId).toList(),
+                    nearChristchurch(radiusKm));
+        }
+    }
+
+    @Test
+    public void findInBoundingBox_JobsInsideAndOutside_OnlyInsideJobsReturned() {
+        rebuild(List.of(location(2, 1, -43.53f, 172.63f), location(1, 1, -43.40f, 172.50f),
+                location(3, 2, -36.85f, 174.76f)));
+
+        List<MapMarker> markers = jobLocationIndex.findInBoundingBox(-44, 172, -43, 173);
+
+        Assertions.assertEquals(List.of(1L, 2L), markers.stream().map(MapMarker::jobId).toList());
+        Assertions.assertEquals(-43.40, markers.getFirst().pos().lat, 0.001);
+        Assertions.assertEquals(172.50, markers.getFirst().pos().lng, 0.001);
+    }
+
+    @Test
+    public void findInBoundingBox_AreaCrossesDateLine_JobsOnBothSidesFound() {
+        rebuild(List.of(location(1, 1, -44f, 179.5f), location(2, 2, -44f, -179.5f), location(3, 3, -44f, 170f)));
+
+        List<MapMarker> markers = jobLocationIndex.findInBoundingBox(-45, 179, -43, -179);
+
+        Assertions.assertEquals(List.of(1L, 2L), markers.stream().map(MapMarker::jobId).toList());
+    }
+
+    @Test
+    public void onEntityChanged_RecordMoved_JobsMoveWithRecord() {
+        rebuild(List.of(location(1, 1, -36.85f, 174.76f), location(2, 2, -36.85f, 174.76f)));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        record.setLatitude(CHRISTCHURCH_LATITUDE);
+        record.setLongitude(CHRISTCHURCH_LONGITUDE);
+
+        jobLocationIndex.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, false));
+
+        Assertions.assertEquals(List.of(1L), nearChristchurch(10));
+    }
+
+    @Test
+    public void onEntityChanged_JobNoLongerPosted_JobRemoved() {
+        rebuild(List.of(location(1, 1, CHRISTCHURCH_LATITUDE, CHRISTCHURCH_LONGITUDE)));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(1L);
+        job.setRenovationRecord(record);
+        job.setIsPosted(false);
+
+        jobLocationIndex.onEntityChanged(new EntityChangedEvent(Job.class, job, false));
+
+        Assertions.assertEquals(List.of(), nearChristchurch(10));
+    }
+
+    @Test
+    public void onEntityChanged_JobPosted_JobAdded() {
+        rebuild(List.of());
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        record.setLatitude(CHRISTCHURCH_LATITUDE);
+        record.setLongitude(CHRISTCHURCH_LONGITUDE);
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(1L);
+        job.setRenovationRecord(record);
+        job.setIsPosted(true);
+
+        jobLocationIndex.onEntityChanged(new EntityChangedEvent(Job.class, job, false));
+
+        Assertions.assertEquals(List.of(1L), nearChristchurch(10));
+    }
+
+    @Test
+    public void finishRebuild_RecordMovedWhileRebuilding_ChangeKept() {
+        jobLocationIndex.startRebuild();
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        record.setLatitude(CHRISTCHURCH_LATITUDE);
+        record.setLongitude(CHRISTCHURCH_LONGITUDE);
+        jobLocationIndex.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, false));
+        jobLocationIndex.finishRebuild(List.of(location(1, 1, 0, 0)));
+
+        Assertions.assertTrue(jobLocationIndex.isReady());
+        Assertions.assertEquals(List.of(1L), nearChristchurch(10));
+    }
+}
@@ -0,0 +1,185 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RecommendationCandidate;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangedEvent;
+import nz.ac.canterbury.seng302.homehelper.service.JobRecommendationService;
+import nz.ac.canterbury.seng302.homehelper.service.JobService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class JobRecommendationServiceTest {
+    @Mock
+    private JobService jobService;
+
+    private JobRecommendationService jobRecommendationService;
+
+    @BeforeEach
+    public void setUp() {
+        jobRecommendationService = new JobRecommendationService(jobService);
+    }
+
+    private static RecommendationCandidate candidate(long jobId, long recordId, String ownerEmail, String city) {
+        return new RecommendationCandidate(jobId, recordId, ownerEmail, city, "Plumbing", 0, 0);
+    }
+
+    private List<Long> recommend(String email, String city) {
+        return jobRecommendationService.getRecommendedJobIds(email, city, 0, 0, List.of());
+    }
+
+    private void rebuild(List<RecommendationCandidate> candidates) {
+        jobRecommendationService.startRebuild();
+        jobRecommendationService.finishRebuild(candidates);
+    }
+
+    @Test
+    public void getRecommendedJobCards_NotBuilt_RecommendedFromDatabase() {
+        Mockito.when(jobService.getRecommendedPostedJobs("jane@doe.nz", "Christchurch")).thenReturn(List.of());
+
+        jobRecommendationService.getRecommendedJobCards("jane@doe.nz", "Christchurch", 0, 0, List.of());
+
+        Assertions.assertFalse(jobRecommendationService.isReady());
+        Mockito.verify(jobService).getJobCardsPosted(List.of());
+    }
+
+    @Test
+    public void getRecommendedJobCards_Built_CardsOfDrawnJobs() {
+        rebuild(List.of(candidate(1, 1, "john@doe.nz", null)));
+
+        jobRecommendationService.getRecommendedJobCards("jane@doe.nz", null, 0, 0, List.of());
+
+        Mockito.verify(jobService).getJobCards(List.of(1L));
+        Mockito.verify(jobService, Mockito.never()).getRecommendedPostedJobs(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void getRecommendedJobIds_UserOwnsSomeJobs_OwnJobsNotRecommended() {
+        rebuild(List.of(candidate(1, 1, "Jane@Doe.nz", null), candidate(2, 1, "jane@doe.nz", null),
+                candidate(3, 2, "john@doe.nz", null), candidate(4, 2, "john@doe.nz", null)));
+
+        List<Long> jobIds = recommend("jane@doe.nz", null);
+
+        Assertions.assertEquals(new HashSet<>(List.of(3L, 4L)), new HashSet<>(jobIds));
+    }
+
+    @Test
+    public void getRecommendedJobIds_UserHasCity_JobsInCityFirst() {
+        rebuild(List.of(candidate(1, 1, "john@doe.nz", "Auckland"), candidate(2, 2, "john@doe.nz", "christchurch"),
+                candidate(3, 1, "john@doe.nz", "Auckland"), candidate(4, 2, "john@doe.nz", "christchurch")));
+
+        List<Long> jobIds = recommend("jane@doe.nz", "Christchurch");
+
+        Assertions.assertEquals(4, jobIds.size());
+        Assertions.assertEquals(new HashSet<>(List.of(2L, 4L)), new HashSet<>(jobIds.subList(0, 2)));
+    }
+
+    @Test
+    public void getRecommendedJobIds_ManyJobsPosted_SixDifferentJobsRecommended() {
+        List<RecommendationCandidate> candidates = new ArrayList<>();
+        for (long jobId = 1; jobId <= 10000; jobId++) {
+            candidates.add(candidate(jobId, jobId / 10, "owner" + jobId % 100 + "@doe.nz", jobId % 2 == 0 ? "Nelson" : "Dunedin"));
+        }
+        rebuild(candidates);
+
+        List<Long> jobIds = recommend("jane@doe.nz", "Nelson");
+
+        Assertions.assertEquals(JobRecommendationService.RECOMMENDATION_COUNT, jobIds.size());
+        Assertions.assertEquals(jobIds.size(), new HashSet<>(jobIds).size());
+    }
+
+    @Test
+    public void getRecommendedJobIds_OneJobNearUser_NearJobRecommendedMoreOften() {
+        List<RecommendationCandidate> candidates = new ArrayList<>();
+        candidates.add(new RecommendationCandidate(1L, 1L, "john@doe.nz", null, "Plumbing", -43.53f, 172.63f));
+        for (long jobId = 2; jobId <= 20; jobId++) {
+            candidates.add(new RecommendationCandidate(jobId, 2L, "john@doe.nz", null, "Plumbing", -36.85f, 174.76f));
+        }
+        rebuild(candidates);
+
+        int nearJobRecommended = 0;
+        for (int i = 0; i < 200; i++) {
+            if (jobRecommendationService.getRecommendedJobIds("jane@doe.nz", null, -43.52f, 172.62f, List.of()).contains(1L)) {
+                nearJobRecommended++;
+            }
+        }
+
+        // Picking six of the twenty jobs evenly would include the near job 30% of the time
+        Assertions.assertTrue(nearJobRecommended > 100);
+    }
+
+    @Test
+    public void onEntityChanged_JobNoLongerPosted_JobRemoved() {
+        rebuild(List.of(candidate(1, 1, "john@doe.nz", null), candidate(2, 1, "john@doe.nz", null)));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(1L);
+        job.setRenovationRecord(record);
+        job.setIsPosted(false);
+
+        jobRecommendationService.onEntityChanged(new EntityChangedEvent(Job.class, job, false));
+
+        Assertions.assertEquals(List.of(2L), recommend("jane@doe.nz", null));
+    }
+
+    @Test
+    public void onEntityChanged_JobPosted_JobAdded() {
+        rebuild(List.of());
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(1L);
+        job.setRenovationRecord(record);
+        job.setIsPosted(true);
+
+        jobRecommendationService.onEntityChanged(new EntityChangedEvent(Job.class, job, false));
+
+        Assertions.assertEquals(List.of(1L), recommend("jane@doe.nz", null));
+    }
+
+    @Test
+    public void onEntityChanged_RecordMovedCity_JobsMoveToNewCity() {
+        rebuild(List.of(candidate(1, 1, "john@doe.nz", "Auckland"), candidate(2, 2, "john@doe.nz", "Auckland")));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+        record.setCity("Christchurch");
+
+        jobRecommendationService.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, false));
+
+        Assertions.assertEquals(List.of(1L, 2L), recommend("jane@doe.nz", "Christchurch"));
+        Assertions.assertEquals(List.of(2L, 1L), recommend("jane@doe.nz", "Auckland"));
+    }
+
+    @Test
+    public void onEntityChanged_RecordDeleted_JobsRemoved() {
+        rebuild(List.of(candidate(1, 1, "john@doe.nz", null), candidate(2, 2, "john@doe.nz", null)));
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "john@doe.nz");
+        record.setId(1L);
+
+        jobRecommendationService.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, true));
+
+        Assertions.assertEquals(List.of(2L), recommend("jane@doe.nz", null));
+    }
+
+    @Test
+    public void finishRebuild_JobChangedWhileRebuilding_ChangeKept() {
+        jobRecommendationService.startRebuild();
+        jobRecommendationService.removeJob(1L);
+        jobRecommendationService.addJob(candidate(3, 2, "john@doe.nz", null));
+        jobRecommendationService.finishRebuild(List.of(candidate(1, 1, "john@doe.nz", null), candidate(2, 1, "john@doe.nz", null)));
+
+        Assertions.assertTrue(jobRecommendationService.isReady());
+        Assertions.assertEquals(new HashSet<>(List.of(2L, 3L)), new HashSet<>(recommend("jane@doe.nz", null)));
+    }
+}
@@ -1,22 +1,35 @@
 package nz.ac.canterbury.seng302.homehelper.unit.service;
 
 import nz.ac.canterbury.seng302.homehelper.entity.*;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobCardInfo;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.JobFilter;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapPosition;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.NearbyJob;
 import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.JobRepository;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
+import nz.ac.canterbury.seng302.homehelper.service.JobLocationIndex;
 import nz.ac.canterbury.seng302.homehelper.service.JobService;
-import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +46,10 @@ public class JobServiceTest {
     public RoomRepository roomRepository;
     @Mock
     public ValidationService validationService;
+    @Mock
+    public JobLocationIndex jobLocationIndex;
+    @Mock
+    public ImageStore imageStore;
     @InjectMocks
     public JobService jobService;
 
@@ -495,61 +512,170 @@ public class JobServiceTest {
     }
 
     @Test
-    public void getJobCards_RepoHasPostedJobs_AllJobsAreMadeIntoCardsPosted() {
-        UserService userService = Mockito.mock(UserService.class);
-        User user = Mockito.mock(User.class);
-        RenovationRecord renovationRecord = Mockito.mock(RenovationRecord.class);
-        when(renovationRecord.getStreetAddress()).thenReturn("street address");
-        when(renovationRecord.getCity()).thenReturn("city");
-        when(renovationRecord.getSuburb()).thenReturn("suburb");
-        when(renovationRecord.getUserEmail()).thenReturn("abc@abc.abc");
-        when(user.getFirstName()).thenReturn("John");
-        when(user.getLastName()).thenReturn("Doe");
-        when(userService.getUser("abc@abc.abc")).thenReturn(user);
+    public void getJobCardsPosted_PostedAndUnpostedJobs_OnlyPostedJobCardsInJobOrder() {
+        Job first = new Job("first", "job", null, null);
+        first.setId(3L);
+        first.setIsPosted(true);
+        Job unposted = new Job("unposted", "job", null, null);
+        unposted.setId(4L);
+        Job second = new Job("second", "job", null, null);
+        second.setId(1L);
+        second.setIsPosted(true);
+        JobCardInfo firstCard = new JobCardInfo(3L, "first", null, null, "No Type", "Not Started", null,
+                "street address", "suburb", "city", "John", "Doe", null, null);
+        JobCardInfo secondCard = new JobCardInfo(1L, "second", null, null, "No Type", "Not Started", null,
+                "street address", null, null, "John", "Doe", 7L, "room.png");
+        when(jobRepository.findJobCards(List.of(3L, 1L))).thenReturn(List.of(secondCard, firstCard));
+        when(imageStore.cardUrlForPath(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
 
-        Job job = Mockito.mock(Job.class);
-        when(job.getName()).thenReturn("job");
-        when(job.getRenovationRecord()).thenReturn(renovationRecord);
-        when(job.getDueDate()).thenReturn("01/01/01");
-        when(job.getStartDate()).thenReturn("01/01/01");
-        when(job.getIsPosted()).thenReturn(true);
+        List<JobCardInfo> cards = jobService.getJobCardsPosted(List.of(first, unposted, second));
+
+        assertEquals(List.of(firstCard, secondCard), cards);
+        assertEquals("John Doe", firstCard.getUserFullName());
+        assertEquals("street address, suburb, city", firstCard.getLocation());
+        assertEquals(JobCardInfo.NO_ROOMS_IMAGE, firstCard.getJobImage());
+        assertEquals("Location not set by owner", secondCard.getLocation());
+        assertEquals("/profileImages/room.png", secondCard.getJobImage());
+    }
+
+    @Test
+    public void getJobCards_JobDeleted_CardSkipped() {
+        when(jobRepository.findJobCards(List.of(1L, 2L))).thenReturn(List.of(new JobCardInfo(2L, "job", null, null,
+                "No Type", "Not Started", null, null, null, null, null, null, 5L, null)));
+        when(imageStore.cardUrlForPath(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<JobCardInfo> cards = jobService.getJobCards(List.of(1L, 2L));
+
+        assertEquals(1, cards.size());
+        assertEquals("", cards.getFirst().getUserFullName());
+        assertEquals(JobCardInfo.NO_ROOM_IMAGE, cards.getFirst().getJobImage());
+    }
+
+    @Test
+    public void getJobCards_NoJobs_RepositoryNotQueried() {
+        assertEquals(List.of(), jobService.getJobCards(List.of()));
+        verify(jobRepository, never()).findJobCards(any());
+    }
+
+    @Test
+    public void getFilteredJobs_PageRequested_RepositoryQueriedForThatPage() {
+        Job job = new Job("Job1", "Desc", "01/01/2027", "01/01/2026");
+        Page<Job> page = new PageImpl<>(List.of(job), PageRequest.of(1, 9), 10);
+        when(jobRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        jobService.setNumberOfJobs(9);
+
+        Page<Job> filteredJobs = jobService.getFilteredJobs(new JobFilter(null, null, "Christchurch", "Ilam", null, null), 2);
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(jobRepository).findAll(any(Specification.class), pageableCaptor.capture());
+        assertEquals(1, pageableCaptor.getValue().getPageNumber());
+        assertEquals(9, pageableCaptor.getValue().getPageSize());
+        assertEquals(List.of(job), filteredJobs.getContent());
+        assertEquals(2, filteredJobs.getTotalPages());
+    }
+
+    @Test
+    public void getFilteredJobs_PagePastLastPage_FirstPageReturned() {
+        Job job = new Job("Job1", "Desc", "01/01/2027", "01/01/2026");
+        when(jobRepository.findAll(any(Specification.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            return pageable.getPageNumber() == 0 ? new PageImpl<>(List.of(job), pageable, 1) : Page.empty(pageable);
+        });
+
+        Page<Job> filteredJobs = jobService.getFilteredJobs(new JobFilter(null, null, null, null, null, null), 5);
+
+        assertEquals(List.of(job), filteredJobs.getContent());
+        assertEquals(0, filteredJobs.getNumber());
+    }
+
+    @Test
+    public void getFilteredJobs_RadiusGiven_NearestJobsListedFirst() {
+        Job farJob = new Job("Job1", "Desc", "01/01/2027", "01/01/2026");
+        farJob.setId(1L);
+        Job nearJob = new Job("Job2", "Desc", "01/01/2027", "01/01/2026");
+        nearJob.setId(2L);
+        when(jobLocationIndex.isReady()).thenReturn(true);
+        when(jobLocationIndex.findWithinRadius(-43.5, 172.6, 10.0, JobService.MAX_NEARBY_FILTER_CANDIDATES))
+                .thenReturn(List.of(
+                        new NearbyJob(2L, "Job2", 1, new MapPosition(-43.5, 172.6)),
+                        new NearbyJob(1L, "Job1", 5, new MapPosition(-43.5, 172.6))));
+        when(jobRepository.findJobIds(any(Specification.class))).thenReturn(List.of(1L, 2L));
+        when(jobRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(farJob, nearJob));
 
-        when(jobRepository.findPostedJobs()).thenReturn(List.of(job));
-        List<Job> jobSlice = jobRepository.findPostedJobs();
+        Page<Job> filteredJobs = jobService.getFilteredJobs(
+                new JobFilter(null, null, null, null, null, null, -43.5, 172.6, 10.0), 1);
 
-        Assertions.assertTrue(jobService.getJobCardsPosted(userService, jobSlice).size() == 1);
-        Assertions.assertTrue(jobService.getJobCardsPosted(userService, jobSlice).get(0).getTitle().equals("job"));
+        assertEquals(List.of(nearJob, farJob), filteredJobs.getContent());
+        assertEquals(2, filteredJobs.getTotalElements());
+        verify(jobRepository, never()).findAll(any(Specification.class), any(Pageable.class));
     }
 
     @Test
-    public void getLocationFilteredJobs_ReturnsCorrectJobs() {
-        RenovationRecord ChristchurchIlam = new RenovationRecord();
-        ChristchurchIlam.setCity("Christchurch");
-        ChristchurchIlam.setSuburb("Ilam");
+    public void getFilteredJobs_RadiusGivenSecondPage_OnlyPageJobsLoaded() {
+        List<NearbyJob> nearbyJobs = new ArrayList<>();
+        for (long id = 1; id <= 16; id++) {
+            nearbyJobs.add(new NearbyJob(id, "Job" + id, id, new MapPosition(-43.5, 172.6)));
+        }
+        Job nearerJob = new Job("Job14", "Desc", "01/01/2027", "01/01/2026");
+        nearerJob.setId(14L);
+        Job fartherJob = new Job("Job16", "Desc", "01/01/2027", "01/01/2026");
+        fartherJob.setId(16L);
+        when(jobLocationIndex.isReady()).thenReturn(true);
+        when(jobLocationIndex.findWithinRadius(-43.5, 172.6, 10.0, JobService.MAX_NEARBY_FILTER_CANDIDATES))
+                .thenReturn(nearbyJobs);
+        when(jobRepository.findJobIds(any(Specification.class))).thenReturn(List.of(2L, 4L, 6L, 8L, 10L, 12L, 14L, 16L));
+        when(jobRepository.findAllById(List.of(14L, 16L))).thenReturn(List.of(fartherJob, nearerJob));
 
-        RenovationRecord ChristchurchRiccarton = new RenovationRecord();
-        ChristchurchRiccarton.setCity("Christchurch");
-        ChristchurchRiccarton.setSuburb("Riccarton");
+        Page<Job> filteredJobs = jobService.getFilteredJobs(
+                new JobFilter(null, null, null, null, null, null, -43.5, 172.6, 10.0), 2);
 
-        RenovationRecord WellingtonTeAro = new RenovationRecord();
-        WellingtonTeAro.setCity("Wellington");
-        WellingtonTeAro.setSuburb("Te Aro");
+        assertEquals(List.of(nearerJob, fartherJob), filteredJobs.getContent());
+        assertEquals(1, filteredJobs.getNumber());
+        assertEquals(8, filteredJobs.getTotalElements());
+    }
 
-        Job job1 = new Job("Job1", "Desc", "01/01/2027", "01/01/2026");
-        job1.setRenovationRecord(ChristchurchIlam);
+    @Test
+    public void getFilteredJobs_NoJobsWithinRadius_NoJobsQueried() {
+        when(jobLocationIndex.isReady()).thenReturn(true);
+        when(jobLocationIndex.findWithinRadius(-43.5, 172.6, 10.0, JobService.MAX_NEARBY_FILTER_CANDIDATES))
+                .thenReturn(List.of());
 
-        Job job2 = new Job("Job2", "Desc", "01/01/2027", "01/01/2026");
-        job2.setRenovationRecord(ChristchurchRiccarton);
+        Page<Job> filteredJobs = jobService.getFilteredJobs(
+                new JobFilter(null, null, null, null, null, null, -43.5, 172.6, 10.0), 1);
+
+        assertEquals(0, filteredJobs.getTotalElements());
+        verify(jobRepository, never()).findJobIds(any(Specification.class));
+        verify(jobRepository, never()).findAllById(any());
+    }
 
-        Job job3 = new Job("Job3", "Desc", "01/01/2027", "01/01/2026");
-        job3.setRenovationRecord(WellingtonTeAro);
+    @Test
+    public void getNearbyJobs_IndexNotBuilt_FoundFromDatabase() {
+        when(jobLocationIndex.isReady()).thenReturn(false);
+        when(jobRepository.findPostedJobLocations()).thenReturn(List.of(
+                new JobLocation(1L, 1L, "Near", -43.53f, 172.63f),
+                new JobLocation(2L, 2L, "Far", -36.85f, 174.76f)));
+
+        List<NearbyJob> nearbyJobs = jobService.getNearbyJobs(-43.53, 172.63, 10, 20);
+
+        assertEquals(List.of(1L), nearbyJobs.stream().map(NearbyJob::jobId).toList());
+        verify(jobLocationIndex, never()).findWithinRadius(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"-91, 0, 10", "0, 181, 10", "0, 0, 0", "0, 0, 501"})
+    public void getNearbyJobs_InvalidPointOrRadius_ExceptionThrown(double latitude, double longitude, double radiusKm) {
+        assertThrows(IllegalArgumentException.class, () -> jobService.getNearbyJobs(latitude, longitude, radiusKm, 20));
+        verifyNoInteractions(jobLocationIndex);
+    }
+
+    @Test
+    public void getJobMarkersInArea_IndexBuilt_FoundFromIndex() {
+        List<MapMarker> markers = List.of(new MapMarker("Job", 1L, new MapPosition(-43.5, 172.6)));
+        when(jobLocationIndex.isReady()).thenReturn(true);
+        when(jobLocationIndex.findInBoundingBox(-44, 172, -43, 173)).thenReturn(markers);
 
-        Mockito.when(jobRepository.findPostedJobs()).thenReturn(List.of(job1, job2, job3));
-        JobFilter filter = new JobFilter(null, null, "Christchurch", "Ilam", null, null);
-        List<Job> filteredJobs = jobService.getFilteredJobs(filter);
-        Assertions.assertEquals(1, filteredJobs.size());
-        Assertions.assertEquals("Ilam", filteredJobs.get(0).getRenovationRecord().getSuburb());
-        Assertions.assertEquals("Christchurch", filteredJobs.get(0).getRenovationRecord().getCity());
+        assertEquals(markers, jobService.getJobMarkersInArea(-44, 172, -43, 173));
+        verify(jobRepository, never()).findPostedJobLocations();
     }
 
     @Test
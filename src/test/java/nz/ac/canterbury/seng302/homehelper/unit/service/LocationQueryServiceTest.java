@@ -1,22 +1,73 @@
 package nz.ac.canterbury.seng302.homehelper.unit.service;
 
+import com.sun.net.httpserver.HttpServer;
 import nz.ac.canterbury.seng302.homehelper.service.LocationQueryService;
+import nz.ac.canterbury.seng302.homehelper.service.TokenBucket;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @ExtendWith(MockitoExtension.class)
 public class LocationQueryServiceTest {
 
+    private static final String RICCARTON_RESPONSE = """
+            [{"lat": "-43.53", "lon": "172.59", "address": {"house_number": "12", "road": "Riccarton Road",
+              "suburb": "Riccarton", "city": "Christchurch", "postcode": "8041", "country": "New Zealand"}},
+             {"lat": "-43.54", "lon": "172.58", "address": {"house_number": "12", "road": "Riccarton Avenue",
+              "suburb": "Upper Riccarton", "city": "Christchurch", "postcode": "8042", "country": "New Zealand"}}]
+            """;
+
     private LocationQueryService locationQueryService;
+    private HttpServer stubServer;
+    private final List<String> stubQueries = new CopyOnWriteArrayList<>();
 
     @BeforeEach
     void setUp() {
-        locationQueryService = new LocationQueryService();
+        locationQueryService = new LocationQueryService(LocationQueryService.LOCATION_IQ_URL, "key",
+                new TokenBucket(2, Duration.ofMillis(500)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (stubServer != null) {
+            stubServer.stop(0);
+        }
+    }
+
+    /**
+     * Starts a local stand in for LocationIQ that answers every query with the given response
+     * @return location query service calling the stub server
+     */
+    private LocationQueryService withStubServer(int status, String response, TokenBucket rateLimiter) throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/autocomplete", exchange -> {
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            for (String parameter : rawQuery.split("&")) {
+                if (parameter.startsWith("q=")) {
+                    stubQueries.add(URLDecoder.decode(parameter.substring(2), StandardCharsets.UTF_8));
+                }
+            }
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.start();
+        String url = "http://localhost:" + stubServer.getAddress().getPort() + "/autocomplete";
+        return new LocationQueryService(url, "key", rateLimiter);
     }
 
     @Test
@@ -41,9 +92,79 @@ public class LocationQueryServiceTest {
     }
 
     @Test
-    public void getStructuredLocationSuggestions_NoMatchedSuggestions_EmptyList() {
+    public void getSuggestions_NoMatchedSuggestions_EmptyList() {
         String query = "asdasdsfsrgkjb jhfbajhfdbahjbdhjabdjhadghj asdasd"; //nonsense that won't match any address
         String viewbox = locationQueryService.getBoundingBoxFromIp("0.0.0.0");
-        Assertions.assertEquals(locationQueryService.getStructuredLocationSuggestions(query, viewbox).size(), 0);
+        Assertions.assertEquals(locationQueryService.getSuggestions(query, viewbox).size(), 0);
+    }
+
+    @Test
+    public void getSuggestions_StubServerResponse_ComponentsParsed() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(2, Duration.ofMillis(500)));
+
+        List<List<String>> suggestions = service.getSuggestions("12 Riccarton", "box");
+        Assertions.assertEquals(2, suggestions.size());
+        Assertions.assertEquals(List.of("12 Riccarton Road", "Riccarton", "Christchurch", "8041", "New Zealand",
+                "-43.53", "172.59"), suggestions.get(0));
+    }
+
+    @Test
+    public void getSuggestions_RepeatedQueryDifferentCase_ServedFromCache() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(2, Duration.ofMillis(500)));
+
+        service.getSuggestions("12 Riccarton", "box");
+        List<List<String>> suggestions = service.getSuggestions("  12   RICCARTON ", "box");
+        Assertions.assertEquals(2, suggestions.size());
+        Assertions.assertEquals(List.of("12 riccarton"), stubQueries);
+    }
+
+    @Test
+    public void getSuggestions_DifferentViewbox_NotServedFromCache() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(2, Duration.ofMillis(500)));
+
+        service.getSuggestions("12 Riccarton", "box");
+        service.getSuggestions("12 Riccarton", "other box");
+        Assertions.assertEquals(2, stubQueries.size());
+    }
+
+    @Test
+    public void getSuggestions_ExtendsCompleteCachedQuery_FilteredFromCache() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(2, Duration.ofMillis(500)));
+
+        service.getSuggestions("12 Riccar", "box");
+        List<List<String>> suggestions = service.getSuggestions("12 Riccarton Av", "box");
+        Assertions.assertEquals(1, suggestions.size());
+        Assertions.assertEquals("12 Riccarton Avenue", suggestions.get(0).get(0));
+        Assertions.assertEquals(List.of("12 riccar"), stubQueries);
+    }
+
+    @Test
+    public void getSuggestions_NotFoundInRegion_SearchesEverywhereAndCachesEmptyResult() throws IOException {
+        LocationQueryService service = withStubServer(404, "{\"error\":\"Unable to geocode\"}",
+                new TokenBucket(2, Duration.ofMillis(500)));
+
+        Assertions.assertEquals(List.of(), service.getSuggestions("nowhere", "box"));
+        Assertions.assertEquals(List.of(), service.getSuggestions("nowhere", "box"));
+        Assertions.assertEquals(List.of("nowhere", "nowhere"), stubQueries);
+    }
+
+    @Test
+    public void getSuggestions_RateLimited_NotSentToServer() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(1, Duration.ofHours(1)));
+
+        service.getSuggestions("12 Riccarton", "box");
+        List<List<String>> suggestions = service.getSuggestions("34 Ilam", "box");
+        Assertions.assertEquals(List.of(), suggestions);
+        Assertions.assertEquals(List.of("12 riccarton"), stubQueries);
+    }
+
+    @Test
+    public void getSuggestions_RateLimited_ReturnsWithoutWaitingForToken() throws IOException {
+        LocationQueryService service = withStubServer(200, RICCARTON_RESPONSE, new TokenBucket(1, Duration.ofSeconds(2)));
+
+        service.getSuggestions("12 Riccarton", "box");
+        List<List<String>> suggestions = Assertions.assertTimeoutPreemptively(Duration.ofMillis(500),
+                () -> service.getSuggestions("34 Ilam", "box"));
+        Assertions.assertEquals(List.of(), suggestions);
     }
 }
@@ -0,0 +1,144 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Job;
+import nz.ac.canterbury.seng302.homehelper.entity.Quote;
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.JobLocation;
+import nz.ac.canterbury.seng302.homehelper.service.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@ExtendWith(MockitoExtension.class)
+public class MapClusterServiceTest {
+    @Mock
+    private UserService userService;
+
+    private JobLocationIndex jobLocationIndex;
+    private final AtomicLong now = new AtomicLong();
+    private MapClusterService mapClusterService;
+
+    @BeforeEach
+    public void setUp() {
+        jobLocationIndex = new JobLocationIndex();
+        jobLocationIndex.startRebuild();
+        jobLocationIndex.finishRebuild(List.of(new JobLocation(1L, 1L, "Job 1", -43.53f, 172.63f)));
+        mapClusterService = new MapClusterService(userService, jobLocationIndex, now::get);
+    }
+
+    private static List<JobLocation> portfolio() {
+        return List.of(new JobLocation(1L, 2L, "Job", -43.53f, 172.63f), new JobLocation(3L, 4L, "Unlocated job", 0, 0));
+    }
+
+    private static Job job(long id) {
+        Job job = new Job("Job", "Job", null, null);
+        job.setId(id);
+        return job;
+    }
+
+    @Test
+    public void getPortfolioClusters_ViewedTwice_MarkersLoadedOnce() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+
+        MarkerClusters first = mapClusterService.getPortfolioClusters(1L);
+        MarkerClusters second = mapClusterService.getPortfolioClusters(1L);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, first.size());
+        Mockito.verify(userService, Mockito.times(1)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPortfolioClusters_UnknownTradie_NullReturned() {
+        Mockito.when(userService.getPortfolioJobLocations(99L)).thenReturn(null);
+
+        Assertions.assertNull(mapClusterService.getPortfolioClusters(99L));
+    }
+
+    @Test
+    public void getPortfolioClusters_PortfolioEvicted_MarkersReloaded() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+
+        mapClusterService.getPortfolioClusters(1L);
+        mapClusterService.evictPortfolio(1L);
+        mapClusterService.getPortfolioClusters(1L);
+
+        Mockito.verify(userService, Mockito.times(2)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPortfolioClusters_PortfolioJobChanged_MarkersReloaded() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+
+        mapClusterService.getPortfolioClusters(1L);
+        mapClusterService.onEntityChanged(new EntityChangedEvent(Job.class, job(3L), false));
+        mapClusterService.getPortfolioClusters(1L);
+
+        Mockito.verify(userService, Mockito.times(2)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPortfolioClusters_OtherJobChanged_MarkersNotReloaded() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+
+        mapClusterService.getPortfolioClusters(1L);
+        mapClusterService.onEntityChanged(new EntityChangedEvent(Job.class, job(2L), true));
+        mapClusterService.getPortfolioClusters(1L);
+
+        Mockito.verify(userService, Mockito.times(1)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPortfolioClusters_PortfolioJobRecordChanged_MarkersReloaded() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+        RenovationRecord record = new RenovationRecord("Record", "Record", List.of(), "jane@doe.nz");
+        record.setId(2L);
+
+        mapClusterService.getPortfolioClusters(1L);
+        mapClusterService.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, false));
+        mapClusterService.getPortfolioClusters(1L);
+
+        Mockito.verify(userService, Mockito.times(2)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPortfolioClusters_QuoteChanged_MarkersNotReloaded() {
+        Mockito.when(userService.getPortfolioJobLocations(1L)).thenReturn(portfolio());
+
+        mapClusterService.getPortfolioClusters(1L);
+        mapClusterService.onEntityChanged(new EntityChangedEvent(Quote.class, new Quote(), false));
+        mapClusterService.getPortfolioClusters(1L);
+
+        Mockito.verify(userService, Mockito.times(1)).getPortfolioJobLocations(1L);
+    }
+
+    @Test
+    public void getPostedJobClusters_JobsUnchanged_SameClustersReturned() {
+        MarkerClusters first = mapClusterService.getPostedJobClusters();
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        Assertions.assertSame(first, mapClusterService.getPostedJobClusters());
+        Assertions.assertEquals(1, first.size());
+    }
+
+    @Test
+    public void getPostedJobClusters_JobAdded_ReclusteredOnceIntervalPassed() {
+        MarkerClusters first = mapClusterService.getPostedJobClusters();
+        jobLocationIndex.addJob(new JobLocation(2L, 2L, "Job 2", -36.85f, 174.76f));
+
+        Assertions.assertSame(first, mapClusterService.getPostedJobClusters());
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        MarkerClusters reclustered = mapClusterService.getPostedJobClusters();
+
+        Assertions.assertEquals(2, reclustered.size());
+        Assertions.assertNotEquals(first.getVersion(), reclustered.getVersion());
+    }
+}
@@ -0,0 +1,120 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapCluster;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapMarker;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.MapPosition;
+import nz.ac.canterbury.seng302.homehelper.service.MarkerClusters;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MarkerClustersTest {
+
+    private static MapMarker marker(long jobId, double latitude, double longitude) {
+        return new MapMarker("Job " + jobId, jobId, new MapPosition(latitude, longitude));
+    }
+
+    private static List<MapCluster> wholeWorld(MarkerClusters clusters, int zoom) {
+        return clusters.getClusters(-90, -180, 90, 180, zoom);
+    }
+
+    @Test
+    public void getClusters_ZoomedOut_NearbyMarkersClustered() {
+        MarkerClusters clusters = MarkerClusters.of(List.of(marker(1, -43.53, 172.63), marker(2, -43.52, 172.64),
+                marker(3, -36.85, 174.76)));
+
+        List<MapCluster> result = wholeWorld(clusters, 5);
+
+        Assertions.assertEquals(2, result.size());
+        MapCluster christchurch = result.stream().filter(cluster -> cluster.count() == 2).findFirst().orElseThrow();
+        Assertions.assertEquals(-43.525, christchurch.pos().lat, 0.001);
+        Assertions.assertEquals(172.635, christchurch.pos().lng, 0.001);
+        Assertions.assertEquals(List.of(), christchurch.markers());
+    }
+
+    @Test
+    public void getClusters_ZoomedIn_MarkersAtSameLocationGroupedWithTheirMarkers() {
+        MapMarker first = marker(1, -43.53, 172.63);
+        MapMarker second = marker(2, -43.53, 172.63);
+        MapMarker other = marker(3, -43.52, 172.64);
+        MarkerClusters clusters = MarkerClusters.of(List.of(other, second, first));
+
+        List<MapCluster> result = wholeWorld(clusters, 18);
+
+        Assertions.assertEquals(2, result.size());
+        MapCluster sameLocation = result.stream().filter(cluster -> cluster.count() == 2).findFirst().orElseThrow();
+        Assertions.assertEquals(List.of(first, second), sameLocation.markers());
+        Assertions.assertEquals(-43.53, sameLocation.pos().lat);
+        Assertions.assertEquals(172.63, sameLocation.pos().lng);
+    }
+
+    @Test
+    public void getClusters_ManyMarkers_EveryMarkerInOneClusterAtEveryZoom() {
+        List<MapMarker> markers = new ArrayList<>();
+        Random random = new Random(3);
+        for (long jobId = 1; jobId <= 2000; jobId++) {
+            markers.add(marker(jobId, -47 + random.nextDouble() * 12.5, 166.5 + random.nextDouble() * 12));
+        }
+        MarkerClusters clusters = MarkerClusters.of(markers);
+
+        for (int zoom = 0; zoom <= MarkerClusters.MAX_CLUSTER_ZOOM + 1; zoom++) {
+            Assertions.assertEquals(2000, wholeWorld(clusters, zoom).stream().mapToInt(MapCluster::count).sum());
+        }
+        Assertions.assertTrue(wholeWorld(clusters, 4).size() < 50);
+        Assertions.assertEquals(2000, wholeWorld(clusters, MarkerClusters.MAX_CLUSTER_ZOOM + 1).size());
+    }
+
+    @Test
+    public void getClusters_TooManyClustersInArea_ClustersOfZoomedOutLevelReturned() {
+        List<MapMarker> markers = new ArrayList<>();
+        Random random = new Random(5);
+        for (long jobId = 1; jobId <= MarkerClusters.MAX_CLUSTERS * 2; jobId++) {
+            markers.add(marker(jobId, -47 + random.nextDouble() * 12.5, 166.5 + random.nextDouble() * 12));
+        }
+        MarkerClusters clusters = MarkerClusters.of(markers);
+
+        List<MapCluster> result = wholeWorld(clusters, 17);
+
+        Assertions.assertTrue(result.size() <= MarkerClusters.MAX_CLUSTERS);
+        Assertions.assertEquals(MarkerClusters.MAX_CLUSTERS * 2, result.stream().mapToInt(MapCluster::count).sum());
+    }
+
+    @Test
+    public void getClusters_AreaGiven_OnlyClustersInAreaReturned() {
+        MarkerClusters clusters = MarkerClusters.of(List.of(marker(1, -43.53, 172.63), marker(2, -36.85, 174.76)));
+
+        List<MapCluster> result = clusters.getClusters(-44, 172, -43, 173, 12);
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(1L, result.getFirst().markers().getFirst().jobId());
+    }
+
+    @Test
+    public void getClusters_AreaCrossesDateLine_ClustersOnBothSidesReturned() {
+        MarkerClusters clusters = MarkerClusters.of(List.of(marker(1, -44, 179.5), marker(2, -44, -179.5),
+                marker(3, -44, 170)));
+
+        List<MapCluster> result = clusters.getClusters(-45, 179, -43, -179, 12);
+
+        Assertions.assertEquals(List.of(1L, 2L), result.stream().map(cluster -> cluster.markers().getFirst().jobId()).toList());
+    }
+
+    @Test
+    public void getVersion_SameMarkersInDifferentOrder_SameVersion() {
+        MarkerClusters clusters = MarkerClusters.of(List.of(marker(1, -43.53, 172.63), marker(2, -36.85, 174.76)));
+        MarkerClusters reordered = MarkerClusters.of(List.of(marker(2, -36.85, 174.76), marker(1, -43.53, 172.63)));
+
+        Assertions.assertEquals(clusters.getVersion(), reordered.getVersion());
+    }
+
+    @Test
+    public void getVersion_MarkerMoved_VersionChanged() {
+        MarkerClusters clusters = MarkerClusters.of(List.of(marker(1, -43.53, 172.63)));
+        MarkerClusters moved = MarkerClusters.of(List.of(marker(1, -43.54, 172.63)));
+
+        Assertions.assertNotEquals(clusters.getVersion(), moved.getVersion());
+    }
+}
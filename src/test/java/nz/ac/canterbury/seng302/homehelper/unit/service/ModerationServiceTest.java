@@ -0,0 +1,150 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import nz.ac.canterbury.seng302.homehelper.service.ModerationService;
+import nz.ac.canterbury.seng302.homehelper.service.ProfanityFilter;
+import nz.ac.canterbury.seng302.homehelper.service.TokenBucket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class ModerationServiceTest {
+
+    private HttpServer stubServer;
+    private ModerationService moderationService;
+    private final ScheduledExecutorService workers = Executors.newScheduledThreadPool(2);
+    private final List<String> stubTexts = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (stubServer != null) {
+            stubServer.stop(0);
+        }
+        workers.shutdownNow();
+    }
+
+    /**
+     * Starts a local stand in for the Perspective API that scores each text from the given scores, and 0 otherwise
+     * @return moderation service calling the stub server
+     */
+    private ModerationService withStubServer(int status, Map<String, Double> scores, TokenBucket rateLimiter) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/analyze", exchange -> {
+            String text = objectMapper.readTree(exchange.getRequestBody()).path("comment").path("text").asText();
+            stubTexts.add(text);
+            String response = """
+                    {"attributeScores": {"PROFANITY": {"summaryScore": {"value": %s}}}}
+                    """.formatted(scores.getOrDefault(text, 0.0));
+            byte[] body = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubServer.start();
+        String url = "http://localhost:" + stubServer.getAddress().getPort() + "/analyze";
+        moderationService = new ModerationService(url, "key", rateLimiter,
+                new ProfanityFilter(List.of("crap"), List.of("kitchen", "modern")), workers, new ConcurrentTaskScheduler(workers));
+        return moderationService;
+    }
+
+    @Test
+    public void isProfanity_HighScore_True() throws IOException {
+        withStubServer(200, Map.of("rude words", 0.9), new TokenBucket(5, Duration.ofSeconds(1)));
+        Assertions.assertTrue(moderationService.isProfanity("Rude words"));
+        Assertions.assertEquals(List.of("rude words"), stubTexts);
+    }
+
+    @Test
+    public void isProfanity_SameTagTwice_ApiCalledOnce() throws IOException {
+        withStubServer(200, Map.of(), new TokenBucket(5, Duration.ofSeconds(1)));
+        Assertions.assertFalse(moderationService.isProfanity("Māori Design"));
+        Assertions.assertFalse(moderationService.isProfanity("  maori   DESIGN "));
+        Assertions.assertEquals(List.of("maori design"), stubTexts);
+    }
+
+    @Test
+    public void isProfanity_BlockedWord_TrueWithoutApiCall() throws IOException {
+        withStubServer(200, Map.of(), new TokenBucket(5, Duration.ofSeconds(1)));
+        Assertions.assertTrue(moderationService.isProfanity("Crap Kitchen"));
+        Assertions.assertTrue(stubTexts.isEmpty());
+    }
+
+    @Test
+    public void isProfanity_KnownCleanWords_FalseWithoutApiCall() throws IOException {
+        withStubServer(200, Map.of(), new TokenBucket(5, Duration.ofSeconds(1)));
+        Assertions.assertFalse(moderationService.isProfanity("Modern Kitchen"));
+        Assertions.assertTrue(stubTexts.isEmpty());
+    }
+
+    @Test
+    public void isProfanity_ApiError_IllegalArgumentExceptionAndNotCached() throws IOException {
+        withStubServer(500, Map.of(), new TokenBucket(5, Duration.ofSeconds(1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> moderationService.isProfanity("pantry"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> moderationService.isProfanity("pantry"));
+        Assertions.assertEquals(2, stubTexts.size());
+    }
+
+    @Test
+    public void isProfanityAsync_RateLimited_LaterCallsScheduledNotBlocked() throws Exception {
+        withStubServer(200, Map.of(), new TokenBucket(1, Duration.ofMillis(200)));
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> first = moderationService.isProfanityAsync("pantry");
+        CompletableFuture<Boolean> second = moderationService.isProfanityAsync("scullery");
+        CompletableFuture<Boolean> third = moderationService.isProfanityAsync("larder");
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 150);
+
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 350);
+        Assertions.assertEquals(3, stubTexts.size());
+    }
+
+    @Test
+    public void isProfanityAsync_CheckFinishedWhileWaiting_ApiNotCalled() throws Exception {
+        withStubServer(200, Map.of(), new TokenBucket(1, Duration.ofMillis(200)));
+        moderationService.isProfanityAsync("pantry").get(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> waiting = moderationService.isProfanityAsync("scullery");
+
+        waiting.cancel(false);
+        Thread.sleep(500);
+
+        Assertions.assertEquals(List.of("pantry"), stubTexts);
+    }
+
+    @Test
+    public void isProfanityAsync_TooManyChecksWaiting_NewChecksRejected() throws Exception {
+        withStubServer(200, Map.of(), new TokenBucket(1, Duration.ofMinutes(1)));
+        moderationService.isProfanityAsync("pantry").get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < ModerationService.MAX_PENDING_CHECKS; i++) {
+            Assertions.assertFalse(moderationService.isProfanityAsync("tag " + i).isDone());
+        }
+
+        CompletableFuture<Boolean> rejected = moderationService.isProfanityAsync("scullery");
+
+        Assertions.assertTrue(rejected.isCompletedExceptionally());
+        Assertions.assertFalse(moderationService.isProfanityAsync("tag 0").isDone());
+    }
+
+    @Test
+    public void isProfanityAsync_SameTextOverlapping_OneApiCall() throws Exception {
+        withStubServer(200, Map.of(), new TokenBucket(1, Duration.ofMillis(200)));
+        moderationService.isProfanityAsync("pantry").get(5, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> first = moderationService.isProfanityAsync("scullery");
+        CompletableFuture<Boolean> second = moderationService.isProfanityAsync("Scullery");
+        Assertions.assertSame(first, second);
+        first.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("pantry", "scullery"), stubTexts);
+    }
+}
@@ -1,14 +1,19 @@
 package nz.ac.canterbury.seng302.homehelper.unit.service;
 
+import nz.ac.canterbury.seng302.homehelper.entity.dto.KeysetPage;
 import nz.ac.canterbury.seng302.homehelper.service.PaginationUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.LongStream;
 
 @ExtendWith(MockitoExtension.class)
 public class PaginationUtilTest {
@@ -22,18 +27,6 @@ public class PaginationUtilTest {
         }
     }
     @Test
-    public void getPage_ThereAreEnoughItems_PageIsFull() {
-        int pageSize = 10;
-        List<String> page = PaginationUtil.getPage(items, 2, pageSize);
-        Assertions.assertTrue(page.size() == pageSize);
-    }
-    @Test
-    public void getPage_ThereAreNotEnoughItems_PageIsPartiallyFull() {
-        int pageSize = 200;
-        List<String> page = PaginationUtil.getPage(items, 1, pageSize);
-        Assertions.assertEquals(page.size(), items.size());
-    }
-    @Test
     public void getLastPageNumber_ThereAreLotsOfItems_CorrectLastPageNumber() {
         int pageSize = 5;
         int lastPageNum = PaginationUtil.getLastPageNumber(items.size(), pageSize);
@@ -47,4 +40,53 @@ public class PaginationUtilTest {
             Assertions.assertEquals(pageNums.get(i-1), i);
         }
     }
+    private static final List<Long> ids = LongStream.rangeClosed(1, 95).boxed().toList();
+
+    private static PaginationUtil.KeysetQuery<Long> idQuery(List<Pageable> pageables) {
+        return (afterId, beforeId, pageable) -> {
+            pageables.add(pageable);
+            List<Long> ordered = pageable.getSort().getOrderFor("id").isDescending() ? ids.reversed() : ids;
+            return ordered.stream()
+                    .filter(id -> (afterId == null || id > afterId) && (beforeId == null || id < beforeId))
+                    .skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+        };
+    }
+    @Test
+    public void getKeysetPage_NextPage_SeeksPastLastId() {
+        List<Pageable> pageables = new ArrayList<>();
+        KeysetPage<Long> page = PaginationUtil.getKeysetPage(3, 10, 20L, 11L, 2, ids::size, idQuery(pageables), id -> id);
+        Assertions.assertEquals(List.of(PageRequest.of(0, 10, Sort.by("id"))), pageables);
+        Assertions.assertEquals(LongStream.rangeClosed(21, 30).boxed().toList(), page.items());
+        Assertions.assertEquals(21L, page.firstId());
+        Assertions.assertEquals(30L, page.lastId());
+        Assertions.assertEquals(10, page.lastPage());
+    }
+    @Test
+    public void getKeysetPage_PreviousPage_SeeksBeforeFirstId() {
+        List<Pageable> pageables = new ArrayList<>();
+        KeysetPage<Long> page = PaginationUtil.getKeysetPage(2, 10, 30L, 21L, 3, ids::size, idQuery(pageables), id -> id);
+        Assertions.assertEquals(List.of(PageRequest.of(0, 10, Sort.by("id").descending())), pageables);
+        Assertions.assertEquals(LongStream.rangeClosed(11, 20).boxed().toList(), page.items());
+    }
+    @Test
+    public void getKeysetPage_LastPage_ReadFromEnd() {
+        List<Pageable> pageables = new ArrayList<>();
+        KeysetPage<Long> page = PaginationUtil.getKeysetPage(10, 10, null, null, null, ids::size, idQuery(pageables), id -> id);
+        Assertions.assertEquals(List.of(PageRequest.of(0, 5, Sort.by("id").descending())), pageables);
+        Assertions.assertEquals(LongStream.rangeClosed(91, 95).boxed().toList(), page.items());
+    }
+    @Test
+    public void getKeysetPage_PageJumpedTo_UsesOffset() {
+        List<Pageable> pageables = new ArrayList<>();
+        KeysetPage<Long> page = PaginationUtil.getKeysetPage(5, 10, 20L, 11L, 2, ids::size, idQuery(pageables), id -> id);
+        Assertions.assertEquals(List.of(PageRequest.of(4, 10, Sort.by("id"))), pageables);
+        Assertions.assertEquals(41L, page.items().get(0));
+    }
+    @Test
+    public void getKeysetPage_PageOutOfRange_EmptyWithoutQuerying() {
+        KeysetPage<String> page = PaginationUtil.getKeysetPage(11, 10, null, null, null, () -> items.size(),
+                (afterId, beforeId, pageable) -> Assertions.fail("Page should not be queried"), item -> 0L);
+        Assertions.assertTrue(page.items().isEmpty());
+        Assertions.assertEquals(10, page.pageNumbers().size());
+    }
 }
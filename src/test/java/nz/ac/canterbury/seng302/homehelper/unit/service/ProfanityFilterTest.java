@@ -0,0 +1,53 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.ProfanityFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+public class ProfanityFilterTest {
+
+    private final ProfanityFilter profanityFilter = new ProfanityFilter(
+            List.of("ass", "crap", "piss off"), List.of("kitchen", "modern", "class"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"crap", "crap kitchen", "modern-crap", "piss off now", "kitchen ass"})
+    public void containsBlockedWord_BlockedWholeWord_True(String text) {
+        Assertions.assertTrue(profanityFilter.containsBlockedWord(text));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"class", "scrap", "crappie", "passing", "pissoff", "kitchen"})
+    public void containsBlockedWord_BlockedWordOnlyInsideWord_False(String text) {
+        Assertions.assertFalse(profanityFilter.containsBlockedWord(text));
+    }
+
+    @Test
+    public void containsBlockedWord_PartOfLongerPattern_SuffixFoundThroughFailureLink() {
+        // Reading "a bc" follows the path of "a bcd", and "bc" is only found through that state's failure link
+        ProfanityFilter overlapping = new ProfanityFilter(List.of("a bcd", "bc"), List.of());
+        Assertions.assertTrue(overlapping.containsBlockedWord("a bc"));
+        Assertions.assertFalse(overlapping.containsBlockedWord("a bce"));
+    }
+
+    @Test
+    public void isKnownClean_EveryWordClean_True() {
+        Assertions.assertTrue(profanityFilter.isKnownClean("modern kitchen"));
+    }
+
+    @Test
+    public void isKnownClean_UnknownWord_False() {
+        Assertions.assertFalse(profanityFilter.isKnownClean("modern pantry"));
+        Assertions.assertFalse(profanityFilter.isKnownClean("  "));
+    }
+
+    @Test
+    public void fromWordLists_BundledLists_Loaded() {
+        ProfanityFilter bundled = ProfanityFilter.fromWordLists();
+        Assertions.assertTrue(bundled.containsBlockedWord("bullshit"));
+        Assertions.assertTrue(bundled.isKnownClean("rustic kitchen"));
+    }
+}
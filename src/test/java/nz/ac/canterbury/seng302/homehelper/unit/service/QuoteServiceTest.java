@@ -4,21 +4,27 @@ import nz.ac.canterbury.seng302.homehelper.entity.Job;
 import nz.ac.canterbury.seng302.homehelper.entity.Quote;
 import nz.ac.canterbury.seng302.homehelper.entity.Rating;
 import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieRating;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieStats;
 import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
 import nz.ac.canterbury.seng302.homehelper.service.QuoteService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -97,6 +103,33 @@ public class QuoteServiceTest {
         verify(quoteRepository).deleteQuoteById(1L);
     }
 
+    @Test
+    public void acceptQuote_PendingQuote_AcceptedQuoteCountIncremented() {
+        Quote quote = new Quote("10", "12", "email@example.com", "1234567890", "Quote");
+        User user = new User("Jane", "Doe", "jane@example.com", "Pass", null, null);
+        user.setId(1L);
+        quote.setUser(user);
+        quote.markStatusSaved();
+
+        quoteService.acceptQuote(quote);
+        quoteService.addQuote(quote);
+        verify(userService, times(1)).updateAcceptedQuoteCount(1L, 1);
+    }
+
+    @Test
+    public void addQuote_AcceptedQuoteRejected_AcceptedQuoteCountDecremented() {
+        Quote quote = new Quote("10", "12", "email@example.com", "1234567890", "Quote");
+        User user = new User("Jane", "Doe", "jane@example.com", "Pass", null, null);
+        user.setId(1L);
+        quote.setUser(user);
+        quote.setStatus("Accepted");
+        quote.markStatusSaved();
+
+        quote.setStatus("Rejected");
+        quoteService.addQuote(quote);
+        verify(userService).updateAcceptedQuoteCount(1L, -1);
+    }
+
     @Test
     public void setQuoteAsRated() {
         Quote quote = new Quote("10", "12", "email@example.com", "1234567890", "Quote");
@@ -113,11 +146,9 @@ public class QuoteServiceTest {
 
     @Test
     public void compareQuote_ShouldReturnAllTrue() {
-        when(userService.getCompletedJobsUserHasWorkedOn(1L)).thenReturn(List.of(new Job(), new Job()));
-        when(userService.getCompletedJobsUserHasWorkedOn(2L)).thenReturn(List.of(new Job()));
-
-        when(userService.getUsersWorkEfficiency(1L)).thenReturn(75.0);
-        when(userService.getUsersWorkEfficiency(2L)).thenReturn(85.0);
+        when(userService.getTradieStats(any())).thenReturn(Map.of(
+                1L, new TradieStats(1L, 2, 75.0, 5.0),
+                2L, new TradieStats(2L, 1, 85.0, 0.0)));
 
         Quote quote = new Quote("10", "15", "email@example.com", "1234567890", "Quote");
         Quote quote2 = new Quote("25", "20", "email@example.com", "1234567890", "Quote");
@@ -141,11 +172,9 @@ public class QuoteServiceTest {
 
     @Test
     public void compareQuote_ShouldReturnAllFalse() {
-        when(userService.getCompletedJobsUserHasWorkedOn(1L)).thenReturn(List.of(new Job(), new Job()));
-        when(userService.getCompletedJobsUserHasWorkedOn(2L)).thenReturn(List.of(new Job()));
-
-        when(userService.getUsersWorkEfficiency(1L)).thenReturn(75.0);
-        when(userService.getUsersWorkEfficiency(2L)).thenReturn(85.0);
+        when(userService.getTradieStats(any())).thenReturn(Map.of(
+                1L, new TradieStats(1L, 2, 75.0, 5.0),
+                2L, new TradieStats(2L, 1, 85.0, 0.0)));
 
         Quote quote = new Quote("10", "15", "email@example.com", "1234567890", "Quote");
         Quote quote2 = new Quote("25", "20", "email@example.com", "1234567890", "Quote");
@@ -167,5 +196,25 @@ public class QuoteServiceTest {
         Assertions.assertEquals(trueList, quoteService.compareQuotes(quote2, quote));
     }
 
-}
+    @Test
+    public void getTradieStats_SameComparisonSession_TradiesOnlyQueriedOnce() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        when(userService.getTradieStats(List.of(1L, 2L))).thenReturn(Map.of(1L, new TradieStats(1L, 2, 1.0, 4.0)));
+
+        quoteService.getTradieStats(5L, List.of(1L, 2L));
+        MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setSession(request.getSession());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(nextRequest));
+        Map<Long, TradieStats> stats = quoteService.getTradieStats(5L, List.of(2L, 1L));
+
+        verify(userService, times(1)).getTradieStats(any());
+        Assertions.assertEquals(2, stats.get(1L).completedJobs());
+        Assertions.assertEquals(TradieStats.empty(2L), stats.get(2L));
+    }
 
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+}
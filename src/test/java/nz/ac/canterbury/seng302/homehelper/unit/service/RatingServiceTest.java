@@ -0,0 +1,37 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.Rating;
+import nz.ac.canterbury.seng302.homehelper.entity.User;
+import nz.ac.canterbury.seng302.homehelper.repository.RatingRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class RatingServiceTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private RatingService ratingService;
+
+    @Test
+    public void addRating_TradieRated_RatingSavedAndTotalsUpdated() {
+        User tradie = new User("Jane", "Doe", "jane@example.com", "Pass", null, null);
+        tradie.setId(1L);
+        Rating rating = new Rating(4, tradie, null);
+
+        ratingService.addRating(rating);
+        verify(ratingRepository).save(rating);
+        verify(userRepository).addToRatingTotals(1L, 4);
+    }
+}
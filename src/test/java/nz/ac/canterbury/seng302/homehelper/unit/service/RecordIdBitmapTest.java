@@ -0,0 +1,86 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.RecordIdBitmap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+public class RecordIdBitmapTest {
+
+    @Test
+    public void add_SparseIds_ContainsOnlyThoseIds() {
+        RecordIdBitmap bitmap = RecordIdBitmap.of(5, 70000, 3, 5);
+        Assertions.assertEquals(List.of(3L, 5L, 70000L), bitmap.toList());
+        Assertions.assertEquals(3, bitmap.cardinality());
+        Assertions.assertTrue(bitmap.contains(70000));
+        Assertions.assertFalse(bitmap.contains(4));
+    }
+
+    @Test
+    public void add_DenseIds_AllKept() {
+        RecordIdBitmap bitmap = RecordIdBitmap.of(LongStream.rangeClosed(1, 10000).toArray());
+        Assertions.assertEquals(10000, bitmap.cardinality());
+        Assertions.assertTrue(bitmap.contains(1));
+        Assertions.assertTrue(bitmap.contains(10000));
+        Assertions.assertFalse(bitmap.contains(10001));
+    }
+
+    @Test
+    public void remove_DenseIdsRemoved_RemainingIdsKept() {
+        RecordIdBitmap bitmap = RecordIdBitmap.of(LongStream.rangeClosed(1, 10000).toArray());
+        LongStream.rangeClosed(3, 10000).forEach(bitmap::remove);
+        Assertions.assertEquals(List.of(1L, 2L), bitmap.toList());
+        bitmap.remove(1);
+        bitmap.remove(2);
+        Assertions.assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    public void and_SparseAndDense_IdsInBoth() {
+        RecordIdBitmap dense = RecordIdBitmap.of(LongStream.rangeClosed(1, 10000).toArray());
+        RecordIdBitmap sparse = RecordIdBitmap.of(2, 9999, 20000, 70000);
+        Assertions.assertEquals(List.of(2L, 9999L), dense.and(sparse).toList());
+        Assertions.assertEquals(List.of(2L, 9999L), sparse.and(dense).toList());
+    }
+
+    @Test
+    public void and_BothDense_IdsInBoth() {
+        RecordIdBitmap evens = RecordIdBitmap.of(LongStream.rangeClosed(1, 20000).filter(id -> id % 2 == 0).toArray());
+        RecordIdBitmap threes = RecordIdBitmap.of(LongStream.rangeClosed(1, 20000).filter(id -> id % 3 == 0).toArray());
+        RecordIdBitmap sixes = evens.and(threes);
+        Assertions.assertEquals(3333, sixes.cardinality());
+        Assertions.assertTrue(sixes.contains(6));
+        Assertions.assertFalse(sixes.contains(4));
+    }
+
+    @Test
+    public void or_Bitmaps_IdsInEither() {
+        RecordIdBitmap first = RecordIdBitmap.of(1, 3, 70000);
+        RecordIdBitmap second = RecordIdBitmap.of(2, 3);
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 70000L), first.or(second).toList());
+        Assertions.assertEquals(List.of(1L, 3L, 70000L), first.toList());
+    }
+
+    @Test
+    public void or_ManyArrays_CombinedIntoDenseChunk() {
+        RecordIdBitmap first = RecordIdBitmap.of(LongStream.rangeClosed(1, 3000).toArray());
+        RecordIdBitmap second = RecordIdBitmap.of(LongStream.rangeClosed(2001, 5000).toArray());
+        Assertions.assertEquals(5000, first.or(second).cardinality());
+    }
+
+    @Test
+    public void andAll_SeveralBitmaps_IdsInEvery() {
+        RecordIdBitmap result = RecordIdBitmap.andAll(List.of(
+                RecordIdBitmap.of(1, 2, 3, 4), RecordIdBitmap.of(2, 3, 4), RecordIdBitmap.of(3, 4, 5)));
+        Assertions.assertEquals(List.of(3L, 4L), result.toList());
+        Assertions.assertTrue(RecordIdBitmap.andAll(List.of()).isEmpty());
+    }
+
+    @Test
+    public void orAll_SeveralBitmaps_IdsInAny() {
+        RecordIdBitmap result = RecordIdBitmap.orAll(List.of(RecordIdBitmap.of(1), RecordIdBitmap.of(4), RecordIdBitmap.of(2)));
+        Assertions.assertEquals(List.of(1L, 2L, 4L), result.toList());
+    }
+}
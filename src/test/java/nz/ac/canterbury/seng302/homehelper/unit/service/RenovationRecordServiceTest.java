@@ -2,9 +2,15 @@ package nz.ac.canterbury.seng302.homehelper.unit.service;
 
 import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
 import nz.ac.canterbury.seng302.homehelper.entity.Room;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationCardInfo;
+import nz.ac.canterbury.seng302.homehelper.repository.RecentRenovationRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RoomRepository;
+import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
+import nz.ac.canterbury.seng302.homehelper.service.ImageStore;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
+import nz.ac.canterbury.seng302.homehelper.service.RenovationSearchIndex;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,9 +23,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
 
 
 import java.util.*;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,20 +36,17 @@ public class RenovationRecordServiceTest {
     public RenovationRecordRepository renovationRecordRepository;
     @Mock
     public RoomRepository roomRepository;
+    @Mock
+    public RecentRenovationRepository recentRenovationRepository;
+    @Mock
+    public RenovationSearchIndex renovationSearchIndex;
+    @Mock
+    public ImageStore imageStore;
+    @Mock
+    public UserRepository userRepository;
     @InjectMocks
     public RenovationRecordService renovationRecordService;
 
-    public List<RenovationRecord> makeRenovationRecordList(int value) {
-        List<RenovationRecord> renovationRecords = new ArrayList<>();
-        int i = 0;
-        while (i < value) {
-            renovationRecords.add(new RenovationRecord(("example" + i), "text", null, null));
-            i++;
-        }
-        return renovationRecords;
-    }
-
-
     @Test
     public void setEmptyLocationsToNull_LocationInfoProvided_EmptyInfoSetToNull() {
         List<String> locationInfo = List.of("", "Suburb", "", "Postcode", "Country");
@@ -99,42 +104,41 @@ public class RenovationRecordServiceTest {
     }
 
     static Stream<Arguments> expectedErrorMessages() {
+        String title = RenovationRecordService.RENO_TITLE_FIELD;
+        String description = RenovationRecordService.RENO_DESCRIPTION_FIELD;
+        String rooms = RenovationRecordService.RENO_ROOMS_FIELD;
         return Stream.of(
-                Arguments.of(RenovationRecordService.RENO_TITLE_NOT_UNIQUE,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_NOT_UNIQUE),
                         RenovationRecordService.RENO_TITLE_NOT_UNIQUE, "", ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_NOT_UNIQUE +
-                                RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER,
+                                title, RenovationRecordService.RENO_TITLE_NOT_UNIQUE),
                         RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER, "", ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_NOT_UNIQUE +
-                                RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER +
-                                RenovationRecordService.RENO_TITLE_EMPTY,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_EMPTY,
+                                title, RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER,
+                                title, RenovationRecordService.RENO_TITLE_NOT_UNIQUE),
                         RenovationRecordService.RENO_TITLE_EMPTY, "", ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_NOT_UNIQUE +
-                                RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER +
-                                RenovationRecordService.RENO_TITLE_EMPTY +
-                                RenovationRecordService.RENO_TITLE_TOO_LONG,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_TOO_LONG,
+                                title, RenovationRecordService.RENO_TITLE_INCORRECT_CHARACTER,
+                                title, RenovationRecordService.RENO_TITLE_NOT_UNIQUE),
                         RenovationRecordService.RENO_TITLE_TOO_LONG, "", ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_TOO_LONG +
-                                RenovationRecordService.RENO_DESCRIPTION_EMPTY,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_TOO_LONG,
+                                description, RenovationRecordService.RENO_DESCRIPTION_EMPTY),
                         RenovationRecordService.RENO_TITLE_TOO_LONG, RenovationRecordService.RENO_DESCRIPTION_EMPTY, ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_TOO_LONG +
-                                RenovationRecordService.RENO_DESCRIPTION_EMPTY +
-                                RenovationRecordService.RENO_DESCRIPTION_TOO_LONG,
-                        RenovationRecordService.RENO_TITLE_TOO_LONG, RenovationRecordService.RENO_DESCRIPTION_TOO_LONG, ""),
-                Arguments.of(RenovationRecordService.RENO_TITLE_TOO_LONG +
-                                RenovationRecordService.RENO_DESCRIPTION_TOO_LONG +
-                                RenovationRecordService.RENO_ROOM_NAME_INVALID,
+                Arguments.of(TestFieldErrors.of(title, RenovationRecordService.RENO_TITLE_TOO_LONG,
+                                description, RenovationRecordService.RENO_DESCRIPTION_TOO_LONG,
+                                rooms, RenovationRecordService.RENO_ROOM_NAME_INVALID,
+                                rooms, RenovationRecordService.RENO_ROOM_NAME_INVALID),
                         RenovationRecordService.RENO_TITLE_TOO_LONG, RenovationRecordService.RENO_DESCRIPTION_TOO_LONG,
                         RenovationRecordService.RENO_ROOM_NAME_INVALID)
         );
     }
     @ParameterizedTest
     @MethodSource("expectedErrorMessages")
-    public void getErrorMessages_AllErrorMessagesStringProvided_CorrectSeparateErrorMessagesReturned
-            (String allErrorMessages, String renovationTitleErrorMessage, String renovationDescriptionErrorMessage,
+    public void getErrorMessages_FieldErrorsProvided_CorrectSeparateErrorMessagesReturned
+            (FieldErrors errors, String renovationTitleErrorMessage, String renovationDescriptionErrorMessage,
              String renovationRoomsErrorMessage) {
 
-        List<String> errorMessages = renovationRecordService.getErrorMessages(allErrorMessages);
+        List<String> errorMessages = renovationRecordService.getErrorMessages(errors);
 
         Assertions.assertEquals(renovationTitleErrorMessage, errorMessages.get(0));
         Assertions.assertEquals(renovationDescriptionErrorMessage, errorMessages.get(1));
@@ -162,7 +166,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 11;
         List<Integer> expectedPages = Arrays.asList(1, 9, 10, 11);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(12*11)));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 12*11));
     }
 
     @Test
@@ -170,7 +174,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 1;
         List<Integer> expectedPages = Arrays.asList(1, 2, 3, 11);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(12*11)));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 12*11));
     }
 
     @Test
@@ -178,7 +182,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 3;
         List<Integer> expectedPages = Arrays.asList(1, 2, 3, 4, 5, 11);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(12*11)));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 12*11));
     }
 
     @Test
@@ -186,7 +190,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 9;
         List<Integer> expectedPages = Arrays.asList(1, 7, 8, 9, 10, 11);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(12*11)));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 12*11));
     }
 
     @Test
@@ -194,7 +198,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 6;
         List<Integer> expectedPages = Arrays.asList(1, 4, 5, 6, 7, 8, 11);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(12*11)));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 12*11));
     }
 
     @Test
@@ -202,15 +206,7 @@ public class RenovationRecordServiceTest {
         int currentPage = 2;
         List<Integer> expectedPages = Arrays.asList(1, 2, 3, 4, 5, 6);
 
-        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, makeRenovationRecordList(6*12)));
-    }
-
-    @Test
-    public void getFirstPageResults_MoreThanOnePage() {
-        int currentPage = 1;
-        List<RenovationRecord> recordList = makeRenovationRecordList(46);
-
-        Assertions.assertEquals(recordList.subList(0, 12), renovationRecordService.getRenovationRecordPages(currentPage, recordList));
+        Assertions.assertEquals(expectedPages, renovationRecordService.getPageList(currentPage, 6*12));
     }
 
     @Test
@@ -243,4 +239,84 @@ public class RenovationRecordServiceTest {
 
         Assertions.assertEquals(expected, actual);
     }
+
+    private static RenovationCardInfo card(long recordId) {
+        return new RenovationCardInfo("Record " + recordId, "Description", "Christchurch", "Jane Doe", recordId, null);
+    }
+
+    @Test
+    public void getMatchingRenovationRecordCards_IndexReady_CardsInIndexOrder() {
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(renovationSearchIndex.search("kit", "user@email.com", List.of())).thenReturn(List.of(3L, 2L, 1L));
+        Mockito.when(renovationRecordRepository.findRenovationCards(List.of(3L, 2L, 1L)))
+                .thenReturn(List.of(card(1), card(2), card(3)));
+
+        Page<RenovationCardInfo> results = renovationRecordService.getMatchingRenovationRecordCards("kit", "user@email.com", List.of(), 1);
+
+        Assertions.assertEquals(List.of(3L, 2L, 1L), results.getContent().stream().map(RenovationCardInfo::recordId).toList());
+        Assertions.assertEquals(3, results.getTotalElements());
+        Mockito.verify(renovationRecordRepository, Mockito.never()).findMatchingRecordIdsBySearchString(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void getMatchingRenovationRecordCards_MoreThanOnePage_OnlyCardsOnPageLoaded() {
+        List<Long> recordIds = LongStream.rangeClosed(1, 46).map(recordId -> 47 - recordId).boxed().toList();
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(renovationSearchIndex.search("", "user@email.com", List.of())).thenReturn(recordIds);
+        Mockito.when(renovationRecordRepository.findRenovationCards(recordIds.subList(12, 24)))
+                .thenReturn(recordIds.subList(12, 24).stream().map(RenovationRecordServiceTest::card).toList());
+
+        Page<RenovationCardInfo> results = renovationRecordService.getMatchingRenovationRecordCards("", "user@email.com", List.of(), 2);
+
+        Assertions.assertEquals(recordIds.subList(12, 24), results.getContent().stream().map(RenovationCardInfo::recordId).toList());
+        Assertions.assertEquals(46, results.getTotalElements());
+        Assertions.assertEquals(4, results.getTotalPages());
+    }
+
+    @Test
+    public void getMatchingRenovationRecordCards_PageAfterLastPage_NoCards() {
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(renovationSearchIndex.search("", "user@email.com", List.of())).thenReturn(List.of(2L, 1L));
+
+        Page<RenovationCardInfo> results = renovationRecordService.getMatchingRenovationRecordCards("", "user@email.com", List.of(), 5);
+
+        Assertions.assertEquals(List.of(), results.getContent());
+        Assertions.assertEquals(2, results.getTotalElements());
+        Mockito.verify(renovationRecordRepository, Mockito.never()).findRenovationCards(Mockito.any());
+    }
+
+    @Test
+    public void getMatchingRenovationRecordCards_SameSearchAfterCount_IndexSearchedOnce() {
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(renovationSearchIndex.getVersion()).thenReturn(7L);
+        Mockito.when(renovationSearchIndex.search("kit", "user@email.com", List.of("tag"))).thenReturn(List.of(2L, 1L));
+
+        Assertions.assertEquals(2, renovationRecordService.countMatchingRenovationRecords("kit", "user@email.com", List.of("tag")));
+        Page<RenovationCardInfo> results = renovationRecordService.getMatchingRenovationRecordCards("kit", "user@email.com",
+                List.of("tag"), 1);
+
+        Assertions.assertEquals(2, results.getTotalElements());
+        Mockito.verify(renovationSearchIndex, Mockito.times(1)).search("kit", "user@email.com", List.of("tag"));
+    }
+
+    @Test
+    public void getMatchingRenovationRecordCards_IndexChangedSinceSameSearch_IndexSearchedAgain() {
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(true);
+        Mockito.when(renovationSearchIndex.getVersion()).thenReturn(7L, 8L);
+        Mockito.when(renovationSearchIndex.search("kit", "user@email.com", List.of()))
+                .thenReturn(List.of(2L, 1L), List.of(3L, 2L, 1L));
+
+        renovationRecordService.countMatchingRenovationRecords("kit", "user@email.com", List.of());
+
+        Assertions.assertEquals(3, renovationRecordService.countMatchingRenovationRecords("kit", "user@email.com", List.of()));
+    }
+
+    @Test
+    public void countMatchingRenovationRecords_IndexNotReady_SearchesDatabase() {
+        Mockito.when(renovationSearchIndex.isReady()).thenReturn(false);
+        Mockito.when(renovationRecordRepository.findMatchingRecordIdsBySearchString("kit", "user@email.com"))
+                .thenReturn(List.of(2L, 1L));
+
+        Assertions.assertEquals(2, renovationRecordService.countMatchingRenovationRecords("kit", "user@email.com", List.of()));
+    }
 }
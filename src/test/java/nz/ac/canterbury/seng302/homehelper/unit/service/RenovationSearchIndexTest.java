@@ -0,0 +1,191 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.entity.RenovationRecord;
+import nz.ac.canterbury.seng302.homehelper.entity.Tag;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.RenovationSearchDocument;
+import nz.ac.canterbury.seng302.homehelper.service.EntityChangedEvent;
+import nz.ac.canterbury.seng302.homehelper.service.RenovationSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class RenovationSearchIndexTest {
+
+    private RenovationSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new RenovationSearchIndex();
+        index.startRebuild();
+        index.finishRebuild(List.of(
+                new RenovationSearchDocument(1L, "Kitchen Remodel", "New blue tiles", "Christchurch", "jane@example.com", true),
+                new RenovationSearchDocument(2L, "Bathroom", "Blue bath and kitchenette", "Auckland", "john@example.com", true),
+                new RenovationSearchDocument(3L, "Garage", "Private kitchen plans", "Christchurch", "john@example.com", false)
+        ), Map.of(1L, List.of("plumbing", "tiling"), 2L, List.of("plumbing")));
+    }
+
+    @Test
+    public void isReady_RebuildFinished_True() {
+        Assertions.assertTrue(index.isReady());
+        Assertions.assertFalse(new RenovationSearchIndex().isReady());
+    }
+
+    @Test
+    public void getVersion_RecordRemovedTwice_VersionOnlyGoesUpWhenRecordWasIndexed() {
+        long version = index.getVersion();
+        index.remove(3L);
+        long removedVersion = index.getVersion();
+        index.remove(3L);
+
+        Assertions.assertTrue(removedVersion > version);
+        Assertions.assertEquals(removedVersion, index.getVersion());
+    }
+
+    @Test
+    public void search_WordPrefix_RecordsWithWordStartingWithPrefix() {
+        Assertions.assertEquals(List.of(2L, 1L), index.search("KITCH", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void search_MultipleWords_RecordsMatchingEveryWord() {
+        Assertions.assertEquals(List.of(1L), index.search("blue til", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void search_CityAndTagWords_Matched() {
+        Assertions.assertEquals(List.of(1L), index.search("christchurch", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(1L), index.search("tiling", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void search_PrivateRecord_OnlyVisibleToOwner() {
+        Assertions.assertEquals(List.of(3L, 2L, 1L), index.search("kitchen", "john@example.com", List.of()));
+        Assertions.assertEquals(List.of(2L, 1L), index.search("kitchen", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void search_EmptySearch_EveryVisibleRecord() {
+        Assertions.assertEquals(List.of(2L, 1L), index.search("", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void search_Tags_RecordsWithEveryTag() {
+        Assertions.assertEquals(List.of(2L, 1L), index.search("", "jane@example.com", List.of("Plumbing")));
+        Assertions.assertEquals(List.of(1L), index.search("", "jane@example.com", List.of("plumbing", "tiling")));
+        Assertions.assertEquals(List.of(2L), index.search("bath", "jane@example.com", List.of("plumbing")));
+    }
+
+    @Test
+    public void search_NoMatch_Empty() {
+        Assertions.assertEquals(List.of(), index.search("roof", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(), index.search("kitchen", "jane@example.com", List.of("roofing")));
+    }
+
+    @Test
+    public void index_RecordEdited_OldWordsNoLongerMatch() {
+        RenovationRecord record = new RenovationRecord("Laundry", "Fresh paint", List.of(), "jane@example.com");
+        record.setId(1L);
+        record.setIsPublic(false);
+        record.addTag(new Tag("painting"));
+        index.index(record);
+
+        Assertions.assertEquals(List.of(2L), index.search("kitchen", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(1L), index.search("laund", "jane@example.com", List.of("painting")));
+        Assertions.assertEquals(List.of(), index.search("laundry", "john@example.com", List.of()));
+    }
+
+    @Test
+    public void remove_RecordDeleted_NoLongerFound() {
+        index.remove(2L);
+        Assertions.assertEquals(List.of(1L), index.search("kitchen", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(1L), index.search("", "jane@example.com", List.of("plumbing")));
+    }
+
+    @Test
+    public void finishRebuild_RecordChangedDuringRebuild_ChangeKept() {
+        RenovationSearchIndex rebuilt = new RenovationSearchIndex();
+        rebuilt.startRebuild();
+        RenovationRecord record = new RenovationRecord("Deck", "Outdoor deck", List.of(), "jane@example.com");
+        record.setId(4L);
+        record.setIsPublic(true);
+        rebuilt.index(record);
+        rebuilt.remove(1L);
+        rebuilt.finishRebuild(List.of(
+                new RenovationSearchDocument(1L, "Kitchen Remodel", "New blue tiles", null, "jane@example.com", true)
+        ), Map.of());
+
+        Assertions.assertEquals(List.of(4L), rebuilt.search("", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void findRecordsWithTags_MatchAll_RecordsWithEveryTag() {
+        Assertions.assertEquals(List.of(1L), index.findRecordsWithTags(List.of("plumbing", "TILING"), true).toList());
+        Assertions.assertEquals(List.of(), index.findRecordsWithTags(List.of("plumbing", "painting"), true).toList());
+    }
+
+    @Test
+    public void findRecordsWithTags_MatchAny_RecordsWithAnyTag() {
+        Assertions.assertEquals(List.of(1L, 2L), index.findRecordsWithTags(List.of("tiling", "plumbing", "painting"), false).toList());
+    }
+
+    @Test
+    public void removeTag_TagDeleted_NoLongerFilters() {
+        index.removeTag("tiling");
+        Assertions.assertEquals(List.of(), index.search("", "jane@example.com", List.of("tiling")));
+        Assertions.assertEquals(List.of(2L, 1L), index.search("", "jane@example.com", List.of("plumbing")));
+    }
+
+    @Test
+    public void removeTag_TagDeleted_TagWordsNoLongerMatch() {
+        index.removeTag("tiling");
+        Assertions.assertEquals(List.of(), index.search("tiling", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(1L), index.search("tiles", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(2L, 1L), index.search("plumbing", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void removeTag_TagWordAlsoInDescription_RecordStillMatchesDescription() {
+        RenovationRecord record = new RenovationRecord("Deck", "Needs painting", List.of(), "jane@example.com");
+        record.setId(4L);
+        record.setIsPublic(true);
+        record.addTag(new Tag("painting"));
+        index.index(record);
+
+        index.removeTag("painting");
+
+        Assertions.assertEquals(List.of(4L), index.search("painting", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(), index.search("", "jane@example.com", List.of("painting")));
+    }
+
+    @Test
+    public void onEntityChanged_RecordSaved_RecordIndexed() {
+        RenovationRecord record = new RenovationRecord("Deck", "Outdoor deck", List.of(), "jane@example.com");
+        record.setId(4L);
+        record.setIsPublic(true);
+
+        index.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, false));
+
+        Assertions.assertEquals(List.of(4L), index.search("deck", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void onEntityChanged_RecordRemoved_NoLongerFound() {
+        RenovationRecord record = new RenovationRecord("Bathroom", "Blue bath and kitchenette", List.of(), "john@example.com");
+        record.setId(2L);
+
+        index.onEntityChanged(new EntityChangedEvent(RenovationRecord.class, record, true));
+
+        Assertions.assertEquals(List.of(1L), index.search("kitchen", "jane@example.com", List.of()));
+    }
+
+    @Test
+    public void onEntityChanged_TagRemoved_TagRemovedFromRecords() {
+        index.onEntityChanged(new EntityChangedEvent(Tag.class, new Tag("plumbing"), true));
+
+        Assertions.assertEquals(List.of(), index.search("plumbing", "jane@example.com", List.of()));
+        Assertions.assertEquals(List.of(1L), index.search("", "jane@example.com", List.of("tiling")));
+    }
+}
@@ -0,0 +1,72 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.RequestCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestCacheTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private String lookup() {
+        lookups.incrementAndGet();
+        return "value";
+    }
+
+    @Test
+    public void get_InsideRequest_LookedUpOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Assertions.assertEquals("value", RequestCache.get("key", this::lookup));
+        Assertions.assertEquals("value", RequestCache.get("key", this::lookup));
+        Assertions.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void get_NullValueInsideRequest_LookedUpOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Assertions.assertNull(RequestCache.get("key", () -> { lookups.incrementAndGet(); return null; }));
+        Assertions.assertNull(RequestCache.get("key", () -> { lookups.incrementAndGet(); return null; }));
+        Assertions.assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void get_OutsideRequest_LookedUpEveryTime() {
+        RequestCache.get("key", this::lookup);
+        RequestCache.get("key", this::lookup);
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void get_DifferentRequests_LookedUpInEachRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestCache.get("key", this::lookup);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestCache.get("key", this::lookup);
+        Assertions.assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void evict_KeyHasPrefix_LookedUpAgain() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RequestCache.get("user:a", this::lookup);
+        RequestCache.get("other", this::lookup);
+
+        RequestCache.evict("user:");
+        RequestCache.get("user:a", this::lookup);
+        RequestCache.get("other", this::lookup);
+        Assertions.assertEquals(3, lookups.get());
+    }
+}
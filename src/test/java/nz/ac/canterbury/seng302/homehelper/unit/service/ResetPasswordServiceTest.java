@@ -1,6 +1,9 @@
 package nz.ac.canterbury.seng302.homehelper.unit.service;
 
+import nz.ac.canterbury.seng302.homehelper.entity.User;
 import nz.ac.canterbury.seng302.homehelper.repository.ResetPasswordTokenRepository;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
+import nz.ac.canterbury.seng302.homehelper.service.FieldValidationException;
 import nz.ac.canterbury.seng302.homehelper.service.ResetPasswordService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,7 +13,6 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.scheduling.TaskScheduler;
 
 import java.util.List;
 import java.util.stream.Stream;
@@ -19,27 +21,27 @@ import java.util.stream.Stream;
 public class ResetPasswordServiceTest {
     @Mock
     public ResetPasswordTokenRepository resetPasswordTokenRepository;
-    @Mock
-    public TaskScheduler taskScheduler;
     @InjectMocks
     public ResetPasswordService resetPasswordService;
 
     static Stream<Arguments> expectedErrorMessages() {
         return Stream.of(
-                Arguments.of(ResetPasswordService.NEW_PASSWORD_INVALID,
+                Arguments.of("password", "password",
                         ResetPasswordService.NEW_PASSWORD_INVALID, ""),
-                Arguments.of(ResetPasswordService.PASSWORDS_DONT_MATCH,
+                Arguments.of("P4$$word", "P4$$w0rd",
                         "", ResetPasswordService.PASSWORDS_DONT_MATCH),
-                Arguments.of(ResetPasswordService.NEW_PASSWORD_INVALID +
-                                ResetPasswordService.PASSWORDS_DONT_MATCH,
+                Arguments.of("password", "passw0rd",
                         ResetPasswordService.NEW_PASSWORD_INVALID, ResetPasswordService.PASSWORDS_DONT_MATCH)
         );
     }
     @ParameterizedTest
     @MethodSource("expectedErrorMessages")
-    public void getErrorMessages_AllErrorMessagesStringProvided_CorrectSeparateErrorMessagesReturned
-            (String allErrorMessages, String newPasswordErrorMessage, String retypePasswordErrorMessage) {
-        List<String> errorMessages = resetPasswordService.getErrorMessages(allErrorMessages);
+    public void getErrorMessages_InvalidPasswords_CorrectSeparateErrorMessagesReturned
+            (String newPassword, String retypePassword, String newPasswordErrorMessage, String retypePasswordErrorMessage) {
+        User user = new User("John", "Doe", "john@example.com", "Qwertyuiop1!", null, null);
+        FieldValidationException exception = Assertions.assertThrows(FieldValidationException.class,
+                () -> resetPasswordService.validatePasswords(user, newPassword, retypePassword));
+        List<String> errorMessages = resetPasswordService.getErrorMessages(FieldErrors.of(exception));
 
         Assertions.assertEquals(newPasswordErrorMessage, errorMessages.get(0));
         Assertions.assertEquals(retypePasswordErrorMessage, errorMessages.get(1));
@@ -0,0 +1,23 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
+
+/**
+ * Builds the field errors a service is expected to report, for the service tests
+ */
+final class TestFieldErrors {
+
+    private TestFieldErrors() {}
+
+    /**
+     * @param fieldsAndMessages field names each followed by a message for that field, in the order they are added
+     * @return errors holding the given messages
+     */
+    static FieldErrors of(String... fieldsAndMessages) {
+        FieldErrors errors = new FieldErrors();
+        for (int i = 0; i < fieldsAndMessages.length; i += 2) {
+            errors.add(fieldsAndMessages[i], fieldsAndMessages[i + 1]);
+        }
+        return errors;
+    }
+}
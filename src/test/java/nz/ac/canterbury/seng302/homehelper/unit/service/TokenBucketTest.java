@@ -0,0 +1,47 @@
+package nz.ac.canterbury.seng302.homehelper.unit.service;
+
+import nz.ac.canterbury.seng302.homehelper.service.TokenBucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), now::get);
+
+    @Test
+    public void tryAcquire_BurstUpToCapacity_ThenEmpty() {
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tryAcquire_RefillPeriodPassed_TokenAvailableAgain() {
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        Assertions.assertFalse(bucket.tryAcquire());
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        Assertions.assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void tryAcquire_LongIdle_RefillsOnlyUpToCapacity() {
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void timeUntilNextToken_BucketEmpty_TimeLeftInRefill() {
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+        now.addAndGet(Duration.ofMillis(400).toNanos());
+        Assertions.assertEquals(Duration.ofMillis(600), bucket.timeUntilNextToken());
+    }
+}
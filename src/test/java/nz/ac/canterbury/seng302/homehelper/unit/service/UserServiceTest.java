@@ -1,10 +1,14 @@
 package nz.ac.canterbury.seng302.homehelper.unit.service;
 
 import nz.ac.canterbury.seng302.homehelper.entity.*;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieJobRow;
+import nz.ac.canterbury.seng302.homehelper.entity.dto.TradieStats;
 import nz.ac.canterbury.seng302.homehelper.repository.QuoteRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RecentRenovationRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.RenovationRecordRepository;
 import nz.ac.canterbury.seng302.homehelper.repository.UserRepository;
+import nz.ac.canterbury.seng302.homehelper.service.FieldErrors;
+import nz.ac.canterbury.seng302.homehelper.service.FieldValidationException;
 import nz.ac.canterbury.seng302.homehelper.service.RenovationRecordService;
 import nz.ac.canterbury.seng302.homehelper.service.UserService;
 import nz.ac.canterbury.seng302.homehelper.service.ValidationService;
@@ -17,14 +21,16 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
-import org.springframework.scheduling.TaskScheduler;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -45,8 +51,6 @@ public class UserServiceTest {
     public ValidationService validationService;
     @Mock
     public RenovationRecordService renovationRecordService;
-    @Mock
-    public TaskScheduler taskScheduler;
     @InjectMocks
     public UserService userService;
 
@@ -80,42 +84,71 @@ public class UserServiceTest {
         assertEquals("P4$$word", user.getPassword());
     }
 
+    @Test
+    public void addUser_NotVerified_VerificationExpiresInTenMinutes() {
+        User unverified = new User("John", "Doe", "john@example.com", "P4$$word", null, "123456");
+        LocalDateTime before = LocalDateTime.now();
+        userService.addUser(unverified);
+
+        Assertions.assertFalse(unverified.getVerificationExpiresAt().isBefore(before.plus(UserService.VERIFICATION_TIME_TO_LIVE)));
+        unverified.setUserVerifyCodeNull();
+        Assertions.assertNull(unverified.getVerificationExpiresAt());
+    }
+
+    @Test
+    public void addUser_NoVerificationCode_NoExpiry() {
+        userService.addUser(testUser);
+        Assertions.assertNull(testUser.getVerificationExpiresAt());
+    }
+
+    @Test
+    public void removeExpiredUnverifiedUsers_ExpiredUsersFound_UsersDeleted() {
+        LocalDateTime now = LocalDateTime.now();
+        when(userRepository.findExpiredUnverified(now, PageRequest.of(0, 2))).thenReturn(List.of(testUser, testUser2));
+
+        assertEquals(2, userService.removeExpiredUnverifiedUsers(now, 2));
+        verify(userRepository).deleteAll(List.of(testUser, testUser2));
+    }
+
     static Stream<Arguments> expectedErrorMessages() {
+        String firstName = UserService.FIRST_NAME_FIELD;
+        String lastName = UserService.LAST_NAME_FIELD;
+        String email = UserService.EMAIL_FIELD;
         return Stream.of(
-                Arguments.of(UserService.FIRST_NAME_EMPTY,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_EMPTY),
                         UserService.FIRST_NAME_EMPTY, "", "", "", ""),
-                Arguments.of(UserService.FIRST_NAME_EMPTY +
-                                UserService.FIRST_NAME_INVALID_CHARS +
-                                UserService.FIRST_NAME_OVER_64_CHARS,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_OVER_64_CHARS,
+                                firstName, UserService.FIRST_NAME_INVALID_CHARS,
+                                firstName, UserService.FIRST_NAME_EMPTY),
                         UserService.FIRST_NAME_OVER_64_CHARS, "", "", "", ""),
-                Arguments.of(UserService.FIRST_NAME_INVALID_CHARS +
-                                UserService.LAST_NAME_INVALID_CHARS +
-                                UserService.LAST_NAME_OVER_64_CHARS,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_INVALID_CHARS,
+                                lastName, UserService.LAST_NAME_OVER_64_CHARS,
+                                lastName, UserService.LAST_NAME_INVALID_CHARS),
                         UserService.FIRST_NAME_INVALID_CHARS, UserService.LAST_NAME_OVER_64_CHARS, "", "", ""),
-                Arguments.of(UserService.FIRST_NAME_INVALID_CHARS +
-                                UserService.LAST_NAME_INVALID_CHARS +
-                                UserService.EMAIL_INVALID,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_INVALID_CHARS,
+                                lastName, UserService.LAST_NAME_INVALID_CHARS,
+                                email, UserService.EMAIL_INVALID),
                         UserService.FIRST_NAME_INVALID_CHARS, UserService.LAST_NAME_INVALID_CHARS, UserService.EMAIL_INVALID, "", ""),
-                Arguments.of(UserService.FIRST_NAME_INVALID_CHARS +
-                                UserService.LAST_NAME_INVALID_CHARS +
-                                UserService.EMAIL_EXISTS,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_INVALID_CHARS,
+                                lastName, UserService.LAST_NAME_INVALID_CHARS,
+                                email, UserService.EMAIL_EXISTS),
                         UserService.FIRST_NAME_INVALID_CHARS, UserService.LAST_NAME_INVALID_CHARS, UserService.EMAIL_EXISTS, "", ""),
-                Arguments.of(UserService.FIRST_NAME_INVALID_CHARS +
-                                UserService.LAST_NAME_INVALID_CHARS +
-                                UserService.EMAIL_EXISTS +
-                                UserService.PASSWORD_INVALID +
-                                UserService.PASSWORDS_DONT_MATCH,
+                Arguments.of(TestFieldErrors.of(firstName, UserService.FIRST_NAME_INVALID_CHARS,
+                                lastName, UserService.LAST_NAME_INVALID_CHARS,
+                                email, UserService.EMAIL_EXISTS,
+                                UserService.PASSWORD_FIELD, UserService.PASSWORD_INVALID,
+                                UserService.SECOND_PASSWORD_FIELD, UserService.PASSWORDS_DONT_MATCH),
                         UserService.FIRST_NAME_INVALID_CHARS, UserService.LAST_NAME_INVALID_CHARS, UserService.EMAIL_EXISTS,
                         UserService.PASSWORD_INVALID, UserService.PASSWORDS_DONT_MATCH)
         );
     }
     @ParameterizedTest
     @MethodSource("expectedErrorMessages")
-    public void getErrorMessages_AllErrorMessagesStringProvided_CorrectSeparateErrorMessagesReturned
-            (String allErrorMessages, String firstNameErrorMessage, String lastNameErrorMessage,
+    public void getErrorMessages_FieldErrorsProvided_CorrectSeparateErrorMessagesReturned
+            (FieldErrors errors, String firstNameErrorMessage, String lastNameErrorMessage,
              String emailErrorMessage, String passwordErrorMessage, String secondPasswordErrorMessage) {
 
-        List<String> errorMessages = userService.getErrorMessages(allErrorMessages);
+        List<String> errorMessages = userService.getErrorMessages(errors);
 
         assertEquals(firstNameErrorMessage, errorMessages.get(0));
         assertEquals(lastNameErrorMessage, errorMessages.get(1));
@@ -124,6 +157,18 @@ public class UserServiceTest {
         assertEquals(secondPasswordErrorMessage, errorMessages.get(4));
     }
 
+    @Test
+    public void validateUser_NameTooLongAndInvalid_TooLongShownForField() {
+        // The mocked validation service returns false from every check
+        FieldValidationException exception = Assertions.assertThrows(FieldValidationException.class,
+                () -> userService.validateUser("email", "first", "last", null));
+        List<String> errorMessages = userService.getErrorMessages(exception.getFieldErrors());
+
+        assertEquals(UserService.FIRST_NAME_OVER_64_CHARS, errorMessages.get(0));
+        assertEquals(UserService.LAST_NAME_OVER_64_CHARS, errorMessages.get(1));
+        assertEquals(UserService.EMAIL_INVALID, errorMessages.get(2));
+    }
+
     @Test
     public void generateValidationCode_GenerateTwoCodes_HaveSameLength() {
         when(userRepository.findVerificationCodeByVerificationCode(Mockito.any())).thenReturn(null);
@@ -371,103 +416,36 @@ public class UserServiceTest {
 
     @Test
     public void getHottestTradies_BlueSkyScenario() {
-        User dumbledore = new User("dumbledore", "dumbledore", "hogwarts@gmail.com", "dumbledore", "dumbledore", "dumbledore");
         User harry2 = new User("harry2", "potter", "harrypotter", "potter", "potter", "potter");
         User harry3 = new User("harry3", "potter", "harrypotter", "potter", "potter", "potter");
-        User harry4 = new User("harry4", "potter", "harrypotter", "potter", "potter", "potter");
-        User harry5 = new User("harry5", "potter", "harrypotter", "potter", "potter", "potter");
-        dumbledore.setId(1L);
         harry2.setId(2L);
         harry3.setId(3L);
-        harry4.setId(4L);
-        harry5.setId(5L);
-        RenovationRecord hogwarts = new RenovationRecord();
-        hogwarts.setId(1L);
-        hogwarts.setUserEmail("hogwarts@gmail.com");
-        Job hogwartsJob = new Job(null, null, null, null);
-        hogwartsJob.setId(1L);
-        hogwartsJob.setStatus("Completed");
-        Job hogwartsJob2 = new Job(null, null, null, null);
-        hogwartsJob2.setId(2L);
-        hogwartsJob2.setStatus("Completed");
-        Job hogwartsJob3 = new Job(null, null, null, null);
-        hogwartsJob3.setId(3L);
-        hogwartsJob3.setStatus("Completed");
-        Job hogwartsJob4 = new Job(null, null, null, null);
-        hogwartsJob4.setId(4L);
-        hogwartsJob4.setStatus("Completed");
-        hogwartsJob4.setRenovationRecord(hogwarts);
-        hogwartsJob2.setRenovationRecord(hogwarts);
-        hogwartsJob3.setRenovationRecord(hogwarts);
-
-        Quote hogwartsQuote1 = new Quote(null, null, null, null, null);
-        hogwartsQuote1.setId(1L);
-        hogwartsQuote1.setJob(hogwartsJob);
-        hogwartsQuote1.setStatus("Accepted");
-        Quote hogwartsQuote2 = new Quote(null, null, null, null, null);
-        hogwartsQuote2.setId(2L);
-        hogwartsQuote2.setJob(hogwartsJob);
-        hogwartsQuote2.setStatus("Accepted");
-        Quote hogwartsQuote3 = new Quote(null, null, null, null, null);
-        hogwartsQuote3.setId(3L);
-        hogwartsQuote3.setJob(hogwartsJob2);
-        hogwartsQuote3.setStatus("Accepted");
-        Quote hogwartsQuote4 = new Quote(null, null, null, null, null);
-        hogwartsQuote4.setId(4L);
-        hogwartsQuote4.setJob(hogwartsJob);
-        hogwartsQuote4.setStatus("Accepted");
-        Quote hogwartsQuote5 = new Quote(null, null, null, null, null);
-        hogwartsQuote5.setId(5L);
-        hogwartsQuote5.setJob(hogwartsJob2);
-        hogwartsQuote5.setStatus("Accepted");
-        Quote hogwartsQuote6 = new Quote(null, null, null, null, null);
-        hogwartsQuote6.setId(6L);
-        hogwartsQuote6.setJob(hogwartsJob3);
-        hogwartsQuote6.setStatus("Accepted");
-        Quote hogwartsQuote7 = new Quote(null, null, null, null, null);
-        hogwartsQuote7.setId(7L);
-        hogwartsQuote7.setJob(hogwartsJob);
-        hogwartsQuote7.setStatus("Accepted");
-        Quote hogwartsQuote8 = new Quote(null, null, null, null, null);
-        hogwartsQuote8.setId(8L);
-        hogwartsQuote8.setJob(hogwartsJob2);
-        hogwartsQuote8.setStatus("Accepted");
-        Quote hogwartsQuote9 = new Quote(null, null, null, null, null);
-        hogwartsQuote9.setId(9L);
-        hogwartsQuote9.setJob(hogwartsJob3);
-        hogwartsQuote9.setStatus("Accepted");
-        Quote hogwartsQuote10 = new Quote(null, null, null, null, null);
-        hogwartsQuote10.setId(10L);
-        hogwartsQuote10.setJob(hogwartsJob4);
-        hogwartsQuote10.setStatus("Accepted");
-
-        hogwartsQuote1.setUser(harry2);
-        hogwartsQuote2.setUser(harry3);
-        hogwartsQuote3.setUser(harry3);
-        hogwartsQuote4.setUser(harry4);
-        hogwartsQuote5.setUser(harry4);
-        hogwartsQuote6.setUser(harry4);
-        hogwartsQuote7.setUser(harry5);
-        hogwartsQuote8.setUser(harry5);
-        hogwartsQuote9.setUser(harry5);
-        hogwartsQuote10.setUser(harry5);
-        harry2.setQuotes(new ArrayList<>(List.of(hogwartsQuote1)));
-        harry3.setQuotes(new ArrayList<>(List.of(hogwartsQuote2, hogwartsQuote3)));
-        harry4.setQuotes(new ArrayList<>(List.of(hogwartsQuote4, hogwartsQuote5, hogwartsQuote6)));
-        harry5.setQuotes(new ArrayList<>(List.of(hogwartsQuote7, hogwartsQuote8, hogwartsQuote9, hogwartsQuote10)));
-
-        List<User> mockedTradies = List.of(
-                dumbledore, harry5, harry4, harry2, harry3
-        ) ;
-
-        List<User> expectedTradies = List.of(
-                harry5, harry4, harry3, harry2, dumbledore
-        ) ;
-        Mockito.when(userRepository.findAllQuoteSenders()).thenReturn(mockedTradies);
+        List<User> expectedTradies = List.of(harry3, harry2);
+        Mockito.when(userRepository.findTopQuoteSenders(PageRequest.of(0, 5))).thenReturn(expectedTradies);
 
         assertEquals(expectedTradies, userService.getHottestTradies());
     }
 
+    @Test
+    public void updateAcceptedQuoteCount_QuoteAccepted_CountUpdated() {
+        userService.updateAcceptedQuoteCount(2L, 1);
+        verify(userRepository).updateAcceptedQuoteCount(2L, 1);
+    }
+
+    @Test
+    public void getTradieStats_RowsForTwoTradies_StatsAggregatedPerTradie() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        when(userRepository.findTradieJobRows(List.of(1L, 2L))).thenReturn(List.of(
+                new TradieJobRow(1L, 2, 9, 10L, start, start.plusDays(10), start.plusDays(5)),
+                new TradieJobRow(1L, 2, 9, 11L, start, start.plusDays(10), start.plusDays(15)),
+                new TradieJobRow(2L, 0, 0, null, null, null, null)));
+
+        Map<Long, TradieStats> stats = userService.getTradieStats(List.of(1L, 2L, 1L));
+
+        assertEquals(new TradieStats(1L, 2, 1.0, 4.5), stats.get(1L));
+        assertEquals(TradieStats.empty(2L), stats.get(2L));
+    }
+
     @Test
     public void getUsersWorkEfficiency_NoCompletedJobs_ReturnsZero() {
         doReturn(Collections.emptyList()).when(spyUserService).getCompletedJobsUserHasWorkedOn(testUser2.getId());
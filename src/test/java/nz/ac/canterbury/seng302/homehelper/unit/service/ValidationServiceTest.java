@@ -642,6 +642,18 @@ public class ValidationServiceTest {
         Assertions.assertFalse(validationService.dateInTheFuture(todayDateString));
     }
 
+    @Test
+    void dateInThePast_DateDoesNotExist_ParseExceptionThrown() {
+        Assertions.assertThrows(ParseException.class, () -> validationService.dateInThePast("29/02/2025"));
+        Assertions.assertThrows(ParseException.class, () -> validationService.dateInThePast("31/04/2024"));
+    }
+
+    @Test
+    void dateAfterAnotherDate_LeapDay_ComparedAsDates() throws ParseException {
+        Assertions.assertTrue(validationService.dateAfterAnotherDate("01/03/2024", "29/02/2024"));
+        Assertions.assertFalse(validationService.dateAfterAnotherDate("29/02/2024", "29/02/2024"));
+    }
+
     static Stream<String> validPhoneNumbers() {
         return Stream.of(
             "1234567890",